@@ -15,6 +15,12 @@ android {
         versionName = "1.0"
 
         testInstrumentationRunner = "androidx.test.runner.AndroidJUnitRunner"
+
+        javaCompileOptions {
+            annotationProcessorOptions {
+                arguments += mapOf("room.schemaLocation" to "$projectDir/schemas")
+            }
+        }
     }
 
     buildTypes {
@@ -40,6 +46,10 @@ android {
         getByName("main") {
             assets.srcDirs("src/main/assets")
         }
+        // Exported Room schemas, for migration tests
+        getByName("androidTest") {
+            assets.srcDirs("$projectDir/schemas")
+        }
     }
     packagingOptions {
         exclude("META-INF/DEPENDENCIES")
@@ -93,10 +103,15 @@ dependencies {
 
     // Glide
     implementation(libs.glide)
+    implementation(libs.glide.recyclerview) {
+        // Keep the RecyclerView version the rest of the app resolves
+        isTransitive = false
+    }
     annotationProcessor(libs.glide.compiler)
 
     // Testing
     testImplementation(libs.junit)
     androidTestImplementation(libs.ext.junit)
     androidTestImplementation(libs.espresso.core)
+    androidTestImplementation(libs.room.testing)
 }
\ No newline at end of file
@@ -0,0 +1,213 @@
+package com.example.gadgetinventory.data.dao;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.example.gadgetinventory.data.database.GadgetDatabase;
+import com.example.gadgetinventory.data.query.GadgetQuery;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+/**
+ * Runs EXPLAIN QUERY PLAN for the DAO queries and fails when SQLite falls back to a full
+ * table scan. The statements are the constants the DAO annotations use, so the plans
+ * checked are those of the real queries. SQLite binds {@code :name} parameters itself, in
+ * order of first use; a list parameter such as {@code IN (:ids)} takes a single value here.
+ */
+@RunWith(AndroidJUnit4.class)
+public class GadgetDaoQueryPlanTest {
+    // "SCAN TABLE gadgets" (older SQLite) or "SCAN gadgets" without a USING INDEX clause
+    private static final Pattern FULL_SCAN = Pattern.compile("^SCAN (TABLE )?gadgets( AS \\w+)?$");
+
+    private static final Pattern SNAPSHOTS_FULL_SCAN = Pattern.compile("^SCAN (TABLE )?value_snapshots( AS \\w+)?$");
+
+    private static final Pattern GADGETS_TABLE = Pattern.compile("\\bgadgets\\b");
+
+    private GadgetDatabase database;
+
+    @Before
+    public void createDatabase() {
+        Context context = ApplicationProvider.getApplicationContext();
+        database = GadgetDatabase.configure(
+                Room.inMemoryDatabaseBuilder(context, GadgetDatabase.class)).build();
+    }
+
+    @After
+    public void closeDatabase() {
+        database.close();
+    }
+
+    @Test
+    public void loadGadgetRows_usesNameIndex() {
+        assertNoFullScan(GadgetDao.GADGET_ROWS);
+    }
+
+    @Test
+    public void loadGadgetRowsByIds_usesPrimaryKey() {
+        assertNoFullScan(GadgetDao.GADGET_ROWS_BY_IDS, 1L);
+    }
+
+    @Test
+    public void findGadgetById_usesPrimaryKey() {
+        assertNoFullScan(GadgetDao.GADGET_BY_ID, 1L);
+    }
+
+    @Test
+    public void getPageAfter_usesPrimaryKeyRange() {
+        assertNoFullScan(GadgetDao.PAGE_AFTER, 0L, 500);
+    }
+
+    @Test
+    public void getThumbnailSourcesAfter_usesPrimaryKeyRange() {
+        assertNoFullScan(GadgetDao.THUMBNAIL_SOURCES_AFTER, 0L, 500);
+        assertNoFullScan(GadgetDao.MISSING_THUMBNAILS_AFTER, 0L, 500);
+    }
+
+    @Test
+    public void imageHashQueries_useImageHashIndexOrPrimaryKey() {
+        assertNoFullScan(GadgetDao.IMAGE_HASHES);
+        assertNoFullScan(GadgetDao.IMAGE_HASHES_BY_IDS, 1L);
+    }
+
+    @Test
+    public void purgeQueries_usePrimaryKeyRange() {
+        assertNoFullScan(GadgetDao.DELETE_ID_RANGE, 0L, 500L);
+        assertNoFullScan(GadgetDao.IMAGE_URIS_AFTER, 500L);
+    }
+
+    @Test
+    public void syncQueries_usePrimaryKeyOrSyncIdIndex() {
+        assertNoFullScan(SyncDao.DIRTY_AFTER, 0L, 200);
+        assertNoFullScan(SyncDao.BY_SYNC_ID, "abc");
+        assertNoFullScan(SyncDao.MARK_SYNCED, 1L, "abc");
+    }
+
+    @Test
+    public void searchGadgetRows_usesNameAndModelIndexes() {
+        assertNoFullScan(GadgetDao.SEARCH_GADGET_ROWS, "pho%");
+    }
+
+    @Test
+    public void gadgetQueryFilters_useIndexes() {
+        assertNoFullScan(new GadgetQuery.Builder().conditions("Good").build());
+        assertNoFullScan(new GadgetQuery.Builder().valueBetween(100, 500).build());
+        assertNoFullScan(new GadgetQuery.Builder().conditions("Good", "Fair").valueBetween(100, 500)
+                .sortBy(GadgetQuery.SortField.VALUE, true).build());
+        assertNoFullScan(new GadgetQuery.Builder().purchasedBetween(new Date(0), new Date(86400000L))
+                .sortBy(GadgetQuery.SortField.PURCHASE_DATE, false).sortBy(GadgetQuery.SortField.NAME, false).build());
+        assertNoFullScan(new GadgetQuery.Builder().model("Pixel 7").valueBetween(null, 500.0).build());
+    }
+
+    @Test
+    public void serialNumberLookups_useSerialIndex() {
+        assertNoFullScan(GadgetDao.BY_SERIAL_NUMBER, "SN-1");
+        assertNoFullScan(GadgetDao.TAKEN_SERIAL_NUMBERS, "SN-1");
+    }
+
+    @Test
+    public void stockTakeReconciliation_seeksInsteadOfComparingEveryPair() {
+        assertUsesIndex(StockTakeDao.MATCHED, "index_gadgets_serialNumber");
+        assertUsesIndex(StockTakeDao.UNEXPECTED, "index_gadgets_serialNumber");
+        assertUsesIndex(StockTakeDao.MISSING, "sqlite_autoindex_stocktake_scans_1");
+    }
+
+    @Test
+    public void inventoryAggregates_readOnlySummaryTable() {
+        assertDoesNotReadGadgets(InventorySummaryDao.TOTAL_VALUE);
+        assertDoesNotReadGadgets(InventorySummaryDao.GADGET_COUNT);
+        assertDoesNotReadGadgets(InventorySummaryDao.CONDITION_SUMMARIES);
+        assertDoesNotReadGadgets(InventorySummaryDao.VALUE_BY_PURCHASE_YEAR);
+    }
+
+    @Test
+    public void valueSnapshotQueries_usePeriodRange() {
+        assertNoSnapshotScan(ValueSnapshotDao.TOTALS_BEFORE, 20000L);
+        assertNoSnapshotScan(ValueSnapshotDao.SNAPSHOTS_BETWEEN, 20000L, 20100L);
+        assertNoSnapshotScan(ValueSnapshotDao.DELETE_BEFORE, 20000L, 0);
+    }
+
+    @Test
+    public void modelPriceQueries_usePrimaryKeys() {
+        assertDoesNotReadGadgets(ModelPriceDao.STATS_BY_MODEL, "pixel7");
+        assertDoesNotReadGadgets(ModelPriceDao.BUCKETS_BY_MODEL, "pixel7");
+    }
+
+    @Test
+    public void ownedCounts_readOnlyModelStats() {
+        assertDoesNotReadGadgets(ModelPriceDao.MODEL_COUNTS);
+    }
+
+    @Test
+    public void modelPriceTriggerLookups_useModelKeyIndex() {
+        // Run by the triggers when the cheapest or dearest gadget of a model goes away; the
+        // trigger SQL inlines them as subqueries, so they are spelled out here
+        assertNoFullScan("SELECT MIN(estimatedValue) FROM gadgets WHERE modelKey = ?", "pixel7");
+        assertNoFullScan("SELECT MAX(estimatedValue) FROM gadgets WHERE modelKey = ?", "pixel7");
+    }
+
+    private void assertNoSnapshotScan(String sql, Object... args) {
+        List<String> plan = explain(sql, args);
+        assertFalse("Empty query plan for: " + sql, plan.isEmpty());
+        for (String detail : plan) {
+            assertFalse("Full table scan in plan for: " + sql + "\n" + plan,
+                    SNAPSHOTS_FULL_SCAN.matcher(detail).matches());
+        }
+    }
+
+    private void assertDoesNotReadGadgets(String sql, Object... args) {
+        List<String> plan = explain(sql, args);
+        for (String detail : plan) {
+            assertFalse("Aggregate reads gadgets: " + sql + "\n" + plan,
+                    GADGETS_TABLE.matcher(detail).find());
+        }
+    }
+
+    private void assertUsesIndex(String sql, String index, Object... args) {
+        List<String> plan = explain(sql, args);
+        for (String detail : plan) {
+            if (detail.contains(index)) {
+                return;
+            }
+        }
+        fail("Expected " + index + " in plan for: " + sql + "\n" + plan);
+    }
+
+    private void assertNoFullScan(GadgetQuery query) {
+        assertNoFullScan(query.getSql(), query.getArgs());
+    }
+
+    private void assertNoFullScan(String sql, Object... args) {
+        List<String> plan = explain(sql, args);
+        assertFalse("Empty query plan for: " + sql, plan.isEmpty());
+        for (String detail : plan) {
+            assertFalse("Full table scan in plan for: " + sql + "\n" + plan,
+                    FULL_SCAN.matcher(detail).matches());
+        }
+    }
+
+    private List<String> explain(String sql, Object... args) {
+        List<String> details = new ArrayList<>();
+        try (Cursor cursor = database.query("EXPLAIN QUERY PLAN " + sql, args)) {
+            int detailColumn = cursor.getColumnIndexOrThrow("detail");
+            while (cursor.moveToNext()) {
+                details.add(cursor.getString(detailColumn));
+            }
+        }
+        return details;
+    }
+}
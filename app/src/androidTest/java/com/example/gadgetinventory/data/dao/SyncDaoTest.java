@@ -0,0 +1,77 @@
+package com.example.gadgetinventory.data.dao;
+
+import android.content.Context;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.example.gadgetinventory.data.database.GadgetDatabase;
+import com.example.gadgetinventory.data.entity.GadgetEntity;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Date;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Applies pulled changes with {@link SyncDao#applyRemote} over a row whose photo was taken
+ * on this device and never shared.
+ */
+@RunWith(AndroidJUnit4.class)
+public class SyncDaoTest {
+    private static final String LOCAL_PHOTO = "content://media/external/images/media/42";
+
+    private GadgetDatabase database;
+    private SyncDao syncDao;
+    private long id;
+
+    @Before
+    public void createDatabase() {
+        Context context = ApplicationProvider.getApplicationContext();
+        database = GadgetDatabase.configure(
+                Room.inMemoryDatabaseBuilder(context, GadgetDatabase.class)).build();
+        syncDao = database.syncDao();
+        GadgetEntity gadget = new GadgetEntity("Phone", "Pixel 7", "Good", new Date(0), 300, LOCAL_PHOTO);
+        gadget.setSyncId("sync-1");
+        gadget.setThumbnailKey("thumb-42");
+        gadget.setImageHash(7L);
+        gadget.setUpdatedAt(1000);
+        gadget.setSyncedAt(1000);
+        id = syncDao.insert(gadget);
+    }
+
+    @After
+    public void closeDatabase() {
+        database.close();
+    }
+
+    @Test
+    public void applyRemote_withoutPhotoHash_keepsLocalPhoto() {
+        syncDao.applyRemote(id, "Phone", "Pixel 7", GadgetEntity.modelKeyOf("Pixel 7"), "Fair",
+                new Date(0), 250, null, null, 2000);
+
+        GadgetEntity gadget = syncDao.findBySyncId("sync-1");
+        assertEquals("Fair", gadget.getCondition());
+        assertEquals(LOCAL_PHOTO, gadget.getImageUri());
+        assertEquals("thumb-42", gadget.getThumbnailKey());
+        assertEquals(Long.valueOf(7L), gadget.getImageHash());
+    }
+
+    @Test
+    public void applyRemote_withNewPhoto_dropsThumbnailAndHash() {
+        String shared = "content://com.example.gadgetinventory.fileprovider/pictures/gadget_abc.jpg";
+        syncDao.applyRemote(id, "Phone", "Pixel 7", GadgetEntity.modelKeyOf("Pixel 7"), "Good",
+                new Date(0), 300, null, shared, 2000);
+
+        GadgetEntity gadget = syncDao.findBySyncId("sync-1");
+        assertEquals(shared, gadget.getImageUri());
+        assertNull(gadget.getThumbnailKey());
+        assertNull(gadget.getImageHash());
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.gadgetinventory.data.dao;
+
+import android.content.Context;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.example.gadgetinventory.data.database.GadgetDatabase;
+import com.example.gadgetinventory.data.entity.ValueSnapshotEntity;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Rolls up a week that starts in January 2024 and ends in February: Monday 2024-01-29 is
+ * epoch day 19751 and Thursday 2024-02-01 is epoch day 19754.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ValueSnapshotDaoTest {
+    private static final long MONDAY_JAN_29 = 19751;
+    private static final long JAN_1 = 19723;
+    private static final long FEB_1 = 19754;
+    private static final long MONDAY_FEB_5 = 19758;
+
+    private GadgetDatabase database;
+    private ValueSnapshotDao snapshotDao;
+
+    @Before
+    public void createDatabase() {
+        Context context = ApplicationProvider.getApplicationContext();
+        database = GadgetDatabase.configure(
+                Room.inMemoryDatabaseBuilder(context, GadgetDatabase.class)).build();
+        snapshotDao = database.valueSnapshotDao();
+        add(MONDAY_JAN_29 + 1, ValueSnapshotEntity.RESOLUTION_DAY, 1, 100);
+        add(FEB_1 + 1, ValueSnapshotEntity.RESOLUTION_DAY, 1, 50);
+        add(FEB_1 + 3, ValueSnapshotEntity.RESOLUTION_DAY, 2, 10);
+    }
+
+    @After
+    public void closeDatabase() {
+        database.close();
+    }
+
+    @Test
+    public void sumDaysByWeek_splitsWeekAtMonthStart() {
+        List<ValueSnapshotEntity> weeks = snapshotDao.sumDaysByWeek(MONDAY_FEB_5);
+        weeks.sort((a, b) -> Long.compare(a.getPeriodStart(), b.getPeriodStart()));
+
+        assertEquals(2, weeks.size());
+        assertEquals(MONDAY_JAN_29, weeks.get(0).getPeriodStart());
+        assertEquals(1, weeks.get(0).getItemCountChange());
+        assertEquals(100, weeks.get(0).getValueChange(), 0);
+        assertEquals(FEB_1, weeks.get(1).getPeriodStart());
+        assertEquals(3, weeks.get(1).getItemCountChange());
+        assertEquals(60, weeks.get(1).getValueChange(), 0);
+    }
+
+    @Test
+    public void sumWeeksByMonth_keepsFebruaryDaysOutOfJanuary() {
+        List<ValueSnapshotEntity> weeks = snapshotDao.sumDaysByWeek(MONDAY_FEB_5);
+        snapshotDao.deleteBefore(MONDAY_FEB_5, ValueSnapshotEntity.RESOLUTION_DAY);
+        for (ValueSnapshotEntity week : weeks) {
+            add(week.getPeriodStart(), ValueSnapshotEntity.RESOLUTION_WEEK,
+                    week.getItemCountChange(), week.getValueChange());
+        }
+
+        List<ValueSnapshotEntity> months = snapshotDao.sumWeeksByMonth(FEB_1);
+
+        assertEquals(1, months.size());
+        assertEquals(JAN_1, months.get(0).getPeriodStart());
+        assertEquals(1, months.get(0).getItemCountChange());
+        assertEquals(100, months.get(0).getValueChange(), 0);
+    }
+
+    private void add(long day, int resolution, long itemCountChange, double valueChange) {
+        snapshotDao.insertEmpty(day, "Good", resolution);
+        snapshotDao.addTo(day, "Good", resolution, itemCountChange, valueChange);
+    }
+}
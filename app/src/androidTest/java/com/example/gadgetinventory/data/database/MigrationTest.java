@@ -0,0 +1,114 @@
+package com.example.gadgetinventory.data.database;
+
+import android.database.Cursor;
+
+import androidx.room.testing.MigrationTestHelper;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs every {@link Migrations} step against the exported schema it starts from and checks
+ * the result matches the next exported schema, then the whole chain from version 1.
+ */
+@RunWith(AndroidJUnit4.class)
+public class MigrationTest {
+    private static final String TEST_DB = "migration-test";
+    private static final int FIRST_VERSION = 1;
+    private static final int LATEST_VERSION = 12;
+
+    @Rule
+    public MigrationTestHelper helper = new MigrationTestHelper(
+            InstrumentationRegistry.getInstrumentation(), GadgetDatabase.class);
+
+    @Test
+    public void migrate1To2() throws IOException {
+        assertMigrates(1);
+    }
+
+    @Test
+    public void migrate2To3() throws IOException {
+        assertMigrates(2);
+    }
+
+    @Test
+    public void migrate3To4() throws IOException {
+        assertMigrates(3);
+    }
+
+    @Test
+    public void migrate4To5() throws IOException {
+        assertMigrates(4);
+    }
+
+    @Test
+    public void migrate5To6() throws IOException {
+        assertMigrates(5);
+    }
+
+    @Test
+    public void migrate6To7() throws IOException {
+        assertMigrates(6);
+    }
+
+    @Test
+    public void migrate7To8() throws IOException {
+        assertMigrates(7);
+    }
+
+    @Test
+    public void migrate8To9() throws IOException {
+        assertMigrates(8);
+    }
+
+    @Test
+    public void migrate9To10() throws IOException {
+        assertMigrates(9);
+    }
+
+    @Test
+    public void migrate10To11() throws IOException {
+        assertMigrates(10);
+    }
+
+    @Test
+    public void migrate11To12() throws IOException {
+        assertMigrates(11);
+    }
+
+    @Test
+    public void migrate1ToLatest_keepsRows() throws IOException {
+        SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, FIRST_VERSION);
+        db.execSQL("INSERT INTO gadgets (name, model, condition, purchaseDate, estimatedValue, imageUri) "
+                + "VALUES ('Phone', 'Pixel 7', 'Good', 0, 300.0, '')");
+        db.close();
+
+        db = helper.runMigrationsAndValidate(TEST_DB, LATEST_VERSION, true, Migrations.ALL);
+        try (Cursor cursor = db.query("SELECT name, estimatedValue, modelKey, syncId FROM gadgets")) {
+            assertTrue(cursor.moveToFirst());
+            assertEquals("Phone", cursor.getString(0));
+            assertEquals(300.0, cursor.getDouble(1), 0.0);
+            assertEquals("pixel7", cursor.getString(2));
+            // Rows from before sync get a syncId so they are pushed on the first run
+            assertNotNull(cursor.getString(3));
+            assertEquals(1, cursor.getCount());
+        }
+        db.close();
+    }
+
+    private void assertMigrates(int fromVersion) throws IOException {
+        String name = TEST_DB + "-" + fromVersion;
+        helper.createDatabase(name, fromVersion).close();
+        helper.runMigrationsAndValidate(name, fromVersion + 1, true, Migrations.ALL).close();
+    }
+}
@@ -0,0 +1,388 @@
+package com.example.gadgetinventory.data.sync;
+
+import android.content.Context;
+import android.net.Uri;
+import android.util.JsonReader;
+import android.util.JsonWriter;
+
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.example.gadgetinventory.data.io.FileHashes;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Runs {@link HttpSyncTransport} against a minimal in-process stand-in for the sync server,
+ * covering the wire format, gzip in both directions, paging and content-addressed images.
+ */
+@RunWith(AndroidJUnit4.class)
+public class HttpSyncTransportTest {
+    private StandInServer server;
+    private HttpSyncTransport transport;
+    private File dir;
+
+    @Before
+    public void startServer() throws IOException {
+        server = new StandInServer();
+        transport = new HttpSyncTransport("http://127.0.0.1:" + server.getPort(), "device-a");
+        Context context = ApplicationProvider.getApplicationContext();
+        dir = new File(context.getCacheDir(), "sync-test");
+        dir.mkdirs();
+    }
+
+    @After
+    public void stopServer() throws IOException {
+        server.close();
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+    }
+
+    @Test
+    public void pushedChanges_arePulledBackInPages() throws IOException {
+        transport.push(Arrays.asList(
+                SyncChange.upsert("a", 10, "Phone", "X1", "Good", 1_600_000_000_000L, 199.5, "hash-a", "SN-1"),
+                SyncChange.upsert("b", 11, null, null, null, null, 0, null, null),
+                SyncChange.deletion("c", 12)));
+        assertTrue("Push body was not gzip-compressed", server.gzipBodies.get() > 0);
+        assertEquals("device-a", server.lastDevice);
+
+        SyncPage first = transport.pull(null, 2);
+        assertEquals(2, first.getChanges().size());
+        assertTrue(first.hasMore());
+        SyncChange phone = first.getChanges().get(0);
+        assertEquals("a", phone.getSyncId());
+        assertEquals(10, phone.getUpdatedAt());
+        assertEquals("Phone", phone.getName());
+        assertEquals(Long.valueOf(1_600_000_000_000L), phone.getPurchaseDate());
+        assertEquals(199.5, phone.getEstimatedValue(), 0);
+        assertEquals("hash-a", phone.getImageHash());
+        assertEquals("SN-1", phone.getSerialNumber());
+        assertNull(first.getChanges().get(1).getName());
+        assertNull(first.getChanges().get(1).getSerialNumber());
+        assertNull(first.getChanges().get(1).getPurchaseDate());
+
+        SyncPage second = transport.pull(first.getCursor(), 2);
+        assertEquals(1, second.getChanges().size());
+        assertTrue(second.getChanges().get(0).isDeleted());
+        assertFalse(second.hasMore());
+
+        SyncPage empty = transport.pull(second.getCursor(), 2);
+        assertTrue(empty.getChanges().isEmpty());
+    }
+
+    @Test
+    public void olderPush_doesNotReplaceNewerVersion() throws IOException {
+        transport.push(Collections.singletonList(SyncChange.upsert("a", 20, "New", null, null, null, 0, null, null)));
+        transport.push(Collections.singletonList(SyncChange.upsert("a", 10, "Old", null, null, null, 0, null, null)));
+
+        List<SyncChange> changes = transport.pull(null, 10).getChanges();
+        assertEquals("New", changes.get(changes.size() - 1).getName());
+    }
+
+    @Test
+    public void images_areUploadedOnceAndVerifiedOnDownload() throws IOException {
+        File photo = writeFile("photo.jpg", new byte[]{1, 2, 3, 4, 5});
+        String hash = FileHashes.sha256(photo);
+
+        Set<String> missing = transport.findMissingImages(Arrays.asList(hash, "other"));
+        assertEquals(new HashSet<>(Arrays.asList(hash, "other")), missing);
+        transport.uploadImage(hash, photo);
+        assertEquals(Collections.singleton("other"),
+                transport.findMissingImages(Arrays.asList(hash, "other")));
+
+        File target = new File(dir, "downloaded.jpg");
+        transport.downloadImage(hash, target);
+        assertArrayEquals(new byte[]{1, 2, 3, 4, 5}, readFile(target));
+
+        server.images.put("corrupt", new byte[]{9});
+        try {
+            transport.downloadImage("corrupt", new File(dir, "corrupt.jpg"));
+            fail("Expected a hash mismatch");
+        } catch (IOException expected) {
+            assertFalse(new File(dir, "corrupt.jpg").exists());
+        }
+    }
+
+    @Test
+    public void clientErrors_areNotRetried() {
+        int before = server.requests.get();
+        try {
+            transport.downloadImage("unknown", new File(dir, "unknown.jpg"));
+            fail("Expected 404");
+        } catch (IOException expected) {
+            assertEquals(before + 1, server.requests.get());
+        }
+    }
+
+    private File writeFile(String name, byte[] bytes) throws IOException {
+        File file = new File(dir, name);
+        try (OutputStream out = new FileOutputStream(file)) {
+            out.write(bytes);
+        }
+        return file;
+    }
+
+    private static byte[] readFile(File file) throws IOException {
+        try (InputStream in = new FileInputStream(file)) {
+            return readAll(in);
+        }
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            bytes.write(buffer, 0, read);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Just enough HTTP/1.1 for the sync protocol: one request per connection, chunked or
+     * fixed-length bodies, gzip request bodies, gzip JSON responses. Keeps the newest
+     * version per id and serves them in the order they were stored.
+     */
+    private static final class StandInServer implements Runnable {
+        final AtomicInteger requests = new AtomicInteger();
+        final AtomicInteger gzipBodies = new AtomicInteger();
+        final Map<String, byte[]> images = Collections.synchronizedMap(new HashMap<>());
+        private final List<SyncChange> log = new ArrayList<>();
+        private final Map<String, SyncChange> latest = new HashMap<>();
+        private final ServerSocket socket;
+        private final Thread thread;
+        volatile String lastDevice;
+
+        StandInServer() throws IOException {
+            socket = new ServerSocket(0, 16, InetAddress.getByName("127.0.0.1"));
+            thread = new Thread(this, "stand-in-sync-server");
+            thread.start();
+        }
+
+        int getPort() {
+            return socket.getLocalPort();
+        }
+
+        void close() throws IOException {
+            socket.close();
+        }
+
+        @Override
+        public void run() {
+            while (!socket.isClosed()) {
+                try (Socket connection = socket.accept()) {
+                    handle(connection);
+                } catch (IOException e) {
+                    // Socket closed by the test, or a client gave up
+                }
+            }
+        }
+
+        private void handle(Socket connection) throws IOException {
+            requests.incrementAndGet();
+            InputStream in = new BufferedInputStream(connection.getInputStream());
+            String[] requestLine = readLine(in).split(" ");
+            String method = requestLine[0];
+            String target = requestLine[1];
+            Map<String, String> headers = new HashMap<>();
+            for (String line = readLine(in); !line.isEmpty(); line = readLine(in)) {
+                int colon = line.indexOf(':');
+                headers.put(line.substring(0, colon).trim().toLowerCase(), line.substring(colon + 1).trim());
+            }
+            byte[] body = readBody(in, headers);
+            if ("gzip".equals(headers.get("content-encoding"))) {
+                gzipBodies.incrementAndGet();
+                body = readAll(new GZIPInputStream(new ByteArrayInputStream(body)));
+            }
+            lastDevice = headers.get("x-device-id");
+
+            String path = target.contains("?") ? target.substring(0, target.indexOf('?')) : target;
+            Map<String, String> query = parseQuery(target);
+            OutputStream out = connection.getOutputStream();
+            if (method.equals("POST") && path.equals("/v1/changes")) {
+                store(body);
+                respond(out, 204, null, new byte[0], false);
+            } else if (method.equals("GET") && path.equals("/v1/changes")) {
+                respond(out, 200, "application/json", page(query), true);
+            } else if (method.equals("POST") && path.equals("/v1/images/missing")) {
+                Set<String> missing = new HashSet<>();
+                for (String hash : SyncJson.readHashes(jsonReader(body), "hashes")) {
+                    if (!images.containsKey(hash)) {
+                        missing.add(hash);
+                    }
+                }
+                ByteArrayOutputStream json = new ByteArrayOutputStream();
+                try (JsonWriter writer = new JsonWriter(new OutputStreamWriter(json, StandardCharsets.UTF_8))) {
+                    SyncJson.writeHashes(writer, "missing", missing);
+                }
+                respond(out, 200, "application/json", json.toByteArray(), true);
+            } else if (method.equals("PUT") && path.startsWith("/v1/images/")) {
+                images.put(path.substring("/v1/images/".length()), body);
+                respond(out, 204, null, new byte[0], false);
+            } else if (method.equals("GET") && path.startsWith("/v1/images/")
+                    && images.containsKey(path.substring("/v1/images/".length()))) {
+                respond(out, 200, "image/jpeg", images.get(path.substring("/v1/images/".length())), false);
+            } else {
+                respond(out, 404, null, new byte[0], false);
+            }
+        }
+
+        private synchronized void store(byte[] body) throws IOException {
+            JsonReader json = jsonReader(body);
+            json.beginObject();
+            while (json.hasNext()) {
+                if (json.nextName().equals("changes")) {
+                    for (SyncChange change : SyncJson.readChanges(json)) {
+                        SyncChange current = latest.get(change.getSyncId());
+                        if (current == null || current.getUpdatedAt() < change.getUpdatedAt()) {
+                            latest.put(change.getSyncId(), change);
+                            log.add(change);
+                        }
+                    }
+                } else {
+                    json.skipValue();
+                }
+            }
+            json.endObject();
+        }
+
+        private synchronized byte[] page(Map<String, String> query) throws IOException {
+            int after = query.containsKey("after") ? Integer.parseInt(query.get("after")) : 0;
+            int limit = Integer.parseInt(query.get("limit"));
+            int end = Math.min(log.size(), after + limit);
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (JsonWriter json = new JsonWriter(new OutputStreamWriter(bytes, StandardCharsets.UTF_8))) {
+                json.beginObject();
+                json.name("changes").beginArray();
+                for (SyncChange change : log.subList(Math.min(after, end), end)) {
+                    SyncJson.writeChange(json, change);
+                }
+                json.endArray();
+                json.name("cursor").value(String.valueOf(end));
+                json.name("hasMore").value(end < log.size());
+                json.endObject();
+            }
+            return bytes.toByteArray();
+        }
+
+        private static void respond(OutputStream out, int status, String contentType, byte[] body,
+                                    boolean gzip) throws IOException {
+            if (gzip) {
+                ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+                try (GZIPOutputStream zip = new GZIPOutputStream(compressed)) {
+                    zip.write(body);
+                }
+                body = compressed.toByteArray();
+            }
+            StringBuilder head = new StringBuilder("HTTP/1.1 ").append(status).append(" X\r\n")
+                    .append("Content-Length: ").append(body.length).append("\r\n")
+                    .append("Connection: close\r\n");
+            if (contentType != null) {
+                head.append("Content-Type: ").append(contentType).append("\r\n");
+            }
+            if (gzip) {
+                head.append("Content-Encoding: gzip\r\n");
+            }
+            out.write(head.append("\r\n").toString().getBytes(StandardCharsets.US_ASCII));
+            out.write(body);
+            out.flush();
+        }
+
+        private static byte[] readBody(InputStream in, Map<String, String> headers) throws IOException {
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            if ("chunked".equalsIgnoreCase(headers.get("transfer-encoding"))) {
+                for (int size = Integer.parseInt(readLine(in).trim(), 16); size > 0;
+                     size = Integer.parseInt(readLine(in).trim(), 16)) {
+                    copy(in, body, size);
+                    readLine(in);
+                }
+                readLine(in);
+            } else if (headers.containsKey("content-length")) {
+                copy(in, body, Integer.parseInt(headers.get("content-length")));
+            }
+            return body.toByteArray();
+        }
+
+        private static void copy(InputStream in, OutputStream out, int length) throws IOException {
+            for (int i = 0; i < length; i++) {
+                int b = in.read();
+                if (b == -1) {
+                    throw new IOException("Truncated body");
+                }
+                out.write(b);
+            }
+        }
+
+        private static String readLine(InputStream in) throws IOException {
+            StringBuilder line = new StringBuilder();
+            int b;
+            while ((b = in.read()) != -1 && b != '\n') {
+                if (b != '\r') {
+                    line.append((char) b);
+                }
+            }
+            return line.toString();
+        }
+
+        private static Map<String, String> parseQuery(String target) {
+            Map<String, String> query = new HashMap<>();
+            int start = target.indexOf('?');
+            if (start < 0) {
+                return query;
+            }
+            for (String pair : target.substring(start + 1).split("&")) {
+                int eq = pair.indexOf('=');
+                if (eq > 0) {
+                    query.put(pair.substring(0, eq), Uri.decode(pair.substring(eq + 1)));
+                }
+            }
+            return query;
+        }
+
+        private static JsonReader jsonReader(byte[] body) {
+            return new JsonReader(new InputStreamReader(new ByteArrayInputStream(body), StandardCharsets.UTF_8));
+        }
+    }
+}
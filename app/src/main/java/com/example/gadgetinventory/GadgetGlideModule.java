@@ -0,0 +1,42 @@
+package com.example.gadgetinventory;
+
+import android.content.Context;
+import android.util.Log;
+import androidx.annotation.NonNull;
+import com.bumptech.glide.GlideBuilder;
+import com.bumptech.glide.annotation.GlideModule;
+import com.bumptech.glide.load.engine.bitmap_recycle.LruBitmapPool;
+import com.bumptech.glide.load.engine.cache.InternalCacheDiskCacheFactory;
+import com.bumptech.glide.load.engine.cache.LruResourceCache;
+import com.bumptech.glide.load.engine.cache.MemorySizeCalculator;
+import com.bumptech.glide.module.AppGlideModule;
+
+/**
+ * App-wide Glide configuration. Almost every image is a small, local thumbnail, so the
+ * memory cache holds a couple of screens of list rows and the disk cache only needs room
+ * for downsampled originals shown while a thumbnail is still being written.
+ */
+@GlideModule
+public class GadgetGlideModule extends AppGlideModule {
+    private static final int MEMORY_CACHE_SCREENS = 3;
+    private static final int BITMAP_POOL_SCREENS = 2;
+    private static final long DISK_CACHE_BYTES = 64L * 1024 * 1024;
+
+    @Override
+    public void applyOptions(@NonNull Context context, @NonNull GlideBuilder builder) {
+        MemorySizeCalculator calculator = new MemorySizeCalculator.Builder(context)
+                .setMemoryCacheScreens(MEMORY_CACHE_SCREENS)
+                .setBitmapPoolScreens(BITMAP_POOL_SCREENS)
+                .build();
+        builder.setMemoryCache(new LruResourceCache(calculator.getMemoryCacheSize()));
+        builder.setBitmapPool(new LruBitmapPool(calculator.getBitmapPoolSize()));
+        builder.setDiskCache(new InternalCacheDiskCacheFactory(context, "glide", DISK_CACHE_BYTES));
+        builder.setLogLevel(Log.ERROR);
+    }
+
+    // All configuration lives here; skip scanning the manifest for legacy modules
+    @Override
+    public boolean isManifestParsingEnabled() {
+        return false;
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.gadgetinventory;
+
+import android.app.Application;
+
+public class GadgetInventoryApplication extends Application {
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        // Before any activity starts, so the manager's foreground count is right from the first one
+        ResourceManager.getInstance(this);
+        // Runs while the splash is up; the splash leaves as soon as the critical part is done
+        StartupOrchestrator.getInstance(this).start();
+    }
+}
@@ -0,0 +1,201 @@
+package com.example.gadgetinventory;
+
+import android.app.Activity;
+import android.app.Application;
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.os.Bundle;
+import android.util.Log;
+import androidx.annotation.NonNull;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Releases memory held by subsystems when the system asks for it, in stages by trim level.
+ * Subsystems register a {@link Resource} with a {@link Priority} saying how early it may
+ * go; each trim releases every registered resource whose priority threshold the level has
+ * reached. Released resources are restored when an activity of this app starts again, not
+ * before, and restoring only has to make the resource usable: caches simply refill on
+ * their next miss.
+ *
+ * <p>Callbacks run on the main thread and must not block; hand slow work to the
+ * subsystem's own executor.
+ */
+public final class ResourceManager implements ComponentCallbacks2, Application.ActivityLifecycleCallbacks {
+    private static final String TAG = "ResourceManager";
+
+    public enum Priority {
+        /** Refilled on demand; released as soon as memory runs low, even in the foreground. */
+        CACHE(TRIM_MEMORY_RUNNING_LOW),
+        /** Only useful while its screen is visible; released once the UI is hidden. */
+        VISIBLE_ONLY(TRIM_MEMORY_UI_HIDDEN),
+        /** Slow to rebuild, such as model interpreters; kept until the app is in the background list. */
+        EXPENSIVE(TRIM_MEMORY_BACKGROUND);
+
+        final int trimLevel;
+
+        Priority(int trimLevel) {
+            this.trimLevel = trimLevel;
+        }
+    }
+
+    public interface Resource {
+        void release();
+
+        /** Called once the app is back in the foreground after {@link #release}. */
+        void restore();
+    }
+
+    public final class Registration {
+        private final String name;
+        private final Priority priority;
+        private final Resource resource;
+        // Main thread only
+        private boolean released;
+
+        Registration(String name, Priority priority, Resource resource) {
+            this.name = name;
+            this.priority = priority;
+            this.resource = resource;
+        }
+
+        public void unregister() {
+            registrations.remove(this);
+        }
+    }
+
+    private static volatile ResourceManager INSTANCE;
+
+    public static ResourceManager getInstance(Context context) {
+        if (INSTANCE == null) {
+            synchronized (ResourceManager.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new ResourceManager((Application) context.getApplicationContext());
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    private final CopyOnWriteArrayList<Registration> registrations = new CopyOnWriteArrayList<>();
+    // Main thread only
+    private int startedActivities;
+    private int lastTrimLevel;
+
+    private ResourceManager(Application application) {
+        application.registerComponentCallbacks(this);
+        application.registerActivityLifecycleCallbacks(this);
+    }
+
+    public Registration register(String name, Priority priority, Resource resource) {
+        Registration registration = new Registration(name, priority, resource);
+        registrations.add(registration);
+        return registration;
+    }
+
+    /** For resources that need nothing on restore, such as caches that refill on a miss. */
+    public Registration register(String name, Priority priority, Runnable release) {
+        return register(name, priority, new Resource() {
+            @Override
+            public void release() {
+                release.run();
+            }
+
+            @Override
+            public void restore() {
+            }
+        });
+    }
+
+    /** The deepest trim level seen since the app last came to the foreground; 0 if none. */
+    public int getLastTrimLevel() {
+        return lastTrimLevel;
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        lastTrimLevel = Math.max(lastTrimLevel, level);
+        List<String> released = new ArrayList<>();
+        // Cheapest first, so a failing release of an expensive resource still frees the rest
+        for (Priority priority : Priority.values()) {
+            if (level < priority.trimLevel) {
+                break;
+            }
+            for (Registration registration : registrations) {
+                if (registration.priority != priority || registration.released) {
+                    continue;
+                }
+                registration.released = true;
+                try {
+                    registration.resource.release();
+                    released.add(registration.name);
+                } catch (RuntimeException e) {
+                    Log.e(TAG, "Releasing " + registration.name + " failed", e);
+                }
+            }
+        }
+        if (!released.isEmpty()) {
+            Log.i(TAG, "Trim level " + level + " released " + released);
+        }
+    }
+
+    @Override
+    public void onLowMemory() {
+        // Sent while in the foreground on older releases; only caches can go without a visible cost
+        onTrimMemory(TRIM_MEMORY_RUNNING_CRITICAL);
+    }
+
+    @Override
+    public void onConfigurationChanged(@NonNull Configuration newConfig) {
+    }
+
+    @Override
+    public void onActivityStarted(@NonNull Activity activity) {
+        if (startedActivities++ > 0) {
+            return;
+        }
+        lastTrimLevel = 0;
+        // Most expensive first: those rebuilds start on their own threads and take longest
+        Priority[] priorities = Priority.values();
+        for (int i = priorities.length - 1; i >= 0; i--) {
+            for (Registration registration : registrations) {
+                if (registration.priority != priorities[i] || !registration.released) {
+                    continue;
+                }
+                registration.released = false;
+                try {
+                    registration.resource.restore();
+                } catch (RuntimeException e) {
+                    Log.e(TAG, "Restoring " + registration.name + " failed", e);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void onActivityStopped(@NonNull Activity activity) {
+        startedActivities--;
+    }
+
+    @Override
+    public void onActivityCreated(@NonNull Activity activity, Bundle savedInstanceState) {
+    }
+
+    @Override
+    public void onActivityResumed(@NonNull Activity activity) {
+    }
+
+    @Override
+    public void onActivityPaused(@NonNull Activity activity) {
+    }
+
+    @Override
+    public void onActivitySaveInstanceState(@NonNull Activity activity, @NonNull Bundle outState) {
+    }
+
+    @Override
+    public void onActivityDestroyed(@NonNull Activity activity) {
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.gadgetinventory;
+
+import android.app.Activity;
+import android.app.Application;
+import android.os.Process;
+import android.os.SystemClock;
+import android.util.Log;
+import androidx.annotation.Nullable;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import com.bumptech.glide.Glide;
+import com.example.gadgetinventory.repository.GadgetRepository;
+import com.example.gadgetinventory.ui.detectionv2.ModelRegistry;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the work every cold start would otherwise do lazily on first use, all at once on
+ * background threads: opening the database and reading the inventory list, mapping and
+ * warming the detection model, and initializing Glide. The splash screen waits only for
+ * the critical tasks, those the first screen cannot render without.
+ *
+ * <p>Each task's start offset and duration, measured from process start, are logged and
+ * kept in {@link #getTimings()}, along with the time the inventory was first shown.
+ */
+public final class StartupOrchestrator {
+    private static final String TAG = "Startup";
+
+    public static final class Timing {
+        private final String name;
+        private final boolean critical;
+        private final long startMs;
+        private final long durationMs;
+        @Nullable
+        private final Throwable failure;
+
+        Timing(String name, boolean critical, long startMs, long durationMs, @Nullable Throwable failure) {
+            this.name = name;
+            this.critical = critical;
+            this.startMs = startMs;
+            this.durationMs = durationMs;
+            this.failure = failure;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public boolean isCritical() {
+            return critical;
+        }
+
+        /** Milliseconds from process start until the task began. */
+        public long getStartMs() {
+            return startMs;
+        }
+
+        public long getDurationMs() {
+            return durationMs;
+        }
+
+        @Nullable
+        public Throwable getFailure() {
+            return failure;
+        }
+    }
+
+    private interface Task {
+        void run() throws Exception;
+    }
+
+    private static volatile StartupOrchestrator INSTANCE;
+
+    public static StartupOrchestrator getInstance(Application application) {
+        if (INSTANCE == null) {
+            synchronized (StartupOrchestrator.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new StartupOrchestrator(application);
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    private final Application application;
+    private final MutableLiveData<Boolean> criticalReady = new MutableLiveData<>(false);
+    private final AtomicInteger pendingCritical = new AtomicInteger();
+    // Guarded by this
+    private final List<Timing> timings = new ArrayList<>();
+    private boolean started;
+    private boolean inventoryShown;
+
+    private StartupOrchestrator(Application application) {
+        this.application = application;
+    }
+
+    /** Launches every startup task; later calls do nothing. */
+    public synchronized void start() {
+        if (started) {
+            return;
+        }
+        started = true;
+        List<Runnable> tasks = new ArrayList<>();
+        // The inventory is the start destination: its rows are all it needs
+        tasks.add(task("database", true, () -> GadgetRepository.getInstance(application).prefetchInventory()));
+        tasks.add(task("model", false, () -> ModelRegistry.getInstance(application).prewarm()));
+        tasks.add(task("glide", false, () -> Glide.get(application)));
+
+        ExecutorService executor = Executors.newFixedThreadPool(tasks.size(),
+                runnable -> new Thread(runnable, "startup"));
+        for (Runnable task : tasks) {
+            executor.execute(task);
+        }
+        // Queued tasks still run; the threads exit once they finish
+        executor.shutdown();
+    }
+
+    /** True once every critical task has finished, successfully or not. */
+    public LiveData<Boolean> getCriticalReady() {
+        return criticalReady;
+    }
+
+    public synchronized List<Timing> getTimings() {
+        return Collections.unmodifiableList(new ArrayList<>(timings));
+    }
+
+    /**
+     * Records time-to-usable-inventory, the metric the startup work exists to shorten, and
+     * reports the activity fully drawn. Only the first call of the process counts.
+     */
+    public void reportInventoryShown(Activity activity) {
+        synchronized (this) {
+            if (inventoryShown) {
+                return;
+            }
+            inventoryShown = true;
+        }
+        Log.i(TAG, "Inventory usable " + sinceProcessStart() + " ms after process start");
+        activity.reportFullyDrawn();
+    }
+
+    private Runnable task(String name, boolean critical, Task work) {
+        if (critical) {
+            pendingCritical.incrementAndGet();
+        }
+        return () -> {
+            long startMs = sinceProcessStart();
+            long begin = SystemClock.elapsedRealtime();
+            Throwable failure = null;
+            try {
+                work.run();
+            } catch (Exception | LinkageError e) {
+                // Whatever failed is retried lazily on first use, where it reports its own error
+                failure = e;
+            }
+            Timing timing = new Timing(name, critical, startMs, SystemClock.elapsedRealtime() - begin, failure);
+            synchronized (this) {
+                timings.add(timing);
+            }
+            if (failure != null) {
+                Log.w(TAG, name + " failed after " + timing.durationMs + " ms", failure);
+            } else {
+                Log.i(TAG, name + (critical ? " (critical)" : "") + " started at +" + startMs
+                        + " ms, took " + timing.durationMs + " ms");
+            }
+            if (critical && pendingCritical.decrementAndGet() == 0) {
+                Log.i(TAG, "Critical startup done at +" + sinceProcessStart() + " ms");
+                criticalReady.postValue(true);
+            }
+        };
+    }
+
+    private static long sinceProcessStart() {
+        return SystemClock.elapsedRealtime() - Process.getStartElapsedRealtime();
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.gadgetinventory.data.dao;
+
+import androidx.room.Dao;
+import androidx.room.Query;
+import com.example.gadgetinventory.data.entity.GadgetChangeEntity;
+import java.util.List;
+
+@Dao
+public interface GadgetChangeDao {
+    @Query("SELECT * FROM gadget_changes WHERE seq > :afterSeq ORDER BY seq ASC LIMIT :limit")
+    List<GadgetChangeEntity> getChangesAfter(long afterSeq, int limit);
+
+    @Query("SELECT IFNULL(MAX(seq), 0) FROM gadget_changes")
+    long getLatestSeq();
+
+    @Query("SELECT IFNULL(MIN(seq), 0) FROM gadget_changes")
+    long getOldestSeq();
+
+    @Query("DELETE FROM gadget_changes WHERE seq <= :seq")
+    int deleteUpTo(long seq);
+}
@@ -2,11 +2,34 @@ package com.example.gadgetinventory.data.dao;
 
 import androidx.lifecycle.LiveData;
 import androidx.room.*;
+import androidx.sqlite.db.SupportSQLiteQuery;
 import com.example.gadgetinventory.data.entity.GadgetEntity;
+import com.example.gadgetinventory.data.model.GadgetRow;
+import com.example.gadgetinventory.data.model.ImageHashRow;
+import com.example.gadgetinventory.data.model.ThumbnailSource;
 import java.util.List;
 
 @Dao
 public interface GadgetDao {
+    String GADGET_ROWS = "SELECT id, name, model, condition, purchaseDate, estimatedValue, imageUri, thumbnailKey, rowVersion " +
+            "FROM gadgets ORDER BY name ASC";
+    String GADGET_ROWS_BY_IDS = "SELECT id, name, model, condition, purchaseDate, estimatedValue, imageUri, thumbnailKey, rowVersion " +
+            "FROM gadgets WHERE id IN (:ids)";
+    String GADGET_BY_ID = "SELECT * FROM gadgets WHERE id = :id";
+    String BY_SERIAL_NUMBER = "SELECT * FROM gadgets WHERE serialNumber = :serialNumber";
+    String TAKEN_SERIAL_NUMBERS = "SELECT serialNumber FROM gadgets WHERE serialNumber IN (:serialNumbers)";
+    String PAGE_AFTER = "SELECT * FROM gadgets WHERE id > :afterId ORDER BY id ASC LIMIT :limit";
+    String THUMBNAIL_SOURCES_AFTER = "SELECT id, imageUri, thumbnailKey, imageHash FROM gadgets WHERE id > :afterId ORDER BY id ASC LIMIT :limit";
+    String MISSING_THUMBNAILS_AFTER = "SELECT id, imageUri, thumbnailKey, imageHash FROM gadgets " +
+            "WHERE id > :afterId AND imageUri != '' AND (thumbnailKey IS NULL OR imageHash IS NULL) " +
+            "ORDER BY id ASC LIMIT :limit";
+    String IMAGE_HASHES = "SELECT id, imageHash FROM gadgets WHERE imageHash IS NOT NULL";
+    String IMAGE_HASHES_BY_IDS = "SELECT id, imageHash FROM gadgets WHERE id IN (:ids)";
+    String SEARCH_GADGET_ROWS = "SELECT id, name, model, condition, purchaseDate, estimatedValue, imageUri, thumbnailKey, rowVersion " +
+            "FROM gadgets WHERE name LIKE :pattern ESCAPE '\\' OR model LIKE :pattern ESCAPE '\\'";
+    String DELETE_ID_RANGE = "DELETE FROM gadgets WHERE id > :afterId AND id <= :throughId";
+    String IMAGE_URIS_AFTER = "SELECT imageUri FROM gadgets WHERE id > :afterId AND imageUri IS NOT NULL";
+
     @Insert
     long insert(GadgetEntity gadget);
 
@@ -16,15 +39,79 @@ public interface GadgetDao {
     @Delete
     void delete(GadgetEntity gadget);
 
-    @Query("SELECT * FROM gadgets ORDER BY name ASC")
-    LiveData<List<GadgetEntity>> getAllGadgets();
+    // List variants run as a single transaction, so observers are invalidated once per call
+
+    @Insert
+    List<Long> insertAll(List<GadgetEntity> gadgets);
+
+    @Update
+    int updateAll(List<GadgetEntity> gadgets);
+
+    @Upsert
+    void upsertAll(List<GadgetEntity> gadgets);
+
+    @Query("DELETE FROM gadgets WHERE id IN (:ids)")
+    int deleteByIds(List<Long> ids);
+
+    @Query(GADGET_ROWS)
+    List<GadgetRow> loadGadgetRows();
+
+    @Query(GADGET_ROWS_BY_IDS)
+    List<GadgetRow> loadGadgetRowsByIds(List<Long> ids);
+
+    @Query(GADGET_BY_ID)
+    GadgetEntity findGadgetById(long id);
+
+    // Exact match through the unique serialNumber index, ignoring ASCII case
+    @Query(BY_SERIAL_NUMBER)
+    GadgetEntity findBySerialNumber(String serialNumber);
+
+    // Those of the given serial numbers already in use, as stored; the IN match ignores ASCII case too
+    @Query(TAKEN_SERIAL_NUMBERS)
+    List<String> findTakenSerialNumbers(List<String> serialNumbers);
+
+    // Keyset page in primary-key order; pass the last id of the previous page
+    @Query(PAGE_AFTER)
+    List<GadgetEntity> getPageAfter(long afterId, int limit);
+
+    @Query(THUMBNAIL_SOURCES_AFTER)
+    List<ThumbnailSource> getThumbnailSourcesAfter(long afterId, int limit);
+
+    // Rows with a photo whose thumbnail or hash has not been recorded yet
+    @Query(MISSING_THUMBNAILS_AFTER)
+    List<ThumbnailSource> getMissingThumbnailsAfter(long afterId, int limit);
+
+    // Only applies while the photo is unchanged, and skips no-op writes so rowVersion stays put
+    @Query("UPDATE gadgets SET thumbnailKey = :thumbnailKey, imageHash = :imageHash " +
+            "WHERE id = :id AND imageUri = :imageUri " +
+            "AND (thumbnailKey IS NULL OR thumbnailKey != :thumbnailKey OR imageHash IS NULL OR imageHash != :imageHash)")
+    int setThumbnail(long id, String imageUri, String thumbnailKey, long imageHash);
+
+    // Served from the imageHash index alone
+    @Query(IMAGE_HASHES)
+    List<ImageHashRow> getImageHashes();
+
+    @Query(IMAGE_HASHES_BY_IDS)
+    List<ImageHashRow> loadImageHashesByIds(List<Long> ids);
+
+    // Compiled by GadgetQuery; observing gadgets re-runs the same statement on every change
+    @RawQuery(observedEntities = GadgetEntity.class)
+    LiveData<List<GadgetRow>> queryGadgetRows(SupportSQLiteQuery query);
+
+    @RawQuery
+    List<GadgetRow> loadGadgetRows(SupportSQLiteQuery query);
+
+    // Expects an escaped prefix pattern ("abc%") so both terms can use the NOCASE name/model indexes
+    @Query(SEARCH_GADGET_ROWS)
+    List<GadgetRow> searchGadgetRows(String pattern);
 
-    @Query("SELECT * FROM gadgets WHERE id = :id")
-    LiveData<GadgetEntity> getGadgetById(long id);
+    // Purge chunks: a primary-key range keeps each delete short and index-driven
+    @Query(DELETE_ID_RANGE)
+    int deleteIdRange(long afterId, long throughId);
 
-    @Query("SELECT * FROM gadgets WHERE name LIKE :searchQuery OR model LIKE :searchQuery")
-    LiveData<List<GadgetEntity>> searchGadgets(String searchQuery);
+    @Query("SELECT IFNULL(MAX(id), 0) FROM gadgets")
+    long getMaxId();
 
-    @Query("DELETE FROM gadgets")
-    void deleteAll();
+    @Query(IMAGE_URIS_AFTER)
+    List<String> getImageUrisAfter(long afterId);
 } 
\ No newline at end of file
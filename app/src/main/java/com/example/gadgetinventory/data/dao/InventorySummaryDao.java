@@ -0,0 +1,33 @@
+package com.example.gadgetinventory.data.dao;
+
+import androidx.lifecycle.LiveData;
+import androidx.room.Dao;
+import androidx.room.Query;
+import com.example.gadgetinventory.data.model.ConditionSummary;
+import com.example.gadgetinventory.data.model.YearSummary;
+import java.util.List;
+
+@Dao
+public interface InventorySummaryDao {
+    String TOTAL_VALUE = "SELECT IFNULL(SUM(totalValue), 0) FROM inventory_summary";
+    String GADGET_COUNT = "SELECT IFNULL(SUM(itemCount), 0) FROM inventory_summary";
+    String CONDITION_SUMMARIES = "SELECT condition, SUM(itemCount) AS itemCount, SUM(totalValue) AS totalValue " +
+            "FROM inventory_summary GROUP BY condition HAVING SUM(itemCount) > 0 ORDER BY condition";
+    String VALUE_BY_PURCHASE_YEAR = "SELECT purchaseYear, SUM(itemCount) AS itemCount, SUM(totalValue) AS totalValue " +
+            "FROM inventory_summary GROUP BY purchaseYear HAVING SUM(itemCount) > 0 ORDER BY purchaseYear";
+
+    @Query(TOTAL_VALUE)
+    LiveData<Double> getTotalValue();
+
+    @Query(GADGET_COUNT)
+    LiveData<Long> getGadgetCount();
+
+    @Query(GADGET_COUNT)
+    long countGadgets();
+
+    @Query(CONDITION_SUMMARIES)
+    LiveData<List<ConditionSummary>> getConditionSummaries();
+
+    @Query(VALUE_BY_PURCHASE_YEAR)
+    LiveData<List<YearSummary>> getValueByPurchaseYear();
+}
@@ -0,0 +1,26 @@
+package com.example.gadgetinventory.data.dao;
+
+import androidx.lifecycle.LiveData;
+import androidx.room.Dao;
+import androidx.room.Query;
+import com.example.gadgetinventory.data.entity.ModelPriceBucketEntity;
+import com.example.gadgetinventory.data.entity.ModelPriceStatsEntity;
+import com.example.gadgetinventory.data.model.ModelCount;
+import java.util.List;
+
+@Dao
+public interface ModelPriceDao {
+    String STATS_BY_MODEL = "SELECT * FROM model_price_stats WHERE modelKey = :modelKey";
+    String BUCKETS_BY_MODEL = "SELECT * FROM model_price_buckets WHERE modelKey = :modelKey ORDER BY bucket ASC";
+    String MODEL_COUNTS = "SELECT modelKey, itemCount FROM model_price_stats";
+
+    @Query(STATS_BY_MODEL)
+    ModelPriceStatsEntity findStats(String modelKey);
+
+    @Query(BUCKETS_BY_MODEL)
+    List<ModelPriceBucketEntity> getBuckets(String modelKey);
+
+    // One row per model; re-read by Room whenever the stats triggers touch the table
+    @Query(MODEL_COUNTS)
+    LiveData<List<ModelCount>> getModelCounts();
+}
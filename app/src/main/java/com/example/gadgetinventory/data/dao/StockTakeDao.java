@@ -0,0 +1,50 @@
+package com.example.gadgetinventory.data.dao;
+
+import androidx.lifecycle.LiveData;
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+import com.example.gadgetinventory.data.entity.StockTakeScanEntity;
+import com.example.gadgetinventory.data.model.StockTakeItem;
+import java.util.List;
+
+/**
+ * Stock-take reconciliation as three set queries, each driven by a primary-key or unique
+ * serial index lookup per row rather than a comparison of every scan with every gadget.
+ */
+@Dao
+public interface StockTakeDao {
+    String MATCHED = "SELECT g.id, g.name, g.model, g.serialNumber FROM stocktake_scans s "
+            + "JOIN gadgets g ON g.serialNumber = s.tag ORDER BY g.name ASC";
+    String MISSING = "SELECT id, name, model, serialNumber FROM gadgets g WHERE serialNumber IS NOT NULL "
+            + "AND NOT EXISTS (SELECT 1 FROM stocktake_scans s WHERE s.tag = g.serialNumber) ORDER BY name ASC";
+    String UNEXPECTED = "SELECT tag FROM stocktake_scans s "
+            + "WHERE NOT EXISTS (SELECT 1 FROM gadgets g WHERE g.serialNumber = s.tag) ORDER BY tag ASC";
+
+    /** Returns -1 when the tag was already scanned in this session. */
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    long insertScan(StockTakeScanEntity scan);
+
+    @Query("DELETE FROM stocktake_scans")
+    void clearScans();
+
+    @Query("SELECT COUNT(*) FROM stocktake_scans")
+    LiveData<Integer> getScanCount();
+
+    // Scanned and in the inventory
+    @Query(MATCHED)
+    List<StockTakeItem> getMatched();
+
+    // In the inventory with a tag, but not scanned
+    @Query(MISSING)
+    List<StockTakeItem> getMissing();
+
+    // Scanned, but no gadget carries the tag
+    @Query(UNEXPECTED)
+    List<String> getUnexpected();
+
+    // Gadgets a stock-take cannot account for
+    @Query("SELECT COUNT(*) FROM gadgets WHERE serialNumber IS NULL")
+    long countUntagged();
+}
@@ -0,0 +1,73 @@
+package com.example.gadgetinventory.data.dao;
+
+import androidx.annotation.Nullable;
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.Query;
+import com.example.gadgetinventory.data.entity.GadgetEntity;
+import com.example.gadgetinventory.data.entity.GadgetTombstoneEntity;
+import java.util.Date;
+import java.util.List;
+
+/** Sync bookkeeping on {@code gadgets} and {@code gadget_tombstones}. */
+@Dao
+public interface SyncDao {
+    String DIRTY_AFTER = "SELECT * FROM gadgets WHERE id > :afterId AND updatedAt > syncedAt ORDER BY id ASC LIMIT :limit";
+    String BY_SYNC_ID = "SELECT * FROM gadgets WHERE syncId = :syncId";
+    String MARK_SYNCED = "UPDATE gadgets SET syncedAt = :updatedAt WHERE syncId = :syncId AND syncedAt < :updatedAt";
+
+    // Keyset page of rows changed since they were last exchanged with the server
+    @Query(DIRTY_AFTER)
+    List<GadgetEntity> getDirtyAfter(long afterId, int limit);
+
+    @Query(BY_SYNC_ID)
+    GadgetEntity findBySyncId(String syncId);
+
+    // Moving only syncedAt forward does not bump rowVersion (see DatabaseTriggers)
+    @Query(MARK_SYNCED)
+    int markSynced(String syncId, long updatedAt);
+
+    // The row holding a serial number, ignoring ASCII case like the unique index
+    @Query("SELECT id FROM gadgets WHERE serialNumber = :serialNumber")
+    Long findIdBySerialNumber(String serialNumber);
+
+    @Insert
+    long insert(GadgetEntity gadget);
+
+    // Applies a newer remote version; rowVersion is bumped here so list and change log see it.
+    // A null imageUri keeps the local photo: gallery and content:// photos are never shared, so
+    // a change without one says nothing about it. A different photo drops the old photo's hash
+    // and thumbnail until the thumbnail backfill redoes them.
+    @Query("UPDATE gadgets SET name = :name, model = :model, modelKey = :modelKey, condition = :condition, "
+            + "purchaseDate = :purchaseDate, estimatedValue = :estimatedValue, serialNumber = :serialNumber, "
+            + "imageHash = CASE WHEN :imageUri IS NULL OR imageUri IS :imageUri THEN imageHash ELSE NULL END, "
+            + "thumbnailKey = CASE WHEN :imageUri IS NULL OR imageUri IS :imageUri THEN thumbnailKey ELSE NULL END, "
+            + "imageUri = IFNULL(:imageUri, imageUri), "
+            + "updatedAt = :updatedAt, syncedAt = :updatedAt, rowVersion = rowVersion + 1 WHERE id = :id")
+    int applyRemote(long id, String name, String model, String modelKey, String condition, Date purchaseDate,
+                    double estimatedValue, @Nullable String serialNumber, @Nullable String imageUri,
+                    long updatedAt);
+
+    @Query("DELETE FROM gadgets WHERE id = :id")
+    int deleteById(long id);
+
+    /** Forgets what was exchanged, so every row is pushed to a new server. */
+    @Query("UPDATE gadgets SET syncedAt = 0 WHERE syncedAt > 0")
+    int resetSyncedAt();
+
+    @Query("SELECT * FROM gadget_tombstones WHERE syncId > :afterSyncId ORDER BY syncId ASC LIMIT :limit")
+    List<GadgetTombstoneEntity> getTombstonesAfter(String afterSyncId, int limit);
+
+    @Query("SELECT * FROM gadget_tombstones WHERE syncId = :syncId")
+    GadgetTombstoneEntity findTombstone(String syncId);
+
+    // Keeps a tombstone rewritten by a later delete of a re-synced row
+    @Query("DELETE FROM gadget_tombstones WHERE syncId = :syncId AND deletedAt <= :deletedAt")
+    int deletePushedTombstone(String syncId, long deletedAt);
+
+    @Query("DELETE FROM gadget_tombstones WHERE syncId = :syncId")
+    int deleteTombstone(String syncId);
+
+    @Query("DELETE FROM gadget_tombstones")
+    int deleteAllTombstones();
+}
@@ -0,0 +1,55 @@
+package com.example.gadgetinventory.data.dao;
+
+import androidx.room.Dao;
+import androidx.room.Query;
+import com.example.gadgetinventory.data.entity.ValueSnapshotEntity;
+import com.example.gadgetinventory.data.model.ConditionSummary;
+import java.util.List;
+
+@Dao
+public interface ValueSnapshotDao {
+    String TOTALS_BEFORE = "SELECT condition, SUM(itemCountChange) AS itemCount, SUM(valueChange) AS totalValue "
+            + "FROM value_snapshots WHERE periodStart < :fromDay GROUP BY condition";
+    String SNAPSHOTS_BETWEEN = "SELECT * FROM value_snapshots WHERE periodStart >= :fromDay AND periodStart <= :toDay "
+            + "ORDER BY periodStart ASC";
+    String DELETE_BEFORE = "DELETE FROM value_snapshots WHERE periodStart < :beforeDay AND resolution = :resolution";
+
+    // The inventory per condition at the start of fromDay
+    @Query(TOTALS_BEFORE)
+    List<ConditionSummary> getTotalsBefore(long fromDay);
+
+    @Query(SNAPSHOTS_BETWEEN)
+    List<ValueSnapshotEntity> getSnapshotsBetween(long fromDay, long toDay);
+
+    // Daily rows before beforeDay summed per Monday-based week (epoch day 4 was a Monday). A week
+    // spanning two months is split at the first of the month, so every weekly row lies within
+    // one calendar month and sumWeeksByMonth never folds days into the wrong month
+    @Query("SELECT MAX(periodStart - ((periodStart + 3) % 7 + 7) % 7, "
+            + "CAST(strftime('%s', periodStart * 86400, 'unixepoch', 'start of month') AS INTEGER) / 86400) "
+            + "AS periodStart, condition, 1 AS resolution, SUM(itemCountChange) AS itemCountChange, SUM(valueChange) AS valueChange "
+            + "FROM value_snapshots WHERE periodStart < :beforeDay AND resolution = 0 "
+            + "GROUP BY 1, condition")
+    List<ValueSnapshotEntity> sumDaysByWeek(long beforeDay);
+
+    // Weekly rows before beforeDay summed per calendar month of their start day
+    @Query("SELECT CAST(strftime('%s', periodStart * 86400, 'unixepoch', 'start of month') AS INTEGER) / 86400 "
+            + "AS periodStart, condition, 2 AS resolution, SUM(itemCountChange) AS itemCountChange, "
+            + "SUM(valueChange) AS valueChange "
+            + "FROM value_snapshots WHERE periodStart < :beforeDay AND resolution = 1 "
+            + "GROUP BY 1, condition")
+    List<ValueSnapshotEntity> sumWeeksByMonth(long beforeDay);
+
+    @Query(DELETE_BEFORE)
+    int deleteBefore(long beforeDay, int resolution);
+
+    @Query("INSERT OR IGNORE INTO value_snapshots "
+            + "(periodStart, condition, resolution, itemCountChange, valueChange) "
+            + "VALUES (:periodStart, :condition, :resolution, 0, 0)")
+    void insertEmpty(long periodStart, String condition, int resolution);
+
+    // Keeps the coarser resolution when a roll-up lands on an existing row
+    @Query("UPDATE value_snapshots SET itemCountChange = itemCountChange + :itemCountChange, "
+            + "valueChange = valueChange + :valueChange, resolution = MAX(resolution, :resolution) "
+            + "WHERE periodStart = :periodStart AND condition = :condition")
+    void addTo(long periodStart, String condition, int resolution, long itemCountChange, double valueChange);
+}
@@ -0,0 +1,242 @@
+package com.example.gadgetinventory.data.database;
+
+import android.content.Context;
+import android.os.Process;
+import android.os.SystemClock;
+import android.util.Log;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Process-wide executors for database work: a small read pool (also used as Room's query
+ * executor), a separate pool for long jobs such as exports and backups, so they never hold
+ * every reader while LiveData queries wait, and a single writer thread. Writes queued
+ * within {@link #GROUP_COMMIT_WINDOW_MS} of each other are committed together in one
+ * transaction (group commit); a lone write reaching an idle writer commits at once, as
+ * there is nothing to wait for. Threads time out when idle, so nothing lingers after the
+ * last screen stops using the database.
+ */
+public final class DatabaseDispatcher {
+    private static final String TAG = "DatabaseDispatcher";
+
+    // How long the writer waits for more writes to join a commit
+    static final long GROUP_COMMIT_WINDOW_MS = 10;
+    static final int MAX_GROUP_SIZE = 200;
+    private static final long IDLE_TIMEOUT_SECONDS = 30;
+    private static final int JOB_THREADS = 2;
+
+    private static volatile DatabaseDispatcher INSTANCE;
+
+    private final Context appContext;
+    private final ThreadPoolExecutor readExecutor;
+    private final ThreadPoolExecutor jobExecutor;
+    private final ThreadPoolExecutor writeExecutor;
+
+    private final Object writeLock = new Object();
+    private final ArrayDeque<PendingWrite> pendingWrites = new ArrayDeque<>();
+    private boolean drainScheduled;
+
+    public static DatabaseDispatcher getInstance(final Context context) {
+        if (INSTANCE == null) {
+            synchronized (DatabaseDispatcher.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new DatabaseDispatcher(context.getApplicationContext());
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    private DatabaseDispatcher(Context appContext) {
+        this.appContext = appContext;
+        int readers = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+        readExecutor = newExecutor("db-read", readers);
+        jobExecutor = newExecutor("db-job", JOB_THREADS);
+        writeExecutor = newExecutor("db-write", 1);
+    }
+
+    private static ThreadPoolExecutor newExecutor(String name, int threads) {
+        AtomicInteger count = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads,
+                IDLE_TIMEOUT_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(() -> {
+                        Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                        runnable.run();
+                    }, name + "-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    public Executor getReadExecutor() {
+        return readExecutor;
+    }
+
+    public void read(Runnable work) {
+        readExecutor.execute(work);
+    }
+
+    public Executor getJobExecutor() {
+        return jobExecutor;
+    }
+
+    /**
+     * Runs a long read-mostly job (export, backup, full scans) off the read pool. Two run at
+     * once at most; the rest queue.
+     */
+    public void runJob(Runnable work) {
+        jobExecutor.execute(work);
+    }
+
+    /**
+     * Queues a short write to be committed together with other writes arriving in the same
+     * window. The future completes once the enclosing transaction has committed.
+     */
+    public CompletableFuture<Void> write(Runnable work) {
+        return enqueue(new PendingWrite(work, false));
+    }
+
+    /**
+     * Runs {@code work} alone on the writer thread, in order with queued writes but outside
+     * any group transaction. For long jobs that manage their own (chunked) transactions.
+     */
+    public CompletableFuture<Void> runOnWriter(Runnable work) {
+        return enqueue(new PendingWrite(work, true));
+    }
+
+    private CompletableFuture<Void> enqueue(PendingWrite write) {
+        synchronized (writeLock) {
+            pendingWrites.add(write);
+            if (!drainScheduled) {
+                drainScheduled = true;
+                writeExecutor.execute(this::drainWrites);
+            }
+        }
+        return write.future;
+    }
+
+    private void drainWrites() {
+        try {
+            drainPending();
+        } finally {
+            // Also reached when an Error escapes a write: later writes must not wait forever
+            synchronized (writeLock) {
+                if (pendingWrites.isEmpty()) {
+                    drainScheduled = false;
+                } else {
+                    writeExecutor.execute(this::drainWrites);
+                }
+            }
+        }
+    }
+
+    private void drainPending() {
+        // Set once this drain has committed something, i.e. writes are arriving in a burst
+        boolean busy = false;
+        while (true) {
+            PendingWrite exclusive = null;
+            boolean windowOpen;
+            synchronized (writeLock) {
+                if (pendingWrites.isEmpty()) {
+                    return;
+                }
+                if (pendingWrites.peek().exclusive) {
+                    exclusive = pendingWrites.poll();
+                }
+                windowOpen = (busy || pendingWrites.size() > 1) && pendingWrites.size() < MAX_GROUP_SIZE;
+            }
+            busy = true;
+            if (exclusive != null) {
+                runAlone(exclusive, false);
+                continue;
+            }
+
+            // Give writers arriving within the window a chance to share this commit
+            if (windowOpen) {
+                SystemClock.sleep(GROUP_COMMIT_WINDOW_MS);
+            }
+            List<PendingWrite> group = new ArrayList<>();
+            synchronized (writeLock) {
+                while (!pendingWrites.isEmpty() && !pendingWrites.peek().exclusive
+                        && group.size() < MAX_GROUP_SIZE) {
+                    group.add(pendingWrites.poll());
+                }
+            }
+            commit(group);
+        }
+    }
+
+    private void commit(List<PendingWrite> group) {
+        if (group.size() == 1) {
+            runAlone(group.get(0), true);
+            return;
+        }
+        try {
+            commitGroup(group);
+        } catch (Error e) {
+            // Rethrown, but whoever still waits on the group hears of it first
+            for (PendingWrite write : group) {
+                write.future.completeExceptionally(e);
+            }
+            throw e;
+        }
+    }
+
+    private void commitGroup(List<PendingWrite> group) {
+        try {
+            GadgetDatabase.getDatabase(appContext).runInTransaction(() -> {
+                for (PendingWrite write : group) {
+                    write.work.run();
+                }
+            });
+        } catch (RuntimeException e) {
+            // One failing write rolls back the shared transaction; replay each on its own
+            // so only the offending write fails
+            for (PendingWrite write : group) {
+                runAlone(write, true);
+            }
+            return;
+        }
+        for (PendingWrite write : group) {
+            write.future.complete(null);
+        }
+    }
+
+    private void runAlone(PendingWrite write, boolean inTransaction) {
+        try {
+            if (inTransaction) {
+                GadgetDatabase.getDatabase(appContext).runInTransaction(write.work);
+            } else {
+                write.work.run();
+            }
+            write.future.complete(null);
+        } catch (RuntimeException e) {
+            Log.e(TAG, "Database write failed", e);
+            write.future.completeExceptionally(e);
+        } catch (Error e) {
+            write.future.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private static final class PendingWrite {
+        final Runnable work;
+        final boolean exclusive;
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        PendingWrite(Runnable work, boolean exclusive) {
+            this.work = work;
+            this.exclusive = exclusive;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.gadgetinventory.data.database;
+
+import android.content.Context;
+import android.util.Log;
+import java.io.File;
+
+/**
+ * Locations of the {@link GadgetDatabase} files, and the hand-over of a restored copy.
+ * A restore cannot replace a database Room has open, so it stages the files next to it
+ * and they are swapped in the next time the process opens the database. The staged main
+ * file is written last and acts as the commit marker.
+ */
+public final class DatabaseFiles {
+    private static final String TAG = "DatabaseFiles";
+    private static final String STAGED_SUFFIX = ".restore";
+
+    public static File getDatabaseFile(Context context) {
+        return context.getDatabasePath(GadgetDatabase.DATABASE_NAME);
+    }
+
+    public static File getWalFile(Context context) {
+        return new File(getDatabaseFile(context).getPath() + "-wal");
+    }
+
+    /** Where a restore writes the replacement for {@code file}. */
+    public static File getStagedFile(File file) {
+        return new File(file.getPath() + STAGED_SUFFIX);
+    }
+
+    public static boolean hasStagedRestore(Context context) {
+        return getStagedFile(getDatabaseFile(context)).isFile();
+    }
+
+    /** Swaps in a staged restore. Must run before the database is opened. */
+    static void applyStagedRestore(Context context) {
+        File database = getDatabaseFile(context);
+        File wal = getWalFile(context);
+        File stagedDatabase = getStagedFile(database);
+        File stagedWal = getStagedFile(wal);
+        if (stagedDatabase.isFile()) {
+            // Delete the old WAL as well, or SQLite would replay it onto the restored file
+            for (String suffix : new String[]{"", "-wal", "-shm", "-journal"}) {
+                File file = new File(database.getPath() + suffix);
+                if (file.exists() && !file.delete()) {
+                    Log.e(TAG, "Cannot delete " + file + "; restore postponed");
+                    return;
+                }
+            }
+            if (!stagedDatabase.renameTo(database)) {
+                Log.e(TAG, "Cannot move restored database into place");
+                return;
+            }
+        }
+        // Also completes a swap interrupted between the two renames
+        if (stagedWal.isFile() && !stagedDatabase.exists() && !stagedWal.renameTo(wal)) {
+            Log.e(TAG, "Cannot move restored WAL into place");
+        }
+    }
+
+    private DatabaseFiles() {
+    }
+}
@@ -0,0 +1,237 @@
+package com.example.gadgetinventory.data.database;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+/**
+ * Triggers that keep derived tables in step with {@code gadgets}. Room only creates tables
+ * and indexes from entities, so fresh databases get these from the open callback in
+ * {@link GadgetDatabase} and upgraded ones from {@link Migrations}.
+ */
+public final class DatabaseTriggers {
+
+    // UTC year of a purchaseDate column (epoch millis), 0 when unset
+    private static String purchaseYear(String row) {
+        return "IFNULL(CAST(strftime('%Y', " + row + ".purchaseDate / 1000, 'unixepoch') AS INTEGER), 0)";
+    }
+
+    private static String summaryKey(String row) {
+        return "condition = IFNULL(" + row + ".condition, '') AND purchaseYear = " + purchaseYear(row);
+    }
+
+    private static String addToSummary(String row) {
+        return "INSERT OR IGNORE INTO inventory_summary (condition, purchaseYear, itemCount, totalValue) "
+                + "VALUES (IFNULL(" + row + ".condition, ''), " + purchaseYear(row) + ", 0, 0); "
+                + "UPDATE inventory_summary SET itemCount = itemCount + 1, "
+                + "totalValue = totalValue + " + row + ".estimatedValue WHERE " + summaryKey(row) + "; ";
+    }
+
+    private static String removeFromSummary(String row) {
+        return "UPDATE inventory_summary SET itemCount = itemCount - 1, "
+                + "totalValue = totalValue - " + row + ".estimatedValue WHERE " + summaryKey(row) + "; ";
+    }
+
+    static void createSummaryTriggers(SupportSQLiteDatabase db) {
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS gadgets_summary_insert AFTER INSERT ON gadgets BEGIN "
+                + addToSummary("NEW") + "END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS gadgets_summary_delete AFTER DELETE ON gadgets BEGIN "
+                + removeFromSummary("OLD") + "END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS gadgets_summary_update "
+                + "AFTER UPDATE OF condition, purchaseDate, estimatedValue ON gadgets BEGIN "
+                + removeFromSummary("OLD") + addToSummary("NEW") + "END");
+    }
+
+    /**
+     * Keeps {@code rowVersion} strictly increasing. Room's @Update writes back whatever
+     * version the entity was loaded with, so the trigger bumps past the stored one unless
+     * the caller already moved it forward. Recursive triggers are off, so the inner UPDATE
+     * does not re-fire this trigger.
+     */
+    static void createRowVersionTrigger(SupportSQLiteDatabase db) {
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS gadgets_row_version AFTER UPDATE ON gadgets "
+                + "WHEN NEW.rowVersion <= OLD.rowVersion BEGIN "
+                + "UPDATE gadgets SET rowVersion = OLD.rowVersion + 1 WHERE id = NEW.id; END");
+    }
+
+    /**
+     * Feeds {@code gadget_changes}. An update is logged once, when rowVersion moves forward:
+     * either by the caller or by the inner UPDATE of {@code gadgets_row_version}.
+     */
+    static void createChangeLogTriggers(SupportSQLiteDatabase db) {
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS gadgets_change_insert AFTER INSERT ON gadgets BEGIN "
+                + "INSERT INTO gadget_changes (gadgetId, op) VALUES (NEW.id, 1); END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS gadgets_change_update AFTER UPDATE ON gadgets "
+                + "WHEN NEW.rowVersion > OLD.rowVersion BEGIN "
+                + "INSERT INTO gadget_changes (gadgetId, op) VALUES (NEW.id, 2); END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS gadgets_change_delete AFTER DELETE ON gadgets BEGIN "
+                + "INSERT INTO gadget_changes (gadgetId, op) VALUES (OLD.id, 3); END");
+    }
+
+    // Current time in epoch millis, the unit updatedAt is kept in
+    private static final String NOW_MILLIS = "CAST((julianday('now') - 2440587.5) * 86400000 AS INTEGER)";
+
+    /**
+     * Sync bookkeeping (v7). Replaces the v4 {@code gadgets_row_version} so that updates
+     * which only move sync state forward (syncedAt, updatedAt or a first syncId) are not
+     * treated as edits. Then:
+     * <ul>
+     * <li>inserted rows without a syncId get a random one and updatedAt = now,</li>
+     * <li>a content edit that did not advance updatedAt advances it, so rows written from a
+     * stale entity still become dirty,</li>
+     * <li>an update that writes a null syncId (an entity built before insert) keeps the old one,</li>
+     * <li>deleting a row the server has seen leaves a tombstone to push.</li>
+     * </ul>
+     */
+    static void createSyncTriggers(SupportSQLiteDatabase db) {
+        db.execSQL("DROP TRIGGER IF EXISTS gadgets_row_version");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS gadgets_row_version AFTER UPDATE ON gadgets "
+                + "WHEN NEW.rowVersion <= OLD.rowVersion AND OLD.syncId IS NOT NULL "
+                + "AND NEW.updatedAt <= OLD.updatedAt AND NEW.syncedAt <= OLD.syncedAt BEGIN "
+                + "UPDATE gadgets SET rowVersion = OLD.rowVersion + 1 WHERE id = NEW.id; END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS gadgets_sync_insert AFTER INSERT ON gadgets "
+                + "WHEN NEW.syncId IS NULL BEGIN "
+                + "UPDATE gadgets SET syncId = lower(hex(randomblob(16))), "
+                + "updatedAt = MAX(NEW.updatedAt, " + NOW_MILLIS + ") WHERE id = NEW.id; END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS gadgets_sync_touch "
+                + "AFTER UPDATE OF name, model, condition, purchaseDate, estimatedValue, imageUri ON gadgets "
+                + "WHEN NEW.updatedAt <= OLD.updatedAt BEGIN "
+                + "UPDATE gadgets SET updatedAt = MAX(OLD.updatedAt + 1, " + NOW_MILLIS + ") "
+                + "WHERE id = NEW.id; END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS gadgets_sync_keep_id AFTER UPDATE OF syncId ON gadgets "
+                + "WHEN NEW.syncId IS NULL AND OLD.syncId IS NOT NULL BEGIN "
+                + "UPDATE gadgets SET syncId = OLD.syncId WHERE id = NEW.id; END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS gadgets_sync_tombstone AFTER DELETE ON gadgets "
+                + "WHEN OLD.syncedAt > 0 BEGIN "
+                + "INSERT OR REPLACE INTO gadget_tombstones (syncId, deletedAt) "
+                + "VALUES (OLD.syncId, " + NOW_MILLIS + "); END");
+    }
+
+    /** Gives rows that predate sync a syncId and marks them dirty; run before the v7 triggers exist. */
+    static void backfillSyncColumns(SupportSQLiteDatabase db) {
+        db.execSQL("UPDATE gadgets SET syncId = lower(hex(randomblob(16))), updatedAt = " + NOW_MILLIS
+                + " WHERE syncId IS NULL");
+    }
+
+    /** Rebuilds {@code inventory_summary} from scratch; used when the table is introduced. */
+    static void rebuildSummary(SupportSQLiteDatabase db) {
+        db.execSQL("DELETE FROM inventory_summary");
+        db.execSQL("INSERT INTO inventory_summary (condition, purchaseYear, itemCount, totalValue) "
+                + "SELECT IFNULL(condition, ''), " + purchaseYear("gadgets") + ", COUNT(*), SUM(estimatedValue) "
+                + "FROM gadgets GROUP BY 1, 2");
+    }
+
+    // Current UTC epoch day, the period value_snapshots rows are keyed by
+    private static final String TODAY = "(CAST(strftime('%s', 'now') AS INTEGER) / 86400)";
+
+    private static String addToSnapshot(String row, String sign) {
+        return "INSERT OR IGNORE INTO value_snapshots "
+                + "(periodStart, condition, resolution, itemCountChange, valueChange) "
+                + "VALUES (" + TODAY + ", IFNULL(" + row + ".condition, ''), 0, 0, 0); "
+                + "UPDATE value_snapshots SET itemCountChange = itemCountChange " + sign + " 1, "
+                + "valueChange = valueChange " + sign + " " + row + ".estimatedValue "
+                + "WHERE periodStart = " + TODAY + " AND condition = IFNULL(" + row + ".condition, ''); ";
+    }
+
+    /** Records every change to count and value per condition in today's value_snapshots row (v9). */
+    static void createSnapshotTriggers(SupportSQLiteDatabase db) {
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS gadgets_snapshot_insert AFTER INSERT ON gadgets BEGIN "
+                + addToSnapshot("NEW", "+") + "END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS gadgets_snapshot_delete AFTER DELETE ON gadgets BEGIN "
+                + addToSnapshot("OLD", "-") + "END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS gadgets_snapshot_update "
+                + "AFTER UPDATE OF condition, estimatedValue ON gadgets "
+                + "WHEN OLD.condition IS NOT NEW.condition OR OLD.estimatedValue != NEW.estimatedValue BEGIN "
+                + addToSnapshot("OLD", "-") + addToSnapshot("NEW", "+") + "END");
+    }
+
+    /**
+     * Seeds value_snapshots from the current rows, each counted from its purchase day (or
+     * today when undated) at its current value; there is no older history to recover.
+     */
+    static void seedSnapshots(SupportSQLiteDatabase db) {
+        db.execSQL("INSERT INTO value_snapshots (periodStart, condition, resolution, itemCountChange, valueChange) "
+                + "SELECT MIN(IFNULL(purchaseDate / 86400000, " + TODAY + "), " + TODAY + "), IFNULL(condition, ''), 0, "
+                + "COUNT(*), SUM(estimatedValue) FROM gadgets GROUP BY 1, 2");
+    }
+
+    /** SQL twin of {@code GadgetEntity.modelKeyOf()}, for rows written before modelKey existed. */
+    private static final String MODEL_KEY = "NULLIF(replace(replace(lower(model), ' ', ''), '-', ''), '')";
+
+    // model_price_buckets bucket of a value: digit count * 100 + first two digits, 0 below 1
+    private static String priceBucket(String row) {
+        String digits = "CAST(CAST(" + row + ".estimatedValue AS INTEGER) AS TEXT)";
+        return "(CASE WHEN " + row + ".estimatedValue < 1 THEN 0 ELSE length(" + digits + ") * 100 "
+                + "+ CAST(substr(" + digits + ", 1, 2) AS INTEGER) END)";
+    }
+
+    private static String addToModelStats(String row) {
+        return "INSERT OR IGNORE INTO model_price_stats "
+                + "(modelKey, model, itemCount, totalValue, minValue, maxValue, lastSeenAt) "
+                + "SELECT " + row + ".modelKey, " + row + ".model, 0, 0, " + row + ".estimatedValue, "
+                + row + ".estimatedValue, 0 WHERE " + row + ".modelKey IS NOT NULL; "
+                + "UPDATE model_price_stats SET model = " + row + ".model, itemCount = itemCount + 1, "
+                + "totalValue = totalValue + " + row + ".estimatedValue, "
+                + "minValue = MIN(minValue, " + row + ".estimatedValue), "
+                + "maxValue = MAX(maxValue, " + row + ".estimatedValue), lastSeenAt = " + NOW_MILLIS + " "
+                + "WHERE modelKey = " + row + ".modelKey; "
+                + "INSERT OR IGNORE INTO model_price_buckets (modelKey, bucket, itemCount) "
+                + "SELECT " + row + ".modelKey, " + priceBucket(row) + ", 0 WHERE " + row + ".modelKey IS NOT NULL; "
+                + "UPDATE model_price_buckets SET itemCount = itemCount + 1 "
+                + "WHERE modelKey = " + row + ".modelKey AND bucket = " + priceBucket(row) + "; ";
+    }
+
+    // A removed extreme is re-read through index_gadgets_modelKey_estimatedValue, a seek, not a scan
+    private static String removeFromModelStats(String row) {
+        return "UPDATE model_price_stats SET itemCount = itemCount - 1, "
+                + "totalValue = totalValue - " + row + ".estimatedValue WHERE modelKey = " + row + ".modelKey; "
+                + "UPDATE model_price_stats SET "
+                + "minValue = IFNULL((SELECT MIN(estimatedValue) FROM gadgets WHERE modelKey = " + row + ".modelKey), minValue), "
+                + "maxValue = IFNULL((SELECT MAX(estimatedValue) FROM gadgets WHERE modelKey = " + row + ".modelKey), maxValue) "
+                + "WHERE modelKey = " + row + ".modelKey AND (" + row + ".estimatedValue <= minValue "
+                + "OR " + row + ".estimatedValue >= maxValue); "
+                + "DELETE FROM model_price_stats WHERE modelKey = " + row + ".modelKey AND itemCount <= 0; "
+                + "UPDATE model_price_buckets SET itemCount = itemCount - 1 "
+                + "WHERE modelKey = " + row + ".modelKey AND bucket = " + priceBucket(row) + "; "
+                + "DELETE FROM model_price_buckets WHERE modelKey = " + row + ".modelKey "
+                + "AND bucket = " + priceBucket(row) + " AND itemCount <= 0; ";
+    }
+
+    /** Keeps model_price_stats and model_price_buckets in step with gadgets (v10). */
+    static void createModelStatsTriggers(SupportSQLiteDatabase db) {
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS gadgets_model_stats_insert AFTER INSERT ON gadgets BEGIN "
+                + addToModelStats("NEW") + "END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS gadgets_model_stats_delete AFTER DELETE ON gadgets BEGIN "
+                + removeFromModelStats("OLD") + "END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS gadgets_model_stats_update "
+                + "AFTER UPDATE OF model, modelKey, estimatedValue ON gadgets "
+                + "WHEN OLD.modelKey IS NOT NEW.modelKey OR OLD.model IS NOT NEW.model "
+                + "OR OLD.estimatedValue != NEW.estimatedValue BEGIN "
+                + removeFromModelStats("OLD") + addToModelStats("NEW") + "END");
+    }
+
+    /**
+     * Fills modelKey for existing rows, then builds both statistics tables from them. Run
+     * while the rowVersion trigger is dropped so the backfill is not logged as edits.
+     */
+    static void backfillModelStats(SupportSQLiteDatabase db) {
+        db.execSQL("UPDATE gadgets SET modelKey = " + MODEL_KEY);
+        db.execSQL("INSERT INTO model_price_stats "
+                + "(modelKey, model, itemCount, totalValue, minValue, maxValue, lastSeenAt) "
+                + "SELECT modelKey, MAX(model), COUNT(*), SUM(estimatedValue), MIN(estimatedValue), "
+                + "MAX(estimatedValue), MAX(updatedAt) FROM gadgets WHERE modelKey IS NOT NULL GROUP BY modelKey");
+        db.execSQL("INSERT INTO model_price_buckets (modelKey, bucket, itemCount) "
+                + "SELECT modelKey, " + priceBucket("gadgets") + ", COUNT(*) FROM gadgets "
+                + "WHERE modelKey IS NOT NULL GROUP BY 1, 2");
+    }
+
+    static void createAll(SupportSQLiteDatabase db) {
+        createSummaryTriggers(db);
+        createRowVersionTrigger(db);
+        createChangeLogTriggers(db);
+        createSyncTriggers(db);
+        createSnapshotTriggers(db);
+        createModelStatsTriggers(db);
+    }
+
+    private DatabaseTriggers() {
+    }
+}
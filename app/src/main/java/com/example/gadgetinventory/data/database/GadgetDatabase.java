@@ -1,33 +1,104 @@
 package com.example.gadgetinventory.data.database;
 
 import android.content.Context;
+import android.database.Cursor;
+import androidx.annotation.NonNull;
 import androidx.room.Database;
 import androidx.room.Room;
 import androidx.room.RoomDatabase;
 import androidx.room.TypeConverters;
+import androidx.sqlite.db.SupportSQLiteDatabase;
 import com.example.gadgetinventory.data.converter.DateConverter;
+import com.example.gadgetinventory.data.dao.GadgetChangeDao;
 import com.example.gadgetinventory.data.dao.GadgetDao;
+import com.example.gadgetinventory.data.dao.InventorySummaryDao;
+import com.example.gadgetinventory.data.dao.ModelPriceDao;
+import com.example.gadgetinventory.data.dao.StockTakeDao;
+import com.example.gadgetinventory.data.dao.SyncDao;
+import com.example.gadgetinventory.data.dao.ValueSnapshotDao;
+import com.example.gadgetinventory.data.entity.GadgetChangeEntity;
 import com.example.gadgetinventory.data.entity.GadgetEntity;
+import com.example.gadgetinventory.data.entity.GadgetTombstoneEntity;
+import com.example.gadgetinventory.data.entity.InventorySummaryEntity;
+import com.example.gadgetinventory.data.entity.ModelPriceBucketEntity;
+import com.example.gadgetinventory.data.entity.ModelPriceStatsEntity;
+import com.example.gadgetinventory.data.entity.StockTakeScanEntity;
+import com.example.gadgetinventory.data.entity.ValueSnapshotEntity;
 
-@Database(entities = {GadgetEntity.class}, version = 1, exportSchema = false)
+@Database(entities = {
+        GadgetEntity.class,
+        InventorySummaryEntity.class,
+        GadgetChangeEntity.class,
+        GadgetTombstoneEntity.class,
+        ValueSnapshotEntity.class,
+        ModelPriceStatsEntity.class,
+        ModelPriceBucketEntity.class,
+        StockTakeScanEntity.class
+}, version = 12, exportSchema = true)
 @TypeConverters({DateConverter.class})
 public abstract class GadgetDatabase extends RoomDatabase {
+    public static final String DATABASE_NAME = "gadget_database";
+
     private static volatile GadgetDatabase INSTANCE;
     
     public abstract GadgetDao gadgetDao();
+
+    public abstract InventorySummaryDao inventorySummaryDao();
+
+    public abstract GadgetChangeDao gadgetChangeDao();
+
+    public abstract SyncDao syncDao();
+
+    public abstract ValueSnapshotDao valueSnapshotDao();
+
+    public abstract ModelPriceDao modelPriceDao();
+
+    public abstract StockTakeDao stockTakeDao();
     
     public static GadgetDatabase getDatabase(final Context context) {
         if (INSTANCE == null) {
             synchronized (GadgetDatabase.class) {
                 if (INSTANCE == null) {
-                    INSTANCE = Room.databaseBuilder(
+                    DatabaseFiles.applyStagedRestore(context.getApplicationContext());
+                    INSTANCE = configure(Room.databaseBuilder(
                             context.getApplicationContext(),
                             GadgetDatabase.class,
-                            "gadget_database"
-                    ).build();
+                            DATABASE_NAME
+                    )).setQueryExecutor(DatabaseDispatcher.getInstance(context).getReadExecutor())
+                            .build();
                 }
             }
         }
         return INSTANCE;
     }
-} 
\ No newline at end of file
+
+    /** Schema version of the open database file. */
+    public int getSchemaVersion() {
+        return getOpenHelper().getReadableDatabase().getVersion();
+    }
+
+    /**
+     * Copies as much of the WAL as possible into the main file. Run on the writer (see
+     * {@link DatabaseDispatcher#runOnWriter}) so no commit can land before the files are read.
+     */
+    public void checkpoint() {
+        try (Cursor cursor = query("PRAGMA wal_checkpoint(TRUNCATE)", null)) {
+            cursor.moveToFirst();
+        }
+    }
+
+    /**
+     * Applies the migrations and callbacks every instance needs. Tests building an
+     * in-memory database should go through this too so triggers are installed.
+     */
+    public static Builder<GadgetDatabase> configure(Builder<GadgetDatabase> builder) {
+        return builder
+                .addMigrations(Migrations.ALL)
+                .addCallback(new Callback() {
+                    @Override
+                    public void onCreate(@NonNull SupportSQLiteDatabase db) {
+                        DatabaseTriggers.createAll(db);
+                    }
+                });
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.gadgetinventory.data.database;
+
+import androidx.annotation.NonNull;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+/**
+ * Schema migrations for {@link GadgetDatabase}. Each step is a frozen record of the
+ * schema change at that version; never edit a shipped migration, add a new one instead.
+ */
+public final class Migrations {
+
+    /**
+     * v2: NOCASE collation on name/model and secondary indexes for sorting and filtering.
+     * SQLite cannot change a column's collation in place, so the table is rebuilt.
+     */
+    static final Migration MIGRATION_1_2 = new Migration(1, 2) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `gadgets_new` ("
+                    + "`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                    + "`name` TEXT COLLATE NOCASE, "
+                    + "`model` TEXT COLLATE NOCASE, "
+                    + "`condition` TEXT, "
+                    + "`purchaseDate` INTEGER, "
+                    + "`estimatedValue` REAL NOT NULL, "
+                    + "`imageUri` TEXT)");
+            db.execSQL("INSERT INTO `gadgets_new` "
+                    + "(`id`, `name`, `model`, `condition`, `purchaseDate`, `estimatedValue`, `imageUri`) "
+                    + "SELECT `id`, `name`, `model`, `condition`, `purchaseDate`, `estimatedValue`, `imageUri` "
+                    + "FROM `gadgets`");
+            db.execSQL("DROP TABLE `gadgets`");
+            db.execSQL("ALTER TABLE `gadgets_new` RENAME TO `gadgets`");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_gadgets_name` ON `gadgets` (`name`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_gadgets_model` ON `gadgets` (`model`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_gadgets_condition` ON `gadgets` (`condition`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_gadgets_purchaseDate` ON `gadgets` (`purchaseDate`)");
+        }
+    };
+
+    /** v3: trigger-maintained inventory_summary table for dashboard aggregates. */
+    static final Migration MIGRATION_2_3 = new Migration(2, 3) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `inventory_summary` ("
+                    + "`condition` TEXT NOT NULL, "
+                    + "`purchaseYear` INTEGER NOT NULL, "
+                    + "`itemCount` INTEGER NOT NULL, "
+                    + "`totalValue` REAL NOT NULL, "
+                    + "PRIMARY KEY(`condition`, `purchaseYear`))");
+            DatabaseTriggers.rebuildSummary(db);
+            DatabaseTriggers.createSummaryTriggers(db);
+        }
+    };
+
+    /** v4: trigger-maintained rowVersion for cheap list diffing. */
+    static final Migration MIGRATION_3_4 = new Migration(3, 4) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE `gadgets` ADD COLUMN `rowVersion` INTEGER NOT NULL DEFAULT 0");
+            DatabaseTriggers.createRowVersionTrigger(db);
+        }
+    };
+
+    /** v5: trigger-fed gadget_changes log for incremental consumers. */
+    static final Migration MIGRATION_4_5 = new Migration(4, 5) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `gadget_changes` ("
+                    + "`seq` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                    + "`gadgetId` INTEGER NOT NULL, "
+                    + "`op` INTEGER NOT NULL)");
+            DatabaseTriggers.createChangeLogTriggers(db);
+        }
+    };
+
+    /** v6: thumbnailKey, set once a gadget's photo has been downscaled to app storage. */
+    static final Migration MIGRATION_5_6 = new Migration(5, 6) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE `gadgets` ADD COLUMN `thumbnailKey` TEXT");
+        }
+    };
+
+    /** v7: sync columns on gadgets, gadget_tombstones and the triggers maintaining both. */
+    static final Migration MIGRATION_6_7 = new Migration(6, 7) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE `gadgets` ADD COLUMN `syncId` TEXT");
+            db.execSQL("ALTER TABLE `gadgets` ADD COLUMN `updatedAt` INTEGER NOT NULL DEFAULT 0");
+            db.execSQL("ALTER TABLE `gadgets` ADD COLUMN `syncedAt` INTEGER NOT NULL DEFAULT 0");
+            // The v4 rowVersion trigger would log every backfilled row as an edit
+            db.execSQL("DROP TRIGGER IF EXISTS gadgets_row_version");
+            DatabaseTriggers.backfillSyncColumns(db);
+            db.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS `index_gadgets_syncId` ON `gadgets` (`syncId`)");
+            db.execSQL("CREATE TABLE IF NOT EXISTS `gadget_tombstones` ("
+                    + "`syncId` TEXT NOT NULL, "
+                    + "`deletedAt` INTEGER NOT NULL, "
+                    + "PRIMARY KEY(`syncId`))");
+            DatabaseTriggers.createSyncTriggers(db);
+        }
+    };
+
+    /** v8: perceptual photo hash for near-duplicate detection, filled in by the thumbnail backfill. */
+    static final Migration MIGRATION_7_8 = new Migration(7, 8) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE `gadgets` ADD COLUMN `imageHash` INTEGER");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_gadgets_imageHash` ON `gadgets` (`imageHash`)");
+        }
+    };
+
+    /** v9: trigger-maintained value_snapshots for value history, rolled up as it ages. */
+    static final Migration MIGRATION_8_9 = new Migration(8, 9) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `value_snapshots` ("
+                    + "`periodStart` INTEGER NOT NULL, "
+                    + "`condition` TEXT NOT NULL, "
+                    + "`resolution` INTEGER NOT NULL, "
+                    + "`itemCountChange` INTEGER NOT NULL, "
+                    + "`valueChange` REAL NOT NULL, "
+                    + "PRIMARY KEY(`periodStart`, `condition`))");
+            DatabaseTriggers.seedSnapshots(db);
+            DatabaseTriggers.createSnapshotTriggers(db);
+        }
+    };
+
+    /** v10: normalized modelKey and trigger-maintained per-model price statistics. */
+    static final Migration MIGRATION_9_10 = new Migration(9, 10) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE `gadgets` ADD COLUMN `modelKey` TEXT");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_gadgets_modelKey_estimatedValue` "
+                    + "ON `gadgets` (`modelKey`, `estimatedValue`)");
+            db.execSQL("CREATE TABLE IF NOT EXISTS `model_price_stats` ("
+                    + "`modelKey` TEXT NOT NULL, "
+                    + "`model` TEXT, "
+                    + "`itemCount` INTEGER NOT NULL, "
+                    + "`totalValue` REAL NOT NULL, "
+                    + "`minValue` REAL NOT NULL, "
+                    + "`maxValue` REAL NOT NULL, "
+                    + "`lastSeenAt` INTEGER NOT NULL, "
+                    + "PRIMARY KEY(`modelKey`))");
+            db.execSQL("CREATE TABLE IF NOT EXISTS `model_price_buckets` ("
+                    + "`modelKey` TEXT NOT NULL, "
+                    + "`bucket` INTEGER NOT NULL, "
+                    + "`itemCount` INTEGER NOT NULL, "
+                    + "PRIMARY KEY(`modelKey`, `bucket`))");
+            // The backfill must not bump rowVersion and log every row as an edit
+            db.execSQL("DROP TRIGGER IF EXISTS gadgets_row_version");
+            DatabaseTriggers.backfillModelStats(db);
+            DatabaseTriggers.createSyncTriggers(db);
+            DatabaseTriggers.createModelStatsTriggers(db);
+        }
+    };
+
+    /** v11: indexes for value-range filters, alone and within a condition. */
+    static final Migration MIGRATION_10_11 = new Migration(10, 11) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("DROP INDEX IF EXISTS `index_gadgets_condition`");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_gadgets_condition_estimatedValue` "
+                    + "ON `gadgets` (`condition`, `estimatedValue`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_gadgets_estimatedValue` ON `gadgets` (`estimatedValue`)");
+        }
+    };
+
+    /** v12: unique serial numbers and the stock-take scan table. */
+    static final Migration MIGRATION_11_12 = new Migration(11, 12) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE `gadgets` ADD COLUMN `serialNumber` TEXT COLLATE NOCASE");
+            db.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS `index_gadgets_serialNumber` ON `gadgets` (`serialNumber`)");
+            db.execSQL("CREATE TABLE IF NOT EXISTS `stocktake_scans` ("
+                    + "`tag` TEXT NOT NULL COLLATE NOCASE, "
+                    + "`scannedAt` INTEGER NOT NULL, "
+                    + "PRIMARY KEY(`tag`))");
+        }
+    };
+
+    static final Migration[] ALL = {
+            MIGRATION_1_2,
+            MIGRATION_2_3,
+            MIGRATION_3_4,
+            MIGRATION_4_5,
+            MIGRATION_5_6,
+            MIGRATION_6_7,
+            MIGRATION_7_8,
+            MIGRATION_8_9,
+            MIGRATION_9_10,
+            MIGRATION_10_11,
+            MIGRATION_11_12
+    };
+
+    private Migrations() {
+    }
+}
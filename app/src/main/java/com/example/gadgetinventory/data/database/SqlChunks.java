@@ -0,0 +1,26 @@
+package com.example.gadgetinventory.data.database;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Splits long lists for statements that bind every element, such as {@code IN (:ids)}
+ * lookups and DAO list writes.
+ */
+public final class SqlChunks {
+    /** SQLite builds before 3.32 reject statements with more than 999 bound parameters. */
+    public static final int MAX_BIND_ARGS = 999;
+
+    /**
+     * Hands {@code items} to {@code consumer} in consecutive sub-lists of at most {@code size}.
+     * The sub-lists are views of {@code items}, valid only during the call.
+     */
+    public static <T> void forEachChunk(List<T> items, int size, Consumer<List<T>> consumer) {
+        for (int from = 0; from < items.size(); from += size) {
+            consumer.accept(items.subList(from, Math.min(from + size, items.size())));
+        }
+    }
+
+    private SqlChunks() {
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.gadgetinventory.data.entity;
+
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+/**
+ * One row per insert, update or delete on {@code gadgets}, written by triggers. The
+ * AUTOINCREMENT sequence never reuses values, so consumers can resume from the last
+ * {@code seq} they applied.
+ */
+@Entity(tableName = "gadget_changes")
+public class GadgetChangeEntity {
+    public static final int OP_INSERT = 1;
+    public static final int OP_UPDATE = 2;
+    public static final int OP_DELETE = 3;
+
+    @PrimaryKey(autoGenerate = true)
+    private long seq;
+
+    private long gadgetId;
+    private int op;
+
+    public GadgetChangeEntity(long gadgetId, int op) {
+        this.gadgetId = gadgetId;
+        this.op = op;
+    }
+
+    public long getSeq() {
+        return seq;
+    }
+
+    public void setSeq(long seq) {
+        this.seq = seq;
+    }
+
+    public long getGadgetId() {
+        return gadgetId;
+    }
+
+    public void setGadgetId(long gadgetId) {
+        this.gadgetId = gadgetId;
+    }
+
+    public int getOp() {
+        return op;
+    }
+
+    public void setOp(int op) {
+        this.op = op;
+    }
+}
@@ -1,36 +1,97 @@
 package com.example.gadgetinventory.data.entity;
 
+import androidx.room.ColumnInfo;
 import androidx.room.Entity;
+import androidx.room.Ignore;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 import androidx.room.TypeConverters;
 import com.example.gadgetinventory.data.converter.DateConverter;
 import java.util.Date;
 
-@Entity(tableName = "gadgets")
+@Entity(tableName = "gadgets",
+        indices = {
+                @Index("name"),
+                @Index("model"),
+                // Also serves condition-only lookups, as its leftmost column
+                @Index({"condition", "estimatedValue"}),
+                @Index("estimatedValue"),
+                @Index("purchaseDate"),
+                @Index(value = "syncId", unique = true),
+                @Index("imageHash"),
+                @Index({"modelKey", "estimatedValue"}),
+                @Index(value = "serialNumber", unique = true)
+        })
 public class GadgetEntity {
     @PrimaryKey(autoGenerate = true)
     private long id;
 
+    // NOCASE lets the name/model indexes serve both ORDER BY and prefix LIKE searches
+    @ColumnInfo(collate = ColumnInfo.NOCASE)
     private String name;
+    @ColumnInfo(collate = ColumnInfo.NOCASE)
     private String model;
     private String condition;
+    // model normalized by modelKeyOf(); groups spellings of one model for price statistics
+    private String modelKey;
     
     @TypeConverters(DateConverter.class)
     private Date purchaseDate;
     
     private double estimatedValue;
     private String imageUri;
+    // ThumbnailStore key of imageUri once its thumbnails are on disk, null until then
+    private String thumbnailKey;
+    // 64-bit difference hash of the photo, set with thumbnailKey; near-duplicate photos differ in few bits
+    private Long imageHash;
+    // Serial number or asset tag, unique ignoring ASCII case; null when the gadget has none
+    @ColumnInfo(collate = ColumnInfo.NOCASE)
+    private String serialNumber;
+
+    // Bumped by a trigger on every update; lets list diffing compare one number per row
+    @ColumnInfo(defaultValue = "0")
+    private long rowVersion;
+
+    // Stable id across devices; assigned by a trigger when a row is first inserted
+    private String syncId;
+    // Epoch millis of the last content change, advanced by a trigger on local edits
+    @ColumnInfo(defaultValue = "0")
+    private long updatedAt;
+    // updatedAt of the version last exchanged with the sync server; the row is dirty while lower
+    @ColumnInfo(defaultValue = "0")
+    private long syncedAt;
 
     // Constructor
     public GadgetEntity(String name, String model, String condition, Date purchaseDate, double estimatedValue, String imageUri) {
         this.name = name;
         this.model = model;
+        this.modelKey = modelKeyOf(model);
         this.condition = condition;
         this.purchaseDate = purchaseDate;
         this.estimatedValue = estimatedValue;
         this.imageUri = imageUri;
     }
 
+    /** A field-by-field copy, for callers that must not share an instance with a cache. */
+    @Ignore
+    public GadgetEntity(GadgetEntity other) {
+        this.id = other.id;
+        this.name = other.name;
+        this.model = other.model;
+        this.condition = other.condition;
+        this.modelKey = other.modelKey;
+        this.purchaseDate = other.purchaseDate != null ? new Date(other.purchaseDate.getTime()) : null;
+        this.estimatedValue = other.estimatedValue;
+        this.imageUri = other.imageUri;
+        this.thumbnailKey = other.thumbnailKey;
+        this.imageHash = other.imageHash;
+        this.serialNumber = other.serialNumber;
+        this.rowVersion = other.rowVersion;
+        this.syncId = other.syncId;
+        this.updatedAt = other.updatedAt;
+        this.syncedAt = other.syncedAt;
+    }
+
     // Getters and Setters
     public long getId() {
         return id;
@@ -54,6 +115,36 @@ public class GadgetEntity {
 
     public void setModel(String model) {
         this.model = model;
+        this.modelKey = modelKeyOf(model);
+    }
+
+    public String getModelKey() {
+        return modelKey;
+    }
+
+    public void setModelKey(String modelKey) {
+        this.modelKey = modelKey;
+    }
+
+    /**
+     * ASCII-lowercased model without spaces or hyphens, null when nothing is left, so
+     * "iPhone 13", "iphone-13" and "IPHONE13" share statistics. Must match
+     * {@code DatabaseTriggers.MODEL_KEY}, which backfills rows written before the column.
+     */
+    public static String modelKeyOf(String model) {
+        if (model == null) {
+            return null;
+        }
+        StringBuilder key = new StringBuilder(model.length());
+        for (int i = 0; i < model.length(); i++) {
+            char c = model.charAt(i);
+            if (c == ' ' || c == '-') {
+                continue;
+            }
+            // SQLite's lower() only folds ASCII
+            key.append(c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c);
+        }
+        return key.length() > 0 ? key.toString() : null;
     }
 
     public String getCondition() {
@@ -87,4 +178,69 @@ public class GadgetEntity {
     public void setImageUri(String imageUri) {
         this.imageUri = imageUri;
     }
-} 
\ No newline at end of file
+
+    public String getThumbnailKey() {
+        return thumbnailKey;
+    }
+
+    public void setThumbnailKey(String thumbnailKey) {
+        this.thumbnailKey = thumbnailKey;
+    }
+
+    public String getSerialNumber() {
+        return serialNumber;
+    }
+
+    public void setSerialNumber(String serialNumber) {
+        this.serialNumber = serialNumberOf(serialNumber);
+    }
+
+    /** Trimmed, or null when blank, so untagged gadgets never collide in the unique index. */
+    public static String serialNumberOf(String serialNumber) {
+        if (serialNumber == null) {
+            return null;
+        }
+        String trimmed = serialNumber.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    public Long getImageHash() {
+        return imageHash;
+    }
+
+    public void setImageHash(Long imageHash) {
+        this.imageHash = imageHash;
+    }
+
+    public long getRowVersion() {
+        return rowVersion;
+    }
+
+    public void setRowVersion(long rowVersion) {
+        this.rowVersion = rowVersion;
+    }
+
+    public String getSyncId() {
+        return syncId;
+    }
+
+    public void setSyncId(String syncId) {
+        this.syncId = syncId;
+    }
+
+    public long getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(long updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public long getSyncedAt() {
+        return syncedAt;
+    }
+
+    public void setSyncedAt(long syncedAt) {
+        this.syncedAt = syncedAt;
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.gadgetinventory.data.entity;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+/**
+ * A deleted gadget the sync server has not been told about yet. Written by a trigger when
+ * a row that was ever synced is deleted, and removed once the deletion has been pushed.
+ */
+@Entity(tableName = "gadget_tombstones")
+public class GadgetTombstoneEntity {
+    @PrimaryKey
+    @NonNull
+    private String syncId;
+
+    private long deletedAt;
+
+    public GadgetTombstoneEntity(@NonNull String syncId, long deletedAt) {
+        this.syncId = syncId;
+        this.deletedAt = deletedAt;
+    }
+
+    @NonNull
+    public String getSyncId() {
+        return syncId;
+    }
+
+    public void setSyncId(@NonNull String syncId) {
+        this.syncId = syncId;
+    }
+
+    public long getDeletedAt() {
+        return deletedAt;
+    }
+
+    public void setDeletedAt(long deletedAt) {
+        this.deletedAt = deletedAt;
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.gadgetinventory.data.entity;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+
+/**
+ * Running totals per (condition, purchase year) bucket. Rows are maintained by triggers on
+ * {@code gadgets} (see {@link com.example.gadgetinventory.data.database.DatabaseTriggers}),
+ * so dashboard aggregates read a handful of rows instead of the whole inventory.
+ */
+@Entity(tableName = "inventory_summary", primaryKeys = {"condition", "purchaseYear"})
+public class InventorySummaryEntity {
+    @NonNull
+    private String condition;
+
+    // UTC year of purchaseDate, 0 when the gadget has no purchase date
+    private int purchaseYear;
+
+    private long itemCount;
+    private double totalValue;
+
+    public InventorySummaryEntity(@NonNull String condition, int purchaseYear, long itemCount, double totalValue) {
+        this.condition = condition;
+        this.purchaseYear = purchaseYear;
+        this.itemCount = itemCount;
+        this.totalValue = totalValue;
+    }
+
+    @NonNull
+    public String getCondition() {
+        return condition;
+    }
+
+    public void setCondition(@NonNull String condition) {
+        this.condition = condition;
+    }
+
+    public int getPurchaseYear() {
+        return purchaseYear;
+    }
+
+    public void setPurchaseYear(int purchaseYear) {
+        this.purchaseYear = purchaseYear;
+    }
+
+    public long getItemCount() {
+        return itemCount;
+    }
+
+    public void setItemCount(long itemCount) {
+        this.itemCount = itemCount;
+    }
+
+    public double getTotalValue() {
+        return totalValue;
+    }
+
+    public void setTotalValue(double totalValue) {
+        this.totalValue = totalValue;
+    }
+}
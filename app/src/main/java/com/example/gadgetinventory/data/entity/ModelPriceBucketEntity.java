@@ -0,0 +1,63 @@
+package com.example.gadgetinventory.data.entity;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+
+/**
+ * Price histogram per normalized model, for the approximate median. A bucket holds the
+ * values sharing their digit count and first two digits (e.g. 1200-1299 is bucket 412),
+ * so bucket order is value order and each bucket spans at most 10% of its values.
+ * Values below 1 share bucket 0.
+ */
+@Entity(tableName = "model_price_buckets", primaryKeys = {"modelKey", "bucket"})
+public class ModelPriceBucketEntity {
+    @NonNull
+    private String modelKey;
+
+    private int bucket;
+    private long itemCount;
+
+    public ModelPriceBucketEntity(@NonNull String modelKey, int bucket, long itemCount) {
+        this.modelKey = modelKey;
+        this.bucket = bucket;
+        this.itemCount = itemCount;
+    }
+
+    /** Midpoint of the values in {@code bucket}. */
+    public static double midpoint(int bucket) {
+        if (bucket <= 0) {
+            return 0.5;
+        }
+        int digits = bucket / 100;
+        int leading = bucket % 100;
+        if (digits == 1) {
+            return leading + 0.5;
+        }
+        return (leading + 0.5) * Math.pow(10, digits - 2);
+    }
+
+    @NonNull
+    public String getModelKey() {
+        return modelKey;
+    }
+
+    public void setModelKey(@NonNull String modelKey) {
+        this.modelKey = modelKey;
+    }
+
+    public int getBucket() {
+        return bucket;
+    }
+
+    public void setBucket(int bucket) {
+        this.bucket = bucket;
+    }
+
+    public long getItemCount() {
+        return itemCount;
+    }
+
+    public void setItemCount(long itemCount) {
+        this.itemCount = itemCount;
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.gadgetinventory.data.entity;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+/**
+ * Running price statistics per normalized model ({@link GadgetEntity#modelKeyOf}), kept by
+ * triggers on {@code gadgets} (see {@link com.example.gadgetinventory.data.database.DatabaseTriggers})
+ * so a price suggestion is one primary-key lookup. The median comes from
+ * {@link ModelPriceBucketEntity}.
+ */
+@Entity(tableName = "model_price_stats")
+public class ModelPriceStatsEntity {
+    @PrimaryKey
+    @NonNull
+    private String modelKey;
+
+    // Spelling of the most recently written gadget with this key
+    private String model;
+    private long itemCount;
+    private double totalValue;
+    private double minValue;
+    private double maxValue;
+    // Epoch millis of the last insert or edit of a gadget with this key
+    private long lastSeenAt;
+
+    public ModelPriceStatsEntity(@NonNull String modelKey, String model, long itemCount, double totalValue,
+                                 double minValue, double maxValue, long lastSeenAt) {
+        this.modelKey = modelKey;
+        this.model = model;
+        this.itemCount = itemCount;
+        this.totalValue = totalValue;
+        this.minValue = minValue;
+        this.maxValue = maxValue;
+        this.lastSeenAt = lastSeenAt;
+    }
+
+    @NonNull
+    public String getModelKey() {
+        return modelKey;
+    }
+
+    public void setModelKey(@NonNull String modelKey) {
+        this.modelKey = modelKey;
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    public void setModel(String model) {
+        this.model = model;
+    }
+
+    public long getItemCount() {
+        return itemCount;
+    }
+
+    public void setItemCount(long itemCount) {
+        this.itemCount = itemCount;
+    }
+
+    public double getTotalValue() {
+        return totalValue;
+    }
+
+    public void setTotalValue(double totalValue) {
+        this.totalValue = totalValue;
+    }
+
+    public double getMinValue() {
+        return minValue;
+    }
+
+    public void setMinValue(double minValue) {
+        this.minValue = minValue;
+    }
+
+    public double getMaxValue() {
+        return maxValue;
+    }
+
+    public void setMaxValue(double maxValue) {
+        this.maxValue = maxValue;
+    }
+
+    public long getLastSeenAt() {
+        return lastSeenAt;
+    }
+
+    public void setLastSeenAt(long lastSeenAt) {
+        this.lastSeenAt = lastSeenAt;
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.gadgetinventory.data.entity;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+/**
+ * One tag scanned or typed during the current stock-take. The table holds a single session
+ * and is emptied when a new one starts; it is reconciled against {@code gadgets.serialNumber}
+ * with joins on the unique serial index (see {@link com.example.gadgetinventory.data.dao.StockTakeDao}).
+ */
+@Entity(tableName = "stocktake_scans")
+public class StockTakeScanEntity {
+    // Same collation as gadgets.serialNumber, so scans match tags ignoring ASCII case
+    @PrimaryKey
+    @NonNull
+    @ColumnInfo(collate = ColumnInfo.NOCASE)
+    private String tag;
+
+    // Epoch millis of the first scan of this tag
+    private long scannedAt;
+
+    public StockTakeScanEntity(@NonNull String tag, long scannedAt) {
+        this.tag = tag;
+        this.scannedAt = scannedAt;
+    }
+
+    @NonNull
+    public String getTag() {
+        return tag;
+    }
+
+    public void setTag(@NonNull String tag) {
+        this.tag = tag;
+    }
+
+    public long getScannedAt() {
+        return scannedAt;
+    }
+
+    public void setScannedAt(long scannedAt) {
+        this.scannedAt = scannedAt;
+    }
+}
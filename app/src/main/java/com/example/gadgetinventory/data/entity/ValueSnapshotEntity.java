@@ -0,0 +1,77 @@
+package com.example.gadgetinventory.data.entity;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+
+/**
+ * Net change in item count and value for one condition over one period, written by
+ * triggers on {@code gadgets} (see {@link com.example.gadgetinventory.data.database.DatabaseTriggers}).
+ * The inventory as of any period end is the sum of every row up to it. Old daily rows are
+ * merged into weekly and then monthly rows; sums are unchanged, only finer points go away.
+ */
+@Entity(tableName = "value_snapshots", primaryKeys = {"periodStart", "condition"})
+public class ValueSnapshotEntity {
+    public static final int RESOLUTION_DAY = 0;
+    public static final int RESOLUTION_WEEK = 1;
+    public static final int RESOLUTION_MONTH = 2;
+
+    // UTC epoch day the period starts on
+    private long periodStart;
+
+    @NonNull
+    private String condition;
+
+    private int resolution;
+    private long itemCountChange;
+    private double valueChange;
+
+    public ValueSnapshotEntity(long periodStart, @NonNull String condition, int resolution,
+                               long itemCountChange, double valueChange) {
+        this.periodStart = periodStart;
+        this.condition = condition;
+        this.resolution = resolution;
+        this.itemCountChange = itemCountChange;
+        this.valueChange = valueChange;
+    }
+
+    public long getPeriodStart() {
+        return periodStart;
+    }
+
+    public void setPeriodStart(long periodStart) {
+        this.periodStart = periodStart;
+    }
+
+    @NonNull
+    public String getCondition() {
+        return condition;
+    }
+
+    public void setCondition(@NonNull String condition) {
+        this.condition = condition;
+    }
+
+    public int getResolution() {
+        return resolution;
+    }
+
+    public void setResolution(int resolution) {
+        this.resolution = resolution;
+    }
+
+    public long getItemCountChange() {
+        return itemCountChange;
+    }
+
+    public void setItemCountChange(long itemCountChange) {
+        this.itemCountChange = itemCountChange;
+    }
+
+    public double getValueChange() {
+        return valueChange;
+    }
+
+    public void setValueChange(double valueChange) {
+        this.valueChange = valueChange;
+    }
+}
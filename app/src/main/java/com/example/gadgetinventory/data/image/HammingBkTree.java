@@ -0,0 +1,142 @@
+package com.example.gadgetinventory.data.image;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * BK-tree over 64-bit hashes under Hamming distance. Each child edge is labelled with its
+ * distance to the parent, so a search for everything within {@code r} of a query at
+ * distance {@code d} from a node only descends into edges {@code d - r .. d + r}. For the
+ * small radii duplicate detection uses this visits a small fraction of the nodes.
+ * <p>
+ * Ids sharing an identical hash share a node. Removal only drops the id; nodes stay in
+ * place as routing points until the tree is rebuilt. Not thread-safe.
+ */
+public final class HammingBkTree {
+    public interface Visitor {
+        void visit(long id, long hash, int distance);
+    }
+
+    private Node root;
+    private int size;
+
+    public void add(long id, long hash) {
+        if (root == null) {
+            root = new Node(hash);
+            root.ids.add(id);
+            size++;
+            return;
+        }
+        Node node = root;
+        while (true) {
+            int distance = PerceptualHash.distance(node.hash, hash);
+            if (distance == 0) {
+                node.ids.add(id);
+                size++;
+                return;
+            }
+            Node child = node.child(distance);
+            if (child == null) {
+                child = new Node(hash);
+                child.ids.add(id);
+                node.addChild(distance, child);
+                size++;
+                return;
+            }
+            node = child;
+        }
+    }
+
+    /** Returns false when {@code id} was not stored under {@code hash}. */
+    public boolean remove(long id, long hash) {
+        Node node = root;
+        while (node != null) {
+            int distance = PerceptualHash.distance(node.hash, hash);
+            if (distance == 0) {
+                if (node.ids.remove(Long.valueOf(id))) {
+                    size--;
+                    return true;
+                }
+                return false;
+            }
+            node = node.child(distance);
+        }
+        return false;
+    }
+
+    /** Calls {@code visitor} for every id whose hash is within {@code maxDistance} of {@code hash}. */
+    public void search(long hash, int maxDistance, Visitor visitor) {
+        if (root == null) {
+            return;
+        }
+        Deque<Node> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            Node node = pending.pop();
+            int distance = PerceptualHash.distance(node.hash, hash);
+            if (distance <= maxDistance) {
+                for (Long id : node.ids) {
+                    visitor.visit(id, node.hash, distance);
+                }
+            }
+            // Triangle inequality: matches below a child lie within maxDistance of its edge
+            int low = distance - maxDistance;
+            int high = distance + maxDistance;
+            for (int i = 0; i < node.childCount && node.edges[i] <= high; i++) {
+                if (node.edges[i] >= low) {
+                    pending.push(node.children[i]);
+                }
+            }
+        }
+    }
+
+    /** Number of ids stored. */
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        root = null;
+        size = 0;
+    }
+
+    private static final class Node {
+        // Most nodes are leaves; they share these until their first child
+        private static final int[] NO_EDGES = new int[0];
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        final long hash;
+        final List<Long> ids = new ArrayList<>(1);
+        // Children sorted by edge, their distance to this node (1..64). Plain arrays, as
+        // SparseArray keeps them, without tying the tree to the Android runtime
+        int[] edges = NO_EDGES;
+        Node[] children = NO_CHILDREN;
+        int childCount;
+
+        Node(long hash) {
+            this.hash = hash;
+        }
+
+        Node child(int edge) {
+            int i = Arrays.binarySearch(edges, 0, childCount, edge);
+            return i >= 0 ? children[i] : null;
+        }
+
+        void addChild(int edge, Node child) {
+            int i = -(Arrays.binarySearch(edges, 0, childCount, edge) + 1);
+            if (childCount == edges.length) {
+                int capacity = Math.max(4, childCount * 2);
+                edges = Arrays.copyOf(edges, capacity);
+                children = Arrays.copyOf(children, capacity);
+            }
+            System.arraycopy(edges, i, edges, i + 1, childCount - i);
+            System.arraycopy(children, i, children, i + 1, childCount - i);
+            edges[i] = edge;
+            children[i] = child;
+            childCount++;
+        }
+    }
+}
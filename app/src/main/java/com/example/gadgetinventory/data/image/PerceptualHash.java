@@ -0,0 +1,60 @@
+package com.example.gadgetinventory.data.image;
+
+import android.graphics.Bitmap;
+
+/**
+ * 64-bit difference hash (dHash) of a photo. The image is averaged down to a 9x8 grid of
+ * luminance cells and each bit records whether a cell is darker than its right neighbour.
+ * Rescaling, recompression and small exposure changes flip only a few bits, so photos of
+ * the same item taken from the same angle land within a small Hamming distance.
+ */
+public final class PerceptualHash {
+    public static final int BITS = 64;
+
+    private static final int GRID_WIDTH = 9;
+    private static final int GRID_HEIGHT = 8;
+
+    /**
+     * Hashes {@code bitmap}. Every pixel contributes to its cell (a box filter), so pass a
+     * thumbnail-sized bitmap rather than a full-resolution photo.
+     */
+    public static long of(Bitmap bitmap) {
+        int width = bitmap.getWidth();
+        int height = bitmap.getHeight();
+        int[] row = new int[width];
+        long[] sums = new long[GRID_WIDTH * GRID_HEIGHT];
+        int[] counts = new int[GRID_WIDTH * GRID_HEIGHT];
+        for (int y = 0; y < height; y++) {
+            bitmap.getPixels(row, 0, width, 0, y, width, 1);
+            int cellRow = y * GRID_HEIGHT / height * GRID_WIDTH;
+            for (int x = 0; x < width; x++) {
+                int pixel = row[x];
+                // Rec. 601 luma, scaled by 1000 to stay in integers
+                int luma = ((pixel >> 16) & 0xFF) * 299 + ((pixel >> 8) & 0xFF) * 587 + (pixel & 0xFF) * 114;
+                int cell = cellRow + x * GRID_WIDTH / width;
+                sums[cell] += luma;
+                counts[cell]++;
+            }
+        }
+        long hash = 0;
+        int bit = 0;
+        for (int y = 0; y < GRID_HEIGHT; y++) {
+            for (int x = 0; x < GRID_WIDTH - 1; x++) {
+                int cell = y * GRID_WIDTH + x;
+                // Cross-multiplied to compare means without dividing
+                if (sums[cell] * counts[cell + 1] < sums[cell + 1] * counts[cell]) {
+                    hash |= 1L << bit;
+                }
+                bit++;
+            }
+        }
+        return hash;
+    }
+
+    public static int distance(long a, long b) {
+        return Long.bitCount(a ^ b);
+    }
+
+    private PerceptualHash() {
+    }
+}
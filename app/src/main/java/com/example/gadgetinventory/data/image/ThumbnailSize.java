@@ -0,0 +1,28 @@
+package com.example.gadgetinventory.data.image;
+
+/**
+ * Thumbnail sizes written for every gadget photo. Each thumbnail keeps the photo's aspect
+ * ratio with its longer edge at most {@link #getMaxEdge()} pixels.
+ */
+public enum ThumbnailSize {
+    // 120dp list image, center-cropped: a 4:3 photo still covers it at xxhdpi
+    LIST("list", 480),
+    // Full-width detail header
+    DETAIL("detail", 1440);
+
+    private final String suffix;
+    private final int maxEdge;
+
+    ThumbnailSize(String suffix, int maxEdge) {
+        this.suffix = suffix;
+        this.maxEdge = maxEdge;
+    }
+
+    String getSuffix() {
+        return suffix;
+    }
+
+    public int getMaxEdge() {
+        return maxEdge;
+    }
+}
@@ -0,0 +1,259 @@
+package com.example.gadgetinventory.data.image;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Matrix;
+import android.media.ExifInterface;
+import android.net.Uri;
+import androidx.annotation.Nullable;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Downscaled copies of gadget photos in app-private storage. Thumbnails are keyed by a hash
+ * of the source {@code imageUri}, so a gadget whose photo changes gets a new key and a
+ * stored key never points at the wrong picture. Files are written to a temporary name and
+ * renamed, so readers never see a partial JPEG.
+ */
+public class ThumbnailStore {
+    private static final String DIRECTORY = "thumbnails";
+    // Outside the directory, so deleting every thumbnail cannot take it along
+    private static final String REBUILD_MARKER = "thumbnails.rebuild";
+    private static final int JPEG_QUALITY = 85;
+
+    private final ContentResolver contentResolver;
+    private final File directory;
+    private final File rebuildMarker;
+
+    public ThumbnailStore(Context context) {
+        this.contentResolver = context.getContentResolver();
+        this.directory = new File(context.getFilesDir(), DIRECTORY);
+        this.rebuildMarker = new File(context.getFilesDir(), REBUILD_MARKER);
+    }
+
+    /** Thumbnail key for a photo, or null when there is no photo. */
+    @Nullable
+    public static String keyFor(@Nullable String imageUri) {
+        if (imageUri == null || imageUri.isEmpty()) {
+            return null;
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(imageUri.getBytes(StandardCharsets.UTF_8));
+            StringBuilder key = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                key.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return key.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 unavailable", e);
+        }
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    public File getFile(String key, ThumbnailSize size) {
+        return new File(directory, key + "_" + size.getSuffix() + ".jpg");
+    }
+
+    /**
+     * Deletes every thumbnail and asks for all of them to be rebuilt, since rows keep their
+     * keys. The request stands until {@link #rebuildDone}, so an interrupted rebuild resumes.
+     */
+    public void deleteAll() throws IOException {
+        if (!rebuildMarker.isFile() && !rebuildMarker.createNewFile()) {
+            throw new IOException("Cannot create " + rebuildMarker);
+        }
+        File[] thumbnails = directory.listFiles();
+        if (thumbnails != null) {
+            for (File thumbnail : thumbnails) {
+                thumbnail.delete();
+            }
+        }
+    }
+
+    /** True after {@link #deleteAll} until {@link #rebuildDone}. Touches the disk. */
+    public boolean isRebuildRequested() {
+        return rebuildMarker.isFile();
+    }
+
+    public void rebuildDone() {
+        rebuildMarker.delete();
+    }
+
+    /** True when every size exists for {@code key}. Touches the disk. */
+    public boolean exists(String key) {
+        for (ThumbnailSize size : ThumbnailSize.values()) {
+            if (!getFile(key, size).isFile()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Decodes the photo once, subsampled to roughly the largest thumbnail, and writes every
+     * size for {@code key}. Returns the {@link PerceptualHash} of the list-sized image.
+     * Blocking; call on a background thread.
+     */
+    public long generate(String imageUri, String key) throws IOException {
+        Uri uri = Uri.parse(imageUri);
+        Bitmap decoded = decode(uri, ThumbnailSize.DETAIL.getMaxEdge());
+        int rotation = readRotation(uri);
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            decoded.recycle();
+            throw new IOException("Cannot create " + directory);
+        }
+        long hash = 0;
+        try {
+            for (ThumbnailSize size : ThumbnailSize.values()) {
+                Bitmap scaled = scale(decoded, size.getMaxEdge(), rotation);
+                try {
+                    write(scaled, getFile(key, size));
+                    if (size == ThumbnailSize.LIST) {
+                        hash = PerceptualHash.of(scaled);
+                    }
+                } finally {
+                    if (scaled != decoded) {
+                        scaled.recycle();
+                    }
+                }
+            }
+        } finally {
+            decoded.recycle();
+        }
+        return hash;
+    }
+
+    /** {@link PerceptualHash} of the list thumbnail already written for {@code key}. */
+    public long hashThumbnail(String key) throws IOException {
+        File file = getFile(key, ThumbnailSize.LIST);
+        Bitmap bitmap = BitmapFactory.decodeFile(file.getPath());
+        if (bitmap == null) {
+            throw new IOException("Failed to decode " + file);
+        }
+        try {
+            return PerceptualHash.of(bitmap);
+        } finally {
+            bitmap.recycle();
+        }
+    }
+
+    /**
+     * {@link PerceptualHash} of a photo that may not have thumbnails yet, computed from the
+     * same list-sized, upright image {@link #generate} hashes. Blocking.
+     */
+    public long hashPhoto(String imageUri) throws IOException {
+        Uri uri = Uri.parse(imageUri);
+        int maxEdge = ThumbnailSize.LIST.getMaxEdge();
+        Bitmap decoded = decode(uri, maxEdge);
+        Bitmap scaled = scale(decoded, maxEdge, readRotation(uri));
+        try {
+            return PerceptualHash.of(scaled);
+        } finally {
+            if (scaled != decoded) {
+                scaled.recycle();
+            }
+            decoded.recycle();
+        }
+    }
+
+    // Decodes subsampled so the longer edge stays at or above maxEdge
+    private Bitmap decode(Uri uri, int maxEdge) throws IOException {
+        BitmapFactory.Options bounds = new BitmapFactory.Options();
+        bounds.inJustDecodeBounds = true;
+        try (InputStream in = open(uri)) {
+            BitmapFactory.decodeStream(in, null, bounds);
+        }
+        if (bounds.outWidth <= 0 || bounds.outHeight <= 0) {
+            throw new IOException("Not a decodable image: " + uri);
+        }
+
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inSampleSize = sampleSize(bounds.outWidth, bounds.outHeight, maxEdge);
+        Bitmap decoded;
+        try (InputStream in = open(uri)) {
+            decoded = BitmapFactory.decodeStream(in, null, options);
+        }
+        if (decoded == null) {
+            throw new IOException("Failed to decode " + uri);
+        }
+        return decoded;
+    }
+
+    private InputStream open(Uri uri) throws IOException {
+        InputStream in = contentResolver.openInputStream(uri);
+        if (in == null) {
+            throw new FileNotFoundException("Cannot open " + uri);
+        }
+        return in;
+    }
+
+    // Largest power of two that keeps the longer edge at or above maxEdge
+    private static int sampleSize(int width, int height, int maxEdge) {
+        int longEdge = Math.max(width, height);
+        int sampleSize = 1;
+        while (longEdge / (sampleSize * 2) >= maxEdge) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+
+    // Camera JPEGs are often stored sideways with an EXIF orientation tag
+    private int readRotation(Uri uri) {
+        try (InputStream in = open(uri)) {
+            int orientation = new ExifInterface(in).getAttributeInt(
+                    ExifInterface.TAG_ORIENTATION, ExifInterface.ORIENTATION_NORMAL);
+            switch (orientation) {
+                case ExifInterface.ORIENTATION_ROTATE_90:
+                    return 90;
+                case ExifInterface.ORIENTATION_ROTATE_180:
+                    return 180;
+                case ExifInterface.ORIENTATION_ROTATE_270:
+                    return 270;
+                default:
+                    return 0;
+            }
+        } catch (IOException | RuntimeException e) {
+            // Not a JPEG, or no EXIF block
+            return 0;
+        }
+    }
+
+    private static Bitmap scale(Bitmap source, int maxEdge, int rotation) {
+        float scale = Math.min(1f, (float) maxEdge / Math.max(source.getWidth(), source.getHeight()));
+        if (scale == 1f && rotation == 0) {
+            return source;
+        }
+        Matrix matrix = new Matrix();
+        matrix.postScale(scale, scale);
+        matrix.postRotate(rotation);
+        return Bitmap.createBitmap(source, 0, 0, source.getWidth(), source.getHeight(), matrix, true);
+    }
+
+    private static void write(Bitmap bitmap, File target) throws IOException {
+        File temp = new File(target.getPath() + ".tmp");
+        try (OutputStream out = new FileOutputStream(temp)) {
+            if (!bitmap.compress(Bitmap.CompressFormat.JPEG, JPEG_QUALITY, out)) {
+                throw new IOException("Failed to encode " + target);
+            }
+        } catch (IOException e) {
+            temp.delete();
+            throw e;
+        }
+        if (!temp.renameTo(target)) {
+            temp.delete();
+            throw new IOException("Failed to move thumbnail into place: " + target);
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.example.gadgetinventory.data.io;
+
+import android.util.JsonReader;
+import android.util.JsonWriter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * First entry of every backup archive. Lists every image the inventory referenced at
+ * backup time with its content hash, and which of those hashes this archive carries; the
+ * rest were carried by earlier archives of the same chain.
+ */
+public class BackupManifest {
+    public static final String ENTRY_NAME = "manifest.json";
+    static final int FORMAT_VERSION = 1;
+    // Far above any real manifest; guards against reading an arbitrary archive into memory
+    private static final int MAX_BYTES = 32 * 1024 * 1024;
+
+    public static final class Image {
+        private final String path;
+        private final String hash;
+        private final long size;
+
+        public Image(String path, String hash, long size) {
+            this.path = path;
+            this.hash = hash;
+            this.size = size;
+        }
+
+        /** Location relative to the app's image directories, e.g. {@code pictures/gadget_1.jpg}. */
+        public String getPath() {
+            return path;
+        }
+
+        public String getHash() {
+            return hash;
+        }
+
+        public long getSize() {
+            return size;
+        }
+    }
+
+    private final long createdAt;
+    private final int schemaVersion;
+    private final boolean full;
+    private final List<Image> images;
+    private final Set<String> includedHashes;
+
+    public BackupManifest(long createdAt, int schemaVersion, boolean full, List<Image> images,
+                          Set<String> includedHashes) {
+        this.createdAt = createdAt;
+        this.schemaVersion = schemaVersion;
+        this.full = full;
+        this.images = Collections.unmodifiableList(images);
+        this.includedHashes = Collections.unmodifiableSet(includedHashes);
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public int getSchemaVersion() {
+        return schemaVersion;
+    }
+
+    /** True when the archive carries every listed image and needs no earlier archive. */
+    public boolean isFull() {
+        return full;
+    }
+
+    public List<Image> getImages() {
+        return images;
+    }
+
+    public Set<String> getIncludedHashes() {
+        return includedHashes;
+    }
+
+    public byte[] toJson() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        JsonWriter json = new JsonWriter(new OutputStreamWriter(bytes, StandardCharsets.UTF_8));
+        json.beginObject();
+        json.name("version").value(FORMAT_VERSION);
+        json.name("createdAt").value(createdAt);
+        json.name("schemaVersion").value(schemaVersion);
+        json.name("full").value(full);
+        json.name("images").beginArray();
+        for (Image image : images) {
+            json.beginObject();
+            json.name("path").value(image.path);
+            json.name("hash").value(image.hash);
+            json.name("size").value(image.size);
+            json.endObject();
+        }
+        json.endArray();
+        json.name("included").beginArray();
+        for (String hash : includedHashes) {
+            json.value(hash);
+        }
+        json.endArray();
+        json.endObject();
+        json.close();
+        return bytes.toByteArray();
+    }
+
+    /** Reads a manifest from the current archive entry without closing {@code in}. */
+    public static BackupManifest read(InputStream in) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            bytes.write(buffer, 0, read);
+            if (bytes.size() > MAX_BYTES) {
+                throw new IOException("Backup manifest is too large");
+            }
+        }
+        try (JsonReader json = new JsonReader(new InputStreamReader(
+                new ByteArrayInputStream(bytes.toByteArray()), StandardCharsets.UTF_8))) {
+            return parse(json);
+        } catch (IllegalStateException | NumberFormatException e) {
+            throw new IOException("Malformed backup manifest", e);
+        }
+    }
+
+    private static BackupManifest parse(JsonReader json) throws IOException {
+        int version = 0;
+        long createdAt = 0;
+        int schemaVersion = 0;
+        boolean full = false;
+        List<Image> images = new ArrayList<>();
+        Set<String> included = new LinkedHashSet<>();
+        json.beginObject();
+        while (json.hasNext()) {
+            switch (json.nextName()) {
+                case "version":
+                    version = json.nextInt();
+                    break;
+                case "createdAt":
+                    createdAt = json.nextLong();
+                    break;
+                case "schemaVersion":
+                    schemaVersion = json.nextInt();
+                    break;
+                case "full":
+                    full = json.nextBoolean();
+                    break;
+                case "images":
+                    json.beginArray();
+                    while (json.hasNext()) {
+                        images.add(parseImage(json));
+                    }
+                    json.endArray();
+                    break;
+                case "included":
+                    json.beginArray();
+                    while (json.hasNext()) {
+                        included.add(json.nextString());
+                    }
+                    json.endArray();
+                    break;
+                default:
+                    json.skipValue();
+                    break;
+            }
+        }
+        json.endObject();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported backup format version " + version);
+        }
+        return new BackupManifest(createdAt, schemaVersion, full, images, included);
+    }
+
+    private static Image parseImage(JsonReader json) throws IOException {
+        String path = null;
+        String hash = null;
+        long size = 0;
+        json.beginObject();
+        while (json.hasNext()) {
+            switch (json.nextName()) {
+                case "path":
+                    path = json.nextString();
+                    break;
+                case "hash":
+                    hash = json.nextString();
+                    break;
+                case "size":
+                    size = json.nextLong();
+                    break;
+                default:
+                    json.skipValue();
+                    break;
+            }
+        }
+        json.endObject();
+        if (path == null || hash == null) {
+            throw new IOException("Backup manifest image without path or hash");
+        }
+        return new Image(path, hash, size);
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.gadgetinventory.data.io;
+
+/**
+ * Outcome of a backup: how many referenced images there were and how many of them this
+ * archive had to carry because no earlier archive of the chain did.
+ */
+public class BackupResult {
+    private final boolean full;
+    private final int referencedImages;
+    private final int archivedImages;
+    private final long archivedBytes;
+
+    public BackupResult(boolean full, int referencedImages, int archivedImages, long archivedBytes) {
+        this.full = full;
+        this.referencedImages = referencedImages;
+        this.archivedImages = archivedImages;
+        this.archivedBytes = archivedBytes;
+    }
+
+    public boolean isFull() {
+        return full;
+    }
+
+    public int getReferencedImages() {
+        return referencedImages;
+    }
+
+    public int getArchivedImages() {
+        return archivedImages;
+    }
+
+    /** Uncompressed size of the database and image entries written. */
+    public long getArchivedBytes() {
+        return archivedBytes;
+    }
+}
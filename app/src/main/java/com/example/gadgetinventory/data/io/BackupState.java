@@ -0,0 +1,173 @@
+package com.example.gadgetinventory.data.io;
+
+import android.util.JsonReader;
+import android.util.JsonWriter;
+import android.util.Log;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Local record kept between backups: the content hash of each image file, reused while its
+ * size and modification time are unchanged, and the hashes earlier archives already carry.
+ * A missing or unreadable state file simply makes the next backup a full one.
+ */
+public class BackupState {
+    private static final String TAG = "BackupState";
+
+    private static final class FileHash {
+        final long size;
+        final long modified;
+        final String hash;
+
+        FileHash(long size, long modified, String hash) {
+            this.size = size;
+            this.modified = modified;
+            this.hash = hash;
+        }
+    }
+
+    private final Map<String, FileHash> hashes = new HashMap<>();
+    private final Set<String> archived = new HashSet<>();
+
+    public static BackupState load(File file) {
+        BackupState state = new BackupState();
+        if (!file.isFile()) {
+            return state;
+        }
+        try (JsonReader json = new JsonReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            json.beginObject();
+            while (json.hasNext()) {
+                String name = json.nextName();
+                if (name.equals("files")) {
+                    json.beginArray();
+                    while (json.hasNext()) {
+                        state.readFileHash(json);
+                    }
+                    json.endArray();
+                } else if (name.equals("archived")) {
+                    json.beginArray();
+                    while (json.hasNext()) {
+                        state.archived.add(json.nextString());
+                    }
+                    json.endArray();
+                } else {
+                    json.skipValue();
+                }
+            }
+            json.endObject();
+        } catch (IOException | IllegalStateException | NumberFormatException e) {
+            Log.w(TAG, "Discarding unreadable backup state", e);
+            return new BackupState();
+        }
+        return state;
+    }
+
+    private void readFileHash(JsonReader json) throws IOException {
+        String path = null;
+        String hash = null;
+        long size = -1;
+        long modified = -1;
+        json.beginObject();
+        while (json.hasNext()) {
+            switch (json.nextName()) {
+                case "path":
+                    path = json.nextString();
+                    break;
+                case "size":
+                    size = json.nextLong();
+                    break;
+                case "modified":
+                    modified = json.nextLong();
+                    break;
+                case "hash":
+                    hash = json.nextString();
+                    break;
+                default:
+                    json.skipValue();
+                    break;
+            }
+        }
+        json.endObject();
+        if (path != null && hash != null) {
+            hashes.put(path, new FileHash(size, modified, hash));
+        }
+    }
+
+    public void save(File file) throws IOException {
+        File temp = new File(file.getPath() + ".tmp");
+        try (JsonWriter json = new JsonWriter(new OutputStreamWriter(new FileOutputStream(temp), StandardCharsets.UTF_8))) {
+            json.beginObject();
+            json.name("files").beginArray();
+            for (Map.Entry<String, FileHash> entry : hashes.entrySet()) {
+                json.beginObject();
+                json.name("path").value(entry.getKey());
+                json.name("size").value(entry.getValue().size);
+                json.name("modified").value(entry.getValue().modified);
+                json.name("hash").value(entry.getValue().hash);
+                json.endObject();
+            }
+            json.endArray();
+            json.name("archived").beginArray();
+            for (String hash : archived) {
+                json.value(hash);
+            }
+            json.endArray();
+            json.endObject();
+        }
+        if (!temp.renameTo(file)) {
+            temp.delete();
+            throw new IOException("Cannot save backup state to " + file);
+        }
+    }
+
+    /** SHA-256 of {@code file}, recomputed only when its size or timestamp changed. */
+    public String hashOf(String path, File file) throws IOException {
+        long size = file.length();
+        long modified = file.lastModified();
+        FileHash cached = hashes.get(path);
+        if (cached != null && cached.size == size && cached.modified == modified) {
+            return cached.hash;
+        }
+        String hash = FileHashes.sha256(file);
+        hashes.put(path, new FileHash(size, modified, hash));
+        return hash;
+    }
+
+    /** Forgets cached hashes of files that are no longer referenced. */
+    public void retainPaths(Collection<String> paths) {
+        Set<String> keep = new HashSet<>(paths);
+        for (Iterator<String> it = hashes.keySet().iterator(); it.hasNext(); ) {
+            if (!keep.contains(it.next())) {
+                it.remove();
+            }
+        }
+    }
+
+    public boolean isArchived(String hash) {
+        return archived.contains(hash);
+    }
+
+    public boolean hasArchives() {
+        return !archived.isEmpty();
+    }
+
+    public void markArchived(Collection<String> hashes) {
+        archived.addAll(hashes);
+    }
+
+    /** Starts a new chain: the next archive carries every image. */
+    public void clearArchived() {
+        archived.clear();
+    }
+}
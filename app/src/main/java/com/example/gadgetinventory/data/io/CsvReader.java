@@ -0,0 +1,112 @@
+package com.example.gadgetinventory.data.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal RFC 4180 reader that yields one record at a time. Quoted fields may contain
+ * commas, doubled quotes and line breaks. Fields longer than {@link #MAX_FIELD_LENGTH}
+ * are rejected so a malformed file cannot make a single record grow without bound.
+ */
+class CsvReader implements Closeable {
+    static final int MAX_FIELD_LENGTH = 64 * 1024;
+
+    private final Reader reader;
+    private final StringBuilder field = new StringBuilder();
+    private int pushback = -2;
+    private long lineNumber = 1;
+
+    CsvReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /** Line on which the most recently returned record ended. */
+    long getLineNumber() {
+        return lineNumber;
+    }
+
+    /** Returns the next record, or {@code null} at end of input. */
+    List<String> readRecord() throws IOException {
+        int c = read();
+        if (c == -1) {
+            return null;
+        }
+        List<String> record = new ArrayList<>();
+        field.setLength(0);
+        boolean quoted = false;
+        boolean fieldStart = true;
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new IOException("Unterminated quoted field near line " + lineNumber);
+                }
+                if (c == '"') {
+                    int next = read();
+                    if (next == '"') {
+                        append('"');
+                    } else {
+                        quoted = false;
+                        c = next;
+                        continue;
+                    }
+                } else {
+                    if (c == '\n') {
+                        lineNumber++;
+                    }
+                    append((char) c);
+                }
+            } else if (c == '"' && fieldStart) {
+                quoted = true;
+                fieldStart = false;
+            } else if (c == ',') {
+                record.add(field.toString());
+                field.setLength(0);
+                fieldStart = true;
+            } else if (c == '\r' || c == '\n' || c == -1) {
+                if (c == '\r') {
+                    int next = read();
+                    if (next != '\n') {
+                        unread(next);
+                    }
+                }
+                if (c != -1) {
+                    lineNumber++;
+                }
+                record.add(field.toString());
+                return record;
+            } else {
+                append((char) c);
+                fieldStart = false;
+            }
+            c = read();
+        }
+    }
+
+    private void append(char c) throws IOException {
+        if (field.length() >= MAX_FIELD_LENGTH) {
+            throw new IOException("Field exceeds " + MAX_FIELD_LENGTH + " characters near line " + lineNumber);
+        }
+        field.append(c);
+    }
+
+    private int read() throws IOException {
+        if (pushback != -2) {
+            int c = pushback;
+            pushback = -2;
+            return c;
+        }
+        return reader.read();
+    }
+
+    private void unread(int c) {
+        pushback = c;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.gadgetinventory.data.io;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of an inventory import. Only the first {@link #MAX_REPORTED_ERRORS} row errors
+ * are kept so a badly broken file cannot grow the report without bound.
+ */
+public class ImportResult {
+    public static final int MAX_REPORTED_ERRORS = 50;
+
+    private long importedRows;
+    private long rejectedRows;
+    private final List<String> errors = new ArrayList<>();
+
+    void addImported(int count) {
+        importedRows += count;
+    }
+
+    void reject(long rowNumber, String reason) {
+        rejectedRows++;
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add("Row " + rowNumber + ": " + reason);
+        }
+    }
+
+    public long getImportedRows() {
+        return importedRows;
+    }
+
+    public long getRejectedRows() {
+        return rejectedRows;
+    }
+
+    public List<String> getErrors() {
+        return Collections.unmodifiableList(errors);
+    }
+}
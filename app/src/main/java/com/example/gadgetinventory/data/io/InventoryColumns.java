@@ -0,0 +1,41 @@
+package com.example.gadgetinventory.data.io;
+
+import java.text.SimpleDateFormat;
+import java.util.Locale;
+import java.util.TimeZone;
+
+/**
+ * Column layout shared by the CSV and JSON formats. Ids are not exported: they are local
+ * to one database and would collide when an inventory is moved to another device.
+ */
+final class InventoryColumns {
+    static final String NAME = "name";
+    static final String MODEL = "model";
+    static final String CONDITION = "condition";
+    static final String PURCHASE_DATE = "purchaseDate";
+    static final String ESTIMATED_VALUE = "estimatedValue";
+    static final String IMAGE_URI = "imageUri";
+    static final String SERIAL_NUMBER = "serialNumber";
+
+    static final String[] ALL = {NAME, MODEL, CONDITION, PURCHASE_DATE, ESTIMATED_VALUE, IMAGE_URI, SERIAL_NUMBER};
+
+    static int indexOf(String column) {
+        for (int i = 0; i < ALL.length; i++) {
+            if (ALL[i].equalsIgnoreCase(column.trim())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /** Purchase dates are calendar days picked in UTC, so they are written as UTC ISO dates. */
+    static SimpleDateFormat newDateFormat() {
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd", Locale.ROOT);
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        format.setLenient(false);
+        return format;
+    }
+
+    private InventoryColumns() {
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.gadgetinventory.data.io;
+
+import android.util.JsonWriter;
+import androidx.annotation.Nullable;
+import com.example.gadgetinventory.data.dao.GadgetDao;
+import com.example.gadgetinventory.data.dao.InventorySummaryDao;
+import com.example.gadgetinventory.data.entity.GadgetEntity;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.List;
+
+/**
+ * Streams the inventory to CSV or JSON. Rows are read in primary-key order one page at a
+ * time (keyset pagination), so memory use is bounded by the page size, not the table size.
+ * Must be called off the main thread.
+ */
+public class InventoryExporter {
+    static final int PAGE_SIZE = 500;
+
+    private final GadgetDao gadgetDao;
+    private final InventorySummaryDao summaryDao;
+
+    public InventoryExporter(GadgetDao gadgetDao, InventorySummaryDao summaryDao) {
+        this.gadgetDao = gadgetDao;
+        this.summaryDao = summaryDao;
+    }
+
+    /** Writes every gadget to {@code out} and returns the number of rows written. */
+    public long export(OutputStream out, InventoryFormat format, @Nullable ProgressListener listener)
+            throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        long total = summaryDao.countGadgets();
+        long written;
+        if (format == InventoryFormat.JSON) {
+            written = writeJson(writer, total, listener);
+        } else {
+            written = writeCsv(writer, total, listener);
+        }
+        writer.flush();
+        return written;
+    }
+
+    private long writeCsv(Writer writer, long total, @Nullable ProgressListener listener) throws IOException {
+        SimpleDateFormat dateFormat = InventoryColumns.newDateFormat();
+        writeCsvRecord(writer, InventoryColumns.ALL);
+        String[] fields = new String[InventoryColumns.ALL.length];
+        long written = 0;
+        long lastId = 0;
+        List<GadgetEntity> page;
+        while (!(page = gadgetDao.getPageAfter(lastId, PAGE_SIZE)).isEmpty()) {
+            for (GadgetEntity gadget : page) {
+                fields[0] = gadget.getName();
+                fields[1] = gadget.getModel();
+                fields[2] = gadget.getCondition();
+                fields[3] = gadget.getPurchaseDate() != null ? dateFormat.format(gadget.getPurchaseDate()) : null;
+                fields[4] = formatValue(gadget.getEstimatedValue());
+                fields[5] = gadget.getImageUri();
+                fields[6] = gadget.getSerialNumber();
+                writeCsvRecord(writer, fields);
+            }
+            written += page.size();
+            lastId = page.get(page.size() - 1).getId();
+            if (listener != null) {
+                listener.onProgress(written, total);
+            }
+        }
+        return written;
+    }
+
+    private long writeJson(Writer writer, long total, @Nullable ProgressListener listener) throws IOException {
+        SimpleDateFormat dateFormat = InventoryColumns.newDateFormat();
+        JsonWriter json = new JsonWriter(writer);
+        json.beginObject();
+        json.name("version").value(1);
+        json.name("gadgets").beginArray();
+        long written = 0;
+        long lastId = 0;
+        List<GadgetEntity> page;
+        while (!(page = gadgetDao.getPageAfter(lastId, PAGE_SIZE)).isEmpty()) {
+            for (GadgetEntity gadget : page) {
+                json.beginObject();
+                json.name(InventoryColumns.NAME).value(gadget.getName());
+                json.name(InventoryColumns.MODEL).value(gadget.getModel());
+                json.name(InventoryColumns.CONDITION).value(gadget.getCondition());
+                json.name(InventoryColumns.PURCHASE_DATE).value(gadget.getPurchaseDate() != null
+                        ? dateFormat.format(gadget.getPurchaseDate()) : null);
+                json.name(InventoryColumns.ESTIMATED_VALUE).value(gadget.getEstimatedValue());
+                json.name(InventoryColumns.IMAGE_URI).value(gadget.getImageUri());
+                json.name(InventoryColumns.SERIAL_NUMBER).value(gadget.getSerialNumber());
+                json.endObject();
+            }
+            written += page.size();
+            lastId = page.get(page.size() - 1).getId();
+            if (listener != null) {
+                listener.onProgress(written, total);
+            }
+        }
+        json.endArray();
+        json.endObject();
+        json.flush();
+        return written;
+    }
+
+    private static String formatValue(double value) {
+        return BigDecimal.valueOf(value).stripTrailingZeros().toPlainString();
+    }
+
+    private static void writeCsvRecord(Writer writer, String[] fields) throws IOException {
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writeCsvField(writer, fields[i]);
+        }
+        writer.write("\r\n");
+    }
+
+    private static void writeCsvField(Writer writer, @Nullable String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean needsQuotes = false;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\r' || c == '\n') {
+                needsQuotes = true;
+                break;
+            }
+        }
+        if (!needsQuotes) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                writer.write('"');
+            }
+            writer.write(c);
+        }
+        writer.write('"');
+    }
+}
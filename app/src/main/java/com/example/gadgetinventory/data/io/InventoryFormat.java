@@ -0,0 +1,16 @@
+package com.example.gadgetinventory.data.io;
+
+public enum InventoryFormat {
+    CSV("text/csv"),
+    JSON("application/json");
+
+    private final String mimeType;
+
+    InventoryFormat(String mimeType) {
+        this.mimeType = mimeType;
+    }
+
+    public String getMimeType() {
+        return mimeType;
+    }
+}
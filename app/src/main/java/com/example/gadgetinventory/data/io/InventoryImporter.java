@@ -0,0 +1,296 @@
+package com.example.gadgetinventory.data.io;
+
+import android.util.JsonReader;
+import android.util.JsonToken;
+import androidx.annotation.Nullable;
+import com.example.gadgetinventory.data.dao.GadgetDao;
+import com.example.gadgetinventory.data.database.DatabaseDispatcher;
+import com.example.gadgetinventory.data.database.SqlChunks;
+import com.example.gadgetinventory.data.entity.GadgetEntity;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Parses CSV or JSON incrementally and inserts valid rows in chunked transactions. At most
+ * one chunk of entities is held in memory, regardless of file size. Invalid rows are
+ * skipped and reported in the {@link ImportResult}, including those whose serial number
+ * is already in use; that check is one query per chunk. A structurally broken file aborts
+ * with an {@link IOException}, keeping the chunks that were already committed.
+ * Parsing runs on the calling thread, which must not be the main thread; each chunk is then
+ * checked and inserted as its own task on the writer, so other writes go in between chunks.
+ */
+public class InventoryImporter {
+    private final GadgetDao gadgetDao;
+    private final DatabaseDispatcher dispatcher;
+    private final int chunkSize;
+
+    private final SimpleDateFormat dateFormat = InventoryColumns.newDateFormat();
+    private final List<GadgetEntity> pending = new ArrayList<>();
+    // File row of each pending entity, for rejections reported when the chunk is flushed
+    private final List<Long> pendingRows = new ArrayList<>();
+    private ImportResult result;
+    private ProgressListener listener;
+    private long rowNumber;
+
+    public InventoryImporter(GadgetDao gadgetDao, DatabaseDispatcher dispatcher, int chunkSize) {
+        this.gadgetDao = gadgetDao;
+        this.dispatcher = dispatcher;
+        this.chunkSize = chunkSize;
+    }
+
+    public synchronized ImportResult importFrom(InputStream in, InventoryFormat format,
+                                                @Nullable ProgressListener listener) throws IOException {
+        this.result = new ImportResult();
+        this.listener = listener;
+        this.rowNumber = 0;
+        pending.clear();
+        pendingRows.clear();
+
+        Reader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        if (format == InventoryFormat.JSON) {
+            readJson(reader);
+        } else {
+            readCsv(reader);
+        }
+        flush();
+        return result;
+    }
+
+    private void readCsv(Reader reader) throws IOException {
+        CsvReader csv = new CsvReader(reader);
+        List<String> header = csv.readRecord();
+        if (header == null) {
+            return;
+        }
+        // Spreadsheet exports often start with a UTF-8 byte order mark
+        if (!header.isEmpty() && header.get(0).startsWith("\uFEFF")) {
+            header.set(0, header.get(0).substring(1));
+        }
+        int[] columnFor = new int[header.size()];
+        for (int i = 0; i < header.size(); i++) {
+            columnFor[i] = InventoryColumns.indexOf(header.get(i));
+        }
+
+        String[] fields = new String[InventoryColumns.ALL.length];
+        List<String> record;
+        while ((record = csv.readRecord()) != null) {
+            if (record.size() == 1 && record.get(0).trim().isEmpty()) {
+                continue;
+            }
+            Arrays.fill(fields, null);
+            for (int i = 0; i < record.size() && i < columnFor.length; i++) {
+                if (columnFor[i] >= 0) {
+                    fields[columnFor[i]] = record.get(i);
+                }
+            }
+            accept(fields);
+        }
+    }
+
+    private void readJson(Reader reader) throws IOException {
+        JsonReader json = new JsonReader(reader);
+        if (json.peek() == JsonToken.BEGIN_OBJECT) {
+            json.beginObject();
+            while (json.hasNext()) {
+                if ("gadgets".equals(json.nextName())) {
+                    readJsonArray(json);
+                } else {
+                    json.skipValue();
+                }
+            }
+            json.endObject();
+        } else {
+            readJsonArray(json);
+        }
+    }
+
+    private void readJsonArray(JsonReader json) throws IOException {
+        String[] fields = new String[InventoryColumns.ALL.length];
+        json.beginArray();
+        while (json.hasNext()) {
+            Arrays.fill(fields, null);
+            json.beginObject();
+            while (json.hasNext()) {
+                int column = InventoryColumns.indexOf(json.nextName());
+                if (column < 0) {
+                    json.skipValue();
+                } else if (json.peek() == JsonToken.NULL) {
+                    json.nextNull();
+                } else if (json.peek() == JsonToken.BEGIN_ARRAY || json.peek() == JsonToken.BEGIN_OBJECT) {
+                    json.skipValue();
+                } else {
+                    // nextString() also accepts numbers and booleans
+                    fields[column] = json.nextString();
+                }
+            }
+            json.endObject();
+            accept(fields);
+        }
+        json.endArray();
+    }
+
+    private void accept(String[] fields) {
+        rowNumber++;
+        String name = trimToNull(fields[0]);
+        String model = trimToNull(fields[1]);
+        String condition = trimToNull(fields[2]);
+        String date = trimToNull(fields[3]);
+        String value = trimToNull(fields[4]);
+        String imageUri = trimToNull(fields[5]);
+        String serialNumber = trimToNull(fields[6]);
+
+        if (name == null || model == null || condition == null) {
+            result.reject(rowNumber, "name, model and condition are required");
+            return;
+        }
+        if (value == null) {
+            result.reject(rowNumber, "estimatedValue is required");
+            return;
+        }
+        double estimatedValue;
+        try {
+            estimatedValue = Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            result.reject(rowNumber, "invalid estimatedValue '" + value + "'");
+            return;
+        }
+        if (Double.isNaN(estimatedValue) || Double.isInfinite(estimatedValue) || estimatedValue < 0) {
+            result.reject(rowNumber, "estimatedValue must be a non-negative number");
+            return;
+        }
+        Date purchaseDate;
+        try {
+            purchaseDate = date != null ? parseDate(date) : null;
+        } catch (ParseException e) {
+            result.reject(rowNumber, "invalid purchaseDate '" + date + "'");
+            return;
+        }
+        if (purchaseDate == null) {
+            result.reject(rowNumber, "purchaseDate is required");
+            return;
+        }
+
+        GadgetEntity gadget = new GadgetEntity(name, model, condition, purchaseDate, estimatedValue,
+                imageUri != null ? imageUri : "");
+        gadget.setSerialNumber(serialNumber);
+        pending.add(gadget);
+        pendingRows.add(rowNumber);
+        if (pending.size() >= chunkSize) {
+            flush();
+        }
+    }
+
+    /** Accepts ISO dates (yyyy-MM-dd) as written by the exporter, or raw epoch millis. */
+    private Date parseDate(String value) throws ParseException {
+        boolean numeric = !value.isEmpty();
+        for (int i = 0; i < value.length() && numeric; i++) {
+            numeric = Character.isDigit(value.charAt(i));
+        }
+        if (numeric && value.length() > 8) {
+            try {
+                return new Date(Long.parseLong(value));
+            } catch (NumberFormatException e) {
+                throw new ParseException(value, 0);
+            }
+        }
+        return dateFormat.parse(value);
+    }
+
+    private void flush() {
+        if (!pending.isEmpty()) {
+            // Alone on the writer, so no other write can take a serial between check and insert
+            await(dispatcher.runOnWriter(this::insertPending));
+            pending.clear();
+            pendingRows.clear();
+        }
+        if (listener != null) {
+            listener.onProgress(rowNumber, -1);
+        }
+    }
+
+    private void insertPending() {
+        List<GadgetEntity> accepted = rejectTakenSerials();
+        if (!accepted.isEmpty()) {
+            gadgetDao.insertAll(accepted);
+            result.addImported(accepted.size());
+        }
+    }
+
+    private static void await(CompletableFuture<Void> write) {
+        try {
+            write.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Drops pending rows whose serial number is already stored, by an earlier chunk too, or
+     * used by an earlier row of this chunk. Only the chunk's serials are ever held in memory.
+     */
+    private List<GadgetEntity> rejectTakenSerials() {
+        List<String> serials = new ArrayList<>();
+        for (GadgetEntity gadget : pending) {
+            if (gadget.getSerialNumber() != null) {
+                serials.add(gadget.getSerialNumber());
+            }
+        }
+        if (serials.isEmpty()) {
+            return pending;
+        }
+        Set<String> taken = new HashSet<>();
+        SqlChunks.forEachChunk(serials, SqlChunks.MAX_BIND_ARGS, chunk -> {
+            for (String serial : gadgetDao.findTakenSerialNumbers(chunk)) {
+                taken.add(foldCase(serial));
+            }
+        });
+        List<GadgetEntity> accepted = new ArrayList<>(pending.size());
+        for (int i = 0; i < pending.size(); i++) {
+            GadgetEntity gadget = pending.get(i);
+            String serial = gadget.getSerialNumber();
+            if (serial != null && !taken.add(foldCase(serial))) {
+                result.reject(pendingRows.get(i), "serialNumber '" + serial + "' is already in use");
+            } else {
+                accepted.add(gadget);
+            }
+        }
+        return accepted;
+    }
+
+    /** Folds ASCII letters only, exactly as the NOCASE collation of the unique index does. */
+    private static String foldCase(String value) {
+        char[] chars = value.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            if (chars[i] >= 'A' && chars[i] <= 'Z') {
+                chars[i] = (char) (chars[i] + ('a' - 'A'));
+            }
+        }
+        return new String(chars);
+    }
+
+    @Nullable
+    private static String trimToNull(@Nullable String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.gadgetinventory.data.io;
+
+/**
+ * Receives progress from long-running inventory transfers. Called on the worker thread.
+ */
+public interface ProgressListener {
+    /**
+     * @param processed rows handled so far
+     * @param total     expected rows, or -1 when unknown (e.g. while importing a stream)
+     */
+    void onProgress(long processed, long total);
+}
@@ -0,0 +1,23 @@
+package com.example.gadgetinventory.data.io;
+
+/**
+ * Outcome of a restore. Missing images were listed by the newest manifest but carried by
+ * none of the archives supplied, usually because an earlier archive of the chain was left out.
+ */
+public class RestoreResult {
+    private final int restoredImages;
+    private final int missingImages;
+
+    public RestoreResult(int restoredImages, int missingImages) {
+        this.restoredImages = restoredImages;
+        this.missingImages = missingImages;
+    }
+
+    public int getRestoredImages() {
+        return restoredImages;
+    }
+
+    public int getMissingImages() {
+        return missingImages;
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.gadgetinventory.data.model;
+
+/**
+ * Item count and value for one condition, read from {@code inventory_summary}.
+ */
+public class ConditionSummary {
+    public String condition;
+    public long itemCount;
+    public double totalValue;
+}
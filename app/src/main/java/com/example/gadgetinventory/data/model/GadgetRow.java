@@ -0,0 +1,18 @@
+package com.example.gadgetinventory.data.model;
+
+import java.util.Date;
+
+/**
+ * Columns the inventory list needs, plus the row version used for diffing.
+ */
+public class GadgetRow {
+    public long id;
+    public String name;
+    public String model;
+    public String condition;
+    public Date purchaseDate;
+    public double estimatedValue;
+    public String imageUri;
+    public String thumbnailKey;
+    public long rowVersion;
+}
@@ -0,0 +1,9 @@
+package com.example.gadgetinventory.data.model;
+
+/**
+ * A gadget id and the perceptual hash of its photo; null while the photo is not hashed yet.
+ */
+public class ImageHashRow {
+    public long id;
+    public Long imageHash;
+}
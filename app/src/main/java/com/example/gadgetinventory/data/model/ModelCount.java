@@ -0,0 +1,9 @@
+package com.example.gadgetinventory.data.model;
+
+/**
+ * Number of gadgets sharing one normalized model key.
+ */
+public class ModelCount {
+    public String modelKey;
+    public long itemCount;
+}
@@ -0,0 +1,11 @@
+package com.example.gadgetinventory.data.model;
+
+/**
+ * A gadget as listed in a stock-take report.
+ */
+public class StockTakeItem {
+    public long id;
+    public String name;
+    public String model;
+    public String serialNumber;
+}
@@ -0,0 +1,11 @@
+package com.example.gadgetinventory.data.model;
+
+/**
+ * A gadget's photo and the thumbnail key and photo hash currently stored for it.
+ */
+public class ThumbnailSource {
+    public long id;
+    public String imageUri;
+    public String thumbnailKey;
+    public Long imageHash;
+}
@@ -0,0 +1,10 @@
+package com.example.gadgetinventory.data.model;
+
+/**
+ * Item count and value for one purchase year, read from {@code inventory_summary}.
+ */
+public class YearSummary {
+    public int purchaseYear;
+    public long itemCount;
+    public double totalValue;
+}
@@ -0,0 +1,278 @@
+package com.example.gadgetinventory.data.query;
+
+import androidx.annotation.Nullable;
+import androidx.sqlite.db.SimpleSQLiteQuery;
+import androidx.sqlite.db.SupportSQLiteQuery;
+import com.example.gadgetinventory.data.entity.GadgetEntity;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * An immutable filter-and-sort specification over gadgets, compiled to one parameterized
+ * SELECT of the list columns. Every predicate is an equality or range on an indexed column,
+ * and values are always bound, never inlined: queries of the same shape compile to the
+ * same SQL text, so SQLite's per-connection statement cache reuses the prepared statement.
+ *
+ * <pre>
+ * GadgetQuery query = new GadgetQuery.Builder()
+ *         .conditions("Good", "Fair")
+ *         .valueBetween(100, 500)
+ *         .sortBy(GadgetQuery.SortField.VALUE, true)
+ *         .sortBy(GadgetQuery.SortField.NAME, false)
+ *         .build();
+ * </pre>
+ */
+public final class GadgetQuery {
+    private static final String COLUMNS =
+            "id, name, model, condition, purchaseDate, estimatedValue, imageUri, thumbnailKey, rowVersion";
+
+    public enum SortField {
+        NAME("name"),
+        MODEL("model"),
+        CONDITION("condition"),
+        PURCHASE_DATE("purchaseDate"),
+        VALUE("estimatedValue");
+
+        final String column;
+
+        SortField(String column) {
+            this.column = column;
+        }
+    }
+
+    public static final class Sort {
+        private final SortField field;
+        private final boolean descending;
+
+        Sort(SortField field, boolean descending) {
+            this.field = field;
+            this.descending = descending;
+        }
+
+        public SortField getField() {
+            return field;
+        }
+
+        public boolean isDescending() {
+            return descending;
+        }
+    }
+
+    private final List<String> conditions;
+    @Nullable
+    private final String modelKey;
+    @Nullable
+    private final Double minValue;
+    @Nullable
+    private final Double maxValue;
+    @Nullable
+    private final Long purchasedFrom;
+    @Nullable
+    private final Long purchasedBefore;
+    private final List<Sort> sorts;
+    private final String sql;
+    private final Object[] args;
+
+    private GadgetQuery(Builder builder) {
+        conditions = Collections.unmodifiableList(new ArrayList<>(builder.conditions));
+        modelKey = builder.modelKey;
+        minValue = builder.minValue;
+        maxValue = builder.maxValue;
+        purchasedFrom = builder.purchasedFrom;
+        purchasedBefore = builder.purchasedBefore;
+        sorts = builder.sorts.isEmpty()
+                ? Collections.singletonList(new Sort(SortField.NAME, false))
+                : Collections.unmodifiableList(new ArrayList<>(builder.sorts));
+
+        List<Object> bound = new ArrayList<>();
+        StringBuilder where = new StringBuilder();
+        if (!conditions.isEmpty()) {
+            and(where).append("condition IN (");
+            for (int i = 0; i < conditions.size(); i++) {
+                where.append(i == 0 ? "?" : ", ?");
+                bound.add(conditions.get(i));
+            }
+            where.append(')');
+        }
+        if (modelKey != null) {
+            and(where).append("modelKey = ?");
+            bound.add(modelKey);
+        }
+        if (minValue != null) {
+            and(where).append("estimatedValue >= ?");
+            bound.add(minValue);
+        }
+        if (maxValue != null) {
+            and(where).append("estimatedValue <= ?");
+            bound.add(maxValue);
+        }
+        if (purchasedFrom != null) {
+            and(where).append("purchaseDate >= ?");
+            bound.add(purchasedFrom);
+        }
+        if (purchasedBefore != null) {
+            and(where).append("purchaseDate < ?");
+            bound.add(purchasedBefore);
+        }
+
+        StringBuilder query = new StringBuilder("SELECT ").append(COLUMNS).append(" FROM gadgets");
+        if (where.length() > 0) {
+            query.append(" WHERE ").append(where);
+        }
+        query.append(" ORDER BY ");
+        for (Sort sort : sorts) {
+            query.append(sort.field.column).append(sort.descending ? " DESC, " : " ASC, ");
+        }
+        // id last so rows with equal keys keep a stable order across re-runs
+        query.append("id ASC");
+        sql = query.toString();
+        args = bound.toArray();
+    }
+
+    private static StringBuilder and(StringBuilder where) {
+        return where.length() > 0 ? where.append(" AND ") : where;
+    }
+
+    /** Matches every gadget, sorted by name. */
+    public static GadgetQuery all() {
+        return new Builder().build();
+    }
+
+    public List<String> getConditions() {
+        return conditions;
+    }
+
+    @Nullable
+    public String getModelKey() {
+        return modelKey;
+    }
+
+    @Nullable
+    public Double getMinValue() {
+        return minValue;
+    }
+
+    @Nullable
+    public Double getMaxValue() {
+        return maxValue;
+    }
+
+    @Nullable
+    public Long getPurchasedFrom() {
+        return purchasedFrom;
+    }
+
+    @Nullable
+    public Long getPurchasedBefore() {
+        return purchasedBefore;
+    }
+
+    public List<Sort> getSorts() {
+        return sorts;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public Object[] getArgs() {
+        return args.clone();
+    }
+
+    public SupportSQLiteQuery toSupportQuery() {
+        return new SimpleSQLiteQuery(sql, args.clone());
+    }
+
+    public Builder buildUpon() {
+        Builder builder = new Builder();
+        builder.conditions.addAll(conditions);
+        builder.modelKey = modelKey;
+        builder.minValue = minValue;
+        builder.maxValue = maxValue;
+        builder.purchasedFrom = purchasedFrom;
+        builder.purchasedBefore = purchasedBefore;
+        builder.sorts.addAll(sorts);
+        return builder;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof GadgetQuery)) return false;
+        GadgetQuery other = (GadgetQuery) o;
+        return sql.equals(other.sql) && Arrays.equals(args, other.args);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * sql.hashCode() + Arrays.hashCode(args);
+    }
+
+    public static final class Builder {
+        private final Set<String> conditions = new LinkedHashSet<>();
+        private String modelKey;
+        private Double minValue;
+        private Double maxValue;
+        private Long purchasedFrom;
+        private Long purchasedBefore;
+        private final List<Sort> sorts = new ArrayList<>();
+
+        /** Only gadgets in one of these conditions; no call means any condition. */
+        public Builder conditions(String... conditions) {
+            this.conditions.addAll(Arrays.asList(conditions));
+            return this;
+        }
+
+        /** Only gadgets of this model, however it was spelled; see {@link GadgetEntity#modelKeyOf}. */
+        public Builder model(@Nullable String model) {
+            modelKey = GadgetEntity.modelKeyOf(model);
+            return this;
+        }
+
+        /** Inclusive value range; either bound may be null for an open end. */
+        public Builder valueBetween(@Nullable Double min, @Nullable Double max) {
+            minValue = min;
+            maxValue = max;
+            return this;
+        }
+
+        public Builder valueBetween(double min, double max) {
+            return valueBetween(Double.valueOf(min), Double.valueOf(max));
+        }
+
+        /** Purchased on or after {@code from} and before {@code before}; either may be null. */
+        public Builder purchasedBetween(@Nullable Date from, @Nullable Date before) {
+            purchasedFrom = from != null ? from.getTime() : null;
+            purchasedBefore = before != null ? before.getTime() : null;
+            return this;
+        }
+
+        /** Adds a sort key after those already added; a field added twice keeps its first position. */
+        public Builder sortBy(SortField field, boolean descending) {
+            for (Sort sort : sorts) {
+                if (sort.field == field) {
+                    return this;
+                }
+            }
+            sorts.add(new Sort(field, descending));
+            return this;
+        }
+
+        public Builder clearSort() {
+            sorts.clear();
+            return this;
+        }
+
+        public GadgetQuery build() {
+            if (minValue != null && maxValue != null && minValue > maxValue) {
+                throw new IllegalArgumentException("minValue " + minValue + " > maxValue " + maxValue);
+            }
+            return new GadgetQuery(this);
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.example.gadgetinventory.data.sync;
+
+import android.net.Uri;
+import android.os.SystemClock;
+import android.util.JsonReader;
+import android.util.JsonWriter;
+import androidx.annotation.Nullable;
+import com.example.gadgetinventory.data.io.FileHashes;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * {@link SyncTransport} over HTTP(S) with JSON bodies:
+ * <ul>
+ * <li>{@code POST v1/changes} pushes {@code {"device", "changes": [...]}};</li>
+ * <li>{@code GET v1/changes?after=&limit=} returns {@code {"changes", "cursor", "hasMore"}};</li>
+ * <li>{@code POST v1/images/missing} maps {@code {"hashes"}} to {@code {"missing"}};</li>
+ * <li>{@code PUT} and {@code GET v1/images/<sha256>} carry the raw JPEG.</li>
+ * </ul>
+ * JSON bodies are gzip-compressed both ways; JPEGs are sent as they are. Network errors and
+ * 5xx responses are retried a few times with backoff, which is safe because every call is
+ * idempotent.
+ */
+public class HttpSyncTransport implements SyncTransport {
+    private static final int CONNECT_TIMEOUT_MS = 15_000;
+    private static final int READ_TIMEOUT_MS = 30_000;
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long RETRY_DELAY_MS = 1_000;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String JSON = "application/json; charset=utf-8";
+
+    private final String baseUrl;
+    private final String deviceId;
+
+    private interface Call<T> {
+        T run() throws IOException;
+    }
+
+    /** A response the server gave on purpose; only 5xx is worth retrying. */
+    static final class HttpStatusException extends IOException {
+        final int status;
+
+        HttpStatusException(int status, String message) {
+            super("HTTP " + status + ": " + message);
+            this.status = status;
+        }
+    }
+
+    /** {@code baseUrl} is the server root, e.g. {@code https://inventory.example.com/sync/}. */
+    public HttpSyncTransport(String baseUrl, String deviceId) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl : baseUrl + "/";
+        this.deviceId = deviceId;
+    }
+
+    @Override
+    public void push(Collection<SyncChange> changes) throws IOException {
+        withRetry(() -> {
+            HttpURLConnection connection = open("v1/changes", "POST");
+            try {
+                try (JsonWriter json = jsonBody(connection)) {
+                    SyncJson.writeChanges(json, deviceId, changes);
+                }
+                expectSuccess(connection);
+                return null;
+            } finally {
+                connection.disconnect();
+            }
+        });
+    }
+
+    @Override
+    public SyncPage pull(@Nullable String cursor, int limit) throws IOException {
+        Uri.Builder path = Uri.parse("v1/changes").buildUpon()
+                .appendQueryParameter("limit", String.valueOf(limit));
+        if (cursor != null) {
+            path.appendQueryParameter("after", cursor);
+        }
+        String query = path.build().toString();
+        return withRetry(() -> {
+            HttpURLConnection connection = open(query, "GET");
+            try {
+                expectSuccess(connection);
+                try (JsonReader json = jsonResponse(connection)) {
+                    return SyncJson.readPage(json);
+                }
+            } catch (IllegalStateException | NumberFormatException e) {
+                throw new IOException("Malformed sync response", e);
+            } finally {
+                connection.disconnect();
+            }
+        });
+    }
+
+    @Override
+    public Set<String> findMissingImages(Collection<String> hashes) throws IOException {
+        return withRetry(() -> {
+            HttpURLConnection connection = open("v1/images/missing", "POST");
+            try {
+                try (JsonWriter json = jsonBody(connection)) {
+                    SyncJson.writeHashes(json, "hashes", hashes);
+                }
+                expectSuccess(connection);
+                try (JsonReader json = jsonResponse(connection)) {
+                    return SyncJson.readHashes(json, "missing");
+                }
+            } catch (IllegalStateException e) {
+                throw new IOException("Malformed sync response", e);
+            } finally {
+                connection.disconnect();
+            }
+        });
+    }
+
+    @Override
+    public void uploadImage(String hash, File file) throws IOException {
+        withRetry(() -> {
+            HttpURLConnection connection = open("v1/images/" + hash, "PUT");
+            try {
+                connection.setDoOutput(true);
+                connection.setFixedLengthStreamingMode(file.length());
+                connection.setRequestProperty("Content-Type", "image/jpeg");
+                try (InputStream in = new FileInputStream(file);
+                     OutputStream out = connection.getOutputStream()) {
+                    copy(in, out);
+                }
+                expectSuccess(connection);
+                return null;
+            } finally {
+                connection.disconnect();
+            }
+        });
+    }
+
+    @Override
+    public void downloadImage(String hash, File target) throws IOException {
+        withRetry(() -> {
+            HttpURLConnection connection = open("v1/images/" + hash, "GET");
+            File temp = new File(target.getPath() + ".part");
+            try {
+                expectSuccess(connection);
+                try (InputStream in = new BufferedInputStream(connection.getInputStream(), BUFFER_SIZE);
+                     OutputStream out = new FileOutputStream(temp)) {
+                    copy(in, out);
+                }
+                // Content addressing lets a truncated or mixed-up download be caught here
+                if (!hash.equals(FileHashes.sha256(temp))) {
+                    throw new IOException("Downloaded image does not match " + hash);
+                }
+                if (!temp.renameTo(target)) {
+                    throw new IOException("Cannot move downloaded image to " + target);
+                }
+                return null;
+            } finally {
+                temp.delete();
+                connection.disconnect();
+            }
+        });
+    }
+
+    private HttpURLConnection open(String path, String method) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + path).openConnection();
+        connection.setRequestMethod(method);
+        connection.setConnectTimeout(CONNECT_TIMEOUT_MS);
+        connection.setReadTimeout(READ_TIMEOUT_MS);
+        connection.setUseCaches(false);
+        // Set explicitly so the response is not transparently unzipped; see jsonResponse
+        connection.setRequestProperty("Accept-Encoding", "gzip");
+        connection.setRequestProperty("X-Device-Id", deviceId);
+        return connection;
+    }
+
+    private static JsonWriter jsonBody(HttpURLConnection connection) throws IOException {
+        connection.setDoOutput(true);
+        connection.setChunkedStreamingMode(0);
+        connection.setRequestProperty("Content-Type", JSON);
+        connection.setRequestProperty("Content-Encoding", "gzip");
+        OutputStream out = new GZIPOutputStream(
+                new BufferedOutputStream(connection.getOutputStream(), BUFFER_SIZE), BUFFER_SIZE);
+        return new JsonWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    }
+
+    private static JsonReader jsonResponse(HttpURLConnection connection) throws IOException {
+        InputStream in = new BufferedInputStream(connection.getInputStream(), BUFFER_SIZE);
+        if ("gzip".equalsIgnoreCase(connection.getContentEncoding())) {
+            in = new GZIPInputStream(in, BUFFER_SIZE);
+        }
+        return new JsonReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    private static void expectSuccess(HttpURLConnection connection) throws IOException {
+        int status = connection.getResponseCode();
+        if (status < 200 || status >= 300) {
+            throw new HttpStatusException(status, String.valueOf(connection.getResponseMessage()));
+        }
+    }
+
+    private static <T> T withRetry(Call<T> call) throws IOException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return call.run();
+            } catch (HttpStatusException e) {
+                if (e.status < 500 || attempt == MAX_ATTEMPTS) {
+                    throw e;
+                }
+            } catch (IOException e) {
+                if (attempt == MAX_ATTEMPTS) {
+                    throw e;
+                }
+            }
+            SystemClock.sleep(RETRY_DELAY_MS << (attempt - 1));
+        }
+    }
+
+    private static void copy(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+    }
+}
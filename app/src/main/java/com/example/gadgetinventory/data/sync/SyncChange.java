@@ -0,0 +1,98 @@
+package com.example.gadgetinventory.data.sync;
+
+import androidx.annotation.Nullable;
+
+/**
+ * One gadget as exchanged with the sync server: its current content, or a deletion. Photos
+ * travel separately and are referenced by SHA-256 content hash.
+ */
+public final class SyncChange {
+    private final String syncId;
+    private final long updatedAt;
+    private final boolean deleted;
+    @Nullable private final String name;
+    @Nullable private final String model;
+    @Nullable private final String condition;
+    @Nullable private final Long purchaseDate;
+    private final double estimatedValue;
+    @Nullable private final String imageHash;
+    @Nullable private final String serialNumber;
+
+    private SyncChange(String syncId, long updatedAt, boolean deleted, @Nullable String name,
+                       @Nullable String model, @Nullable String condition, @Nullable Long purchaseDate,
+                       double estimatedValue, @Nullable String imageHash, @Nullable String serialNumber) {
+        this.syncId = syncId;
+        this.updatedAt = updatedAt;
+        this.deleted = deleted;
+        this.name = name;
+        this.model = model;
+        this.condition = condition;
+        this.purchaseDate = purchaseDate;
+        this.estimatedValue = estimatedValue;
+        this.imageHash = imageHash;
+        this.serialNumber = serialNumber;
+    }
+
+    public static SyncChange upsert(String syncId, long updatedAt, @Nullable String name,
+                                    @Nullable String model, @Nullable String condition,
+                                    @Nullable Long purchaseDate, double estimatedValue,
+                                    @Nullable String imageHash, @Nullable String serialNumber) {
+        return new SyncChange(syncId, updatedAt, false, name, model, condition, purchaseDate,
+                estimatedValue, imageHash, serialNumber);
+    }
+
+    public static SyncChange deletion(String syncId, long deletedAt) {
+        return new SyncChange(syncId, deletedAt, true, null, null, null, null, 0, null, null);
+    }
+
+    public String getSyncId() {
+        return syncId;
+    }
+
+    /** Last-writer-wins timestamp: the edit time, or the deletion time. */
+    public long getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public boolean isDeleted() {
+        return deleted;
+    }
+
+    @Nullable
+    public String getName() {
+        return name;
+    }
+
+    @Nullable
+    public String getModel() {
+        return model;
+    }
+
+    @Nullable
+    public String getCondition() {
+        return condition;
+    }
+
+    @Nullable
+    public Long getPurchaseDate() {
+        return purchaseDate;
+    }
+
+    public double getEstimatedValue() {
+        return estimatedValue;
+    }
+
+    @Nullable
+    public String getImageHash() {
+        return imageHash;
+    }
+
+    /**
+     * The gadget's serial number, empty when it has none, or null when the sender did not
+     * carry the field at all; such a change leaves the local serial number alone.
+     */
+    @Nullable
+    public String getSerialNumber() {
+        return serialNumber;
+    }
+}
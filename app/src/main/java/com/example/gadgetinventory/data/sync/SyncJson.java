@@ -0,0 +1,185 @@
+package com.example.gadgetinventory.data.sync;
+
+import android.util.JsonReader;
+import android.util.JsonToken;
+import android.util.JsonWriter;
+import androidx.annotation.Nullable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/** Wire format of the sync protocol; shared by the transport and its tests. */
+final class SyncJson {
+
+    static void writeChanges(JsonWriter json, String deviceId, Collection<SyncChange> changes) throws IOException {
+        json.beginObject();
+        json.name("device").value(deviceId);
+        json.name("changes").beginArray();
+        for (SyncChange change : changes) {
+            writeChange(json, change);
+        }
+        json.endArray();
+        json.endObject();
+    }
+
+    static void writeChange(JsonWriter json, SyncChange change) throws IOException {
+        json.beginObject();
+        json.name("id").value(change.getSyncId());
+        json.name("updatedAt").value(change.getUpdatedAt());
+        if (change.isDeleted()) {
+            json.name("deleted").value(true);
+        } else {
+            json.name("name").value(change.getName());
+            json.name("model").value(change.getModel());
+            json.name("condition").value(change.getCondition());
+            json.name("purchaseDate").value(change.getPurchaseDate());
+            json.name("estimatedValue").value(change.getEstimatedValue());
+            json.name("imageHash").value(change.getImageHash());
+            if (change.getSerialNumber() != null) {
+                json.name("serialNumber").value(change.getSerialNumber());
+            }
+        }
+        json.endObject();
+    }
+
+    /** Reads {@code {"changes": [...], "cursor": ..., "hasMore": ...}}. */
+    static SyncPage readPage(JsonReader json) throws IOException {
+        List<SyncChange> changes = new ArrayList<>();
+        String cursor = null;
+        boolean hasMore = false;
+        json.beginObject();
+        while (json.hasNext()) {
+            switch (json.nextName()) {
+                case "changes":
+                    changes = readChanges(json);
+                    break;
+                case "cursor":
+                    cursor = nextStringOrNull(json);
+                    break;
+                case "hasMore":
+                    hasMore = json.nextBoolean();
+                    break;
+                default:
+                    json.skipValue();
+                    break;
+            }
+        }
+        json.endObject();
+        return new SyncPage(changes, cursor, hasMore);
+    }
+
+    static List<SyncChange> readChanges(JsonReader json) throws IOException {
+        List<SyncChange> changes = new ArrayList<>();
+        json.beginArray();
+        while (json.hasNext()) {
+            changes.add(readChange(json));
+        }
+        json.endArray();
+        return changes;
+    }
+
+    static SyncChange readChange(JsonReader json) throws IOException {
+        String syncId = null;
+        long updatedAt = 0;
+        boolean deleted = false;
+        String name = null;
+        String model = null;
+        String condition = null;
+        Long purchaseDate = null;
+        double estimatedValue = 0;
+        String imageHash = null;
+        String serialNumber = null;
+        json.beginObject();
+        while (json.hasNext()) {
+            switch (json.nextName()) {
+                case "id":
+                    syncId = json.nextString();
+                    break;
+                case "updatedAt":
+                    updatedAt = json.nextLong();
+                    break;
+                case "deleted":
+                    deleted = json.nextBoolean();
+                    break;
+                case "name":
+                    name = nextStringOrNull(json);
+                    break;
+                case "model":
+                    model = nextStringOrNull(json);
+                    break;
+                case "condition":
+                    condition = nextStringOrNull(json);
+                    break;
+                case "purchaseDate":
+                    if (json.peek() == JsonToken.NULL) {
+                        json.nextNull();
+                    } else {
+                        purchaseDate = json.nextLong();
+                    }
+                    break;
+                case "estimatedValue":
+                    estimatedValue = json.nextDouble();
+                    break;
+                case "imageHash":
+                    imageHash = nextStringOrNull(json);
+                    break;
+                case "serialNumber":
+                    serialNumber = nextStringOrNull(json);
+                    break;
+                default:
+                    json.skipValue();
+                    break;
+            }
+        }
+        json.endObject();
+        if (syncId == null || syncId.isEmpty()) {
+            throw new IOException("Sync change without id");
+        }
+        return deleted ? SyncChange.deletion(syncId, updatedAt)
+                : SyncChange.upsert(syncId, updatedAt, name, model, condition, purchaseDate,
+                estimatedValue, imageHash, serialNumber);
+    }
+
+    static void writeHashes(JsonWriter json, String field, Collection<String> hashes) throws IOException {
+        json.beginObject();
+        json.name(field).beginArray();
+        for (String hash : hashes) {
+            json.value(hash);
+        }
+        json.endArray();
+        json.endObject();
+    }
+
+    static Set<String> readHashes(JsonReader json, String field) throws IOException {
+        Set<String> hashes = new LinkedHashSet<>();
+        json.beginObject();
+        while (json.hasNext()) {
+            if (json.nextName().equals(field)) {
+                json.beginArray();
+                while (json.hasNext()) {
+                    hashes.add(json.nextString());
+                }
+                json.endArray();
+            } else {
+                json.skipValue();
+            }
+        }
+        json.endObject();
+        return hashes;
+    }
+
+    @Nullable
+    private static String nextStringOrNull(JsonReader json) throws IOException {
+        if (json.peek() == JsonToken.NULL) {
+            json.nextNull();
+            return null;
+        }
+        return json.nextString();
+    }
+
+    private SyncJson() {
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.gadgetinventory.data.sync;
+
+import androidx.annotation.Nullable;
+import java.util.Collections;
+import java.util.List;
+
+/** One batch of server changes and the cursor to resume after it. */
+public final class SyncPage {
+    private final List<SyncChange> changes;
+    @Nullable private final String cursor;
+    private final boolean hasMore;
+
+    public SyncPage(List<SyncChange> changes, @Nullable String cursor, boolean hasMore) {
+        this.changes = Collections.unmodifiableList(changes);
+        this.cursor = cursor;
+        this.hasMore = hasMore;
+    }
+
+    public List<SyncChange> getChanges() {
+        return changes;
+    }
+
+    /** Opaque server position after this page; null when the server has nothing yet. */
+    @Nullable
+    public String getCursor() {
+        return cursor;
+    }
+
+    public boolean hasMore() {
+        return hasMore;
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.gadgetinventory.data.sync;
+
+/** Counts from one sync run. */
+public class SyncResult {
+    private final int pushed;
+    private final int pulled;
+    private final int uploadedImages;
+    private final int downloadedImages;
+    private final int serialConflicts;
+
+    public SyncResult(int pushed, int pulled, int uploadedImages, int downloadedImages, int serialConflicts) {
+        this.pushed = pushed;
+        this.pulled = pulled;
+        this.uploadedImages = uploadedImages;
+        this.downloadedImages = downloadedImages;
+        this.serialConflicts = serialConflicts;
+    }
+
+    /** Local changes and deletions the server accepted. */
+    public int getPushed() {
+        return pushed;
+    }
+
+    /** Server changes applied locally; echoes of this device's own pushes are not counted. */
+    public int getPulled() {
+        return pulled;
+    }
+
+    public int getUploadedImages() {
+        return uploadedImages;
+    }
+
+    public int getDownloadedImages() {
+        return downloadedImages;
+    }
+
+    /**
+     * Pulled changes whose serial number another local gadget already holds. They were applied
+     * with the local serial number kept, so the user has to settle which gadget carries it.
+     */
+    public int getSerialConflicts() {
+        return serialConflicts;
+    }
+}
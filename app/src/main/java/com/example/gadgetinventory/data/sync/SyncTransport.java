@@ -0,0 +1,27 @@
+package com.example.gadgetinventory.data.sync;
+
+import androidx.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * The sync server as the engine sees it. Every call is idempotent, so an interrupted run
+ * can simply be repeated: the server keeps the version with the newest updatedAt.
+ */
+public interface SyncTransport {
+    /** Sends one batch of local changes. Returns once the server has stored all of them. */
+    void push(Collection<SyncChange> changes) throws IOException;
+
+    /** Server changes after {@code cursor} (null for the beginning), at most {@code limit}. */
+    SyncPage pull(@Nullable String cursor, int limit) throws IOException;
+
+    /** The subset of {@code hashes} the server has no image for. */
+    Set<String> findMissingImages(Collection<String> hashes) throws IOException;
+
+    void uploadImage(String hash, File file) throws IOException;
+
+    /** Writes the image with {@code hash} to {@code target}, replacing it. */
+    void downloadImage(String hash, File target) throws IOException;
+}
@@ -0,0 +1,62 @@
+package com.example.gadgetinventory.data.valuation;
+
+/**
+ * How a gadget loses value with age. Every schedule keeps at least
+ * {@link #RESIDUAL_FRACTION} of the purchase value. Ages are fractional years, so a
+ * gadget bought last December is not a year old on New Year's Day.
+ */
+public enum DepreciationSchedule {
+    /** Loses {@code rate}% of the purchase value every year. */
+    STRAIGHT_LINE {
+        @Override
+        double depreciate(double initialValue, double years, int condition, double ratePercent) {
+            return initialValue * (1 - years * ratePercent / 100);
+        }
+    },
+    /** Loses {@code rate}% of the remaining value every year. */
+    DECLINING_BALANCE {
+        @Override
+        double depreciate(double initialValue, double years, int condition, double ratePercent) {
+            return initialValue * Math.pow(1 - ratePercent / 100, years);
+        }
+    },
+    /** Declining balance whose rate steepens as the condition gets worse. */
+    CONDITION_CURVE {
+        @Override
+        double depreciate(double initialValue, double years, int condition, double ratePercent) {
+            double rate = Math.min(ratePercent * CONDITION_FACTORS[condition], 100);
+            return initialValue * Math.pow(1 - rate / 100, years);
+        }
+    };
+
+    public static final double RESIDUAL_FRACTION = 0.1;
+    public static final long MILLIS_PER_YEAR = (long) (365.2425 * 24 * 60 * 60 * 1000);
+
+    // Indexed by ValuationRates condition code
+    private static final double[] CONDITION_FACTORS = {1.0, 1.5, 2.25, 1.0};
+
+    abstract double depreciate(double initialValue, double years, int condition, double ratePercent);
+
+    /** Value at {@code years} after purchase; {@code condition} is a ValuationRates code. */
+    public double value(double initialValue, double years, int condition, double ratePercent) {
+        if (years <= 0) {
+            return initialValue;
+        }
+        return Math.max(depreciate(initialValue, years, condition, ratePercent),
+                initialValue * RESIDUAL_FRACTION);
+    }
+
+    /**
+     * Values rows {@code from} (inclusive) to {@code to} of the columns as of
+     * {@code asOfMillis} into {@code out}, with each row's rate picked by its condition.
+     * One tight loop over primitive arrays, no per-row objects.
+     */
+    public void valueAll(double[] initialValues, long[] purchaseMillis, byte[] conditions,
+                         double[] ratesByCondition, long asOfMillis, double[] out, int from, int to) {
+        for (int i = from; i < to; i++) {
+            int condition = conditions[i];
+            double years = (double) (asOfMillis - purchaseMillis[i]) / MILLIS_PER_YEAR;
+            out[i] = value(initialValues[i], years, condition, ratesByCondition[condition]);
+        }
+    }
+}
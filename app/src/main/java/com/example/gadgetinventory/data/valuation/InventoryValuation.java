@@ -0,0 +1,47 @@
+package com.example.gadgetinventory.data.valuation;
+
+/** Depreciated value of the whole inventory as of one day. */
+public final class InventoryValuation {
+    private final ValuationRates rates;
+    private final long asOfMillis;
+    private final int gadgetCount;
+    private final double purchaseValue;
+    private final double currentValue;
+    private final double[] currentValueByCondition;
+
+    public InventoryValuation(ValuationRates rates, long asOfMillis, int gadgetCount, double purchaseValue,
+                              double currentValue, double[] currentValueByCondition) {
+        this.rates = rates;
+        this.asOfMillis = asOfMillis;
+        this.gadgetCount = gadgetCount;
+        this.purchaseValue = purchaseValue;
+        this.currentValue = currentValue;
+        this.currentValueByCondition = currentValueByCondition.clone();
+    }
+
+    public ValuationRates getRates() {
+        return rates;
+    }
+
+    /** Start of the UTC day the valuation is for. */
+    public long getAsOfMillis() {
+        return asOfMillis;
+    }
+
+    public int getGadgetCount() {
+        return gadgetCount;
+    }
+
+    public double getPurchaseValue() {
+        return purchaseValue;
+    }
+
+    public double getCurrentValue() {
+        return currentValue;
+    }
+
+    /** Indexed by {@link ValuationRates} condition code. */
+    public double getCurrentValue(int condition) {
+        return currentValueByCondition[condition];
+    }
+}
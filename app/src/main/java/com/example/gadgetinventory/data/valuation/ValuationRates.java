@@ -0,0 +1,95 @@
+package com.example.gadgetinventory.data.valuation;
+
+import java.util.Arrays;
+
+/**
+ * A depreciation schedule and its annual rate, in percent, for each condition. Immutable;
+ * equal settings are equal objects, so they can key a cache of computed valuations.
+ */
+public final class ValuationRates {
+    public static final int GOOD = 0;
+    public static final int FAIR = 1;
+    public static final int POOR = 2;
+    /** Conditions not in the dropdown, e.g. from an imported file. */
+    public static final int OTHER = 3;
+    public static final int CONDITION_COUNT = 4;
+
+    public static final double DEFAULT_RATE = 15.0;
+    public static final ValuationRates DEFAULT = new ValuationRates(DepreciationSchedule.STRAIGHT_LINE,
+            new double[]{DEFAULT_RATE, DEFAULT_RATE, DEFAULT_RATE, DEFAULT_RATE});
+
+    private final DepreciationSchedule schedule;
+    private final double[] rates;
+
+    public ValuationRates(DepreciationSchedule schedule, double[] ratesByCondition) {
+        if (ratesByCondition.length != CONDITION_COUNT) {
+            throw new IllegalArgumentException("Expected " + CONDITION_COUNT + " rates");
+        }
+        this.schedule = schedule;
+        this.rates = ratesByCondition.clone();
+        for (double rate : rates) {
+            if (!(rate >= 0 && rate <= 100)) {
+                throw new IllegalArgumentException("Rate out of range: " + rate);
+            }
+        }
+    }
+
+    /** Condition code for a stored condition; unknown values map to {@link #OTHER}. */
+    public static int conditionCode(String condition) {
+        if ("Good".equalsIgnoreCase(condition)) {
+            return GOOD;
+        } else if ("Fair".equalsIgnoreCase(condition)) {
+            return FAIR;
+        } else if ("Poor".equalsIgnoreCase(condition)) {
+            return POOR;
+        }
+        return OTHER;
+    }
+
+    public DepreciationSchedule getSchedule() {
+        return schedule;
+    }
+
+    public double getRate(int condition) {
+        return rates[condition];
+    }
+
+    /** Rates indexed by condition code; a copy. */
+    public double[] getRates() {
+        return rates.clone();
+    }
+
+    public ValuationRates withSchedule(DepreciationSchedule schedule) {
+        return new ValuationRates(schedule, rates);
+    }
+
+    public ValuationRates withRate(int condition, double rate) {
+        double[] updated = rates.clone();
+        updated[condition] = rate;
+        return new ValuationRates(schedule, updated);
+    }
+
+    /** Value of one gadget; O(1), fine on the main thread. */
+    public double value(double initialValue, long purchaseMillis, String condition, long asOfMillis) {
+        int code = conditionCode(condition);
+        double years = (double) (asOfMillis - purchaseMillis) / DepreciationSchedule.MILLIS_PER_YEAR;
+        return schedule.value(initialValue, years, code, rates[code]);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ValuationRates)) {
+            return false;
+        }
+        ValuationRates other = (ValuationRates) o;
+        return schedule == other.schedule && Arrays.equals(rates, other.rates);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * schedule.hashCode() + Arrays.hashCode(rates);
+    }
+}
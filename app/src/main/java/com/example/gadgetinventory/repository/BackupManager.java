@@ -0,0 +1,371 @@
+package com.example.gadgetinventory.repository;
+
+import android.content.Context;
+import android.net.Uri;
+import androidx.annotation.Nullable;
+import com.example.gadgetinventory.data.dao.GadgetDao;
+import com.example.gadgetinventory.data.database.DatabaseDispatcher;
+import com.example.gadgetinventory.data.database.DatabaseFiles;
+import com.example.gadgetinventory.data.database.GadgetDatabase;
+import com.example.gadgetinventory.data.image.ThumbnailStore;
+import com.example.gadgetinventory.data.io.BackupManifest;
+import com.example.gadgetinventory.data.io.BackupResult;
+import com.example.gadgetinventory.data.io.BackupState;
+import com.example.gadgetinventory.data.io.ProgressListener;
+import com.example.gadgetinventory.data.io.RestoreResult;
+import com.example.gadgetinventory.data.model.ThumbnailSource;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Writes and reads backup archives: a zip holding the manifest, the checkpointed database
+ * and the photos gadgets reference. Images are stored by content hash and an archive only
+ * carries hashes no earlier archive of its chain did, so daily backups stay small. A full
+ * backup starts a new chain. Restores stream every entry straight to its destination;
+ * the database is staged and swapped in on the next start (see {@link DatabaseFiles}).
+ */
+class BackupManager {
+    private static final String STATE_FILE = "backup_state.json";
+    private static final String ENTRY_DATABASE = "database/" + GadgetDatabase.DATABASE_NAME;
+    private static final String ENTRY_WAL = ENTRY_DATABASE + "-wal";
+    private static final String IMAGE_PREFIX = "images/";
+    // Archive directories for photos; restored into the same app directories
+    private static final String DIR_PICTURES = "pictures/";
+    private static final String DIR_CACHE = "cache/";
+    private static final int PAGE_SIZE = 500;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Context context;
+    private final GadgetDatabase database;
+    private final GadgetDao gadgetDao;
+    private final DatabaseDispatcher dispatcher;
+    private final ImageSweeper imageSweeper;
+    private final ThumbnailStore thumbnailStore;
+
+    BackupManager(Context context, GadgetDatabase database, DatabaseDispatcher dispatcher,
+                  ImageSweeper imageSweeper, ThumbnailStore thumbnailStore) {
+        this.context = context;
+        this.database = database;
+        this.gadgetDao = database.gadgetDao();
+        this.dispatcher = dispatcher;
+        this.imageSweeper = imageSweeper;
+        this.thumbnailStore = thumbnailStore;
+    }
+
+    /** Blocking; must not run on the writer thread, which it waits for. */
+    BackupResult backup(OutputStream out, boolean full, @Nullable ProgressListener listener) throws IOException {
+        File stateFile = new File(context.getFilesDir(), STATE_FILE);
+        BackupState state = BackupState.load(stateFile);
+        if (full || !state.hasArchives()) {
+            state.clearArchived();
+            full = true;
+        }
+
+        Map<String, File> photos = referencedPhotos();
+        List<BackupManifest.Image> images = new ArrayList<>(photos.size());
+        Map<String, File> newFiles = new LinkedHashMap<>();
+        for (Map.Entry<String, File> photo : photos.entrySet()) {
+            File file = photo.getValue();
+            String hash = state.hashOf(photo.getKey(), file);
+            images.add(new BackupManifest.Image(photo.getKey(), hash, file.length()));
+            if (!state.isArchived(hash) && !newFiles.containsKey(hash)) {
+                newFiles.put(hash, file);
+            }
+        }
+        BackupManifest manifest = new BackupManifest(System.currentTimeMillis(),
+                database.getSchemaVersion(), full, images, newFiles.keySet());
+
+        ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(out, BUFFER_SIZE));
+        zip.putNextEntry(new ZipEntry(BackupManifest.ENTRY_NAME));
+        zip.write(manifest.toJson());
+        zip.closeEntry();
+
+        long written = 0;
+        // Temp files, not a name of our own: two backups may run at once on the job pool
+        File databaseCopy = File.createTempFile("backup", ".db", context.getCacheDir());
+        File walCopy = File.createTempFile("backup", ".db-wal", context.getCacheDir());
+        try {
+            copyDatabase(databaseCopy, walCopy);
+            written += putFile(zip, ENTRY_DATABASE, databaseCopy);
+            if (walCopy.length() > 0) {
+                written += putFile(zip, ENTRY_WAL, walCopy);
+            }
+        } finally {
+            databaseCopy.delete();
+            walCopy.delete();
+        }
+
+        // JPEGs do not compress further; store them as they are
+        zip.setLevel(Deflater.NO_COMPRESSION);
+        long processed = 0;
+        for (Map.Entry<String, File> image : newFiles.entrySet()) {
+            written += putFile(zip, IMAGE_PREFIX + image.getKey(), image.getValue());
+            if (listener != null) {
+                listener.onProgress(++processed, newFiles.size());
+            }
+        }
+        zip.finish();
+        zip.flush();
+
+        state.markArchived(newFiles.keySet());
+        state.retainPaths(photos.keySet());
+        state.save(stateFile);
+        return new BackupResult(full, photos.size(), newFiles.size(), written);
+    }
+
+    /**
+     * Copies the database files to local {@code databaseCopy} and {@code walCopy} on the
+     * writer, so no commit can land between the checkpoint and the copy. The archive itself
+     * may go to a slow provider, so it is written from the copies once the writer is free.
+     */
+    private void copyDatabase(File databaseCopy, File walCopy) throws IOException {
+        try {
+            dispatcher.runOnWriter(() -> {
+                database.checkpoint();
+                try {
+                    copyFile(DatabaseFiles.getDatabaseFile(context), databaseCopy);
+                    File wal = DatabaseFiles.getWalFile(context);
+                    // Readers can keep a checkpoint from finishing; the WAL then holds the rest
+                    if (wal.length() > 0) {
+                        copyFile(wal, walCopy);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static void copyFile(File source, File target) throws IOException {
+        try (InputStream in = new FileInputStream(source)) {
+            writeFile(in, target);
+        }
+    }
+
+    /** Archive path of every app-written photo a gadget references, streamed by keyset pages. */
+    private Map<String, File> referencedPhotos() {
+        Map<String, File> photos = new LinkedHashMap<>();
+        long afterId = 0;
+        while (true) {
+            List<ThumbnailSource> page = gadgetDao.getThumbnailSourcesAfter(afterId, PAGE_SIZE);
+            for (ThumbnailSource row : page) {
+                File photo = row.imageUri != null ? imageSweeper.ownedPhoto(row.imageUri) : null;
+                if (photo != null && photo.isFile()) {
+                    // ownedPhoto() has already checked the file sits in its prefix's directory
+                    String dir = photo.getName().startsWith(ImageSweeper.DETECTION_PREFIX) ? DIR_CACHE : DIR_PICTURES;
+                    photos.put(dir + photo.getName(), photo);
+                }
+            }
+            if (page.size() < PAGE_SIZE) {
+                return photos;
+            }
+            afterId = page.get(page.size() - 1).id;
+        }
+    }
+
+    /**
+     * Restores from the newest of {@code archives}; earlier archives of its chain supply the
+     * images it does not carry. Takes effect for the database on the next start.
+     */
+    RestoreResult restore(List<Uri> archives, @Nullable ProgressListener listener) throws IOException {
+        if (archives.isEmpty()) {
+            throw new IOException("No backup selected");
+        }
+        List<Uri> ordered = new ArrayList<>(archives);
+        Map<Uri, BackupManifest> manifests = new HashMap<>();
+        for (Uri archive : ordered) {
+            manifests.put(archive, readManifest(archive));
+        }
+        // Newest first: its database wins and it carries the most recent images
+        ordered.sort((a, b) -> Long.compare(manifests.get(b).getCreatedAt(), manifests.get(a).getCreatedAt()));
+        Uri newest = ordered.get(0);
+        BackupManifest manifest = manifests.get(newest);
+        if (manifest.getSchemaVersion() > database.getSchemaVersion()) {
+            throw new IOException("Backup was made by a newer version of the app");
+        }
+
+        Map<String, List<String>> pathsByHash = new HashMap<>();
+        for (BackupManifest.Image image : manifest.getImages()) {
+            List<String> paths = pathsByHash.get(image.getHash());
+            if (paths == null) {
+                paths = new ArrayList<>(1);
+                pathsByHash.put(image.getHash(), paths);
+            }
+            paths.add(image.getPath());
+        }
+
+        File stagedDatabase = DatabaseFiles.getStagedFile(DatabaseFiles.getDatabaseFile(context));
+        File stagedWal = DatabaseFiles.getStagedFile(DatabaseFiles.getWalFile(context));
+        File databaseTemp = new File(stagedDatabase.getPath() + ".tmp");
+        File walTemp = new File(stagedWal.getPath() + ".tmp");
+        Set<String> restored = new HashSet<>();
+        boolean databaseFound = false;
+        boolean walFound = false;
+        try {
+            for (Uri archive : ordered) {
+                boolean isNewest = archive.equals(newest);
+                try (ZipInputStream zip = openArchive(archive)) {
+                    ZipEntry entry;
+                    while ((entry = zip.getNextEntry()) != null) {
+                        String name = entry.getName();
+                        if (isNewest && name.equals(ENTRY_DATABASE)) {
+                            writeFile(zip, databaseTemp);
+                            databaseFound = true;
+                        } else if (isNewest && name.equals(ENTRY_WAL)) {
+                            writeFile(zip, walTemp);
+                            walFound = true;
+                        } else if (name.startsWith(IMAGE_PREFIX)) {
+                            String hash = name.substring(IMAGE_PREFIX.length());
+                            List<String> paths = pathsByHash.get(hash);
+                            if (paths != null && restored.add(hash)) {
+                                restoreImage(zip, paths);
+                                if (listener != null) {
+                                    listener.onProgress(restored.size(), pathsByHash.size());
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+            if (!databaseFound) {
+                throw new IOException("Backup does not contain a database");
+            }
+            // The staged database is the commit marker, so it is moved into place last
+            stagedWal.delete();
+            if (walFound && !walTemp.renameTo(stagedWal)) {
+                throw new IOException("Cannot stage restored WAL");
+            }
+            if (!databaseTemp.renameTo(stagedDatabase)) {
+                throw new IOException("Cannot stage restored database");
+            }
+        } finally {
+            databaseTemp.delete();
+            walTemp.delete();
+        }
+        // Thumbnails are not archived: restored photos may reuse a name, so regenerate them all
+        thumbnailStore.deleteAll();
+        // The archive chain on the backup side no longer matches this device
+        new File(context.getFilesDir(), STATE_FILE).delete();
+        return new RestoreResult(restored.size(), pathsByHash.size() - restored.size());
+    }
+
+    private BackupManifest readManifest(Uri archive) throws IOException {
+        try (ZipInputStream zip = openArchive(archive)) {
+            ZipEntry first = zip.getNextEntry();
+            if (first == null || !first.getName().equals(BackupManifest.ENTRY_NAME)) {
+                throw new IOException("Not an inventory backup: " + archive);
+            }
+            return BackupManifest.read(zip);
+        }
+    }
+
+    private ZipInputStream openArchive(Uri archive) throws IOException {
+        InputStream in = context.getContentResolver().openInputStream(archive);
+        if (in == null) {
+            throw new FileNotFoundException("Cannot open " + archive);
+        }
+        return new ZipInputStream(new BufferedInputStream(in, BUFFER_SIZE));
+    }
+
+    private void restoreImage(InputStream in, List<String> paths) throws IOException {
+        File first = null;
+        for (String path : paths) {
+            File target = resolve(path);
+            if (target == null) {
+                continue;
+            }
+            if (first == null) {
+                writeFile(in, target);
+                first = target;
+            } else {
+                // Same photo referenced under two names; rare, so copy rather than re-read
+                try (InputStream copy = new FileInputStream(first)) {
+                    writeFile(copy, target);
+                }
+            }
+        }
+    }
+
+    /** App directory for an archive path; null for anything that could escape it. */
+    @Nullable
+    private File resolve(String path) {
+        File dir;
+        String name;
+        if (path.startsWith(DIR_PICTURES)) {
+            dir = context.getExternalFilesDir("Pictures");
+            name = path.substring(DIR_PICTURES.length());
+        } else if (path.startsWith(DIR_CACHE)) {
+            dir = context.getCacheDir();
+            name = path.substring(DIR_CACHE.length());
+        } else {
+            return null;
+        }
+        if (dir == null || name.isEmpty() || name.contains("/") || name.equals("..")) {
+            return null;
+        }
+        return new File(dir, name);
+    }
+
+    private static long putFile(ZipOutputStream zip, String name, File file) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        long written = 0;
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (InputStream in = new FileInputStream(file)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                zip.write(buffer, 0, read);
+                written += read;
+            }
+        }
+        zip.closeEntry();
+        return written;
+    }
+
+    // Writes to a temporary name first so a failed copy never leaves a truncated file
+    private static void writeFile(InputStream in, File target) throws IOException {
+        File parent = target.getParentFile();
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException("Cannot create " + parent);
+        }
+        File temp = new File(target.getPath() + ".part");
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (OutputStream out = new FileOutputStream(temp)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+        } catch (IOException e) {
+            temp.delete();
+            throw e;
+        }
+        if (!temp.renameTo(target)) {
+            temp.delete();
+            throw new IOException("Cannot move file into place: " + target);
+        }
+    }
+}
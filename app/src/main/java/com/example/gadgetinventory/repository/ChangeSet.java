@@ -0,0 +1,54 @@
+package com.example.gadgetinventory.repository;
+
+import com.example.gadgetinventory.data.model.GadgetRow;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Net effect of the changes in {@code (fromSeq, toSeq]}: ids that no longer exist and the
+ * current state of rows that were inserted or updated. When {@link #isFullReload()} is set
+ * the consumer fell too far behind and must reload everything instead.
+ */
+public final class ChangeSet {
+    private final long fromSeq;
+    private final long toSeq;
+    private final boolean fullReload;
+    private final List<Long> deletedIds;
+    private final List<GadgetRow> upserted;
+
+    private ChangeSet(long fromSeq, long toSeq, boolean fullReload, List<Long> deletedIds, List<GadgetRow> upserted) {
+        this.fromSeq = fromSeq;
+        this.toSeq = toSeq;
+        this.fullReload = fullReload;
+        this.deletedIds = Collections.unmodifiableList(deletedIds);
+        this.upserted = Collections.unmodifiableList(upserted);
+    }
+
+    static ChangeSet delta(long fromSeq, long toSeq, List<Long> deletedIds, List<GadgetRow> upserted) {
+        return new ChangeSet(fromSeq, toSeq, false, deletedIds, upserted);
+    }
+
+    static ChangeSet fullReload(long fromSeq, long toSeq) {
+        return new ChangeSet(fromSeq, toSeq, true, Collections.emptyList(), Collections.emptyList());
+    }
+
+    public long getFromSeq() {
+        return fromSeq;
+    }
+
+    public long getToSeq() {
+        return toSeq;
+    }
+
+    public boolean isFullReload() {
+        return fullReload;
+    }
+
+    public List<Long> getDeletedIds() {
+        return deletedIds;
+    }
+
+    public List<GadgetRow> getUpserted() {
+        return upserted;
+    }
+}
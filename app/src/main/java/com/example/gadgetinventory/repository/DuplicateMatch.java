@@ -0,0 +1,23 @@
+package com.example.gadgetinventory.repository;
+
+import com.example.gadgetinventory.data.model.GadgetRow;
+
+/** A saved gadget whose photo looks like the one being checked. */
+public final class DuplicateMatch {
+    private final GadgetRow gadget;
+    private final int distance;
+
+    DuplicateMatch(GadgetRow gadget, int distance) {
+        this.gadget = gadget;
+        this.distance = distance;
+    }
+
+    public GadgetRow getGadget() {
+        return gadget;
+    }
+
+    /** Differing hash bits out of 64; 0 is a re-encode of the same picture. */
+    public int getDistance() {
+        return distance;
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.gadgetinventory.repository;
+
+import com.example.gadgetinventory.data.model.GadgetRow;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Gadgets grouped by near-identical photos, largest group first. Each group holds two or
+ * more rows, sorted by name.
+ */
+public final class DuplicateReport {
+    private final List<List<GadgetRow>> groups;
+    private final int hashedGadgets;
+
+    DuplicateReport(List<List<GadgetRow>> groups, int hashedGadgets) {
+        this.groups = Collections.unmodifiableList(groups);
+        this.hashedGadgets = hashedGadgets;
+    }
+
+    public List<List<GadgetRow>> getGroups() {
+        return groups;
+    }
+
+    /** Rows beyond the first in every group; what deleting all duplicates would remove. */
+    public int getExtraCount() {
+        int extra = 0;
+        for (List<GadgetRow> group : groups) {
+            extra += group.size() - 1;
+        }
+        return extra;
+    }
+
+    /** Gadgets whose photo was hashed and therefore compared. */
+    public int getHashedGadgets() {
+        return hashedGadgets;
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.gadgetinventory.repository;
+
+import android.util.LruCache;
+import androidx.lifecycle.LiveData;
+import com.example.gadgetinventory.data.dao.GadgetDao;
+import com.example.gadgetinventory.data.entity.GadgetEntity;
+import com.example.gadgetinventory.data.model.GadgetRow;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Read-through LRU cache of single gadgets, keyed by id. Entries are only ever filled from
+ * database reads, and a read is not cached if any eviction happened while it ran, so an
+ * entry can never be older than the last write that evicted it. Writes are picked up from
+ * the {@link GadgetChangeFeed}: changed ids are evicted and reloaded if on screen. When the
+ * feed can only report a full reload, every entry is marked stale: a stale entry is still
+ * shown immediately on the next lookup but is revalidated against the database in the
+ * background.
+ * <p>
+ * Entries are private copies and every observer gets its own copy, so callers may edit
+ * what they are handed without touching the cache.
+ */
+public class GadgetCache {
+    static final int MAX_ENTRIES = 64;
+
+    private final GadgetDao gadgetDao;
+    private final Executor readExecutor;
+    private final LruCache<Long, Entry> entries = new LruCache<>(MAX_ENTRIES);
+    private final Set<GadgetLiveData> active = ConcurrentHashMap.newKeySet();
+    private final AtomicLong generation = new AtomicLong();
+    // Bumped on every eviction; guarded by this, together with the entry changes it orders
+    private long evictions;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    GadgetCache(GadgetDao gadgetDao, GadgetChangeFeed changeFeed, Executor readExecutor) {
+        this.gadgetDao = gadgetDao;
+        this.readExecutor = readExecutor;
+        changeFeed.subscribeFromNow(this::onChanges);
+    }
+
+    private void onChanges(ChangeSet changes) {
+        if (changes.isFullReload()) {
+            generation.incrementAndGet();
+            for (GadgetLiveData liveData : active) {
+                liveData.reload();
+            }
+            return;
+        }
+        Set<Long> changed = new HashSet<>(changes.getDeletedIds());
+        for (GadgetRow row : changes.getUpserted()) {
+            changed.add(row.id);
+        }
+        synchronized (this) {
+            evictions++;
+            for (Long id : changed) {
+                entries.remove(id);
+            }
+        }
+        for (GadgetLiveData liveData : active) {
+            if (changed.contains(liveData.id)) {
+                liveData.reload();
+            }
+        }
+    }
+
+    LiveData<GadgetEntity> get(long id) {
+        return new GadgetLiveData(id);
+    }
+
+    synchronized void evict(long id) {
+        evictions++;
+        entries.remove(id);
+    }
+
+    synchronized void clear() {
+        evictions++;
+        entries.evictAll();
+    }
+
+    // Caches a read unless something was evicted since it started, as it may predate that write
+    private synchronized void fill(long id, GadgetEntity gadget, long readEvictions, long readGeneration) {
+        if (evictions == readEvictions) {
+            entries.put(id, new Entry(new GadgetEntity(gadget), readGeneration));
+        }
+    }
+
+    private synchronized long evictionCount() {
+        return evictions;
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private static final class Entry {
+        final GadgetEntity gadget;
+        final long generation;
+
+        Entry(GadgetEntity gadget, long generation) {
+            this.gadget = gadget;
+            this.generation = generation;
+        }
+    }
+
+    private final class GadgetLiveData extends LiveData<GadgetEntity> {
+        private final long id;
+
+        GadgetLiveData(long id) {
+            this.id = id;
+        }
+
+        @Override
+        protected void onActive() {
+            active.add(this);
+            Entry entry = entries.get(id);
+            if (entry == null) {
+                misses.incrementAndGet();
+                reload();
+                return;
+            }
+            hits.incrementAndGet();
+            GadgetEntity current = getValue();
+            // Cached entries come from reads, so an equal rowVersion means the same content
+            if (current == null || current.getRowVersion() != entry.gadget.getRowVersion()) {
+                setValue(new GadgetEntity(entry.gadget));
+            }
+            if (entry.generation != generation.get()) {
+                reload();
+            }
+        }
+
+        @Override
+        protected void onInactive() {
+            active.remove(this);
+        }
+
+        void reload() {
+            long loadGeneration = generation.get();
+            long loadEvictions = evictionCount();
+            readExecutor.execute(() -> {
+                GadgetEntity gadget = gadgetDao.findGadgetById(id);
+                if (gadget != null) {
+                    fill(id, gadget, loadEvictions, loadGeneration);
+                } else {
+                    evict(id);
+                }
+                postValue(gadget);
+            });
+        }
+    }
+}
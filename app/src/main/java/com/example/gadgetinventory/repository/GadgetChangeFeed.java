@@ -0,0 +1,185 @@
+package com.example.gadgetinventory.repository;
+
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.room.InvalidationTracker;
+import com.example.gadgetinventory.data.dao.GadgetChangeDao;
+import com.example.gadgetinventory.data.dao.GadgetDao;
+import com.example.gadgetinventory.data.database.DatabaseDispatcher;
+import com.example.gadgetinventory.data.database.GadgetDatabase;
+import com.example.gadgetinventory.data.database.SqlChunks;
+import com.example.gadgetinventory.data.entity.GadgetChangeEntity;
+import com.example.gadgetinventory.data.model.GadgetRow;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Turns the trigger-fed {@code gadget_changes} log into {@link ChangeSet}s. Each
+ * subscription keeps its own cursor and receives change sets in order on a worker
+ * thread. A subscriber whose cursor predates the retained log, or that is more than
+ * {@link #MAX_CHANGES_PER_SET} changes behind, gets a full-reload change set instead.
+ */
+public class GadgetChangeFeed {
+    private static final String TAG = "GadgetChangeFeed";
+
+    static final int MAX_CHANGES_PER_SET = 1000;
+    static final int RETAINED_CHANGES = 10000;
+    private static final long FROM_NOW = -1;
+
+    public interface Listener {
+        void onChanges(ChangeSet changes);
+    }
+
+    private final GadgetDao gadgetDao;
+    private final GadgetChangeDao changeDao;
+    private final DatabaseDispatcher dispatcher;
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean pruneScheduled = new AtomicBoolean();
+
+    GadgetChangeFeed(GadgetDatabase database, DatabaseDispatcher dispatcher) {
+        this.gadgetDao = database.gadgetDao();
+        this.changeDao = database.gadgetChangeDao();
+        this.dispatcher = dispatcher;
+        database.getInvalidationTracker().addObserver(new InvalidationTracker.Observer("gadget_changes") {
+            @Override
+            public void onInvalidated(@NonNull Set<String> tables) {
+                for (Subscription subscription : subscriptions) {
+                    subscription.poll();
+                }
+            }
+        });
+    }
+
+    /** Latest sequence number in the log. Blocking; call off the main thread. */
+    public long getLatestSeq() {
+        return changeDao.getLatestSeq();
+    }
+
+    /** Delivers every change after {@code afterSeq}. */
+    public Subscription subscribe(long afterSeq, Listener listener) {
+        Subscription subscription = new Subscription(afterSeq, listener);
+        subscriptions.add(subscription);
+        subscription.poll();
+        return subscription;
+    }
+
+    /** Delivers changes made after the subscription's first poll. */
+    public Subscription subscribeFromNow(Listener listener) {
+        return subscribe(FROM_NOW, listener);
+    }
+
+    private ChangeSet collapse(long fromSeq, List<GadgetChangeEntity> changes) {
+        // Only the last operation per id matters; rows are re-read in their current state
+        Map<Long, Integer> lastOp = new LinkedHashMap<>();
+        for (GadgetChangeEntity change : changes) {
+            lastOp.put(change.getGadgetId(), change.getOp());
+        }
+        List<Long> deleted = new ArrayList<>();
+        List<Long> changed = new ArrayList<>();
+        for (Map.Entry<Long, Integer> entry : lastOp.entrySet()) {
+            if (entry.getValue() == GadgetChangeEntity.OP_DELETE) {
+                deleted.add(entry.getKey());
+            } else {
+                changed.add(entry.getKey());
+            }
+        }
+        List<GadgetRow> upserted = new ArrayList<>(changed.size());
+        SqlChunks.forEachChunk(changed, SqlChunks.MAX_BIND_ARGS,
+                chunk -> upserted.addAll(gadgetDao.loadGadgetRowsByIds(chunk)));
+        // A row changed and then deleted after the log was read is gone as well
+        if (upserted.size() < changed.size()) {
+            Set<Long> found = new HashSet<>();
+            for (GadgetRow row : upserted) {
+                found.add(row.id);
+            }
+            for (Long id : changed) {
+                if (!found.contains(id)) {
+                    deleted.add(id);
+                }
+            }
+        }
+        long toSeq = changes.get(changes.size() - 1).getSeq();
+        return ChangeSet.delta(fromSeq, toSeq, deleted, upserted);
+    }
+
+    private void maybePrune(long latestSeq) {
+        if (latestSeq - changeDao.getOldestSeq() < 2L * RETAINED_CHANGES
+                || !pruneScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        // The newest row is always kept so MAX(seq) keeps tracking the AUTOINCREMENT counter
+        dispatcher.write(() -> changeDao.deleteUpTo(latestSeq - RETAINED_CHANGES))
+                .whenComplete((ignored, error) -> pruneScheduled.set(false));
+    }
+
+    public final class Subscription {
+        private final Listener listener;
+        private final AtomicBoolean pending = new AtomicBoolean();
+        private final AtomicBoolean running = new AtomicBoolean();
+        private volatile boolean cancelled;
+        private long cursor;
+
+        private Subscription(long afterSeq, Listener listener) {
+            this.cursor = afterSeq;
+            this.listener = listener;
+        }
+
+        public void cancel() {
+            cancelled = true;
+            subscriptions.remove(this);
+        }
+
+        void poll() {
+            pending.set(true);
+            if (running.compareAndSet(false, true)) {
+                dispatcher.read(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                while (pending.getAndSet(false) && !cancelled) {
+                    readChanges();
+                }
+            } catch (RuntimeException e) {
+                Log.e(TAG, "Failed to read change log", e);
+            } finally {
+                running.set(false);
+                if (pending.get() && !cancelled && running.compareAndSet(false, true)) {
+                    dispatcher.read(this::drain);
+                }
+            }
+        }
+
+        private void readChanges() {
+            if (cursor == FROM_NOW) {
+                cursor = changeDao.getLatestSeq();
+                return;
+            }
+            // One extra row tells us whether the backlog exceeds a single change set
+            List<GadgetChangeEntity> changes = changeDao.getChangesAfter(cursor, MAX_CHANGES_PER_SET + 1);
+            if (changes.isEmpty() || cancelled) {
+                return;
+            }
+            long fromSeq = cursor;
+            boolean pruned = changes.get(0).getSeq() != fromSeq + 1;
+            if (pruned || changes.size() > MAX_CHANGES_PER_SET) {
+                long latestSeq = changeDao.getLatestSeq();
+                cursor = latestSeq;
+                listener.onChanges(ChangeSet.fullReload(fromSeq, latestSeq));
+                maybePrune(latestSeq);
+                return;
+            }
+            ChangeSet changeSet = collapse(fromSeq, changes);
+            cursor = changeSet.getToSeq();
+            listener.onChanges(changeSet);
+            maybePrune(cursor);
+        }
+    }
+}
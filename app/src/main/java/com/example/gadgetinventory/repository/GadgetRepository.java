@@ -1,49 +1,713 @@
 package com.example.gadgetinventory.repository;
 
 import android.app.Application;
+import android.net.Uri;
+import androidx.annotation.Nullable;
 import androidx.lifecycle.LiveData;
+import androidx.lifecycle.Transformations;
+import com.example.gadgetinventory.ResourceManager;
 import com.example.gadgetinventory.data.dao.GadgetDao;
+import com.example.gadgetinventory.data.dao.InventorySummaryDao;
+import com.example.gadgetinventory.data.dao.ModelPriceDao;
+import com.example.gadgetinventory.data.dao.StockTakeDao;
+import com.example.gadgetinventory.data.database.DatabaseDispatcher;
 import com.example.gadgetinventory.data.database.GadgetDatabase;
+import com.example.gadgetinventory.data.database.SqlChunks;
 import com.example.gadgetinventory.data.entity.GadgetEntity;
+import com.example.gadgetinventory.data.entity.ModelPriceBucketEntity;
+import com.example.gadgetinventory.data.entity.ModelPriceStatsEntity;
+import com.example.gadgetinventory.data.entity.StockTakeScanEntity;
+import com.example.gadgetinventory.data.image.ThumbnailStore;
+import com.example.gadgetinventory.data.io.BackupResult;
+import com.example.gadgetinventory.data.io.ImportResult;
+import com.example.gadgetinventory.data.io.InventoryExporter;
+import com.example.gadgetinventory.data.io.InventoryFormat;
+import com.example.gadgetinventory.data.io.InventoryImporter;
+import com.example.gadgetinventory.data.io.ProgressListener;
+import com.example.gadgetinventory.data.io.RestoreResult;
+import com.example.gadgetinventory.data.model.ConditionSummary;
+import com.example.gadgetinventory.data.model.GadgetRow;
+import com.example.gadgetinventory.data.model.YearSummary;
+import com.example.gadgetinventory.data.query.GadgetQuery;
+import com.example.gadgetinventory.data.sync.SyncResult;
+import com.example.gadgetinventory.data.valuation.InventoryValuation;
+import com.example.gadgetinventory.data.valuation.ValuationRates;
+import java.io.FileNotFoundException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 public class GadgetRepository {
+    public static final int DEFAULT_CHUNK_SIZE = 500;
+    /** Hash bits two photos may differ in and still be flagged as the same item. */
+    public static final int DUPLICATE_DISTANCE = 10;
+    private static final int MAX_DUPLICATE_MATCHES = 5;
+
+    private final Application application;
     private final GadgetDao gadgetDao;
-    private final ExecutorService executorService;
+    private final InventorySummaryDao summaryDao;
+    private final DatabaseDispatcher dispatcher;
+    private final GadgetChangeFeed changeFeed;
+    private final GadgetCache gadgetCache;
+    private final ThumbnailStore thumbnailStore;
+    private final ThumbnailPipeline thumbnailPipeline;
+    private final ImageHashIndex imageHashIndex;
+    // Guarded by this; only the first list load uses it
+    @Nullable
+    private InventorySnapshot inventorySnapshot;
+    private boolean inventorySnapshotTaken;
+    private final ValuationEngine valuationEngine;
+    private final ValueHistory valueHistory;
+    private final ModelPriceDao modelPriceDao;
+    private final StockTakeDao stockTakeDao;
+    private final LiveData<OwnedCounts> ownedCounts;
+    private final ImageSweeper imageSweeper;
+    private final InventoryPurger purger;
+    private final BackupManager backupManager;
+    private final SyncEngine syncEngine;
+    private volatile int chunkSize = DEFAULT_CHUNK_SIZE;
+
+    public interface WriteCallback {
+        void onWritten();
+
+        void onError(Exception e);
+    }
+
+    public interface ExportCallback {
+        void onExported(long rows);
+
+        void onError(Exception e);
+    }
+
+    public interface ImportCallback {
+        void onImported(ImportResult result);
+
+        void onError(Exception e);
+    }
+
+    public interface BackupCallback {
+        void onBackedUp(BackupResult result);
+
+        void onError(Exception e);
+    }
+
+    public interface RestoreCallback {
+        void onRestored(RestoreResult result);
+
+        void onError(Exception e);
+    }
+
+    public interface SyncCallback {
+        void onSynced(SyncResult result);
+
+        void onError(Exception e);
+    }
+
+    public interface DuplicateCallback {
+        void onDuplicates(List<DuplicateMatch> matches);
+
+        void onError(Exception e);
+    }
+
+    public interface DuplicateReportCallback {
+        void onReport(DuplicateReport report);
+
+        void onError(Exception e);
+    }
+
+    public interface SerialNumberCallback {
+        /** {@code gadget} is null when no gadget carries the serial number. */
+        void onResult(@Nullable GadgetEntity gadget);
+
+        void onError(Exception e);
+    }
+
+    public interface StockTakeCallback {
+        void onReport(StockTakeReport report);
+
+        void onError(Exception e);
+    }
+
+    public interface ValueTrendCallback {
+        void onTrend(List<ValueTrendPoint> points);
+
+        void onError(Exception e);
+    }
+
+    public interface PriceSuggestionCallback {
+        /** {@code suggestion} is null when no saved gadget has this model. */
+        void onSuggestion(@Nullable PriceSuggestion suggestion);
+
+        void onError(Exception e);
+    }
+
+    private static volatile GadgetRepository INSTANCE;
 
-    public GadgetRepository(Application application) {
+    /** Repositories hold no per-screen state, so every ViewModel shares one instance. */
+    public static GadgetRepository getInstance(Application application) {
+        if (INSTANCE == null) {
+            synchronized (GadgetRepository.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new GadgetRepository(application);
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    private GadgetRepository(Application application) {
+        this.application = application;
         GadgetDatabase database = GadgetDatabase.getDatabase(application);
         gadgetDao = database.gadgetDao();
-        executorService = Executors.newSingleThreadExecutor();
+        summaryDao = database.inventorySummaryDao();
+        modelPriceDao = database.modelPriceDao();
+        stockTakeDao = database.stockTakeDao();
+        ownedCounts = Transformations.map(modelPriceDao.getModelCounts(), OwnedCounts::new);
+        dispatcher = DatabaseDispatcher.getInstance(application);
+        changeFeed = new GadgetChangeFeed(database, dispatcher);
+        gadgetCache = new GadgetCache(gadgetDao, changeFeed, dispatcher.getReadExecutor());
+        thumbnailStore = new ThumbnailStore(application);
+        thumbnailPipeline = new ThumbnailPipeline(gadgetDao, thumbnailStore, dispatcher);
+        thumbnailPipeline.backfill();
+        imageHashIndex = new ImageHashIndex(gadgetDao, changeFeed);
+        // Both reload on their next lookup; the hash index waits out any search holding it
+        ResourceManager resources = ResourceManager.getInstance(application);
+        resources.register("gadget cache", ResourceManager.Priority.CACHE, gadgetCache::clear);
+        resources.register("image hash index", ResourceManager.Priority.EXPENSIVE,
+                () -> dispatcher.read(imageHashIndex::unload));
+        valuationEngine = new ValuationEngine(application, gadgetDao, changeFeed, dispatcher.getReadExecutor());
+        valueHistory = new ValueHistory(application, database.valueSnapshotDao(), dispatcher);
+        valueHistory.compactIfDue();
+        imageSweeper = new ImageSweeper(application, gadgetDao, thumbnailStore, dispatcher.getJobExecutor());
+        imageSweeper.sweepIfDue();
+        purger = new InventoryPurger(application, gadgetDao, summaryDao, dispatcher, imageSweeper,
+                this::getChunkSize);
+        purger.resumeIfInterrupted();
+        backupManager = new BackupManager(application, database, dispatcher, imageSweeper, thumbnailStore);
+        syncEngine = new SyncEngine(application, database, dispatcher, imageSweeper);
+    }
+
+    /** {@code callback} hears whether the row was committed, on a background thread. */
+    public void insert(GadgetEntity gadget, WriteCallback callback) {
+        clearStaleThumbnail(gadget);
+        whenWritten(dispatcher.write(() -> gadget.setId(gadgetDao.insert(gadget))), callback,
+                () -> thumbnailPipeline.enqueue(gadget.getId(), gadget.getImageUri()));
+    }
+
+    public void update(GadgetEntity gadget, WriteCallback callback) {
+        clearStaleThumbnail(gadget);
+        whenWritten(dispatcher.write(() -> gadgetDao.update(gadget)), callback, () -> {
+            // The change feed evicts it as well, but only once it catches up
+            gadgetCache.evict(gadget.getId());
+            thumbnailPipeline.enqueue(gadget.getId(), gadget.getImageUri());
+        });
+    }
+
+    // A new photo must not keep showing the previous photo's thumbnail or matching its duplicates
+    private static void clearStaleThumbnail(GadgetEntity gadget) {
+        String key = gadget.getThumbnailKey();
+        if (key != null && !key.equals(ThumbnailStore.keyFor(gadget.getImageUri()))) {
+            gadget.setThumbnailKey(null);
+            gadget.setImageHash(null);
+        }
+    }
+
+    public void delete(GadgetEntity gadget, WriteCallback callback) {
+        whenWritten(dispatcher.write(() -> gadgetDao.delete(gadget)), callback, () -> {
+            gadgetCache.evict(gadget.getId());
+            imageSweeper.sweep();
+        });
+    }
+
+    // A rejected write, e.g. a serial number already in use, must reach the screen that made it
+    private static void whenWritten(CompletableFuture<Void> write, WriteCallback callback,
+                                    Runnable afterCommit) {
+        write.whenComplete((ignored, error) -> {
+            if (error != null) {
+                callback.onError(error instanceof Exception ? (Exception) error : new RuntimeException(error));
+                return;
+            }
+            afterCommit.run();
+            callback.onWritten();
+        });
+    }
+
+    public void setChunkSize(int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be positive: " + chunkSize);
+        }
+        this.chunkSize = chunkSize;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    // Each DAO list call in the bulk writes below is its own transaction, so a large batch
+    // commits and invalidates observers once per chunk instead of once per row
+    public void insertAll(List<GadgetEntity> gadgets) {
+        List<GadgetEntity> batch = prepareBatch(gadgets);
+        dispatcher.runOnWriter(() -> SqlChunks.forEachChunk(batch, chunkSize, gadgetDao::insertAll))
+                .whenComplete((ignored, error) -> thumbnailPipeline.backfill());
+    }
+
+    public void updateAll(List<GadgetEntity> gadgets) {
+        List<GadgetEntity> batch = prepareBatch(gadgets);
+        dispatcher.runOnWriter(() -> SqlChunks.forEachChunk(batch, chunkSize, gadgetDao::updateAll))
+                .whenComplete((ignored, error) -> {
+                    evictAll(batch);
+                    thumbnailPipeline.backfill();
+                });
+    }
+
+    public void upsertAll(List<GadgetEntity> gadgets) {
+        List<GadgetEntity> batch = prepareBatch(gadgets);
+        dispatcher.runOnWriter(() -> SqlChunks.forEachChunk(batch, chunkSize, gadgetDao::upsertAll))
+                .whenComplete((ignored, error) -> {
+                    evictAll(batch);
+                    thumbnailPipeline.backfill();
+                });
+    }
+
+    public void deleteByIds(List<Long> ids) {
+        List<Long> batch = new ArrayList<>(ids);
+        int size = Math.min(chunkSize, SqlChunks.MAX_BIND_ARGS);
+        dispatcher.runOnWriter(() -> SqlChunks.forEachChunk(batch, size, gadgetDao::deleteByIds))
+                .whenComplete((ignored, error) -> {
+                    for (Long id : batch) {
+                        gadgetCache.evict(id);
+                    }
+                    imageSweeper.sweep();
+                });
+    }
+
+    private static List<GadgetEntity> prepareBatch(List<GadgetEntity> gadgets) {
+        List<GadgetEntity> batch = new ArrayList<>(gadgets);
+        for (GadgetEntity gadget : batch) {
+            clearStaleThumbnail(gadget);
+        }
+        return batch;
+    }
+
+    // Bulk writes may commit only some chunks, so evict every touched id either way
+    private void evictAll(List<GadgetEntity> gadgets) {
+        for (GadgetEntity gadget : gadgets) {
+            gadgetCache.evict(gadget.getId());
+        }
     }
 
-    public void insert(GadgetEntity gadget) {
-        executorService.execute(() -> gadgetDao.insert(gadget));
+    /** Streams the inventory to {@code destination}; callbacks arrive on a background thread. */
+    public void exportInventory(Uri destination, InventoryFormat format,
+                                @Nullable ProgressListener listener, ExportCallback callback) {
+        dispatcher.runJob(() -> {
+            try (OutputStream out = application.getContentResolver().openOutputStream(destination)) {
+                if (out == null) {
+                    throw new FileNotFoundException("Cannot open " + destination);
+                }
+                long rows = new InventoryExporter(gadgetDao, summaryDao).export(out, format, listener);
+                callback.onExported(rows);
+            } catch (Exception e) {
+                callback.onError(e);
+            }
+        });
     }
 
-    public void update(GadgetEntity gadget) {
-        executorService.execute(() -> gadgetDao.update(gadget));
+    /**
+     * Imports rows from {@code source} in chunks; callbacks arrive on a background thread. The
+     * file is parsed on a job thread and only the chunk inserts queue on the writer.
+     */
+    public void importInventory(Uri source, InventoryFormat format,
+                                @Nullable ProgressListener listener, ImportCallback callback) {
+        dispatcher.runJob(() -> {
+            try (InputStream in = application.getContentResolver().openInputStream(source)) {
+                if (in == null) {
+                    throw new FileNotFoundException("Cannot open " + source);
+                }
+                ImportResult result = new InventoryImporter(gadgetDao, dispatcher, chunkSize)
+                        .importFrom(in, format, listener);
+                thumbnailPipeline.backfill();
+                callback.onImported(result);
+            } catch (Exception e) {
+                callback.onError(e);
+            }
+        });
     }
 
-    public void delete(GadgetEntity gadget) {
-        executorService.execute(() -> gadgetDao.delete(gadget));
+    /**
+     * Writes a backup archive to {@code destination}. Unless {@code full}, the archive only
+     * carries photos earlier archives since the last full backup do not; callbacks arrive
+     * on a background thread.
+     */
+    public void backupInventory(Uri destination, boolean full,
+                                @Nullable ProgressListener listener, BackupCallback callback) {
+        dispatcher.runJob(() -> {
+            try (OutputStream out = application.getContentResolver().openOutputStream(destination)) {
+                if (out == null) {
+                    throw new FileNotFoundException("Cannot open " + destination);
+                }
+                callback.onBackedUp(backupManager.backup(out, full, listener));
+            } catch (Exception e) {
+                callback.onError(e);
+            }
+        });
     }
 
-    public LiveData<List<GadgetEntity>> getAllGadgets() {
-        return gadgetDao.getAllGadgets();
+    /**
+     * Restores photos from {@code archives} and stages the newest archive's database, which
+     * replaces the current one when the app next starts; callbacks arrive on a background thread.
+     */
+    public void restoreInventory(List<Uri> archives, @Nullable ProgressListener listener,
+                                 RestoreCallback callback) {
+        dispatcher.runJob(() -> {
+            try {
+                callback.onRestored(backupManager.restore(archives, listener));
+            } catch (Exception e) {
+                callback.onError(e);
+            }
+        });
     }
 
+    @Nullable
+    public String getSyncServerUrl() {
+        return syncEngine.getServerUrl();
+    }
+
+    /** A different server gets the whole inventory on the next sync. */
+    public void setSyncServerUrl(@Nullable String url) {
+        syncEngine.setServerUrl(url);
+    }
+
+    /** Pushes local changes and pulls remote ones; callbacks arrive on a background thread. */
+    public void syncInventory(@Nullable ProgressListener listener, SyncCallback callback) {
+        syncEngine.start(listener, new SyncCallback() {
+            @Override
+            public void onSynced(SyncResult result) {
+                if (result.getPulled() > 0) {
+                    // Pulled rows may bring new photos and drop old ones
+                    thumbnailPipeline.backfill();
+                    imageSweeper.sweep();
+                }
+                callback.onSynced(result);
+            }
+
+            @Override
+            public void onError(Exception e) {
+                callback.onError(e);
+            }
+        });
+    }
+
+    /**
+     * Looks for saved gadgets whose photo is within {@link #DUPLICATE_DISTANCE} bits of the
+     * photo at {@code imageUri}, nearest first; {@code excludeId} is the gadget being edited,
+     * or 0. Gadgets saved before their thumbnail was written are not matched yet. Callbacks
+     * arrive on a background thread.
+     */
+    public void findPossibleDuplicates(String imageUri, long excludeId, DuplicateCallback callback) {
+        dispatcher.runJob(() -> {
+            try {
+                long hash = thumbnailStore.hashPhoto(imageUri);
+                Map<Long, Integer> distances = new HashMap<>();
+                imageHashIndex.search(hash, DUPLICATE_DISTANCE, (id, otherHash, distance) -> {
+                    if (id != excludeId) {
+                        distances.put(id, distance);
+                    }
+                });
+                List<DuplicateMatch> matches = new ArrayList<>(distances.size());
+                for (GadgetRow row : loadRows(new ArrayList<>(distances.keySet()))) {
+                    matches.add(new DuplicateMatch(row, distances.get(row.id)));
+                }
+                Collections.sort(matches, (a, b) -> Integer.compare(a.getDistance(), b.getDistance()));
+                callback.onDuplicates(matches.size() > MAX_DUPLICATE_MATCHES
+                        ? new ArrayList<>(matches.subList(0, MAX_DUPLICATE_MATCHES)) : matches);
+            } catch (Exception e) {
+                callback.onError(e);
+            }
+        });
+    }
+
+    /** Groups every gadget with a near-identical photo; callbacks arrive on a background thread. */
+    public void buildDuplicateReport(DuplicateReportCallback callback) {
+        dispatcher.runJob(() -> {
+            try {
+                List<List<Long>> idGroups = imageHashIndex.findGroups(DUPLICATE_DISTANCE);
+                List<Long> ids = new ArrayList<>();
+                for (List<Long> group : idGroups) {
+                    ids.addAll(group);
+                }
+                Map<Long, GadgetRow> rows = new HashMap<>();
+                for (GadgetRow row : loadRows(ids)) {
+                    rows.put(row.id, row);
+                }
+                List<List<GadgetRow>> groups = new ArrayList<>(idGroups.size());
+                for (List<Long> idGroup : idGroups) {
+                    List<GadgetRow> group = new ArrayList<>(idGroup.size());
+                    for (Long id : idGroup) {
+                        GadgetRow row = rows.get(id);
+                        if (row != null) {
+                            group.add(row);
+                        }
+                    }
+                    if (group.size() > 1) {
+                        Collections.sort(group, (a, b) -> String.CASE_INSENSITIVE_ORDER.compare(
+                                String.valueOf(a.name), String.valueOf(b.name)));
+                        groups.add(group);
+                    }
+                }
+                Collections.sort(groups, (a, b) -> Integer.compare(b.size(), a.size()));
+                callback.onReport(new DuplicateReport(groups, imageHashIndex.size()));
+            } catch (Exception e) {
+                callback.onError(e);
+            }
+        });
+    }
+
+    private List<GadgetRow> loadRows(List<Long> ids) {
+        List<GadgetRow> rows = new ArrayList<>(ids.size());
+        SqlChunks.forEachChunk(ids, SqlChunks.MAX_BIND_ARGS,
+                chunk -> rows.addAll(gadgetDao.loadGadgetRowsByIds(chunk)));
+        return rows;
+    }
+
+    /** Saved depreciation schedule and rates; used for the current inventory value. */
+    public ValuationRates getValuationRates() {
+        return valuationEngine.getRates();
+    }
+
+    /** Changing a single condition's rate only revalues gadgets in that condition. */
+    public void setValuationRates(ValuationRates rates) {
+        valuationEngine.setRates(rates);
+    }
+
+    /** Today's depreciated inventory value under the saved rates; follows edits and rate changes. */
+    public LiveData<InventoryValuation> getCurrentValuation() {
+        return valuationEngine.getCurrentValuation();
+    }
+
+    /**
+     * Inventory count and value over {@code [fromMillis, toMillis]} for a trend chart, read
+     * from the trigger-maintained history; callbacks arrive on a background thread.
+     */
+    public void loadValueTrend(long fromMillis, long toMillis, ValueTrendCallback callback) {
+        dispatcher.read(() -> {
+            try {
+                callback.onTrend(valueHistory.loadTrend(fromMillis, toMillis));
+            } catch (Exception e) {
+                callback.onError(e);
+            }
+        });
+    }
+
+    /**
+     * Suggests a value for a gadget of {@code model} from the per-model statistics: two
+     * primary-key reads, however large the inventory. Callbacks arrive on a background thread.
+     */
+    public void suggestPrice(String model, PriceSuggestionCallback callback) {
+        dispatcher.read(() -> {
+            try {
+                callback.onSuggestion(loadPriceSuggestion(model));
+            } catch (Exception e) {
+                callback.onError(e);
+            }
+        });
+    }
+
+    @Nullable
+    private PriceSuggestion loadPriceSuggestion(String model) {
+        String modelKey = GadgetEntity.modelKeyOf(model);
+        ModelPriceStatsEntity stats = modelKey != null ? modelPriceDao.findStats(modelKey) : null;
+        if (stats == null || stats.getItemCount() <= 0) {
+            return null;
+        }
+        // Lower median: the value at position ceil(n / 2) in price order
+        long remaining = (stats.getItemCount() + 1) / 2;
+        double median = stats.getMaxValue();
+        for (ModelPriceBucketEntity bucket : modelPriceDao.getBuckets(modelKey)) {
+            remaining -= bucket.getItemCount();
+            if (remaining <= 0) {
+                median = ModelPriceBucketEntity.midpoint(bucket.getBucket());
+                break;
+            }
+        }
+        median = Math.max(stats.getMinValue(), Math.min(stats.getMaxValue(), median));
+        return new PriceSuggestion(stats.getModel(), stats.getItemCount(),
+                stats.getTotalValue() / stats.getItemCount(), median,
+                stats.getMinValue(), stats.getMaxValue(), stats.getLastSeenAt());
+    }
+
+    /**
+     * Gadgets owned per model, read from the trigger-maintained model statistics rather than
+     * gadgets, and re-read whenever they change. Shared, so observers never repeat the query.
+     */
+    public LiveData<OwnedCounts> getOwnedCounts() {
+        return ownedCounts;
+    }
+
+    /** Exact lookup through the unique serial index, ignoring ASCII case; callbacks on a background thread. */
+    public void findGadgetBySerialNumber(String serialNumber, SerialNumberCallback callback) {
+        dispatcher.read(() -> {
+            try {
+                String serial = GadgetEntity.serialNumberOf(serialNumber);
+                callback.onResult(serial != null ? gadgetDao.findBySerialNumber(serial) : null);
+            } catch (Exception e) {
+                callback.onError(e);
+            }
+        });
+    }
+
+    /** Discards the scans of the previous stock-take. */
+    public void startStockTake() {
+        dispatcher.write(stockTakeDao::clearScans);
+    }
+
+    /**
+     * Adds scanned or typed tags to the current stock-take; tags already scanned are ignored.
+     * Scans arriving close together are committed in one transaction by the dispatcher.
+     */
+    public void recordStockTakeScans(List<String> tags) {
+        long now = System.currentTimeMillis();
+        List<StockTakeScanEntity> scans = new ArrayList<>(tags.size());
+        for (String tag : tags) {
+            String serial = GadgetEntity.serialNumberOf(tag);
+            if (serial != null) {
+                scans.add(new StockTakeScanEntity(serial, now));
+            }
+        }
+        if (scans.isEmpty()) {
+            return;
+        }
+        dispatcher.write(() -> {
+            for (StockTakeScanEntity scan : scans) {
+                stockTakeDao.insertScan(scan);
+            }
+        });
+    }
+
+    /** Distinct tags scanned in the current stock-take. */
+    public LiveData<Integer> getStockTakeScanCount() {
+        return stockTakeDao.getScanCount();
+    }
+
+    /** Reconciles the current stock-take with set queries; callbacks on a background thread. */
+    public void reconcileStockTake(StockTakeCallback callback) {
+        dispatcher.runJob(() -> {
+            try {
+                callback.onReport(new StockTakeReport(stockTakeDao.getMatched(), stockTakeDao.getMissing(),
+                        stockTakeDao.getUnexpected(), stockTakeDao.countUntagged()));
+            } catch (Exception e) {
+                callback.onError(e);
+            }
+        });
+    }
+
+    /** Blocking; call off the main thread. Pair with {@link #getChangeFeed()} to stay current. */
+    public List<GadgetRow> loadGadgetRows() {
+        return gadgetDao.loadGadgetRows();
+    }
+
+    /**
+     * Opens the database and reads the inventory list ahead of the first screen, which
+     * takes it with {@link #takeInventorySnapshot()}. Blocking; called once at startup.
+     */
+    public void prefetchInventory() {
+        long seq = changeFeed.getLatestSeq();
+        InventorySnapshot snapshot = new InventorySnapshot(seq, gadgetDao.loadGadgetRows());
+        synchronized (this) {
+            // Too late if the list already loaded itself; the rows would only sit in memory
+            if (!inventorySnapshotTaken) {
+                inventorySnapshot = snapshot;
+            }
+        }
+    }
+
+    /** The prefetched rows, or null if there are none or they were already taken. */
+    @Nullable
+    public synchronized InventorySnapshot takeInventorySnapshot() {
+        InventorySnapshot snapshot = inventorySnapshot;
+        inventorySnapshot = null;
+        inventorySnapshotTaken = true;
+        return snapshot;
+    }
+
+    /** Rows matching {@code query} in its order; re-run whenever gadgets change. */
+    public LiveData<List<GadgetRow>> queryGadgetRows(GadgetQuery query) {
+        return gadgetDao.queryGadgetRows(query.toSupportQuery());
+    }
+
+    /** Blocking; call off the main thread. */
+    public List<GadgetRow> loadGadgetRows(GadgetQuery query) {
+        return gadgetDao.loadGadgetRows(query.toSupportQuery());
+    }
+
+    public ThumbnailStore getThumbnailStore() {
+        return thumbnailStore;
+    }
+
+    /** Incremental changes to {@code gadgets}; see {@link GadgetChangeFeed}. */
+    public GadgetChangeFeed getChangeFeed() {
+        return changeFeed;
+    }
+
+    /** Served from {@link GadgetCache} when possible; see there for invalidation rules. */
     public LiveData<GadgetEntity> getGadgetById(long id) {
-        return gadgetDao.getGadgetById(id);
+        return gadgetCache.get(id);
+    }
+
+    public GadgetCache getGadgetCache() {
+        return gadgetCache;
+    }
+
+    /**
+     * Rows whose name or model starts with {@code prefix}, ignoring ASCII case, in no
+     * particular order. Wildcards in the prefix match literally. Blocking; call off the main thread.
+     */
+    public List<GadgetRow> searchGadgetRows(String prefix) {
+        StringBuilder pattern = new StringBuilder(prefix.length() + 1);
+        for (int i = 0; i < prefix.length(); i++) {
+            char c = prefix.charAt(i);
+            if (c == '\\' || c == '%' || c == '_') {
+                pattern.append('\\');
+            }
+            pattern.append(c);
+        }
+        return gadgetDao.searchGadgetRows(pattern.append('%').toString());
+    }
+
+    public LiveData<Double> getTotalValue() {
+        return summaryDao.getTotalValue();
+    }
+
+    public LiveData<Long> getGadgetCount() {
+        return summaryDao.getGadgetCount();
+    }
+
+    public LiveData<List<ConditionSummary>> getConditionSummaries() {
+        return summaryDao.getConditionSummaries();
+    }
+
+    public LiveData<List<YearSummary>> getValueByPurchaseYear() {
+        return summaryDao.getValueByPurchaseYear();
+    }
+
+    /**
+     * Deletes every gadget and its images in chunks of {@link #getChunkSize()}, without
+     * holding the write lock for the whole table. Survives process death; see
+     * {@link #getPurgeProgress()}.
+     */
+    public void purgeInventory() {
+        purger.start();
     }
 
-    public LiveData<List<GadgetEntity>> searchGadgets(String query) {
-        return gadgetDao.searchGadgets("%" + query + "%");
+    public void cancelPurge() {
+        purger.cancel();
     }
 
-    public void deleteAll() {
-        executorService.execute(gadgetDao::deleteAll);
+    public LiveData<PurgeProgress> getPurgeProgress() {
+        return purger.getProgress();
     }
 } 
\ No newline at end of file
@@ -0,0 +1,184 @@
+package com.example.gadgetinventory.repository;
+
+import com.example.gadgetinventory.data.dao.GadgetDao;
+import com.example.gadgetinventory.data.database.SqlChunks;
+import com.example.gadgetinventory.data.image.HammingBkTree;
+import com.example.gadgetinventory.data.model.GadgetRow;
+import com.example.gadgetinventory.data.model.ImageHashRow;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-memory {@link HammingBkTree} over every stored photo hash, for near-duplicate lookups
+ * without scanning the table. Loaded on first use; afterwards the {@link GadgetChangeFeed}
+ * only marks changed ids, whose hashes are re-read before the next lookup. Lookups block
+ * on those reads, so call them on the read executor.
+ */
+class ImageHashIndex {
+    // Removed ids leave empty routing nodes behind; rebuild once they outnumber live ones
+    private static final int MIN_REBUILD_REMOVALS = 256;
+
+    private final GadgetDao gadgetDao;
+    private final HammingBkTree tree = new HammingBkTree();
+    private final Map<Long, Long> hashById = new HashMap<>();
+    private final Set<Long> pending = new HashSet<>();
+    private boolean loaded;
+    private int removals;
+
+    ImageHashIndex(GadgetDao gadgetDao, GadgetChangeFeed changeFeed) {
+        this.gadgetDao = gadgetDao;
+        changeFeed.subscribeFromNow(this::onChanges);
+    }
+
+    private synchronized void onChanges(ChangeSet changes) {
+        if (changes.isFullReload()) {
+            loaded = false;
+            return;
+        }
+        if (!loaded) {
+            return;
+        }
+        pending.addAll(changes.getDeletedIds());
+        for (GadgetRow row : changes.getUpserted()) {
+            pending.add(row.id);
+        }
+    }
+
+    /** Calls {@code visitor} for every gadget whose photo hash is within {@code maxDistance}. */
+    synchronized void search(long hash, int maxDistance, HammingBkTree.Visitor visitor) {
+        refresh();
+        tree.search(hash, maxDistance, visitor);
+    }
+
+    /**
+     * Groups gadgets whose photos are within {@code maxDistance} of each other, directly or
+     * through a chain of near matches. Only groups of two or more are returned.
+     */
+    synchronized List<List<Long>> findGroups(int maxDistance) {
+        refresh();
+        Map<Long, Long> parent = new HashMap<>();
+        for (Map.Entry<Long, Long> entry : hashById.entrySet()) {
+            long id = entry.getKey();
+            tree.search(entry.getValue(), maxDistance, (otherId, otherHash, distance) -> {
+                if (otherId != id) {
+                    union(parent, id, otherId);
+                }
+            });
+        }
+        Map<Long, List<Long>> groups = new HashMap<>();
+        for (Long id : parent.keySet()) {
+            long root = find(parent, id);
+            List<Long> group = groups.get(root);
+            if (group == null) {
+                group = new ArrayList<>();
+                groups.put(root, group);
+            }
+            group.add(id);
+        }
+        return new ArrayList<>(groups.values());
+    }
+
+    /** Frees the tree; the next lookup loads it again. */
+    synchronized void unload() {
+        rebuild(Collections.<ImageHashRow>emptyList());
+        pending.clear();
+        loaded = false;
+    }
+
+    /** Number of gadgets with a hashed photo. */
+    synchronized int size() {
+        refresh();
+        return hashById.size();
+    }
+
+    private static long find(Map<Long, Long> parent, long id) {
+        long root = id;
+        Long next;
+        while ((next = parent.get(root)) != null && next != root) {
+            root = next;
+        }
+        // Path compression keeps later lookups short
+        long current = id;
+        while (current != root) {
+            long following = parent.get(current);
+            parent.put(current, root);
+            current = following;
+        }
+        return root;
+    }
+
+    private static void union(Map<Long, Long> parent, long a, long b) {
+        if (!parent.containsKey(a)) {
+            parent.put(a, a);
+        }
+        if (!parent.containsKey(b)) {
+            parent.put(b, b);
+        }
+        long rootA = find(parent, a);
+        long rootB = find(parent, b);
+        if (rootA != rootB) {
+            parent.put(rootB, rootA);
+        }
+    }
+
+    private void refresh() {
+        if (!loaded) {
+            rebuild(gadgetDao.getImageHashes());
+            pending.clear();
+            loaded = true;
+            return;
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>(pending);
+        pending.clear();
+        Map<Long, Long> current = new HashMap<>();
+        SqlChunks.forEachChunk(ids, SqlChunks.MAX_BIND_ARGS, chunk -> {
+            for (ImageHashRow row : gadgetDao.loadImageHashesByIds(chunk)) {
+                current.put(row.id, row.imageHash);
+            }
+        });
+        for (Long id : ids) {
+            Long hash = current.get(id);
+            Long old = hash != null ? hashById.put(id, hash) : hashById.remove(id);
+            if (old != null && old.equals(hash)) {
+                continue;
+            }
+            if (old != null) {
+                tree.remove(id, old);
+                removals++;
+            }
+            if (hash != null) {
+                tree.add(id, hash);
+            }
+        }
+        if (removals >= MIN_REBUILD_REMOVALS && removals > hashById.size()) {
+            List<ImageHashRow> rows = new ArrayList<>(hashById.size());
+            for (Map.Entry<Long, Long> entry : hashById.entrySet()) {
+                ImageHashRow row = new ImageHashRow();
+                row.id = entry.getKey();
+                row.imageHash = entry.getValue();
+                rows.add(row);
+            }
+            rebuild(rows);
+        }
+    }
+
+    private void rebuild(List<ImageHashRow> rows) {
+        tree.clear();
+        hashById.clear();
+        removals = 0;
+        for (ImageHashRow row : rows) {
+            if (row.imageHash != null) {
+                hashById.put(row.id, row.imageHash);
+                tree.add(row.id, row.imageHash);
+            }
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package com.example.gadgetinventory.repository;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.net.Uri;
+import android.util.Log;
+import androidx.annotation.Nullable;
+import androidx.core.content.FileProvider;
+import com.example.gadgetinventory.data.dao.GadgetDao;
+import com.example.gadgetinventory.data.image.ThumbnailSize;
+import com.example.gadgetinventory.data.image.ThumbnailStore;
+import com.example.gadgetinventory.data.model.ThumbnailSource;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Deletes image files the app wrote that no gadget references any more: camera photos,
+ * detection crops and thumbnails. Candidates come from the file system; the table is then
+ * streamed in keyset pages and every candidate still referenced is dropped, so memory
+ * grows with the number of files, not rows. Files younger than {@link #GRACE_PERIOD_MS}
+ * are never touched, which protects photos of a gadget that is still being edited.
+ */
+class ImageSweeper {
+    private static final String TAG = "ImageSweeper";
+
+    static final long GRACE_PERIOD_MS = TimeUnit.HOURS.toMillis(24);
+    static final long SWEEP_INTERVAL_MS = TimeUnit.DAYS.toMillis(1);
+    private static final int PAGE_SIZE = 500;
+
+    private static final String PREFS_NAME = "image_sweeper";
+    private static final String KEY_LAST_SWEEP = "last_sweep";
+
+    // Names written by AddGadgetFragment.takePhoto() and DetectionFragment.selectBestDetection()
+    private static final String PHOTO_PREFIX = "gadget_";
+    static final String DETECTION_PREFIX = "detected_gadget";
+    private static final String JPEG_SUFFIX = ".jpg";
+
+    // <external-files-path> and <cache-path> names in res/xml/file_paths.xml
+    private static final String PROVIDER_PICTURES = "my_images";
+    private static final String PROVIDER_CACHE = "my_cache_images";
+
+    private final Context context;
+    private final GadgetDao gadgetDao;
+    private final ThumbnailStore thumbnailStore;
+    private final Executor executor;
+    private final SharedPreferences prefs;
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    ImageSweeper(Context context, GadgetDao gadgetDao, ThumbnailStore thumbnailStore, Executor executor) {
+        this.context = context;
+        this.gadgetDao = gadgetDao;
+        this.thumbnailStore = thumbnailStore;
+        this.executor = executor;
+        this.prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+
+    /** Sweeps unless a sweep ran within {@link #SWEEP_INTERVAL_MS}. */
+    void sweepIfDue() {
+        long lastSweep = prefs.getLong(KEY_LAST_SWEEP, 0);
+        if (System.currentTimeMillis() - lastSweep >= SWEEP_INTERVAL_MS) {
+            sweep();
+        }
+    }
+
+    /** Schedules a sweep; one that is already waiting to start absorbs this request. */
+    void sweep() {
+        if (scheduled.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                scheduled.set(false);
+                try {
+                    runSweep();
+                } catch (RuntimeException e) {
+                    Log.e(TAG, "Image sweep failed", e);
+                }
+            });
+        }
+    }
+
+    /**
+     * Deletes the photos and thumbnails of rows that were just deleted, regardless of age,
+     * unless a surviving row still uses the same photo. Only files the app wrote itself are
+     * ever touched; gallery photos are left alone.
+     */
+    void deleteImagesOf(List<ThumbnailSource> deletedRows, Set<String> keptUris) {
+        Set<String> keptKeys = new HashSet<>();
+        for (String uri : keptUris) {
+            keptKeys.add(ThumbnailStore.keyFor(uri));
+        }
+        for (ThumbnailSource row : deletedRows) {
+            if (row.imageUri == null || keptUris.contains(row.imageUri)) {
+                continue;
+            }
+            File photo = ownedPhoto(row.imageUri);
+            if (photo != null) {
+                photo.delete();
+            }
+            String key = ThumbnailStore.keyFor(row.imageUri);
+            for (String candidate : new String[]{key, row.thumbnailKey}) {
+                if (candidate != null && !keptKeys.contains(candidate)) {
+                    for (ThumbnailSize size : ThumbnailSize.values()) {
+                        thumbnailStore.getFile(candidate, size).delete();
+                    }
+                }
+            }
+        }
+    }
+
+    /** The app-written photo behind a stored {@code imageUri}, or null for anything else. */
+    @Nullable
+    File ownedPhoto(String imageUri) {
+        Uri uri = Uri.parse(imageUri);
+        File file = null;
+        if ("file".equals(uri.getScheme()) && uri.getPath() != null) {
+            file = new File(uri.getPath());
+        } else if ("content".equals(uri.getScheme())
+                && (context.getPackageName() + ".fileprovider").equals(uri.getAuthority())) {
+            List<String> segments = uri.getPathSegments();
+            if (segments.size() == 2) {
+                if (PROVIDER_PICTURES.equals(segments.get(0))) {
+                    file = new File(context.getExternalFilesDir("Pictures"), segments.get(1));
+                } else if (PROVIDER_CACHE.equals(segments.get(0))) {
+                    file = new File(context.getCacheDir(), segments.get(1));
+                }
+            }
+        }
+        if (file == null) {
+            return null;
+        }
+        String name = file.getName();
+        if (!name.endsWith(JPEG_SUFFIX)) {
+            return null;
+        }
+        File expectedDir = name.startsWith(PHOTO_PREFIX) ? context.getExternalFilesDir("Pictures")
+                : name.startsWith(DETECTION_PREFIX) ? context.getCacheDir() : null;
+        try {
+            if (expectedDir != null && file.getCanonicalFile().getParentFile()
+                    .equals(expectedDir.getCanonicalFile())) {
+                return file;
+            }
+        } catch (IOException e) {
+            // Unresolvable path; treat as not ours
+        }
+        return null;
+    }
+
+    private void runSweep() {
+        long cutoff = System.currentTimeMillis() - GRACE_PERIOD_MS;
+        String authority = context.getPackageName() + ".fileprovider";
+
+        // Every URI form a gadget may store for a photo, mapped to its file
+        Map<String, File> photosByUri = new HashMap<>();
+        List<File> photos = new ArrayList<>();
+        photos.addAll(listOlderThan(context.getCacheDir(), DETECTION_PREFIX, cutoff));
+        photos.addAll(listOlderThan(context.getExternalFilesDir("Pictures"), PHOTO_PREFIX, cutoff));
+        for (File photo : photos) {
+            photosByUri.put(Uri.fromFile(photo).toString(), photo);
+            try {
+                photosByUri.put(FileProvider.getUriForFile(context, authority, photo).toString(), photo);
+            } catch (IllegalArgumentException e) {
+                // Outside the provider's paths; only file:// URIs can reference it
+            }
+        }
+
+        Map<String, List<File>> thumbnailsByKey = new HashMap<>();
+        List<File> orphans = new ArrayList<>();
+        for (File thumbnail : listOlderThan(thumbnailStore.getDirectory(), "", cutoff)) {
+            String name = thumbnail.getName();
+            int separator = name.indexOf('_');
+            if (separator <= 0 || !name.endsWith(JPEG_SUFFIX)) {
+                // Leftover temp file from an interrupted write
+                orphans.add(thumbnail);
+                continue;
+            }
+            String key = name.substring(0, separator);
+            List<File> files = thumbnailsByKey.get(key);
+            if (files == null) {
+                files = new ArrayList<>(2);
+                thumbnailsByKey.put(key, files);
+            }
+            files.add(thumbnail);
+        }
+
+        if (!photosByUri.isEmpty() || !thumbnailsByKey.isEmpty()) {
+            Set<File> referenced = new HashSet<>();
+            long afterId = 0;
+            while (true) {
+                List<ThumbnailSource> page = gadgetDao.getThumbnailSourcesAfter(afterId, PAGE_SIZE);
+                for (ThumbnailSource source : page) {
+                    if (source.imageUri != null) {
+                        File photo = photosByUri.get(source.imageUri);
+                        if (photo != null) {
+                            referenced.add(photo);
+                        }
+                        // Thumbnails may exist before the row records their key
+                        String key = ThumbnailStore.keyFor(source.imageUri);
+                        if (key != null) {
+                            thumbnailsByKey.remove(key);
+                        }
+                    }
+                    if (source.thumbnailKey != null) {
+                        thumbnailsByKey.remove(source.thumbnailKey);
+                    }
+                }
+                if (page.size() < PAGE_SIZE) {
+                    break;
+                }
+                afterId = page.get(page.size() - 1).id;
+            }
+            for (File photo : photos) {
+                if (!referenced.contains(photo)) {
+                    orphans.add(photo);
+                }
+            }
+            for (List<File> files : thumbnailsByKey.values()) {
+                orphans.addAll(files);
+            }
+        }
+
+        deleteOrphans(orphans, cutoff);
+        prefs.edit().putLong(KEY_LAST_SWEEP, System.currentTimeMillis()).apply();
+    }
+
+    // Logs once per sweep, not per file or batch: this runs on a background thread during startup
+    private void deleteOrphans(List<File> orphans, long cutoff) {
+        int deleted = 0;
+        long freedBytes = 0;
+        for (File file : orphans) {
+            // Skip anything rewritten since it was listed
+            long length = file.length();
+            if (file.lastModified() < cutoff && file.delete()) {
+                deleted++;
+                freedBytes += length;
+            }
+        }
+        if (deleted > 0) {
+            Log.i(TAG, "Deleted " + deleted + " orphaned images, " + (freedBytes / 1024) + " KB");
+        }
+    }
+
+    private static List<File> listOlderThan(@Nullable File directory, String prefix, long cutoff) {
+        List<File> result = new ArrayList<>();
+        File[] files = directory != null ? directory.listFiles() : null;
+        if (files == null) {
+            return result;
+        }
+        for (File file : files) {
+            if (file.isFile() && file.getName().startsWith(prefix) && file.lastModified() < cutoff) {
+                if (prefix.isEmpty() || file.getName().endsWith(JPEG_SUFFIX)) {
+                    result.add(file);
+                }
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.gadgetinventory.repository;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import com.example.gadgetinventory.data.dao.GadgetDao;
+import com.example.gadgetinventory.data.dao.InventorySummaryDao;
+import com.example.gadgetinventory.data.database.DatabaseDispatcher;
+import com.example.gadgetinventory.data.model.ThumbnailSource;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntSupplier;
+
+/**
+ * Deletes every gadget that existed when the purge started, one id range per short write,
+ * and removes each chunk's photos and thumbnails once it has committed. The id bound and
+ * cursor are saved after every chunk, so a purge interrupted by process death resumes on
+ * the next start. Re-running a chunk is harmless: its rows are already gone.
+ */
+class InventoryPurger {
+    private static final String TAG = "InventoryPurger";
+
+    private static final String PREFS_NAME = "inventory_purge";
+    private static final String KEY_ACTIVE = "active";
+    private static final String KEY_THROUGH_ID = "through_id";
+    private static final String KEY_CURSOR = "cursor";
+    private static final String KEY_DELETED = "deleted";
+    private static final String KEY_TOTAL = "total";
+
+    private final GadgetDao gadgetDao;
+    private final InventorySummaryDao summaryDao;
+    private final DatabaseDispatcher dispatcher;
+    private final ImageSweeper imageSweeper;
+    private final IntSupplier chunkSize;
+    private final SharedPreferences prefs;
+    private final MutableLiveData<PurgeProgress> progress =
+            new MutableLiveData<>(new PurgeProgress(PurgeProgress.State.IDLE, 0, 0));
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile boolean cancelRequested;
+
+    InventoryPurger(Context context, GadgetDao gadgetDao, InventorySummaryDao summaryDao,
+                    DatabaseDispatcher dispatcher, ImageSweeper imageSweeper, IntSupplier chunkSize) {
+        this.gadgetDao = gadgetDao;
+        this.summaryDao = summaryDao;
+        this.dispatcher = dispatcher;
+        this.imageSweeper = imageSweeper;
+        this.chunkSize = chunkSize;
+        this.prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+
+    LiveData<PurgeProgress> getProgress() {
+        return progress;
+    }
+
+    /** Continues a purge the previous process did not finish. */
+    void resumeIfInterrupted() {
+        if (prefs.getBoolean(KEY_ACTIVE, false)) {
+            start();
+        }
+    }
+
+    void start() {
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+        cancelRequested = false;
+        dispatcher.runJob(() -> {
+            try {
+                if (!prefs.getBoolean(KEY_ACTIVE, false)) {
+                    // commit(), not apply(): the bound must be on disk before any row is deleted
+                    prefs.edit()
+                            .putBoolean(KEY_ACTIVE, true)
+                            .putLong(KEY_THROUGH_ID, gadgetDao.getMaxId())
+                            .putLong(KEY_CURSOR, 0)
+                            .putLong(KEY_DELETED, 0)
+                            .putLong(KEY_TOTAL, summaryDao.countGadgets())
+                            .commit();
+                }
+                publish(PurgeProgress.State.RUNNING);
+                nextChunk();
+            } catch (RuntimeException e) {
+                fail(e);
+            }
+        });
+    }
+
+    /** Stops after the chunk in flight; rows already deleted stay deleted. */
+    void cancel() {
+        cancelRequested = true;
+    }
+
+    private void nextChunk() {
+        if (cancelRequested) {
+            finish(PurgeProgress.State.CANCELLED);
+            return;
+        }
+        long cursor = prefs.getLong(KEY_CURSOR, 0);
+        long throughId = prefs.getLong(KEY_THROUGH_ID, 0);
+        int limit = chunkSize.getAsInt();
+        List<ThumbnailSource> purged = new ArrayList<>();
+        dispatcher.write(() -> {
+            // A group commit that rolls back replays this write alone; start from scratch
+            purged.clear();
+            for (ThumbnailSource row : gadgetDao.getThumbnailSourcesAfter(cursor, limit)) {
+                if (row.id > throughId) {
+                    break;
+                }
+                purged.add(row);
+            }
+            if (!purged.isEmpty()) {
+                gadgetDao.deleteIdRange(cursor, purged.get(purged.size() - 1).id);
+            }
+        }).whenCompleteAsync((ignored, error) -> {
+            if (error != null) {
+                fail(error);
+                return;
+            }
+            if (purged.isEmpty()) {
+                finish(PurgeProgress.State.DONE);
+                return;
+            }
+            try {
+                prefs.edit()
+                        .putLong(KEY_CURSOR, purged.get(purged.size() - 1).id)
+                        .putLong(KEY_DELETED, prefs.getLong(KEY_DELETED, 0) + purged.size())
+                        .commit();
+                publish(PurgeProgress.State.RUNNING);
+                deleteImages(purged, throughId);
+                nextChunk();
+            } catch (RuntimeException e) {
+                fail(e);
+            }
+        }, dispatcher.getJobExecutor());
+    }
+
+    private void deleteImages(List<ThumbnailSource> purged, long throughId) {
+        // Rows added after the purge started survive it, and so do their images
+        Set<String> keptUris = new HashSet<>(gadgetDao.getImageUrisAfter(throughId));
+        imageSweeper.deleteImagesOf(purged, keptUris);
+    }
+
+    private void finish(PurgeProgress.State state) {
+        long deleted = prefs.getLong(KEY_DELETED, 0);
+        long total = prefs.getLong(KEY_TOTAL, 0);
+        prefs.edit().clear().commit();
+        progress.postValue(new PurgeProgress(state, deleted, total));
+        running.set(false);
+        // Chunks whose images were not removed before a crash are left to the sweeper
+        imageSweeper.sweep();
+    }
+
+    // The saved cursor is kept, so the next start picks the purge up from here
+    private void fail(Throwable error) {
+        Log.e(TAG, "Purge failed", error);
+        publish(PurgeProgress.State.FAILED);
+        running.set(false);
+    }
+
+    private void publish(PurgeProgress.State state) {
+        progress.postValue(new PurgeProgress(state,
+                prefs.getLong(KEY_DELETED, 0), prefs.getLong(KEY_TOTAL, 0)));
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.gadgetinventory.repository;
+
+import com.example.gadgetinventory.data.model.GadgetRow;
+import java.util.List;
+
+/**
+ * The inventory list rows as read at startup, with the change-feed cursor taken just
+ * before the read. Subscribing from {@link #getSeq()} replays anything written since, so
+ * a snapshot stays correct however late it is used.
+ */
+public final class InventorySnapshot {
+    private final long seq;
+    private final List<GadgetRow> rows;
+
+    InventorySnapshot(long seq, List<GadgetRow> rows) {
+        this.seq = seq;
+        this.rows = rows;
+    }
+
+    public long getSeq() {
+        return seq;
+    }
+
+    public List<GadgetRow> getRows() {
+        return rows;
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.gadgetinventory.repository;
+
+import com.example.gadgetinventory.data.entity.GadgetEntity;
+import com.example.gadgetinventory.data.model.ModelCount;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * How many gadgets of each model are in the inventory, as an immutable in-memory snapshot.
+ * Lookups take a detector class label or any spelling of a model and do no I/O, so they
+ * can run on every camera frame.
+ */
+public final class OwnedCounts {
+    private final Map<String, Long> countsByKey;
+
+    OwnedCounts(List<ModelCount> counts) {
+        countsByKey = new HashMap<>(counts.size() * 2);
+        for (ModelCount count : counts) {
+            countsByKey.put(count.modelKey, count.itemCount);
+        }
+    }
+
+    /** Gadgets whose model normalizes to the same key as {@code label}, or 0. */
+    public long countFor(String label) {
+        String key = GadgetEntity.modelKeyOf(label);
+        Long count = key != null ? countsByKey.get(key) : null;
+        return count != null ? count : 0;
+    }
+}
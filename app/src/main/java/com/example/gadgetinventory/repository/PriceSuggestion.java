@@ -0,0 +1,60 @@
+package com.example.gadgetinventory.repository;
+
+/**
+ * What gadgets of the same model are valued at, from the trigger-maintained statistics.
+ * {@link #getSuggestedValue()} is the median, which a few mistyped prices do not drag.
+ */
+public final class PriceSuggestion {
+    private final String model;
+    private final long itemCount;
+    private final double meanValue;
+    private final double medianValue;
+    private final double minValue;
+    private final double maxValue;
+    private final long lastSeenAt;
+
+    PriceSuggestion(String model, long itemCount, double meanValue, double medianValue,
+                    double minValue, double maxValue, long lastSeenAt) {
+        this.model = model;
+        this.itemCount = itemCount;
+        this.meanValue = meanValue;
+        this.medianValue = medianValue;
+        this.minValue = minValue;
+        this.maxValue = maxValue;
+        this.lastSeenAt = lastSeenAt;
+    }
+
+    /** Spelling of the most recently saved gadget of this model. */
+    public String getModel() {
+        return model;
+    }
+
+    public long getItemCount() {
+        return itemCount;
+    }
+
+    public double getMeanValue() {
+        return meanValue;
+    }
+
+    /** Approximate: the midpoint of the histogram bucket holding the median, within 5%. */
+    public double getMedianValue() {
+        return medianValue;
+    }
+
+    public double getMinValue() {
+        return minValue;
+    }
+
+    public double getMaxValue() {
+        return maxValue;
+    }
+
+    public long getLastSeenAt() {
+        return lastSeenAt;
+    }
+
+    public double getSuggestedValue() {
+        return medianValue;
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.gadgetinventory.repository;
+
+/**
+ * Snapshot of the inventory purge. {@link #getTotal()} is the row count when the purge
+ * started; rows added while it runs are not purged.
+ */
+public final class PurgeProgress {
+    public enum State {
+        IDLE,
+        RUNNING,
+        DONE,
+        CANCELLED,
+        FAILED
+    }
+
+    private final State state;
+    private final long deleted;
+    private final long total;
+
+    PurgeProgress(State state, long deleted, long total) {
+        this.state = state;
+        this.deleted = deleted;
+        this.total = total;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public long getDeleted() {
+        return deleted;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+}
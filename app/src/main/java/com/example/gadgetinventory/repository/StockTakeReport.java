@@ -0,0 +1,44 @@
+package com.example.gadgetinventory.repository;
+
+import com.example.gadgetinventory.data.model.StockTakeItem;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The current stock-take reconciled against the inventory: tagged gadgets that were
+ * scanned, tagged gadgets that were not, and scanned tags that match no gadget.
+ */
+public final class StockTakeReport {
+    private final List<StockTakeItem> matched;
+    private final List<StockTakeItem> missing;
+    private final List<String> unexpected;
+    private final long untaggedCount;
+
+    StockTakeReport(List<StockTakeItem> matched, List<StockTakeItem> missing,
+                    List<String> unexpected, long untaggedCount) {
+        this.matched = Collections.unmodifiableList(matched);
+        this.missing = Collections.unmodifiableList(missing);
+        this.unexpected = Collections.unmodifiableList(unexpected);
+        this.untaggedCount = untaggedCount;
+    }
+
+    /** Scanned and in the inventory, sorted by name. */
+    public List<StockTakeItem> getMatched() {
+        return matched;
+    }
+
+    /** In the inventory with a serial number that was not scanned, sorted by name. */
+    public List<StockTakeItem> getMissing() {
+        return missing;
+    }
+
+    /** Scanned tags no gadget carries, sorted. */
+    public List<String> getUnexpected() {
+        return unexpected;
+    }
+
+    /** Gadgets without a serial number, which a stock-take cannot account for. */
+    public long getUntaggedCount() {
+        return untaggedCount;
+    }
+}
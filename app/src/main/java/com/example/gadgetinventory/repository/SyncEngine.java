@@ -0,0 +1,387 @@
+package com.example.gadgetinventory.repository;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Process;
+import androidx.annotation.Nullable;
+import androidx.core.content.FileProvider;
+import com.example.gadgetinventory.data.dao.SyncDao;
+import com.example.gadgetinventory.data.database.DatabaseDispatcher;
+import com.example.gadgetinventory.data.database.GadgetDatabase;
+import com.example.gadgetinventory.data.entity.GadgetEntity;
+import com.example.gadgetinventory.data.entity.GadgetTombstoneEntity;
+import com.example.gadgetinventory.data.io.FileHashes;
+import com.example.gadgetinventory.data.io.ProgressListener;
+import com.example.gadgetinventory.data.sync.HttpSyncTransport;
+import com.example.gadgetinventory.data.sync.SyncChange;
+import com.example.gadgetinventory.data.sync.SyncPage;
+import com.example.gadgetinventory.data.sync.SyncResult;
+import com.example.gadgetinventory.data.sync.SyncTransport;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Two-way delta sync with a self-hosted server, one run at a time on its own thread.
+ * <p>
+ * Push sends rows whose updatedAt is past their syncedAt, then tombstones, in batches;
+ * photos go first, by content hash, and only those the server lacks. Each acknowledged
+ * batch is marked synced before the next is read. Pull applies server pages
+ * last-writer-wins on updatedAt and saves the server cursor after each committed page.
+ * Both halves therefore resume where an interrupted run stopped, and repeating a batch is
+ * harmless.
+ */
+class SyncEngine {
+    static final int PUSH_BATCH_SIZE = 200;
+    static final int PULL_BATCH_SIZE = 500;
+    private static final long IDLE_TIMEOUT_SECONDS = 30;
+
+    private static final String PREFS_NAME = "sync";
+    private static final String KEY_DEVICE_ID = "device_id";
+    private static final String KEY_SERVER_URL = "server_url";
+    private static final String KEY_PULL_CURSOR = "pull_cursor";
+    private static final String PHOTO_PREFIX = "gadget_";
+
+    private final Context context;
+    private final SyncDao syncDao;
+    private final DatabaseDispatcher dispatcher;
+    private final ImageSweeper imageSweeper;
+    private final SharedPreferences prefs;
+    private final ThreadPoolExecutor executor;
+
+    private static final class Counts {
+        int pushed;
+        int pulled;
+        int uploadedImages;
+        int downloadedImages;
+        int serialConflicts;
+    }
+
+    // What applying one pulled page changed; a replayed write starts a fresh one
+    private static final class Applied {
+        int rows;
+        int serialConflicts;
+    }
+
+    SyncEngine(Context context, GadgetDatabase database, DatabaseDispatcher dispatcher,
+               ImageSweeper imageSweeper) {
+        this.context = context;
+        this.syncDao = database.syncDao();
+        this.dispatcher = dispatcher;
+        this.imageSweeper = imageSweeper;
+        this.prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        executor = new ThreadPoolExecutor(1, 1, IDLE_TIMEOUT_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(() -> {
+                        Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                        runnable.run();
+                    }, "sync");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    @Nullable
+    String getServerUrl() {
+        return prefs.getString(KEY_SERVER_URL, null);
+    }
+
+    /** Points sync at another server; everything is pushed to it and pulled from its start. */
+    void setServerUrl(@Nullable String url) {
+        String normalized = url == null || url.trim().isEmpty() ? null : url.trim();
+        executor.execute(() -> {
+            if (normalized == null ? getServerUrl() == null : normalized.equals(getServerUrl())) {
+                return;
+            }
+            prefs.edit().putString(KEY_SERVER_URL, normalized).remove(KEY_PULL_CURSOR).commit();
+            await(dispatcher.write(() -> {
+                syncDao.resetSyncedAt();
+                syncDao.deleteAllTombstones();
+            }));
+        });
+    }
+
+    /** Queues a run against the configured server; runs never overlap. */
+    void start(@Nullable ProgressListener listener, GadgetRepository.SyncCallback callback) {
+        executor.execute(() -> {
+            try {
+                String url = getServerUrl();
+                if (url == null) {
+                    throw new IllegalStateException("No sync server configured");
+                }
+                callback.onSynced(sync(new HttpSyncTransport(url, getDeviceId()), listener));
+            } catch (Exception e) {
+                callback.onError(e);
+            }
+        });
+    }
+
+    /** One full run. Blocking; must not run on the writer thread. */
+    SyncResult sync(SyncTransport transport, @Nullable ProgressListener listener) throws IOException {
+        Counts counts = new Counts();
+        pushRows(transport, counts, listener);
+        pushTombstones(transport, counts, listener);
+        pull(transport, counts, listener);
+        return new SyncResult(counts.pushed, counts.pulled, counts.uploadedImages, counts.downloadedImages,
+                counts.serialConflicts);
+    }
+
+    private String getDeviceId() {
+        String deviceId = prefs.getString(KEY_DEVICE_ID, null);
+        if (deviceId == null) {
+            deviceId = UUID.randomUUID().toString();
+            prefs.edit().putString(KEY_DEVICE_ID, deviceId).apply();
+        }
+        return deviceId;
+    }
+
+    private void pushRows(SyncTransport transport, Counts counts, @Nullable ProgressListener listener)
+            throws IOException {
+        long afterId = 0;
+        while (true) {
+            List<GadgetEntity> page = syncDao.getDirtyAfter(afterId, PUSH_BATCH_SIZE);
+            if (page.isEmpty()) {
+                return;
+            }
+            List<SyncChange> changes = new ArrayList<>(page.size());
+            Map<String, File> photos = new LinkedHashMap<>();
+            for (GadgetEntity gadget : page) {
+                String imageHash = null;
+                // Only photos the app wrote can be shared; other URIs are device-specific
+                File photo = gadget.getImageUri() != null ? imageSweeper.ownedPhoto(gadget.getImageUri()) : null;
+                if (photo != null && photo.isFile()) {
+                    imageHash = FileHashes.sha256(photo);
+                    photos.put(imageHash, photo);
+                }
+                Date purchaseDate = gadget.getPurchaseDate();
+                changes.add(SyncChange.upsert(gadget.getSyncId(), gadget.getUpdatedAt(), gadget.getName(),
+                        gadget.getModel(), gadget.getCondition(),
+                        purchaseDate != null ? purchaseDate.getTime() : null,
+                        gadget.getEstimatedValue(), imageHash,
+                        gadget.getSerialNumber() != null ? gadget.getSerialNumber() : ""));
+            }
+            // Photos first, so the server never holds a row whose photo it cannot serve
+            if (!photos.isEmpty()) {
+                for (String hash : transport.findMissingImages(photos.keySet())) {
+                    File photo = photos.get(hash);
+                    if (photo != null) {
+                        transport.uploadImage(hash, photo);
+                        counts.uploadedImages++;
+                    }
+                }
+            }
+            transport.push(changes);
+            await(dispatcher.write(() -> {
+                for (SyncChange change : changes) {
+                    // Rows edited since they were read keep a newer updatedAt and stay dirty
+                    syncDao.markSynced(change.getSyncId(), change.getUpdatedAt());
+                }
+            }));
+            counts.pushed += changes.size();
+            report(listener, counts);
+            if (page.size() < PUSH_BATCH_SIZE) {
+                return;
+            }
+            afterId = page.get(page.size() - 1).getId();
+        }
+    }
+
+    private void pushTombstones(SyncTransport transport, Counts counts, @Nullable ProgressListener listener)
+            throws IOException {
+        String afterSyncId = "";
+        while (true) {
+            List<GadgetTombstoneEntity> page = syncDao.getTombstonesAfter(afterSyncId, PUSH_BATCH_SIZE);
+            if (page.isEmpty()) {
+                return;
+            }
+            List<SyncChange> changes = new ArrayList<>(page.size());
+            for (GadgetTombstoneEntity tombstone : page) {
+                changes.add(SyncChange.deletion(tombstone.getSyncId(), tombstone.getDeletedAt()));
+            }
+            transport.push(changes);
+            await(dispatcher.write(() -> {
+                for (SyncChange change : changes) {
+                    syncDao.deletePushedTombstone(change.getSyncId(), change.getUpdatedAt());
+                }
+            }));
+            counts.pushed += changes.size();
+            report(listener, counts);
+            if (page.size() < PUSH_BATCH_SIZE) {
+                return;
+            }
+            afterSyncId = page.get(page.size() - 1).getSyncId();
+        }
+    }
+
+    private void pull(SyncTransport transport, Counts counts, @Nullable ProgressListener listener)
+            throws IOException {
+        String cursor = prefs.getString(KEY_PULL_CURSOR, null);
+        while (true) {
+            SyncPage page = transport.pull(cursor, PULL_BATCH_SIZE);
+            List<SyncChange> changes = page.getChanges();
+            if (!changes.isEmpty()) {
+                Map<String, String> imageUris = fetchImages(transport, changes, counts);
+                Applied[] applied = {null};
+                await(dispatcher.write(() -> applied[0] = apply(changes, imageUris)));
+                counts.pulled += applied[0].rows;
+                counts.serialConflicts += applied[0].serialConflicts;
+            }
+            // Saved only after the page has committed; re-applying a page is a no-op
+            if (page.getCursor() != null && !page.getCursor().equals(cursor)) {
+                cursor = page.getCursor();
+                prefs.edit().putString(KEY_PULL_CURSOR, cursor).commit();
+            }
+            report(listener, counts);
+            if (!page.hasMore() || changes.isEmpty()) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Makes the photos of incoming changes available locally and returns the imageUri each
+     * change should get, by syncId. Changes that will lose against a newer local row are skipped,
+     * and changes without a photo hash get no entry: they keep whatever photo the row has.
+     */
+    private Map<String, String> fetchImages(SyncTransport transport, List<SyncChange> changes, Counts counts)
+            throws IOException {
+        Map<String, String> imageUris = new HashMap<>();
+        File pictures = null;
+        for (SyncChange change : changes) {
+            String hash = change.getImageHash();
+            if (change.isDeleted() || hash == null) {
+                continue;
+            }
+            GadgetEntity local = syncDao.findBySyncId(change.getSyncId());
+            if (local != null && local.getUpdatedAt() >= change.getUpdatedAt()) {
+                continue;
+            }
+            // Keep the local file when it already holds this photo
+            File current = local != null && local.getImageUri() != null
+                    ? imageSweeper.ownedPhoto(local.getImageUri()) : null;
+            if (current != null && current.isFile()
+                    && (current.getName().equals(PHOTO_PREFIX + hash + ".jpg")
+                    || hash.equals(FileHashes.sha256(current)))) {
+                imageUris.put(change.getSyncId(), local.getImageUri());
+                continue;
+            }
+            if (pictures == null) {
+                pictures = context.getExternalFilesDir("Pictures");
+                if (pictures == null || (!pictures.isDirectory() && !pictures.mkdirs())) {
+                    throw new IOException("Photo storage unavailable");
+                }
+            }
+            // Named by hash, so a photo shared by several gadgets is downloaded once
+            File target = new File(pictures, PHOTO_PREFIX + hash + ".jpg");
+            if (!target.isFile()) {
+                transport.downloadImage(hash, target);
+                counts.downloadedImages++;
+            }
+            imageUris.put(change.getSyncId(), FileProvider.getUriForFile(context,
+                    context.getPackageName() + ".fileprovider", target).toString());
+        }
+        return imageUris;
+    }
+
+    // Runs inside one write transaction
+    private Applied apply(List<SyncChange> changes, Map<String, String> imageUris) {
+        Applied applied = new Applied();
+        for (SyncChange change : changes) {
+            String syncId = change.getSyncId();
+            GadgetEntity local = syncDao.findBySyncId(syncId);
+            if (change.isDeleted()) {
+                // A local edit made after the deletion wins and is pushed back
+                if (local != null && local.getUpdatedAt() <= change.getUpdatedAt()) {
+                    syncDao.deleteById(local.getId());
+                    // The server already has this deletion; drop the tombstone the delete wrote
+                    syncDao.deleteTombstone(syncId);
+                    applied.rows++;
+                }
+            } else if (local == null) {
+                GadgetTombstoneEntity tombstone = syncDao.findTombstone(syncId);
+                if (tombstone != null && tombstone.getDeletedAt() >= change.getUpdatedAt()) {
+                    continue;
+                }
+                syncDao.deleteTombstone(syncId);
+                GadgetEntity gadget = new GadgetEntity(change.getName(), change.getModel(),
+                        change.getCondition(), toDate(change.getPurchaseDate()),
+                        change.getEstimatedValue(), imageUris.get(syncId));
+                gadget.setSyncId(syncId);
+                gadget.setSerialNumber(serialNumberFor(change, null, applied));
+                gadget.setUpdatedAt(change.getUpdatedAt());
+                gadget.setSyncedAt(change.getUpdatedAt());
+                syncDao.insert(gadget);
+                applied.rows++;
+            } else if (change.getUpdatedAt() > local.getUpdatedAt()) {
+                // No entry in imageUris keeps the local photo; see SyncDao.applyRemote
+                syncDao.applyRemote(local.getId(), change.getName(), change.getModel(),
+                        GadgetEntity.modelKeyOf(change.getModel()), change.getCondition(), toDate(change.getPurchaseDate()),
+                        change.getEstimatedValue(), serialNumberFor(change, local, applied), imageUris.get(syncId),
+                        change.getUpdatedAt());
+                applied.rows++;
+            } else if (change.getUpdatedAt() == local.getUpdatedAt()) {
+                // This device's own push coming back
+                syncDao.markSynced(syncId, change.getUpdatedAt());
+            }
+            // Otherwise the local row is newer and still dirty; the next push sends it
+        }
+        return applied;
+    }
+
+    /**
+     * The serial number a pulled change gives the row. A change without the field keeps the
+     * local one. So does a serial number another local gadget already holds: failing the
+     * unique index would abort the whole page. That conflict is counted for the user to resolve.
+     */
+    @Nullable
+    private String serialNumberFor(SyncChange change, @Nullable GadgetEntity local, Applied applied) {
+        String current = local != null ? local.getSerialNumber() : null;
+        if (change.getSerialNumber() == null) {
+            return current;
+        }
+        String serialNumber = GadgetEntity.serialNumberOf(change.getSerialNumber());
+        if (serialNumber == null) {
+            return null;
+        }
+        Long holder = syncDao.findIdBySerialNumber(serialNumber);
+        if (holder != null && (local == null || holder != local.getId())) {
+            applied.serialConflicts++;
+            return current;
+        }
+        return serialNumber;
+    }
+
+    @Nullable
+    private static Date toDate(@Nullable Long millis) {
+        return millis != null ? new Date(millis) : null;
+    }
+
+    private static void report(@Nullable ProgressListener listener, Counts counts) {
+        if (listener != null) {
+            listener.onProgress(counts.pushed + counts.pulled, -1);
+        }
+    }
+
+    private static void await(CompletableFuture<Void> write) {
+        try {
+            write.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
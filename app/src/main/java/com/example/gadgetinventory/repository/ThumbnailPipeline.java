@@ -0,0 +1,145 @@
+package com.example.gadgetinventory.repository;
+
+import android.os.Process;
+import android.util.Log;
+import com.example.gadgetinventory.data.dao.GadgetDao;
+import com.example.gadgetinventory.data.database.DatabaseDispatcher;
+import com.example.gadgetinventory.data.image.ThumbnailStore;
+import com.example.gadgetinventory.data.model.ThumbnailSource;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Writes thumbnails for saved gadgets on one background thread and records their key and
+ * {@link com.example.gadgetinventory.data.image.PerceptualHash} on the row once the files
+ * are in place. Until then readers fall back to the original photo.
+ * A backfill pass catches rows saved before thumbnails existed and rows written in bulk. It
+ * only reads rows missing a key or hash, so a cold start does not touch the disk once per
+ * row; only after a restore has deleted every thumbnail does the first pass walk them all.
+ */
+class ThumbnailPipeline {
+    private static final String TAG = "ThumbnailPipeline";
+    private static final int BACKFILL_PAGE_SIZE = 500;
+    private static final long IDLE_TIMEOUT_SECONDS = 30;
+
+    private final GadgetDao gadgetDao;
+    private final ThumbnailStore store;
+    private final DatabaseDispatcher dispatcher;
+    private final ThreadPoolExecutor executor;
+    // Latest photo per queued id; a gadget saved twice in a row is only processed once
+    private final Map<Long, String> queued = new ConcurrentHashMap<>();
+    private final AtomicBoolean backfillScheduled = new AtomicBoolean();
+    // Executor thread only. A restore during this run leaves its rebuild to the next start,
+    // when the restored database is in place
+    private boolean firstPass = true;
+
+    ThumbnailPipeline(GadgetDao gadgetDao, ThumbnailStore store, DatabaseDispatcher dispatcher) {
+        this.gadgetDao = gadgetDao;
+        this.store = store;
+        this.dispatcher = dispatcher;
+        executor = new ThreadPoolExecutor(1, 1, IDLE_TIMEOUT_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(() -> {
+                        Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                        runnable.run();
+                    }, "thumbnails");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /** Queues thumbnails for a gadget whose row has been committed. */
+    void enqueue(long id, String imageUri) {
+        if (ThumbnailStore.keyFor(imageUri) == null) {
+            return;
+        }
+        if (queued.put(id, imageUri) == null) {
+            executor.execute(() -> {
+                String latest = queued.remove(id);
+                if (latest == null) {
+                    return;
+                }
+                try {
+                    process(id, latest, null, null);
+                } catch (IOException | RuntimeException e) {
+                    // Missing or unreadable photo; the original stays the only image
+                    Log.w(TAG, "Cannot create thumbnails for gadget " + id, e);
+                }
+            });
+        }
+    }
+
+    /** Schedules a backfill pass; a pass already waiting to start absorbs this one. */
+    void backfill() {
+        if (backfillScheduled.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                backfillScheduled.set(false);
+                runBackfill();
+            });
+        }
+    }
+
+    private void runBackfill() {
+        boolean rebuild = firstPass && store.isRebuildRequested();
+        firstPass = false;
+        long afterId = 0;
+        int generated = 0;
+        int failed = 0;
+        while (true) {
+            List<ThumbnailSource> page = rebuild
+                    ? gadgetDao.getThumbnailSourcesAfter(afterId, BACKFILL_PAGE_SIZE)
+                    : gadgetDao.getMissingThumbnailsAfter(afterId, BACKFILL_PAGE_SIZE);
+            for (ThumbnailSource source : page) {
+                try {
+                    if (process(source.id, source.imageUri, source.thumbnailKey, source.imageHash)) {
+                        generated++;
+                    }
+                } catch (IOException | RuntimeException e) {
+                    // Retried on the next start; one line for all of them, not a trace per row
+                    failed++;
+                }
+            }
+            if (page.size() < BACKFILL_PAGE_SIZE) {
+                break;
+            }
+            afterId = page.get(page.size() - 1).id;
+        }
+        if (rebuild) {
+            store.rebuildDone();
+        }
+        if (generated > 0) {
+            Log.i(TAG, "Backfilled thumbnails for " + generated + " gadgets");
+        }
+        if (failed > 0) {
+            Log.w(TAG, "Cannot create thumbnails for " + failed + " gadgets");
+        }
+    }
+
+    /** Returns true when thumbnails had to be generated. */
+    private boolean process(long id, String imageUri, String storedKey, Long storedHash) throws IOException {
+        String key = ThumbnailStore.keyFor(imageUri);
+        if (key == null) {
+            return false;
+        }
+        boolean generated = false;
+        long hash;
+        if (!store.exists(key)) {
+            hash = store.generate(imageUri, key);
+            generated = true;
+        } else if (storedHash == null || !key.equals(storedKey)) {
+            // Rows thumbnailed before hashes existed, or a photo shared with another row
+            hash = store.hashThumbnail(key);
+        } else {
+            return false;
+        }
+        dispatcher.write(() -> gadgetDao.setThumbnail(id, imageUri, key, hash));
+        return generated;
+    }
+}
@@ -0,0 +1,321 @@
+package com.example.gadgetinventory.repository;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import com.example.gadgetinventory.data.dao.GadgetDao;
+import com.example.gadgetinventory.data.model.GadgetRow;
+import com.example.gadgetinventory.data.valuation.DepreciationSchedule;
+import com.example.gadgetinventory.data.valuation.InventoryValuation;
+import com.example.gadgetinventory.data.valuation.ValuationRates;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Values the whole inventory from columnar copies of the three inputs (purchase value,
+ * purchase date, condition), held in primitive arrays and loaded on first use. Results are
+ * cached per (rates, as-of day):
+ * <ul>
+ * <li>Other rates for the same day and schedule start from a cached result and only
+ * revalue the conditions whose rate differs.</li>
+ * <li>The {@link GadgetChangeFeed} patches the columns and every cached result at the
+ * changed rows, so an edit revalues one gadget, not the inventory.</li>
+ * </ul>
+ * Blocking methods are meant for the read executor.
+ */
+class ValuationEngine {
+    private static final int MAX_CACHED_RESULTS = 8;
+    private static final int INITIAL_CAPACITY = 64;
+    private static final long MILLIS_PER_DAY = 24 * 60 * 60 * 1000L;
+
+    private static final String PREFS_NAME = "valuation";
+    private static final String KEY_SCHEDULE = "schedule";
+    private static final String KEY_RATE_PREFIX = "rate_";
+
+    private final GadgetDao gadgetDao;
+    private final Executor readExecutor;
+    private final SharedPreferences prefs;
+    private final MutableLiveData<InventoryValuation> current = new MutableLiveData<>();
+    private final AtomicBoolean refreshScheduled = new AtomicBoolean();
+    private volatile boolean published;
+    private volatile ValuationRates rates;
+
+    // Columns, indexed by row slot; deletes move the last slot into the hole
+    private final Map<Long, Integer> slotById = new HashMap<>();
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private double[] initialValues = new double[INITIAL_CAPACITY];
+    private long[] purchaseMillis = new long[INITIAL_CAPACITY];
+    private byte[] conditions = new byte[INITIAL_CAPACITY];
+    private int size;
+    private double purchaseTotal;
+    private boolean loaded;
+
+    private final Map<Key, Result> results = new LinkedHashMap<Key, Result>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Result> eldest) {
+            return size() > MAX_CACHED_RESULTS;
+        }
+    };
+
+    ValuationEngine(Context context, GadgetDao gadgetDao, GadgetChangeFeed changeFeed, Executor readExecutor) {
+        this(context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE), gadgetDao, readExecutor);
+        changeFeed.subscribeFromNow(this::onChanges);
+    }
+
+    // Not subscribed to any feed; changes arrive through onChanges
+    ValuationEngine(SharedPreferences prefs, GadgetDao gadgetDao, Executor readExecutor) {
+        this.gadgetDao = gadgetDao;
+        this.readExecutor = readExecutor;
+        this.prefs = prefs;
+        this.rates = readRates();
+    }
+
+    ValuationRates getRates() {
+        return rates;
+    }
+
+    void setRates(ValuationRates rates) {
+        SharedPreferences.Editor editor = prefs.edit().putString(KEY_SCHEDULE, rates.getSchedule().name());
+        for (int condition = 0; condition < ValuationRates.CONDITION_COUNT; condition++) {
+            editor.putFloat(KEY_RATE_PREFIX + condition, (float) rates.getRate(condition));
+        }
+        editor.apply();
+        this.rates = rates;
+        scheduleRefresh();
+    }
+
+    private ValuationRates readRates() {
+        DepreciationSchedule schedule;
+        try {
+            schedule = DepreciationSchedule.valueOf(prefs.getString(KEY_SCHEDULE,
+                    ValuationRates.DEFAULT.getSchedule().name()));
+        } catch (IllegalArgumentException e) {
+            schedule = ValuationRates.DEFAULT.getSchedule();
+        }
+        double[] saved = new double[ValuationRates.CONDITION_COUNT];
+        for (int condition = 0; condition < saved.length; condition++) {
+            saved[condition] = prefs.getFloat(KEY_RATE_PREFIX + condition,
+                    (float) ValuationRates.DEFAULT.getRate(condition));
+        }
+        return new ValuationRates(schedule, saved);
+    }
+
+    /** Today's valuation under the saved rates, kept current while the app runs. */
+    LiveData<InventoryValuation> getCurrentValuation() {
+        published = true;
+        scheduleRefresh();
+        return current;
+    }
+
+    private void scheduleRefresh() {
+        if (published && refreshScheduled.compareAndSet(false, true)) {
+            readExecutor.execute(() -> {
+                refreshScheduled.set(false);
+                current.postValue(valuate(rates, System.currentTimeMillis()));
+            });
+        }
+    }
+
+    synchronized void onChanges(ChangeSet changes) {
+        if (changes.isFullReload()) {
+            loaded = false;
+            results.clear();
+        } else if (loaded) {
+            for (Long id : changes.getDeletedIds()) {
+                remove(id);
+            }
+            for (GadgetRow row : changes.getUpserted()) {
+                put(row);
+            }
+        }
+        scheduleRefresh();
+    }
+
+    /** Values every gadget as of the start of the UTC day containing {@code asOfMillis}. Blocking. */
+    synchronized InventoryValuation valuate(ValuationRates rates, long asOfMillis) {
+        if (!loaded) {
+            load();
+        }
+        long asOfDay = Math.floorDiv(asOfMillis, MILLIS_PER_DAY) * MILLIS_PER_DAY;
+        Key key = new Key(rates, asOfDay);
+        Result result = results.get(key);
+        if (result == null) {
+            Result base = null;
+            for (Result cached : results.values()) {
+                if (cached.asOfMillis == asOfDay && cached.rates.getSchedule() == rates.getSchedule()) {
+                    base = cached;
+                    break;
+                }
+            }
+            result = base != null ? derive(base, rates) : compute(rates, asOfDay);
+            results.put(key, result);
+        }
+        return new InventoryValuation(result.rates, result.asOfMillis, size, purchaseTotal,
+                result.total(), result.byCondition);
+    }
+
+    private Result compute(ValuationRates rates, long asOfDay) {
+        Result result = new Result(rates, asOfDay, ids.length);
+        rates.getSchedule().valueAll(initialValues, purchaseMillis, conditions, rates.getRates(),
+                asOfDay, result.values, 0, size);
+        for (int slot = 0; slot < size; slot++) {
+            result.byCondition[conditions[slot]] += result.values[slot];
+        }
+        return result;
+    }
+
+    // Same day and schedule: rows whose condition kept its rate keep their value
+    private Result derive(Result base, ValuationRates rates) {
+        Result result = new Result(rates, base.asOfMillis, ids.length);
+        System.arraycopy(base.values, 0, result.values, 0, size);
+        boolean[] changed = new boolean[ValuationRates.CONDITION_COUNT];
+        for (int condition = 0; condition < changed.length; condition++) {
+            changed[condition] = rates.getRate(condition) != base.rates.getRate(condition);
+            if (!changed[condition]) {
+                result.byCondition[condition] = base.byCondition[condition];
+            }
+        }
+        for (int slot = 0; slot < size; slot++) {
+            int condition = conditions[slot];
+            if (changed[condition]) {
+                double value = result.valueOf(slot);
+                result.values[slot] = value;
+                result.byCondition[condition] += value;
+            }
+        }
+        return result;
+    }
+
+    private void load() {
+        List<GadgetRow> rows = gadgetDao.loadGadgetRows();
+        slotById.clear();
+        size = 0;
+        purchaseTotal = 0;
+        results.clear();
+        ensureCapacity(rows.size());
+        for (GadgetRow row : rows) {
+            put(row);
+        }
+        loaded = true;
+    }
+
+    private void put(GadgetRow row) {
+        Integer existing = slotById.get(row.id);
+        int slot;
+        if (existing != null) {
+            slot = existing;
+            purchaseTotal -= initialValues[slot];
+            for (Result result : results.values()) {
+                result.byCondition[conditions[slot]] -= result.values[slot];
+            }
+        } else {
+            ensureCapacity(size + 1);
+            slot = size++;
+            slotById.put(row.id, slot);
+        }
+        ids[slot] = row.id;
+        initialValues[slot] = row.estimatedValue;
+        // An undated gadget has not depreciated
+        purchaseMillis[slot] = row.purchaseDate != null ? row.purchaseDate.getTime() : Long.MAX_VALUE;
+        conditions[slot] = (byte) ValuationRates.conditionCode(row.condition);
+        purchaseTotal += row.estimatedValue;
+        for (Result result : results.values()) {
+            double value = result.valueOf(slot);
+            result.values[slot] = value;
+            result.byCondition[conditions[slot]] += value;
+        }
+    }
+
+    private void remove(long id) {
+        Integer removed = slotById.remove(id);
+        if (removed == null) {
+            return;
+        }
+        int slot = removed;
+        int last = --size;
+        purchaseTotal -= initialValues[slot];
+        for (Result result : results.values()) {
+            result.byCondition[conditions[slot]] -= result.values[slot];
+            result.values[slot] = result.values[last];
+        }
+        if (slot != last) {
+            ids[slot] = ids[last];
+            initialValues[slot] = initialValues[last];
+            purchaseMillis[slot] = purchaseMillis[last];
+            conditions[slot] = conditions[last];
+            slotById.put(ids[slot], slot);
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ids.length) {
+            return;
+        }
+        int grown = Math.max(capacity, ids.length * 2);
+        ids = Arrays.copyOf(ids, grown);
+        initialValues = Arrays.copyOf(initialValues, grown);
+        purchaseMillis = Arrays.copyOf(purchaseMillis, grown);
+        conditions = Arrays.copyOf(conditions, grown);
+        for (Result result : results.values()) {
+            result.values = Arrays.copyOf(result.values, grown);
+        }
+    }
+
+    private static final class Key {
+        final ValuationRates rates;
+        final long asOfMillis;
+
+        Key(ValuationRates rates, long asOfMillis) {
+            this.rates = rates;
+            this.asOfMillis = asOfMillis;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return asOfMillis == other.asOfMillis && rates.equals(other.rates);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * rates.hashCode() + Long.hashCode(asOfMillis);
+        }
+    }
+
+    // Per-slot values aligned with the columns, plus running totals per condition
+    private final class Result {
+        final ValuationRates rates;
+        final long asOfMillis;
+        final double[] byCondition = new double[ValuationRates.CONDITION_COUNT];
+        double[] values;
+
+        Result(ValuationRates rates, long asOfMillis, int capacity) {
+            this.rates = rates;
+            this.asOfMillis = asOfMillis;
+            this.values = new double[capacity];
+        }
+
+        double valueOf(int slot) {
+            int condition = conditions[slot];
+            double years = (double) (asOfMillis - purchaseMillis[slot]) / DepreciationSchedule.MILLIS_PER_YEAR;
+            return rates.getSchedule().value(initialValues[slot], years, condition, rates.getRate(condition));
+        }
+
+        double total() {
+            double total = 0;
+            for (double value : byCondition) {
+                total += value;
+            }
+            return total;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.gadgetinventory.repository;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+import com.example.gadgetinventory.data.dao.ValueSnapshotDao;
+import com.example.gadgetinventory.data.database.DatabaseDispatcher;
+import com.example.gadgetinventory.data.entity.ValueSnapshotEntity;
+import com.example.gadgetinventory.data.model.ConditionSummary;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads and compacts {@code value_snapshots}. Triggers add every write to today's row, so
+ * the history costs nothing to maintain and a trend is a prefix sum: the totals before the
+ * range (one grouped query) plus the rows inside it. Daily rows older than
+ * {@link #DAILY_DAYS} are rolled up into weeks, split where a month begins, and weekly
+ * rows older than {@link #WEEKLY_DAYS} into months, which keeps the table at a few rows
+ * per condition for each month of history.
+ */
+class ValueHistory {
+    private static final String TAG = "ValueHistory";
+
+    static final int DAILY_DAYS = 90;
+    static final int WEEKLY_DAYS = 730;
+    static final long COMPACTION_INTERVAL_MS = TimeUnit.DAYS.toMillis(1);
+    private static final long MILLIS_PER_DAY = TimeUnit.DAYS.toMillis(1);
+    // Epoch day 4, 1970-01-05, was a Monday
+    private static final long FIRST_MONDAY = 4;
+
+    private static final String PREFS_NAME = "value_history";
+    private static final String KEY_LAST_COMPACTION = "last_compaction";
+
+    private final ValueSnapshotDao snapshotDao;
+    private final DatabaseDispatcher dispatcher;
+    private final SharedPreferences prefs;
+
+    ValueHistory(Context context, ValueSnapshotDao snapshotDao, DatabaseDispatcher dispatcher) {
+        this.snapshotDao = snapshotDao;
+        this.dispatcher = dispatcher;
+        this.prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+
+    /** Compacts unless that happened within {@link #COMPACTION_INTERVAL_MS}. */
+    void compactIfDue() {
+        long now = System.currentTimeMillis();
+        if (now - prefs.getLong(KEY_LAST_COMPACTION, 0) < COMPACTION_INTERVAL_MS) {
+            return;
+        }
+        long today = Math.floorDiv(now, MILLIS_PER_DAY);
+        dispatcher.write(() -> compact(today)).whenComplete((ignored, error) -> {
+            if (error != null) {
+                Log.e(TAG, "Value history compaction failed", error);
+            } else {
+                prefs.edit().putLong(KEY_LAST_COMPACTION, now).apply();
+            }
+        });
+    }
+
+    // Runs inside a write transaction. Cutoffs sit on week and month starts, and no weekly row
+    // crosses a month start, so a period is only ever rolled up whole and into its own month.
+    private void compact(long today) {
+        long dayCutoff = weekStart(today - DAILY_DAYS);
+        long weekCutoff = monthStart(today - WEEKLY_DAYS);
+        List<ValueSnapshotEntity> weeks = snapshotDao.sumDaysByWeek(dayCutoff);
+        snapshotDao.deleteBefore(dayCutoff, ValueSnapshotEntity.RESOLUTION_DAY);
+        merge(weeks);
+        List<ValueSnapshotEntity> months = snapshotDao.sumWeeksByMonth(weekCutoff);
+        snapshotDao.deleteBefore(weekCutoff, ValueSnapshotEntity.RESOLUTION_WEEK);
+        merge(months);
+    }
+
+    private void merge(List<ValueSnapshotEntity> rollUps) {
+        for (ValueSnapshotEntity rollUp : rollUps) {
+            snapshotDao.insertEmpty(rollUp.getPeriodStart(), rollUp.getCondition(), rollUp.getResolution());
+            snapshotDao.addTo(rollUp.getPeriodStart(), rollUp.getCondition(), rollUp.getResolution(),
+                    rollUp.getItemCountChange(), rollUp.getValueChange());
+        }
+    }
+
+    private static long weekStart(long day) {
+        return day - Math.floorMod(day - FIRST_MONDAY, 7);
+    }
+
+    private static long monthStart(long day) {
+        Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        calendar.setTimeInMillis(day * MILLIS_PER_DAY);
+        calendar.set(Calendar.DAY_OF_MONTH, 1);
+        return Math.floorDiv(calendar.getTimeInMillis(), MILLIS_PER_DAY);
+    }
+
+    /**
+     * The inventory at the end of every period from {@code fromMillis}'s day to
+     * {@code toMillis}'s day in which it changed, led by its state when the range opens
+     * unless the first day changed it. Blocking; call off the main thread.
+     */
+    List<ValueTrendPoint> loadTrend(long fromMillis, long toMillis) {
+        long fromDay = Math.floorDiv(fromMillis, MILLIS_PER_DAY);
+        long toDay = Math.floorDiv(toMillis, MILLIS_PER_DAY);
+        Map<String, ConditionSummary> state = new TreeMap<>();
+        for (ConditionSummary total : snapshotDao.getTotalsBefore(fromDay)) {
+            state.put(total.condition, total);
+        }
+        List<ValueTrendPoint> points = new ArrayList<>();
+        points.add(point(fromDay, ValueSnapshotEntity.RESOLUTION_DAY, state));
+        List<ValueSnapshotEntity> rows = snapshotDao.getSnapshotsBetween(fromDay, toDay);
+        for (int i = 0; i < rows.size(); i++) {
+            ValueSnapshotEntity row = rows.get(i);
+            ConditionSummary summary = state.get(row.getCondition());
+            if (summary == null) {
+                summary = new ConditionSummary();
+                summary.condition = row.getCondition();
+                state.put(row.getCondition(), summary);
+            }
+            summary.itemCount += row.getItemCountChange();
+            summary.totalValue += row.getValueChange();
+            // Rows arrive ordered by period; emit once a period's last condition is applied
+            boolean lastOfPeriod = i + 1 == rows.size() || rows.get(i + 1).getPeriodStart() != row.getPeriodStart();
+            if (lastOfPeriod) {
+                ValueTrendPoint point = point(row.getPeriodStart(), row.getResolution(), state);
+                if (row.getPeriodStart() == fromDay) {
+                    points.set(0, point);
+                } else {
+                    points.add(point);
+                }
+            }
+        }
+        return points;
+    }
+
+    private static ValueTrendPoint point(long day, int resolution, Map<String, ConditionSummary> state) {
+        long itemCount = 0;
+        double totalValue = 0;
+        List<ConditionSummary> byCondition = new ArrayList<>(state.size());
+        for (ConditionSummary summary : state.values()) {
+            if (summary.itemCount <= 0) {
+                continue;
+            }
+            ConditionSummary copy = new ConditionSummary();
+            copy.condition = summary.condition;
+            copy.itemCount = summary.itemCount;
+            copy.totalValue = summary.totalValue;
+            byCondition.add(copy);
+            itemCount += summary.itemCount;
+            totalValue += summary.totalValue;
+        }
+        return new ValueTrendPoint(day * MILLIS_PER_DAY, resolution, itemCount, totalValue, byCondition);
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.gadgetinventory.repository;
+
+import com.example.gadgetinventory.data.model.ConditionSummary;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The inventory at the end of one period of a value trend. Recent periods are days; older
+ * ones are weeks or months once the history has been rolled up (see {@link #getResolution()}).
+ */
+public final class ValueTrendPoint {
+    private final long periodStartMillis;
+    private final int resolution;
+    private final long itemCount;
+    private final double totalValue;
+    private final List<ConditionSummary> byCondition;
+
+    ValueTrendPoint(long periodStartMillis, int resolution, long itemCount, double totalValue,
+                    List<ConditionSummary> byCondition) {
+        this.periodStartMillis = periodStartMillis;
+        this.resolution = resolution;
+        this.itemCount = itemCount;
+        this.totalValue = totalValue;
+        this.byCondition = Collections.unmodifiableList(byCondition);
+    }
+
+    /** UTC midnight the period starts on. */
+    public long getPeriodStartMillis() {
+        return periodStartMillis;
+    }
+
+    /** One of the {@code ValueSnapshotEntity.RESOLUTION_*} constants. */
+    public int getResolution() {
+        return resolution;
+    }
+
+    public long getItemCount() {
+        return itemCount;
+    }
+
+    public double getTotalValue() {
+        return totalValue;
+    }
+
+    /** Conditions with at least one gadget, sorted by name. */
+    public List<ConditionSummary> getByCondition() {
+        return byCondition;
+    }
+}
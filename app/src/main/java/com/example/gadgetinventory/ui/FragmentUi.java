@@ -0,0 +1,25 @@
+package com.example.gadgetinventory.ui;
+
+import androidx.fragment.app.Fragment;
+import androidx.fragment.app.FragmentActivity;
+
+/** Helpers for fragments that hear back from repository callbacks on worker threads. */
+public final class FragmentUi {
+
+    /**
+     * Runs {@code action} on the main thread if {@code fragment} still has its view by then;
+     * otherwise the result arrived too late to show and is dropped.
+     */
+    public static void runIfVisible(Fragment fragment, Runnable action) {
+        FragmentActivity activity = fragment.getActivity();
+        if (activity == null) return;
+        activity.runOnUiThread(() -> {
+            if (fragment.isAdded() && fragment.getView() != null) {
+                action.run();
+            }
+        });
+    }
+
+    private FragmentUi() {
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.gadgetinventory.ui;
+
+import android.graphics.drawable.Drawable;
+import androidx.annotation.Nullable;
+import com.bumptech.glide.RequestBuilder;
+import com.bumptech.glide.RequestManager;
+import com.bumptech.glide.load.DecodeFormat;
+import com.bumptech.glide.load.engine.DiskCacheStrategy;
+import com.bumptech.glide.request.RequestOptions;
+import com.example.gadgetinventory.R;
+import java.io.File;
+
+/**
+ * Glide requests for gadget photos: the stored thumbnail when there is one, falling back
+ * to the original photo when the thumbnail is missing or unreadable.
+ */
+public final class GadgetImages {
+
+    /**
+     * Options for a fixed-size, center-cropped list image. Photos have no alpha, so RGB_565
+     * halves the bitmap size; the decode size must match the preloader's for cache hits.
+     */
+    public static RequestOptions listOptions(int sizePx) {
+        return new RequestOptions()
+                .override(sizePx, sizePx)
+                .centerCrop()
+                .format(DecodeFormat.PREFER_RGB_565);
+    }
+
+    /** {@code options} apply to the thumbnail and the fallback alike. */
+    public static RequestBuilder<Drawable> load(RequestManager glide, RequestOptions options,
+                                                @Nullable File thumbnail, String imageUri) {
+        // Keep only the downsampled result of an original; it is too large to re-decode often
+        RequestBuilder<Drawable> original = glide.load(imageUri)
+                .apply(options)
+                .diskCacheStrategy(DiskCacheStrategy.RESOURCE)
+                .error(R.drawable.ic_gadget_placeholder);
+        if (thumbnail == null) {
+            return original;
+        }
+        // Thumbnails are already small local files; caching them again on disk buys nothing
+        return glide.load(thumbnail)
+                .apply(options)
+                .diskCacheStrategy(DiskCacheStrategy.NONE)
+                .error(original);
+    }
+
+    private GadgetImages() {
+    }
+}
@@ -4,7 +4,11 @@ import android.app.Activity;
 import android.content.Intent;
 import android.net.Uri;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.provider.MediaStore;
+import android.text.Editable;
+import android.text.TextWatcher;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -16,12 +20,20 @@ import androidx.activity.result.contract.ActivityResultContracts;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.core.content.FileProvider;
+import androidx.appcompat.app.AlertDialog;
 import androidx.fragment.app.Fragment;
 import androidx.lifecycle.ViewModelProvider;
 import androidx.navigation.Navigation;
 import com.bumptech.glide.Glide;
+import com.bumptech.glide.request.RequestOptions;
 import com.example.gadgetinventory.R;
 import com.example.gadgetinventory.data.entity.GadgetEntity;
+import com.example.gadgetinventory.data.image.ThumbnailSize;
+import com.example.gadgetinventory.repository.DuplicateMatch;
+import com.example.gadgetinventory.repository.GadgetRepository;
+import com.example.gadgetinventory.repository.PriceSuggestion;
+import com.example.gadgetinventory.ui.FragmentUi;
+import com.example.gadgetinventory.ui.GadgetImages;
 import com.example.gadgetinventory.viewmodel.GadgetViewModel;
 import com.google.android.material.datepicker.MaterialDatePicker;
 import com.google.android.material.snackbar.Snackbar;
@@ -34,19 +46,28 @@ import java.io.IOException;
 import com.google.android.material.button.MaterialButton;
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.List;
 import java.util.Locale;
 
 public class AddGadgetFragment extends Fragment {
+    // Wait for a pause in typing before looking up a price suggestion
+    private static final long SUGGESTION_DELAY_MS = 250;
+
     private GadgetViewModel viewModel;
     private Uri imageUri;
     private ImageView imageView;
-    private TextInputEditText nameInput, modelInput, valueInput, dateInput;
+    private TextInputEditText nameInput, modelInput, serialInput, valueInput, dateInput;
     private AutoCompleteTextView conditionInput;
+    private TextInputLayout serialLayout, valueLayout;
     private MaterialButton saveButton;
     private final SimpleDateFormat dateFormat = new SimpleDateFormat("MMM dd, yyyy", Locale.getDefault());
     private Date selectedDate;
     private GadgetEntity gadgetToEdit;
     private boolean isEditMode = false;
+    private final Handler suggestionHandler = new Handler(Looper.getMainLooper());
+    private final Runnable suggestionLookup = this::lookUpPriceSuggestion;
+    // What the value field held after the last prefill, so a user-typed value is never replaced
+    private String suggestedValueText;
 
     private final ActivityResultLauncher<Intent> galleryLauncher = registerForActivityResult(
             new ActivityResultContracts.StartActivityForResult(),
@@ -80,8 +101,11 @@ public class AddGadgetFragment extends Fragment {
         imageView = view.findViewById(R.id.gadgetImage);
         nameInput = view.findViewById(R.id.nameInput);
         modelInput = view.findViewById(R.id.modelInput);
+        serialInput = view.findViewById(R.id.serialInput);
+        serialLayout = view.findViewById(R.id.serialLayout);
         conditionInput = view.findViewById(R.id.conditionInput);
         valueInput = view.findViewById(R.id.valueInput);
+        valueLayout = view.findViewById(R.id.valueLayout);
         dateInput = view.findViewById(R.id.dateInput);
         saveButton = view.findViewById(R.id.saveButton);
 
@@ -105,6 +129,23 @@ public class AddGadgetFragment extends Fragment {
         // Set up save button
         saveButton.setOnClickListener(v -> saveGadget());
 
+        // Suggest a value from gadgets of the same model, typed or detected
+        modelInput.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+            }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+            }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                suggestionHandler.removeCallbacks(suggestionLookup);
+                suggestionHandler.postDelayed(suggestionLookup, SUGGESTION_DELAY_MS);
+            }
+        });
+
         // Check if we're in edit mode
         if (getArguments() != null) {
             long gadgetId = getArguments().getLong("gadgetId", -1);
@@ -129,6 +170,51 @@ public class AddGadgetFragment extends Fragment {
         }
     }
 
+    @Override
+    public void onDestroyView() {
+        suggestionHandler.removeCallbacks(suggestionLookup);
+        super.onDestroyView();
+    }
+
+    private void lookUpPriceSuggestion() {
+        String model = modelInput.getText().toString().trim();
+        if (GadgetEntity.modelKeyOf(model) == null) {
+            showPriceSuggestion(null);
+            return;
+        }
+        viewModel.suggestPrice(model, new GadgetRepository.PriceSuggestionCallback() {
+            @Override
+            public void onSuggestion(@Nullable PriceSuggestion suggestion) {
+                runIfVisible(() -> {
+                    // Drop answers for a model the user has since typed over
+                    if (model.equals(modelInput.getText().toString().trim())) {
+                        showPriceSuggestion(suggestion);
+                    }
+                });
+            }
+
+            @Override
+            public void onError(Exception e) {
+                // A suggestion is only a convenience; the form works without one
+                runIfVisible(() -> showPriceSuggestion(null));
+            }
+        });
+    }
+
+    private void showPriceSuggestion(@Nullable PriceSuggestion suggestion) {
+        if (suggestion == null) {
+            valueLayout.setHelperText(null);
+            return;
+        }
+        valueLayout.setHelperText(getString(R.string.price_suggestion, suggestion.getSuggestedValue(),
+                suggestion.getItemCount(), suggestion.getMinValue(), suggestion.getMaxValue()));
+        String current = valueInput.getText().toString().trim();
+        if (current.isEmpty() || current.equals(suggestedValueText)) {
+            suggestedValueText = String.format(Locale.US, "%.2f", suggestion.getSuggestedValue());
+            valueInput.setText(suggestedValueText);
+        }
+    }
+
     private void loadGadgetForEditing(long gadgetId) {
         viewModel.getGadgetById(gadgetId).observe(getViewLifecycleOwner(), gadget -> {
             if (gadget != null) {
@@ -137,6 +223,7 @@ public class AddGadgetFragment extends Fragment {
                 // Fill in the form with existing data
                 nameInput.setText(gadget.getName());
                 modelInput.setText(gadget.getModel());
+                serialInput.setText(gadget.getSerialNumber());
                 conditionInput.setText(gadget.getCondition(), false);
                 valueInput.setText(String.valueOf(gadget.getEstimatedValue()));
                 selectedDate = gadget.getPurchaseDate();
@@ -179,11 +266,15 @@ public class AddGadgetFragment extends Fragment {
 
     private void loadImage() {
         if (imageUri != null) {
-            Glide.with(this)
-                    .load(imageUri)
+            // The saved photo of the gadget being edited has a detail thumbnail; a new one does not yet
+            File thumbnail = null;
+            if (gadgetToEdit != null && gadgetToEdit.getThumbnailKey() != null
+                    && imageUri.toString().equals(gadgetToEdit.getImageUri())) {
+                thumbnail = viewModel.getThumbnailStore().getFile(gadgetToEdit.getThumbnailKey(), ThumbnailSize.DETAIL);
+            }
+            GadgetImages.load(Glide.with(this), RequestOptions.centerCropTransform(),
+                            thumbnail, imageUri.toString())
                     .placeholder(R.drawable.ic_gadget_placeholder)
-                    .error(R.drawable.ic_gadget_placeholder)
-                    .centerCrop()
                     .into(imageView);
         }
     }
@@ -193,6 +284,7 @@ public class AddGadgetFragment extends Fragment {
         String model = modelInput.getText().toString().trim();
         String condition = conditionInput.getText().toString().trim();
         String valueStr = valueInput.getText().toString().trim();
+        String serial = GadgetEntity.serialNumberOf(serialInput.getText().toString());
 
         // Validate inputs
         if (name.isEmpty() || model.isEmpty() || condition.isEmpty() || valueStr.isEmpty() || selectedDate == null) {
@@ -204,32 +296,144 @@ public class AddGadgetFragment extends Fragment {
         try {
             value = Double.parseDouble(valueStr);
         } catch (NumberFormatException e) {
-            ((TextInputLayout) valueInput.getParent().getParent()).setError("Invalid value");
+            valueLayout.setError("Invalid value");
             return;
         }
+        serialLayout.setError(null);
 
+        // The unique index would reject a serial number that another gadget already carries
+        boolean newSerial = serial != null && !(isEditMode && gadgetToEdit != null
+                && serial.equalsIgnoreCase(gadgetToEdit.getSerialNumber()));
+        if (!newSerial) {
+            checkPhotoAndPersist(name, model, serial, condition, value);
+            return;
+        }
+        saveButton.setEnabled(false);
+        viewModel.findGadgetBySerialNumber(serial, new GadgetRepository.SerialNumberCallback() {
+            @Override
+            public void onResult(@Nullable GadgetEntity owner) {
+                runIfVisible(() -> {
+                    saveButton.setEnabled(true);
+                    if (owner != null && (gadgetToEdit == null || owner.getId() != gadgetToEdit.getId())) {
+                        serialLayout.setError(getString(R.string.serial_number_taken, owner.getName()));
+                    } else {
+                        checkPhotoAndPersist(name, model, serial, condition, value);
+                    }
+                });
+            }
+
+            @Override
+            public void onError(Exception e) {
+                runIfVisible(() -> {
+                    saveButton.setEnabled(true);
+                    Snackbar.make(requireView(), R.string.error_save, Snackbar.LENGTH_SHORT).show();
+                });
+            }
+        });
+    }
+
+    private void checkPhotoAndPersist(String name, String model, @Nullable String serial,
+                                      String condition, double value) {
+        String photo = imageUri != null ? imageUri.toString() : "";
+        boolean newPhoto = !photo.isEmpty()
+                && !(isEditMode && gadgetToEdit != null && photo.equals(gadgetToEdit.getImageUri()));
+        if (!newPhoto) {
+            persist(name, model, serial, condition, value, photo);
+            return;
+        }
+
+        // Warn before saving a photo that looks like one already in the inventory
+        saveButton.setEnabled(false);
+        long excludeId = isEditMode && gadgetToEdit != null ? gadgetToEdit.getId() : 0;
+        viewModel.findPossibleDuplicates(photo, excludeId, new GadgetRepository.DuplicateCallback() {
+            @Override
+            public void onDuplicates(List<DuplicateMatch> matches) {
+                runIfVisible(() -> {
+                    saveButton.setEnabled(true);
+                    if (matches.isEmpty()) {
+                        persist(name, model, serial, condition, value, photo);
+                    } else {
+                        showDuplicateWarning(matches, () -> persist(name, model, serial, condition, value, photo));
+                    }
+                });
+            }
+
+            @Override
+            public void onError(Exception e) {
+                // An unreadable photo is not a reason to refuse the save
+                runIfVisible(() -> {
+                    saveButton.setEnabled(true);
+                    persist(name, model, serial, condition, value, photo);
+                });
+            }
+        });
+    }
+
+    private void showDuplicateWarning(List<DuplicateMatch> matches, Runnable saveAnyway) {
+        StringBuilder gadgets = new StringBuilder();
+        for (DuplicateMatch match : matches) {
+            if (gadgets.length() > 0) {
+                gadgets.append('\n');
+            }
+            gadgets.append(getString(R.string.duplicate_gadget,
+                    match.getGadget().name, match.getGadget().model));
+        }
+        new AlertDialog.Builder(requireContext())
+                .setTitle(R.string.duplicate_warning_title)
+                .setMessage(getString(R.string.duplicate_warning_message, gadgets))
+                .setPositiveButton(R.string.duplicate_save_anyway, (dialog, which) -> saveAnyway.run())
+                .setNegativeButton(android.R.string.cancel, null)
+                .show();
+    }
+
+    // Serial and duplicate checks answer on a background thread
+    private void runIfVisible(Runnable action) {
+        FragmentUi.runIfVisible(this, action);
+    }
+
+    private void persist(String name, String model, @Nullable String serial, String condition,
+                         double value, String photo) {
+        // Until the write commits; a rejected one leaves the form open to retry
+        saveButton.setEnabled(false);
         if (isEditMode && gadgetToEdit != null) {
-            // Update existing gadget
-            gadgetToEdit.setName(name);
-            gadgetToEdit.setModel(model);
-            gadgetToEdit.setCondition(condition);
-            gadgetToEdit.setPurchaseDate(selectedDate);
-            gadgetToEdit.setEstimatedValue(value);
-            gadgetToEdit.setImageUri(imageUri != null ? imageUri.toString() : "");
-            
-            viewModel.update(gadgetToEdit);
-            Snackbar.make(requireActivity().findViewById(android.R.id.content),
-                    R.string.success_update, Snackbar.LENGTH_SHORT).show();
+            // Update a copy, so a failed write leaves the loaded gadget as it was
+            GadgetEntity gadget = new GadgetEntity(gadgetToEdit);
+            gadget.setName(name);
+            gadget.setModel(model);
+            gadget.setSerialNumber(serial);
+            gadget.setCondition(condition);
+            gadget.setPurchaseDate(selectedDate);
+            gadget.setEstimatedValue(value);
+            gadget.setImageUri(photo);
+
+            viewModel.update(gadget, savedCallback(R.string.success_update));
         } else {
             // Create new gadget
-            GadgetEntity gadget = new GadgetEntity(name, model, condition, selectedDate, value,
-                    imageUri != null ? imageUri.toString() : "");
-            viewModel.insert(gadget);
-            Snackbar.make(requireActivity().findViewById(android.R.id.content),
-                    R.string.success_save, Snackbar.LENGTH_SHORT).show();
+            GadgetEntity gadget = new GadgetEntity(name, model, condition, selectedDate, value, photo);
+            gadget.setSerialNumber(serial);
+            viewModel.insert(gadget, savedCallback(R.string.success_save));
         }
+    }
+
+    private GadgetRepository.WriteCallback savedCallback(int successMessage) {
+        return new GadgetRepository.WriteCallback() {
+            @Override
+            public void onWritten() {
+                runIfVisible(() -> {
+                    Snackbar.make(requireActivity().findViewById(android.R.id.content),
+                            successMessage, Snackbar.LENGTH_SHORT).show();
+                    Navigation.findNavController(requireView()).navigateUp();
+                });
+            }
 
-        // Navigate back
-        Navigation.findNavController(requireView()).navigateUp();
+            @Override
+            public void onError(Exception e) {
+                runIfVisible(() -> {
+                    saveButton.setEnabled(true);
+                    Snackbar.make(requireActivity().findViewById(android.R.id.content),
+                            R.string.error_save, Snackbar.LENGTH_LONG).show();
+                });
+            }
+        };
     }
 } 
\ No newline at end of file
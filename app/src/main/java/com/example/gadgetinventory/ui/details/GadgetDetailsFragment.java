@@ -1,6 +1,9 @@
 package com.example.gadgetinventory.ui.details;
 
+import android.content.Context;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.text.Editable;
 import android.text.TextWatcher;
 import android.view.LayoutInflater;
@@ -14,24 +17,26 @@ import androidx.fragment.app.Fragment;
 import androidx.lifecycle.ViewModelProvider;
 import androidx.navigation.Navigation;
 import com.bumptech.glide.Glide;
+import com.bumptech.glide.request.RequestOptions;
 import com.example.gadgetinventory.R;
 import com.example.gadgetinventory.data.entity.GadgetEntity;
+import com.example.gadgetinventory.data.image.ThumbnailSize;
+import com.example.gadgetinventory.data.valuation.DepreciationSchedule;
+import com.example.gadgetinventory.data.valuation.ValuationRates;
 import com.example.gadgetinventory.databinding.FragmentGadgetDetailsBinding;
+import com.example.gadgetinventory.repository.GadgetRepository;
+import com.example.gadgetinventory.ui.GadgetImages;
 import com.example.gadgetinventory.viewmodel.GadgetViewModel;
 import com.google.android.material.dialog.MaterialAlertDialogBuilder;
-import com.google.android.material.textfield.TextInputLayout;
-import com.google.android.material.textfield.TextInputEditText;
-import java.text.ParseException;
+import java.io.File;
 import java.text.SimpleDateFormat;
-import java.util.Calendar;
-import java.util.Date;
 import java.util.Locale;
 
 public class GadgetDetailsFragment extends Fragment {
     private FragmentGadgetDetailsBinding binding;
     private GadgetViewModel gadgetViewModel;
     private GadgetEntity currentGadget;
-    private static final double DEFAULT_DEPRECIATION_RATE = 15.0;
+    private ValuationRates valuationRates;
     private long gadgetId;
 
     @Override
@@ -44,6 +49,7 @@ public class GadgetDetailsFragment extends Fragment {
     public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
         super.onViewCreated(view, savedInstanceState);
         gadgetViewModel = new ViewModelProvider(requireActivity()).get(GadgetViewModel.class);
+        valuationRates = gadgetViewModel.getValuationRates();
 
         if (getArguments() != null) {
             gadgetId = getArguments().getLong("gadgetId");
@@ -58,9 +64,15 @@ public class GadgetDetailsFragment extends Fragment {
     private void loadGadgetDetails(long gadgetId) {
         gadgetViewModel.getGadgetById(gadgetId).observe(getViewLifecycleOwner(), gadget -> {
             if (gadget != null) {
+                boolean firstLoad = currentGadget == null;
                 currentGadget = gadget;
                 updateUI(gadget);
-                calculateDepreciation(DEFAULT_DEPRECIATION_RATE);
+                if (firstLoad) {
+                    // Start from the saved rate for this condition; the watcher recalculates
+                    binding.depreciationRateInput.setText(formatRate(savedRate()));
+                } else {
+                    calculateDepreciation(currentRate());
+                }
             }
         });
     }
@@ -77,9 +89,19 @@ public class GadgetDetailsFragment extends Fragment {
         binding.initialValue.setText(String.format("Initial Value: ₱%.2f",
                 gadget.getEstimatedValue()));
 
+        if (gadget.getSerialNumber() != null) {
+            binding.serialNumber.setText(getString(R.string.serial_number_label, gadget.getSerialNumber()));
+            binding.serialNumber.setVisibility(View.VISIBLE);
+        } else {
+            binding.serialNumber.setVisibility(View.GONE);
+        }
+
         if (gadget.getImageUri() != null) {
-            Glide.with(this)
-                    .load(gadget.getImageUri())
+            File thumbnail = gadget.getThumbnailKey() != null
+                    ? gadgetViewModel.getThumbnailStore().getFile(gadget.getThumbnailKey(), ThumbnailSize.DETAIL)
+                    : null;
+            GadgetImages.load(Glide.with(this), RequestOptions.centerCropTransform(),
+                            thumbnail, gadget.getImageUri())
                     .placeholder(R.drawable.ic_gadget_placeholder)
                     .into(binding.gadgetImage);
         }
@@ -96,8 +118,7 @@ public class GadgetDetailsFragment extends Fragment {
             @Override
             public void afterTextChanged(Editable s) {
                 try {
-                    double rate = s.length() > 0 ? Double.parseDouble(s.toString()) : DEFAULT_DEPRECIATION_RATE;
-                    calculateDepreciation(rate);
+                    calculateDepreciation(s.length() > 0 ? Double.parseDouble(s.toString()) : savedRate());
                 } catch (NumberFormatException e) {
                     binding.depreciationRateInput.setError("Please enter a valid number");
                 }
@@ -105,31 +126,45 @@ public class GadgetDetailsFragment extends Fragment {
         });
     }
 
-    private void calculateDepreciation(double depreciationRate) {
-        if (currentGadget == null) return;
-
-        double initialValue = currentGadget.getEstimatedValue();
-        Date purchaseDate = currentGadget.getPurchaseDate();
-        Date currentDate = new Date();
+    private double savedRate() {
+        String condition = currentGadget != null ? currentGadget.getCondition() : null;
+        return valuationRates.getRate(ValuationRates.conditionCode(condition));
+    }
 
-        // Calculate years since purchase
-        Calendar purchase = Calendar.getInstance();
-        purchase.setTime(purchaseDate);
-        Calendar now = Calendar.getInstance();
-        now.setTime(currentDate);
+    private double currentRate() {
+        Editable text = binding.depreciationRateInput.getText();
+        try {
+            return text != null && text.length() > 0 ? Double.parseDouble(text.toString()) : savedRate();
+        } catch (NumberFormatException e) {
+            return savedRate();
+        }
+    }
 
-        int yearsSincePurchase = now.get(Calendar.YEAR) - purchase.get(Calendar.YEAR);
+    private static String formatRate(double rate) {
+        return rate == Math.rint(rate) ? String.valueOf((long) rate) : String.valueOf(rate);
+    }
 
-        // Calculate depreciation
-        double depreciationPerYear = initialValue * (depreciationRate / 100);
-        double currentValue = initialValue - (yearsSincePurchase * depreciationPerYear);
+    // Same schedule as the inventory total, with the rate typed here for this gadget's condition
+    private void calculateDepreciation(double depreciationRate) {
+        if (currentGadget == null) return;
+        if (depreciationRate < 0 || depreciationRate > 100) {
+            binding.depreciationRateInput.setError("Please enter a rate from 0 to 100");
+            return;
+        }
 
-        // Ensure value doesn't go below 10% of initial value
-        currentValue = Math.max(currentValue, initialValue * 0.1);
+        int condition = ValuationRates.conditionCode(currentGadget.getCondition());
+        ValuationRates rates = valuationRates.withRate(condition, depreciationRate);
+        double initialValue = currentGadget.getEstimatedValue();
+        long purchased = currentGadget.getPurchaseDate() != null
+                ? currentGadget.getPurchaseDate().getTime() : System.currentTimeMillis();
+        long now = System.currentTimeMillis();
+        double currentValue = rates.value(initialValue, purchased, currentGadget.getCondition(), now);
+        double nextYearValue = rates.value(initialValue, purchased, currentGadget.getCondition(),
+                now + DepreciationSchedule.MILLIS_PER_YEAR);
 
         // Update UI
         binding.currentValue.setText(String.format("Current Value: ₱%.2f", currentValue));
-        binding.yearlyDepreciation.setText(String.format("Yearly Depreciation: ₱%.2f", depreciationPerYear));
+        binding.yearlyDepreciation.setText(String.format("Yearly Depreciation: ₱%.2f", currentValue - nextYearValue));
     }
 
     private void setupEditButton() {
@@ -148,8 +183,19 @@ public class GadgetDetailsFragment extends Fragment {
                 .setMessage("Are you sure you want to delete this gadget? This action cannot be undone.")
                 .setPositiveButton("Delete", (dialog, which) -> {
                     if (currentGadget != null) {
-                        gadgetViewModel.delete(currentGadget);
-                        Toast.makeText(requireContext(), "Gadget deleted", Toast.LENGTH_SHORT).show();
+                        // The screen is gone by the time the write commits; the app context is not
+                        Context appContext = requireContext().getApplicationContext();
+                        gadgetViewModel.delete(currentGadget, new GadgetRepository.WriteCallback() {
+                            @Override
+                            public void onWritten() {
+                                showToast(appContext, "Gadget deleted");
+                            }
+
+                            @Override
+                            public void onError(Exception e) {
+                                showToast(appContext, "Could not delete gadget");
+                            }
+                        });
                         // Navigate back
                         Navigation.findNavController(requireView()).navigateUp();
                     }
@@ -159,6 +205,11 @@ public class GadgetDetailsFragment extends Fragment {
         });
     }
 
+    private static void showToast(Context context, String message) {
+        new Handler(Looper.getMainLooper()).post(() ->
+                Toast.makeText(context, message, Toast.LENGTH_SHORT).show());
+    }
+
     @Override
     public void onDestroyView() {
         super.onDestroyView();
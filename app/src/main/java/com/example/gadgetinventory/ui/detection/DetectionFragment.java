@@ -1,6 +1,7 @@
 package com.example.gadgetinventory.ui.detection;
 
 import android.Manifest;
+import android.content.Context;
 import android.content.pm.PackageManager;
 import android.graphics.Bitmap;
 import android.graphics.Matrix;
@@ -21,11 +22,15 @@ import androidx.camera.view.PreviewView;
 import androidx.core.app.ActivityCompat;
 import androidx.core.content.ContextCompat;
 import androidx.fragment.app.Fragment;
+import androidx.lifecycle.ViewModelProvider;
 import com.example.gadgetinventory.R;
+import com.example.gadgetinventory.ResourceManager;
 import com.example.gadgetinventory.ui.detectionv2.Detector;
 import com.example.gadgetinventory.ui.detectionv2.BoundingBox;
-import com.example.gadgetinventory.ui.detectionv2.Constants;
+import com.example.gadgetinventory.ui.detectionv2.DetectionModel;
+import com.example.gadgetinventory.ui.detectionv2.ModelRegistry;
 import com.example.gadgetinventory.ui.detectionv2.OverlayView;
+import com.example.gadgetinventory.viewmodel.GadgetViewModel;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
@@ -53,6 +58,10 @@ public class DetectionFragment extends Fragment implements Detector.DetectorList
     private ImageAnalysis imageAnalysis;
     private volatile boolean isProcessingFrame = false;
     private final Object lock = new Object();
+    // Guarded by lock; set once the view is gone so a pending model swap does not revive the detector
+    private boolean released;
+    private ResourceManager.Registration frameRegistration;
+    private ResourceManager.Registration detectorRegistration;
 
     @Override
     public View onCreateView(@NonNull LayoutInflater inflater, ViewGroup container,
@@ -70,18 +79,39 @@ public class DetectionFragment extends Fragment implements Detector.DetectorList
         
         // Set up select button
         selectGadgetButton.setOnClickListener(v -> selectBestDetection());
+
+        // Owned counts stay in memory and follow inventory changes; frames never query the database
+        GadgetViewModel viewModel = new ViewModelProvider(requireActivity()).get(GadgetViewModel.class);
+        viewModel.getOwnedCounts().observe(getViewLifecycleOwner(), overlayView::setOwnedCounts);
         
         cameraExecutor = Executors.newSingleThreadExecutor();
 
-        // Initialize detector on background thread
-        cameraExecutor.execute(() -> {
-            detector = new Detector(
-                requireContext(),
-                Constants.MODEL_PATH,
-                Constants.LABELS_PATH,
-                this
-            );
-        });
+        // Build the detector for the active model on the camera thread, and again whenever
+        // another model is chosen, so switching models needs no restart
+        released = false;
+        ModelRegistry modelRegistry = ModelRegistry.getInstance(requireContext());
+        modelRegistry.getActiveModel().observe(getViewLifecycleOwner(), this::loadDetector);
+
+        // In the background the last frame is dead weight, and the interpreter (GPU memory
+        // included) is the largest thing this app holds; both come back on return
+        ResourceManager resources = ResourceManager.getInstance(requireContext());
+        frameRegistration = resources.register("detection frame",
+                ResourceManager.Priority.VISIBLE_ONLY, this::releaseFrame);
+        detectorRegistration = resources.register("detector", ResourceManager.Priority.EXPENSIVE,
+                new ResourceManager.Resource() {
+                    @Override
+                    public void release() {
+                        releaseDetector();
+                    }
+
+                    @Override
+                    public void restore() {
+                        DetectionModel model = modelRegistry.getActiveModel().getValue();
+                        if (model != null) {
+                            loadDetector(model);
+                        }
+                    }
+                });
 
         if (allPermissionsGranted()) {
             startCamera();
@@ -91,6 +121,54 @@ public class DetectionFragment extends Fragment implements Detector.DetectorList
         }
     }
 
+    private void loadDetector(DetectionModel model) {
+        Context context = requireContext().getApplicationContext();
+        cameraExecutor.execute(() -> {
+            synchronized (lock) {
+                if (released || (detector != null && detector.getModel().equals(model))) {
+                    return;
+                }
+            }
+            // Loading can take a while; frames keep using the old detector meanwhile
+            Detector loaded = new Detector(context, model, this);
+            Detector previous;
+            synchronized (lock) {
+                if (released) {
+                    loaded.close();
+                    return;
+                }
+                previous = detector;
+                detector = loaded;
+            }
+            if (previous != null) {
+                previous.close();
+            }
+        });
+    }
+
+    private void releaseFrame() {
+        synchronized (lock) {
+            if (currentBitmap != null) {
+                currentBitmap.recycle();
+                currentBitmap = null;
+            }
+            currentDetections = null;
+        }
+    }
+
+    private void releaseDetector() {
+        cameraExecutor.execute(() -> {
+            Detector previous;
+            synchronized (lock) {
+                previous = detector;
+                detector = null;
+            }
+            if (previous != null) {
+                previous.close();
+            }
+        });
+    }
+
     private void startCamera() {
         ProcessCameraProvider.getInstance(requireContext()).addListener(() -> {
             try {
@@ -140,7 +218,9 @@ public class DetectionFragment extends Fragment implements Detector.DetectorList
                             );
 
                             bitmapBuffer.recycle();
-                            detector.detect(currentBitmap);
+                            if (detector != null) {
+                                detector.detect(currentBitmap);
+                            }
                         }
                     } catch (Exception e) {
                         e.printStackTrace();
@@ -188,7 +268,10 @@ public class DetectionFragment extends Fragment implements Detector.DetectorList
 
     @Override
     public void onDestroyView() {
+        frameRegistration.unregister();
+        detectorRegistration.unregister();
         synchronized (lock) {
+            released = true;
             if (cameraProvider != null) {
                 cameraProvider.unbindAll();
             }
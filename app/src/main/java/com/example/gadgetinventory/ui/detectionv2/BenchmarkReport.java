@@ -0,0 +1,104 @@
+package com.example.gadgetinventory.ui.detectionv2;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/** Outcome of one {@link ModelBenchmark} run; the first result is the agreement reference. */
+public final class BenchmarkReport {
+
+    public static final class ModelResult {
+        private final DetectionModel model;
+        private final long loadMs;
+        private final double p50Ms;
+        private final double p90Ms;
+        private final double p99Ms;
+        private final double meanMs;
+        private final int detections;
+        private final double agreement;
+
+        ModelResult(DetectionModel model, long loadMs, double p50Ms, double p90Ms, double p99Ms,
+                    double meanMs, int detections, double agreement) {
+            this.model = model;
+            this.loadMs = loadMs;
+            this.p50Ms = p50Ms;
+            this.p90Ms = p90Ms;
+            this.p99Ms = p99Ms;
+            this.meanMs = meanMs;
+            this.detections = detections;
+            this.agreement = agreement;
+        }
+
+        public DetectionModel getModel() {
+            return model;
+        }
+
+        /** Interpreter creation, including delegate setup. */
+        public long getLoadMs() {
+            return loadMs;
+        }
+
+        public double getP50Ms() {
+            return p50Ms;
+        }
+
+        public double getP90Ms() {
+            return p90Ms;
+        }
+
+        public double getP99Ms() {
+            return p99Ms;
+        }
+
+        public double getMeanMs() {
+            return meanMs;
+        }
+
+        /** Frames per second of back-to-back inference, preprocessing and NMS included. */
+        public double getFramesPerSecond() {
+            return meanMs > 0 ? 1000.0 / meanMs : 0;
+        }
+
+        /** Boxes reported over all frames. */
+        public int getDetections() {
+            return detections;
+        }
+
+        /**
+         * Mean per-frame F1 against the reference model's boxes, matching same-label boxes at
+         * IoU 0.5 or more; 1 for the reference itself.
+         */
+        public double getAgreement() {
+            return agreement;
+        }
+    }
+
+    private final int frameCount;
+    private final List<ModelResult> results;
+
+    BenchmarkReport(int frameCount, List<ModelResult> results) {
+        this.frameCount = frameCount;
+        this.results = Collections.unmodifiableList(results);
+    }
+
+    public int getFrameCount() {
+        return frameCount;
+    }
+
+    public List<ModelResult> getResults() {
+        return results;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        text.append(frameCount).append(" frames");
+        for (ModelResult result : results) {
+            text.append(String.format(Locale.US,
+                    "%n%s (%s): load %d ms, p50 %.1f ms, p90 %.1f ms, p99 %.1f ms, %.1f fps, %d boxes, agreement %.2f",
+                    result.model.getName(), result.model.getVersion(), result.loadMs, result.p50Ms,
+                    result.p90Ms, result.p99Ms, result.getFramesPerSecond(), result.detections, result.agreement));
+        }
+        return text.toString();
+    }
+}
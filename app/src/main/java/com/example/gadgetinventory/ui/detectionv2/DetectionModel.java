@@ -0,0 +1,117 @@
+package com.example.gadgetinventory.ui.detectionv2;
+
+import android.content.Context;
+import org.tensorflow.lite.support.common.FileUtil;
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A detection model and its label set, either bundled in the APK's assets or imported into
+ * app storage by the {@link ModelRegistry}. Immutable; the version is the start of the model
+ * file's SHA-256, so a re-exported but identical model keeps its version.
+ */
+public final class DetectionModel {
+    public static final String BUNDLED_ID = "bundled";
+
+    private final String id;
+    private final String name;
+    private final String version;
+    private final long addedAt;
+    private final int labelCount;
+    // Asset paths for the bundled model, files for imported ones
+    private final String modelPath;
+    private final String labelsPath;
+    private final boolean bundled;
+
+    DetectionModel(String id, String name, String version, long addedAt, int labelCount,
+                   String modelPath, String labelsPath, boolean bundled) {
+        this.id = id;
+        this.name = name;
+        this.version = version;
+        this.addedAt = addedAt;
+        this.labelCount = labelCount;
+        this.modelPath = modelPath;
+        this.labelsPath = labelsPath;
+        this.bundled = bundled;
+    }
+
+    /** The model shipped in assets; always available and the default. */
+    public static DetectionModel bundled() {
+        return fromAssets(Constants.MODEL_PATH, Constants.LABELS_PATH);
+    }
+
+    static DetectionModel fromAssets(String modelPath, String labelsPath) {
+        String id = Constants.MODEL_PATH.equals(modelPath) ? BUNDLED_ID : modelPath;
+        return new DetectionModel(id, modelPath, "bundled", 0, -1, modelPath, labelsPath, true);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    /** Epoch millis of the import, 0 for the bundled model. */
+    public long getAddedAt() {
+        return addedAt;
+    }
+
+    /** Classes in the label set, or -1 when not recorded (the bundled model). */
+    public int getLabelCount() {
+        return labelCount;
+    }
+
+    public boolean isBundled() {
+        return bundled;
+    }
+
+    MappedByteBuffer loadModel(Context context) throws IOException {
+        if (bundled) {
+            return FileUtil.loadMappedFile(context, modelPath);
+        }
+        try (FileInputStream in = new FileInputStream(modelPath)) {
+            FileChannel channel = in.getChannel();
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    /** One label per line, up to the first blank line. */
+    List<String> loadLabels(Context context) throws IOException {
+        List<String> labels = new ArrayList<>();
+        try (InputStream in = bundled ? context.getAssets().open(labelsPath) : new FileInputStream(labelsPath);
+             BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null && !line.isEmpty()) {
+                labels.add(line);
+            }
+        }
+        return labels;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof DetectionModel)) return false;
+        DetectionModel other = (DetectionModel) o;
+        return id.equals(other.id) && version.equals(other.version);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * id.hashCode() + version.hashCode();
+    }
+}
@@ -4,21 +4,19 @@ import android.content.Context;
 import android.graphics.Bitmap;
 import android.os.SystemClock;
 
+import androidx.annotation.Nullable;
+
 import org.tensorflow.lite.DataType;
 import org.tensorflow.lite.Interpreter;
 import org.tensorflow.lite.gpu.CompatibilityList;
 import org.tensorflow.lite.gpu.GpuDelegate;
-import org.tensorflow.lite.support.common.FileUtil;
 import org.tensorflow.lite.support.common.ops.CastOp;
 import org.tensorflow.lite.support.common.ops.NormalizeOp;
 import org.tensorflow.lite.support.image.ImageProcessor;
 import org.tensorflow.lite.support.image.TensorImage;
 import org.tensorflow.lite.support.tensorbuffer.TensorBuffer;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.nio.MappedByteBuffer;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -29,11 +27,14 @@ import java.util.List;
 public class Detector {
 
     private final Context context;
-    private final String modelPath;
-    private final String labelPath;
+    private final DetectionModel model;
+    @Nullable
     private final DetectorListener detectorListener;
 
     private Interpreter interpreter;
+    // Owned here: closing the interpreter does not free the delegate's GPU memory
+    @Nullable
+    private GpuDelegate gpuDelegate;
     private final List<String> labels = new ArrayList<>();
 
     private int tensorWidth = 0;
@@ -50,24 +51,28 @@ public class Detector {
     private volatile boolean isClosed = false;
 
     public Detector(Context context, String modelPath, String labelPath, DetectorListener listener) {
+        this(context, DetectionModel.fromAssets(modelPath, labelPath), listener);
+    }
+
+    /** A null listener suits callers that only use {@link #run}. */
+    public Detector(Context context, DetectionModel model, @Nullable DetectorListener listener) {
         this.context = context;
-        this.modelPath = modelPath;
-        this.labelPath = labelPath;
+        this.model = model;
         this.detectorListener = listener;
 
         CompatibilityList compatList = new CompatibilityList();
 
         Interpreter.Options options = new Interpreter.Options();
         if (compatList.isDelegateSupportedOnThisDevice()) {
-            GpuDelegate delegate = new GpuDelegate(compatList.getBestOptionsForThisDevice());
-            options.addDelegate(delegate);
+            gpuDelegate = new GpuDelegate(compatList.getBestOptionsForThisDevice());
+            options.addDelegate(gpuDelegate);
         } else {
             options.setNumThreads(4);
         }
 
         try {
-            MappedByteBuffer model = FileUtil.loadMappedFile(context, modelPath);
-            interpreter = new Interpreter(model, options);
+            MappedByteBuffer buffer = model.loadModel(context);
+            interpreter = new Interpreter(buffer, options);
 
             int[] inputShape = interpreter.getInputTensor(0).shape();
             int[] outputShape = interpreter.getOutputTensor(0).shape();
@@ -87,14 +92,7 @@ public class Detector {
                 numElements = outputShape[2];
             }
 
-            InputStream inputStream = context.getAssets().open(labelPath);
-            BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream));
-            String line;
-            while ((line = reader.readLine()) != null && !line.isEmpty()) {
-                labels.add(line);
-            }
-            reader.close();
-            inputStream.close();
+            labels.addAll(model.loadLabels(context));
 
         } catch (IOException e) {
             e.printStackTrace();
@@ -103,13 +101,14 @@ public class Detector {
 
     public void restart(boolean isGpu) {
         interpreter.close();
+        closeGpuDelegate();
 
         Interpreter.Options options = new Interpreter.Options();
         if (isGpu) {
             CompatibilityList compatList = new CompatibilityList();
             if (compatList.isDelegateSupportedOnThisDevice()) {
-                GpuDelegate delegate = new GpuDelegate(compatList.getBestOptionsForThisDevice());
-                options.addDelegate(delegate);
+                gpuDelegate = new GpuDelegate(compatList.getBestOptionsForThisDevice());
+                options.addDelegate(gpuDelegate);
             } else {
                 options.setNumThreads(4);
             }
@@ -118,13 +117,31 @@ public class Detector {
         }
 
         try {
-            MappedByteBuffer model = FileUtil.loadMappedFile(context, modelPath);
-            interpreter = new Interpreter(model, options);
+            MappedByteBuffer buffer = model.loadModel(context);
+            interpreter = new Interpreter(buffer, options);
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
+    public DetectionModel getModel() {
+        return model;
+    }
+
+    /** False when the model or labels failed to load, or the detector was closed. */
+    public boolean isReady() {
+        return !isClosed && interpreter != null && tensorWidth > 0 && tensorHeight > 0;
+    }
+
+    /** Classes the model's output tensor scores, which should match the label count. */
+    int getOutputClassCount() {
+        return numChannel - 4;
+    }
+
+    int getLabelCount() {
+        return labels.size();
+    }
+
     public void close() {
         synchronized (lock) {
             isClosed = true;
@@ -136,11 +153,19 @@ public class Detector {
                 }
                 interpreter = null;
             }
+            closeGpuDelegate();
+        }
+    }
+
+    private void closeGpuDelegate() {
+        if (gpuDelegate != null) {
+            gpuDelegate.close();
+            gpuDelegate = null;
         }
     }
 
     public void detect(Bitmap frame) {
-        if (isClosed || interpreter == null || tensorWidth == 0 || tensorHeight == 0) {
+        if (detectorListener == null || !isReady()) {
             return;
         }
 
@@ -150,20 +175,7 @@ public class Detector {
 
                 long inferenceStartTime = SystemClock.uptimeMillis();
 
-                Bitmap resizedBitmap = Bitmap.createScaledBitmap(frame, tensorWidth, tensorHeight, false);
-                TensorImage tensorImage = new TensorImage(INPUT_IMAGE_TYPE);
-                tensorImage.load(resizedBitmap);
-
-                TensorImage processedImage = imageProcessor.process(tensorImage);
-                TensorBuffer output = TensorBuffer.createFixedSize(
-                        new int[]{1, numChannel, numElements}, OUTPUT_IMAGE_TYPE
-                );
-
-                interpreter.run(processedImage.getBuffer(), output.getBuffer());
-
-                List<BoundingBox> bestBoxes = bestBox(output.getFloatArray());
-                
-                resizedBitmap.recycle();
+                List<BoundingBox> bestBoxes = infer(frame);
 
                 long inferenceTime = SystemClock.uptimeMillis() - inferenceStartTime;
 
@@ -179,6 +191,42 @@ public class Detector {
         }
     }
 
+    /**
+     * Synchronous inference for callers that want the boxes rather than a callback, such as
+     * {@link ModelBenchmark}. Empty when nothing was detected or the detector is not ready.
+     */
+    public List<BoundingBox> run(Bitmap frame) {
+        synchronized (lock) {
+            if (!isReady()) {
+                return Collections.emptyList();
+            }
+            List<BoundingBox> boxes = infer(frame);
+            return boxes != null ? boxes : Collections.<BoundingBox>emptyList();
+        }
+    }
+
+    // Callers hold lock
+    @Nullable
+    private List<BoundingBox> infer(Bitmap frame) {
+        Bitmap resizedBitmap = Bitmap.createScaledBitmap(frame, tensorWidth, tensorHeight, false);
+        TensorImage tensorImage = new TensorImage(INPUT_IMAGE_TYPE);
+        tensorImage.load(resizedBitmap);
+
+        TensorImage processedImage = imageProcessor.process(tensorImage);
+        TensorBuffer output = TensorBuffer.createFixedSize(
+                new int[]{1, numChannel, numElements}, OUTPUT_IMAGE_TYPE
+        );
+
+        interpreter.run(processedImage.getBuffer(), output.getBuffer());
+
+        List<BoundingBox> bestBoxes = bestBox(output.getFloatArray());
+
+        if (resizedBitmap != frame) {
+            resizedBitmap.recycle();
+        }
+        return bestBoxes;
+    }
+
     private List<BoundingBox> bestBox(float[] array) {
         List<BoundingBox> boundingBoxes = new ArrayList<>();
 
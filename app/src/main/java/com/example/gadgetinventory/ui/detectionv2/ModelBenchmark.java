@@ -0,0 +1,185 @@
+package com.example.gadgetinventory.ui.detectionv2;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.os.SystemClock;
+import androidx.annotation.Nullable;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Runs several detection models over the same stored frames and compares their latency
+ * and output. Each frame is decoded once and handed to every model in turn, rotating which
+ * model goes first, so thermal throttling and cache warmth are shared rather than
+ * penalising whichever model happens to run last.
+ */
+final class ModelBenchmark {
+    // Runs per model before timing starts; the first GPU inference compiles shaders
+    static final int WARMUP_RUNS = 2;
+    // Frames are decoded no smaller than this on their short edge, above any model input
+    static final int MIN_FRAME_EDGE = 640;
+    static final float MATCH_IOU = 0.5f;
+
+    interface ProgressListener {
+        void onProgress(int framesDone, int frameCount);
+    }
+
+    static BenchmarkReport run(Context context, List<DetectionModel> models, List<File> frames,
+                               @Nullable ProgressListener listener) {
+        if (models.isEmpty()) {
+            throw new IllegalArgumentException("No models to benchmark");
+        }
+        int modelCount = models.size();
+        Detector[] detectors = new Detector[modelCount];
+        long[] loadMs = new long[modelCount];
+        long[][] latencies = new long[modelCount][frames.size()];
+        int[] detections = new int[modelCount];
+        double[] agreement = new double[modelCount];
+        int timed = 0;
+        try {
+            for (int m = 0; m < modelCount; m++) {
+                long start = SystemClock.elapsedRealtime();
+                detectors[m] = new Detector(context, models.get(m), null);
+                loadMs[m] = SystemClock.elapsedRealtime() - start;
+                if (!detectors[m].isReady()) {
+                    throw new IllegalStateException("Cannot load " + models.get(m).getName());
+                }
+            }
+
+            List<List<BoundingBox>> boxes = new ArrayList<>(modelCount);
+            for (int m = 0; m < modelCount; m++) {
+                boxes.add(null);
+            }
+            for (int f = 0; f < frames.size(); f++) {
+                Bitmap frame = decode(frames.get(f));
+                if (frame == null) {
+                    continue;
+                }
+                try {
+                    if (timed == 0) {
+                        for (Detector detector : detectors) {
+                            for (int i = 0; i < WARMUP_RUNS; i++) {
+                                detector.run(frame);
+                            }
+                        }
+                    }
+                    for (int i = 0; i < modelCount; i++) {
+                        int m = (timed + i) % modelCount;
+                        long start = SystemClock.elapsedRealtimeNanos();
+                        List<BoundingBox> result = detectors[m].run(frame);
+                        latencies[m][timed] = SystemClock.elapsedRealtimeNanos() - start;
+                        boxes.set(m, result);
+                        detections[m] += result.size();
+                    }
+                    for (int m = 0; m < modelCount; m++) {
+                        agreement[m] += agreement(boxes.get(0), boxes.get(m));
+                    }
+                    timed++;
+                } finally {
+                    frame.recycle();
+                }
+                if (listener != null) {
+                    listener.onProgress(f + 1, frames.size());
+                }
+            }
+        } finally {
+            for (Detector detector : detectors) {
+                if (detector != null) {
+                    detector.close();
+                }
+            }
+        }
+        if (timed == 0) {
+            throw new IllegalStateException("No benchmark frame could be decoded");
+        }
+
+        List<BenchmarkReport.ModelResult> results = new ArrayList<>(modelCount);
+        for (int m = 0; m < modelCount; m++) {
+            long[] sorted = Arrays.copyOf(latencies[m], timed);
+            Arrays.sort(sorted);
+            long total = 0;
+            for (long nanos : sorted) {
+                total += nanos;
+            }
+            results.add(new BenchmarkReport.ModelResult(models.get(m), loadMs[m],
+                    percentileMs(sorted, 0.50), percentileMs(sorted, 0.90), percentileMs(sorted, 0.99),
+                    total / 1e6 / timed, detections[m], agreement[m] / timed));
+        }
+        return new BenchmarkReport(timed, results);
+    }
+
+    // Nearest-rank percentile of ascending nanosecond samples
+    static double percentileMs(long[] sorted, double percentile) {
+        int rank = (int) Math.ceil(percentile * sorted.length);
+        return sorted[Math.max(0, rank - 1)] / 1e6;
+    }
+
+    /**
+     * F1 of {@code candidate} against {@code reference}: boxes are matched greedily in
+     * reference confidence order to the best unmatched box of the same label. Two empty
+     * results agree fully.
+     */
+    static double agreement(List<BoundingBox> reference, List<BoundingBox> candidate) {
+        if (reference.isEmpty() && candidate.isEmpty()) {
+            return 1;
+        }
+        boolean[] used = new boolean[candidate.size()];
+        int matched = 0;
+        // Detector output is already in descending confidence after NMS
+        for (BoundingBox expected : reference) {
+            int best = -1;
+            float bestIoU = MATCH_IOU;
+            for (int i = 0; i < candidate.size(); i++) {
+                BoundingBox box = candidate.get(i);
+                if (used[i] || !box.getClsName().equals(expected.getClsName())) {
+                    continue;
+                }
+                float iou = iou(expected, box);
+                if (iou >= bestIoU) {
+                    bestIoU = iou;
+                    best = i;
+                }
+            }
+            if (best >= 0) {
+                used[best] = true;
+                matched++;
+            }
+        }
+        return 2.0 * matched / (reference.size() + candidate.size());
+    }
+
+    private static float iou(BoundingBox a, BoundingBox b) {
+        float x1 = Math.max(a.getX1(), b.getX1());
+        float y1 = Math.max(a.getY1(), b.getY1());
+        float x2 = Math.min(a.getX2(), b.getX2());
+        float y2 = Math.min(a.getY2(), b.getY2());
+        float intersection = Math.max(0f, x2 - x1) * Math.max(0f, y2 - y1);
+        float union = a.getW() * a.getH() + b.getW() * b.getH() - intersection;
+        return union > 0 ? intersection / union : 0f;
+    }
+
+    @Nullable
+    private static Bitmap decode(File file) {
+        BitmapFactory.Options bounds = new BitmapFactory.Options();
+        bounds.inJustDecodeBounds = true;
+        BitmapFactory.decodeFile(file.getPath(), bounds);
+        if (bounds.outWidth <= 0 || bounds.outHeight <= 0) {
+            return null;
+        }
+        int shortEdge = Math.min(bounds.outWidth, bounds.outHeight);
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inSampleSize = 1;
+        while (shortEdge / (options.inSampleSize * 2) >= MIN_FRAME_EDGE) {
+            options.inSampleSize *= 2;
+        }
+        // Same pixel format the camera analyzer hands the detector
+        options.inPreferredConfig = Bitmap.Config.ARGB_8888;
+        return BitmapFactory.decodeFile(file.getPath(), options);
+    }
+
+    private ModelBenchmark() {
+    }
+}
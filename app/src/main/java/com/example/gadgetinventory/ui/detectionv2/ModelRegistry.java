@@ -0,0 +1,429 @@
+package com.example.gadgetinventory.ui.detectionv2;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.database.Cursor;
+import android.graphics.Bitmap;
+import android.net.Uri;
+import android.provider.OpenableColumns;
+import android.util.JsonReader;
+import android.util.JsonWriter;
+import android.util.Log;
+import androidx.annotation.Nullable;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import com.example.gadgetinventory.data.io.FileHashes;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Detection models available on this device: the bundled model plus any imported into
+ * app storage, each under {@code models/<id>/} with its labels. The index keeps the
+ * name, version and import time of every model; the active model is a preference and is
+ * published as LiveData so the camera screen swaps detectors without a restart.
+ *
+ * <p>Imports, frame copies and benchmarks run on one background thread; callbacks fire
+ * there, like the repository's.
+ */
+public final class ModelRegistry {
+    private static final String TAG = "ModelRegistry";
+    private static final String MODELS_DIR = "models";
+    private static final String INDEX_FILE = "models.json";
+    private static final String MODEL_FILE = "model.tflite";
+    private static final String LABELS_FILE = "labels.txt";
+    private static final String FRAMES_DIR = "benchmark_frames";
+    private static final String PREFS_NAME = "detection_models";
+    private static final String KEY_ACTIVE = "active_model";
+    private static final int VERSION_LENGTH = 8;
+    // Scaled to the model's input size before inference; content does not matter
+    private static final int PREWARM_FRAME_SIZE = 64;
+
+    public interface ImportCallback {
+        void onImported(DetectionModel model);
+
+        void onError(Exception e);
+    }
+
+    public interface FramesCallback {
+        /** {@code total} counts every stored frame, including earlier ones. */
+        void onFramesAdded(int added, int total);
+
+        void onError(Exception e);
+    }
+
+    public interface BenchmarkCallback {
+        void onProgress(int framesDone, int frameCount);
+
+        void onComplete(BenchmarkReport report);
+
+        void onError(Exception e);
+    }
+
+    private static volatile ModelRegistry INSTANCE;
+
+    public static ModelRegistry getInstance(Context context) {
+        if (INSTANCE == null) {
+            synchronized (ModelRegistry.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new ModelRegistry(context.getApplicationContext());
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    private final Context context;
+    private final File modelsDir;
+    private final File framesDir;
+    private final SharedPreferences prefs;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    // Guarded by this; the bundled model is always first
+    private final List<DetectionModel> models = new ArrayList<>();
+    private final MutableLiveData<DetectionModel> activeModel;
+
+    private ModelRegistry(Context context) {
+        this.context = context;
+        this.modelsDir = new File(context.getFilesDir(), MODELS_DIR);
+        this.framesDir = new File(context.getFilesDir(), FRAMES_DIR);
+        this.prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        models.add(DetectionModel.bundled());
+        models.addAll(loadIndex());
+        // Constructed with its value, not setValue: the first call may come from a startup thread
+        activeModel = new MutableLiveData<>(find(prefs.getString(KEY_ACTIVE, DetectionModel.BUNDLED_ID)));
+    }
+
+    public synchronized List<DetectionModel> getModels() {
+        return new ArrayList<>(models);
+    }
+
+    /** Never holds null: an unknown or deleted active model falls back to the bundled one. */
+    public LiveData<DetectionModel> getActiveModel() {
+        return activeModel;
+    }
+
+    public void setActiveModel(String id) {
+        DetectionModel model = find(id);
+        prefs.edit().putString(KEY_ACTIVE, model.getId()).apply();
+        activeModel.postValue(model);
+    }
+
+    /**
+     * Copies a {@code .tflite} model and its labels {@code .txt} into app storage, after
+     * checking that the interpreter opens the model and scores one class per label.
+     */
+    public void importModel(List<Uri> sources, ImportCallback callback) {
+        executor.execute(() -> {
+            try {
+                callback.onImported(doImport(sources));
+            } catch (Exception e) {
+                Log.e(TAG, "Model import failed", e);
+                callback.onError(e);
+            }
+        });
+    }
+
+    /**
+     * Maps the active model and runs it once, then closes it. Blocking; called at startup.
+     * The detector itself cannot be handed over: a GPU delegate only runs on the thread that
+     * created it. What carries over is the model's pages in the page cache and the loaded
+     * native and GPU driver libraries, which are most of a cold first load.
+     */
+    public void prewarm() {
+        DetectionModel model = activeModel.getValue();
+        Detector detector = new Detector(context, model != null ? model : DetectionModel.bundled(), null);
+        try {
+            Bitmap blank = Bitmap.createBitmap(PREWARM_FRAME_SIZE, PREWARM_FRAME_SIZE, Bitmap.Config.ARGB_8888);
+            detector.run(blank);
+            blank.recycle();
+        } finally {
+            detector.close();
+        }
+    }
+
+    /** Copies still frames used by {@link #runBenchmark}; they outlive the camera session. */
+    public void addBenchmarkFrames(List<Uri> sources, FramesCallback callback) {
+        executor.execute(() -> {
+            try {
+                if (!framesDir.isDirectory() && !framesDir.mkdirs()) {
+                    throw new IOException("Cannot create " + framesDir);
+                }
+                ContentResolver resolver = context.getContentResolver();
+                for (Uri source : sources) {
+                    copy(resolver, source, new File(framesDir, UUID.randomUUID() + ".img"));
+                }
+                callback.onFramesAdded(sources.size(), getBenchmarkFrames().size());
+            } catch (Exception e) {
+                Log.e(TAG, "Adding benchmark frames failed", e);
+                callback.onError(e);
+            }
+        });
+    }
+
+    public void clearBenchmarkFrames() {
+        executor.execute(() -> {
+            for (File frame : getBenchmarkFrames()) {
+                frame.delete();
+            }
+        });
+    }
+
+    /** Runs every model over the stored frames; the first model is the agreement reference. */
+    public void runBenchmark(List<DetectionModel> candidates, BenchmarkCallback callback) {
+        executor.execute(() -> {
+            try {
+                List<File> frames = getBenchmarkFrames();
+                if (frames.isEmpty()) {
+                    throw new IllegalStateException("No benchmark frames stored");
+                }
+                BenchmarkReport report = ModelBenchmark.run(context, candidates, frames, callback::onProgress);
+                Log.i(TAG, "Benchmark\n" + report);
+                callback.onComplete(report);
+            } catch (Exception e) {
+                Log.e(TAG, "Benchmark failed", e);
+                callback.onError(e);
+            }
+        });
+    }
+
+    List<File> getBenchmarkFrames() {
+        File[] files = framesDir.listFiles();
+        if (files == null) {
+            return Collections.emptyList();
+        }
+        // Stable order so repeated runs see frames in the same sequence
+        Arrays.sort(files);
+        return Arrays.asList(files);
+    }
+
+    private synchronized DetectionModel find(@Nullable String id) {
+        for (DetectionModel model : models) {
+            if (model.getId().equals(id)) {
+                return model;
+            }
+        }
+        return models.get(0);
+    }
+
+    private DetectionModel doImport(List<Uri> sources) throws IOException {
+        ContentResolver resolver = context.getContentResolver();
+        Uri modelUri = null;
+        Uri labelsUri = null;
+        String name = null;
+        for (Uri source : sources) {
+            String displayName = displayName(resolver, source);
+            String lower = displayName.toLowerCase(Locale.ROOT);
+            if (lower.endsWith(".tflite")) {
+                modelUri = source;
+                name = displayName.substring(0, displayName.length() - ".tflite".length());
+            } else if (lower.endsWith(".txt")) {
+                labelsUri = source;
+            }
+        }
+        if (modelUri == null || labelsUri == null) {
+            throw new IllegalArgumentException("Select one .tflite model and its labels .txt");
+        }
+
+        String id = UUID.randomUUID().toString();
+        File dir = new File(modelsDir, id);
+        if (!dir.mkdirs()) {
+            throw new IOException("Cannot create " + dir);
+        }
+        try {
+            File modelFile = new File(dir, MODEL_FILE);
+            File labelsFile = new File(dir, LABELS_FILE);
+            copy(resolver, modelUri, modelFile);
+            copy(resolver, labelsUri, labelsFile);
+
+            String version = FileHashes.sha256(modelFile).substring(0, VERSION_LENGTH);
+            synchronized (this) {
+                for (DetectionModel existing : models) {
+                    if (existing.getVersion().equals(version)) {
+                        throw new IllegalArgumentException("Model already imported as " + existing.getName());
+                    }
+                }
+            }
+            DetectionModel candidate = new DetectionModel(id, name, version, System.currentTimeMillis(), -1,
+                    modelFile.getPath(), labelsFile.getPath(), false);
+            int labelCount = validate(candidate);
+            DetectionModel model = new DetectionModel(id, name, version, candidate.getAddedAt(), labelCount,
+                    modelFile.getPath(), labelsFile.getPath(), false);
+            synchronized (this) {
+                models.add(model);
+                saveIndex();
+            }
+            return model;
+        } catch (IOException | RuntimeException e) {
+            deleteRecursively(dir);
+            throw e;
+        }
+    }
+
+    // Opens the model the way the camera will, so a broken import fails here rather than mid-scan
+    private int validate(DetectionModel model) {
+        Detector detector = new Detector(context, model, null);
+        try {
+            if (!detector.isReady()) {
+                throw new IllegalArgumentException("Not a usable detection model");
+            }
+            if (detector.getOutputClassCount() != detector.getLabelCount()) {
+                throw new IllegalArgumentException("Model scores " + detector.getOutputClassCount()
+                        + " classes but the labels file has " + detector.getLabelCount());
+            }
+            return detector.getLabelCount();
+        } finally {
+            detector.close();
+        }
+    }
+
+    // Callers hold this
+    private void saveIndex() throws IOException {
+        File index = new File(modelsDir, INDEX_FILE);
+        File temp = new File(index.getPath() + ".tmp");
+        try (JsonWriter json = new JsonWriter(new OutputStreamWriter(new FileOutputStream(temp), StandardCharsets.UTF_8))) {
+            json.beginObject();
+            json.name("models").beginArray();
+            for (DetectionModel model : models) {
+                if (model.isBundled()) {
+                    continue;
+                }
+                json.beginObject();
+                json.name("id").value(model.getId());
+                json.name("name").value(model.getName());
+                json.name("version").value(model.getVersion());
+                json.name("addedAt").value(model.getAddedAt());
+                json.name("labels").value(model.getLabelCount());
+                json.endObject();
+            }
+            json.endArray();
+            json.endObject();
+        }
+        if (!temp.renameTo(index)) {
+            temp.delete();
+            throw new IOException("Cannot save model index to " + index);
+        }
+    }
+
+    private List<DetectionModel> loadIndex() {
+        List<DetectionModel> loaded = new ArrayList<>();
+        File index = new File(modelsDir, INDEX_FILE);
+        if (!index.isFile()) {
+            return loaded;
+        }
+        try (JsonReader json = new JsonReader(new InputStreamReader(new FileInputStream(index), StandardCharsets.UTF_8))) {
+            json.beginObject();
+            while (json.hasNext()) {
+                if (json.nextName().equals("models")) {
+                    json.beginArray();
+                    while (json.hasNext()) {
+                        DetectionModel model = readModel(json);
+                        if (model != null) {
+                            loaded.add(model);
+                        }
+                    }
+                    json.endArray();
+                } else {
+                    json.skipValue();
+                }
+            }
+            json.endObject();
+        } catch (IOException | IllegalStateException | NumberFormatException e) {
+            Log.w(TAG, "Discarding unreadable model index", e);
+            return new ArrayList<>();
+        }
+        return loaded;
+    }
+
+    @Nullable
+    private DetectionModel readModel(JsonReader json) throws IOException {
+        String id = null;
+        String name = null;
+        String version = null;
+        long addedAt = 0;
+        int labels = -1;
+        json.beginObject();
+        while (json.hasNext()) {
+            switch (json.nextName()) {
+                case "id":
+                    id = json.nextString();
+                    break;
+                case "name":
+                    name = json.nextString();
+                    break;
+                case "version":
+                    version = json.nextString();
+                    break;
+                case "addedAt":
+                    addedAt = json.nextLong();
+                    break;
+                case "labels":
+                    labels = json.nextInt();
+                    break;
+                default:
+                    json.skipValue();
+                    break;
+            }
+        }
+        json.endObject();
+        if (id == null || name == null || version == null) {
+            return null;
+        }
+        File dir = new File(modelsDir, id);
+        File modelFile = new File(dir, MODEL_FILE);
+        File labelsFile = new File(dir, LABELS_FILE);
+        if (!modelFile.isFile() || !labelsFile.isFile()) {
+            Log.w(TAG, "Dropping model " + name + " with missing files");
+            return null;
+        }
+        return new DetectionModel(id, name, version, addedAt, labels, modelFile.getPath(), labelsFile.getPath(), false);
+    }
+
+    private static String displayName(ContentResolver resolver, Uri uri) {
+        try (Cursor cursor = resolver.query(uri, new String[]{OpenableColumns.DISPLAY_NAME}, null, null, null)) {
+            if (cursor != null && cursor.moveToFirst() && !cursor.isNull(0)) {
+                return cursor.getString(0);
+            }
+        }
+        String segment = uri.getLastPathSegment();
+        return segment != null ? segment : "";
+    }
+
+    private static void copy(ContentResolver resolver, Uri source, File target) throws IOException {
+        try (InputStream in = resolver.openInputStream(source);
+             OutputStream out = new FileOutputStream(target)) {
+            if (in == null) {
+                throw new IOException("Cannot open " + source);
+            }
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+        }
+    }
+
+    private static void deleteRecursively(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteRecursively(child);
+            }
+        }
+        file.delete();
+    }
+}
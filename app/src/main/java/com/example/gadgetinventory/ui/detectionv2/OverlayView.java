@@ -11,9 +11,12 @@ import android.view.View;
 import androidx.core.content.ContextCompat;
 
 import com.example.gadgetinventory.R;
+import com.example.gadgetinventory.repository.OwnedCounts;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class OverlayView extends View {
 
@@ -22,6 +25,9 @@ public class OverlayView extends View {
     private Paint textBackgroundPaint = new Paint();
     private Paint textPaint = new Paint();
     private Rect bounds = new Rect();
+    private OwnedCounts ownedCounts;
+    // Label text per class, rebuilt when the counts change rather than formatted per frame
+    private final Map<String, String> labelTexts = new HashMap<>();
 
     private static final int BOUNDING_RECT_TEXT_PADDING = 8;
 
@@ -66,7 +72,7 @@ public class OverlayView extends View {
             // Draw bounding box
             canvas.drawRect(left, top, right, bottom, boxPaint);
 
-            String drawableText = box.getClsName();
+            String drawableText = labelText(box.getClsName());
 
             textBackgroundPaint.getTextBounds(drawableText, 0, drawableText.length(), bounds);
             int textWidth = bounds.width();
@@ -86,6 +92,25 @@ public class OverlayView extends View {
         }
     }
 
+    /** Shows how many of each detected class are already owned; null hides the counts. */
+    public void setOwnedCounts(OwnedCounts counts) {
+        ownedCounts = counts;
+        labelTexts.clear();
+        invalidate();
+    }
+
+    private String labelText(String clsName) {
+        if (ownedCounts == null) {
+            return clsName;
+        }
+        String text = labelTexts.get(clsName);
+        if (text == null) {
+            text = getContext().getString(R.string.detection_owned, clsName, ownedCounts.countFor(clsName));
+            labelTexts.put(clsName, text);
+        }
+        return text;
+    }
+
     public void setResults(List<BoundingBox> boundingBoxes) {
         results = boundingBoxes;
         invalidate();
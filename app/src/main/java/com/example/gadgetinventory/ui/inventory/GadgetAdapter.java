@@ -1,47 +1,112 @@
 package com.example.gadgetinventory.ui.inventory;
 
+import android.graphics.drawable.Drawable;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.ImageView;
 import android.widget.TextView;
 import androidx.annotation.NonNull;
-import androidx.recyclerview.widget.DiffUtil;
-import androidx.recyclerview.widget.ListAdapter;
+import androidx.annotation.Nullable;
 import androidx.recyclerview.widget.RecyclerView;
-import com.bumptech.glide.Glide;
+import androidx.recyclerview.widget.SortedList;
+import androidx.recyclerview.widget.SortedListAdapterCallback;
+import com.bumptech.glide.ListPreloader;
+import com.bumptech.glide.RequestBuilder;
+import com.bumptech.glide.RequestManager;
+import com.bumptech.glide.request.RequestOptions;
 import com.example.gadgetinventory.R;
-import com.example.gadgetinventory.data.entity.GadgetEntity;
+import com.example.gadgetinventory.ui.GadgetImages;
 import com.google.android.material.chip.Chip;
-import java.text.SimpleDateFormat;
-import java.util.Locale;
+import java.io.File;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
-public class GadgetAdapter extends ListAdapter<GadgetEntity, GadgetAdapter.GadgetViewHolder> {
+/**
+ * Shows an {@link InventoryListState}. A state whose delta starts from the version on
+ * screen is applied item by item; any other state replaces the whole list. Also feeds a
+ * {@code RecyclerViewPreloader} with the same image requests rows bind, so preloaded
+ * images are memory-cache hits.
+ */
+public class GadgetAdapter extends RecyclerView.Adapter<GadgetAdapter.GadgetViewHolder>
+        implements ListPreloader.PreloadModelProvider<GadgetListItem> {
     private final OnGadgetClickListener listener;
-    private final SimpleDateFormat dateFormat = new SimpleDateFormat("MMM d, yyyy", Locale.getDefault());
+    private final RequestManager glide;
+    private final RequestOptions imageOptions;
+    private final SortedList<GadgetListItem> items;
+    private final Map<Long, GadgetListItem> itemsById = new HashMap<>();
+    private long appliedVersion = -1;
 
     public interface OnGadgetClickListener {
-        void onGadgetClick(GadgetEntity gadget);
+        void onGadgetClick(GadgetListItem gadget);
     }
 
-    public GadgetAdapter(OnGadgetClickListener listener) {
-        super(new DiffUtil.ItemCallback<GadgetEntity>() {
+    /** {@code imageSizePx} is the list image's edge and the decode size of every row image. */
+    public GadgetAdapter(RequestManager glide, int imageSizePx, OnGadgetClickListener listener) {
+        this.glide = glide;
+        this.imageOptions = GadgetImages.listOptions(imageSizePx);
+        this.listener = listener;
+        items = new SortedList<>(GadgetListItem.class, new SortedListAdapterCallback<GadgetListItem>(this) {
             @Override
-            public boolean areItemsTheSame(@NonNull GadgetEntity oldItem, @NonNull GadgetEntity newItem) {
-                return oldItem.getId() == newItem.getId();
+            public int compare(GadgetListItem o1, GadgetListItem o2) {
+                return GadgetListItem.ORDER.compare(o1, o2);
             }
 
             @Override
-            public boolean areContentsTheSame(@NonNull GadgetEntity oldItem, @NonNull GadgetEntity newItem) {
-                return oldItem.getName().equals(newItem.getName()) &&
-                        oldItem.getModel().equals(newItem.getModel()) &&
-                        oldItem.getCondition().equals(newItem.getCondition()) &&
-                        oldItem.getPurchaseDate().equals(newItem.getPurchaseDate()) &&
-                        oldItem.getEstimatedValue() == newItem.getEstimatedValue() &&
-                        oldItem.getImageUri().equals(newItem.getImageUri());
+            public boolean areItemsTheSame(GadgetListItem item1, GadgetListItem item2) {
+                return item1.getId() == item2.getId();
+            }
+
+            @Override
+            public boolean areContentsTheSame(GadgetListItem oldItem, GadgetListItem newItem) {
+                // rowVersion is bumped by a trigger on every update of the row
+                return oldItem.getRowVersion() == newItem.getRowVersion();
             }
         });
-        this.listener = listener;
+    }
+
+    public void submit(InventoryListState state) {
+        InventoryListState.Delta delta = state.getDelta();
+        if (delta != null && delta.getBaseVersion() == appliedVersion) {
+            applyDelta(delta);
+        } else {
+            itemsById.clear();
+            for (GadgetListItem item : state.getItems()) {
+                itemsById.put(item.getId(), item);
+            }
+            items.replaceAll(state.getItems());
+        }
+        appliedVersion = state.getVersion();
+    }
+
+    private void applyDelta(InventoryListState.Delta delta) {
+        items.beginBatchedUpdates();
+        try {
+            for (Long id : delta.getRemovedIds()) {
+                GadgetListItem old = itemsById.remove(id);
+                if (old != null) {
+                    items.remove(old);
+                }
+            }
+            for (GadgetListItem item : delta.getUpserted()) {
+                GadgetListItem old = itemsById.put(item.getId(), item);
+                if (old != null) {
+                    // Repositions the row if its name changed
+                    items.updateItemAt(items.indexOf(old), item);
+                } else {
+                    items.add(item);
+                }
+            }
+        } finally {
+            items.endBatchedUpdates();
+        }
+    }
+
+    @Override
+    public int getItemCount() {
+        return items.size();
     }
 
     @NonNull
@@ -54,8 +119,46 @@ public class GadgetAdapter extends ListAdapter<GadgetEntity, GadgetAdapter.Gadge
 
     @Override
     public void onBindViewHolder(@NonNull GadgetViewHolder holder, int position) {
-        GadgetEntity gadget = getItem(position);
+        GadgetListItem gadget = items.get(position);
         holder.bind(gadget, listener);
+        RequestBuilder<Drawable> image = imageRequest(gadget);
+        if (image != null) {
+            image.placeholder(R.drawable.ic_gadget_placeholder).into(holder.gadgetImage);
+        } else {
+            glide.clear(holder.gadgetImage);
+            holder.gadgetImage.setImageResource(R.drawable.ic_gadget_placeholder);
+        }
+    }
+
+    @Override
+    public void onViewRecycled(@NonNull GadgetViewHolder holder) {
+        // Release the bitmap back to the pool instead of holding it in the recycled view
+        glide.clear(holder.gadgetImage);
+    }
+
+    @NonNull
+    @Override
+    public List<GadgetListItem> getPreloadItems(int position) {
+        if (position < 0 || position >= items.size()) {
+            return Collections.emptyList();
+        }
+        return Collections.singletonList(items.get(position));
+    }
+
+    @Nullable
+    @Override
+    public RequestBuilder<?> getPreloadRequestBuilder(@NonNull GadgetListItem item) {
+        return imageRequest(item);
+    }
+
+    // The list thumbnail, or the original photo until it exists
+    @Nullable
+    private RequestBuilder<Drawable> imageRequest(GadgetListItem gadget) {
+        if (gadget.getImageUri() == null || gadget.getImageUri().isEmpty()) {
+            return null;
+        }
+        File thumbnail = gadget.getThumbnailPath() != null ? new File(gadget.getThumbnailPath()) : null;
+        return GadgetImages.load(glide, imageOptions, thumbnail, gadget.getImageUri());
     }
 
     static class GadgetViewHolder extends RecyclerView.ViewHolder {
@@ -65,7 +168,6 @@ public class GadgetAdapter extends ListAdapter<GadgetEntity, GadgetAdapter.Gadge
         private final Chip gadgetCondition;
         private final TextView purchaseDate;
         private final TextView estimatedValue;
-        private final SimpleDateFormat dateFormat = new SimpleDateFormat("MMM d, yyyy", Locale.getDefault());
 
         public GadgetViewHolder(@NonNull View itemView) {
             super(itemView);
@@ -77,38 +179,17 @@ public class GadgetAdapter extends ListAdapter<GadgetEntity, GadgetAdapter.Gadge
             estimatedValue = itemView.findViewById(R.id.estimatedValue);
         }
 
-        public void bind(GadgetEntity gadget, OnGadgetClickListener listener) {
-            // Set text fields
+        public void bind(GadgetListItem gadget, OnGadgetClickListener listener) {
+            // Set text fields (formatted when the row was mapped)
             gadgetName.setText(gadget.getName());
             gadgetModel.setText(gadget.getModel());
             gadgetCondition.setText(gadget.getCondition());
-            purchaseDate.setText(dateFormat.format(gadget.getPurchaseDate()));
-            estimatedValue.setText(String.format(Locale.getDefault(), "₱%.2f",
-                    gadget.getEstimatedValue()));
-
-            // Load image using Glide
-            if (gadget.getImageUri() != null && !gadget.getImageUri().isEmpty()) {
-                Glide.with(itemView.getContext())
-                        .load(gadget.getImageUri())
-                        .placeholder(R.drawable.ic_gadget_placeholder)
-                        .error(R.drawable.ic_gadget_placeholder)
-                        .centerCrop()
-                        .into(gadgetImage);
-            } else {
-                gadgetImage.setImageResource(R.drawable.ic_gadget_placeholder);
-            }
+            purchaseDate.setText(gadget.getPurchaseDate());
+            estimatedValue.setText(gadget.getEstimatedValue());
 
-            // Set condition chip color based on condition
-            switch (gadget.getCondition().toLowerCase()) {
-                case "good":
-                    gadgetCondition.setChipBackgroundColorResource(R.color.good);
-                    break;
-                case "fair":
-                    gadgetCondition.setChipBackgroundColorResource(R.color.fair);
-                    break;
-                case "poor":
-                    gadgetCondition.setChipBackgroundColorResource(R.color.bad);
-                    break;
+            // Set condition chip color (precomputed from the condition)
+            if (gadget.getConditionColor() != 0) {
+                gadgetCondition.setChipBackgroundColorResource(gadget.getConditionColor());
             }
 
             // Set click listener
@@ -119,4 +200,4 @@ public class GadgetAdapter extends ListAdapter<GadgetEntity, GadgetAdapter.Gadge
             });
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,96 @@
+package com.example.gadgetinventory.ui.inventory;
+
+import androidx.annotation.ColorRes;
+import androidx.annotation.Nullable;
+import java.util.Comparator;
+
+/**
+ * Immutable, display-ready list row. All formatting happens once when the row is mapped
+ * (off the main thread), so binding only assigns precomputed values.
+ */
+public final class GadgetListItem {
+    /** List order: name ignoring case, as the NOCASE column sorts, then id for a stable order. */
+    public static final Comparator<GadgetListItem> ORDER = (a, b) -> {
+        int byName = compareNames(a.name, b.name);
+        return byName != 0 ? byName : Long.compare(a.id, b.id);
+    };
+
+    private final long id;
+    private final long rowVersion;
+    private final String name;
+    private final String model;
+    private final String condition;
+    private final String purchaseDate;
+    private final String estimatedValue;
+    private final String imageUri;
+    @Nullable
+    private final String thumbnailPath;
+    @ColorRes
+    private final int conditionColor;
+
+    GadgetListItem(long id, long rowVersion, String name, String model, String condition,
+                   String purchaseDate, String estimatedValue, String imageUri, @Nullable String thumbnailPath,
+                   @ColorRes int conditionColor) {
+        this.id = id;
+        this.rowVersion = rowVersion;
+        this.name = name;
+        this.model = model;
+        this.condition = condition;
+        this.purchaseDate = purchaseDate;
+        this.estimatedValue = estimatedValue;
+        this.imageUri = imageUri;
+        this.thumbnailPath = thumbnailPath;
+        this.conditionColor = conditionColor;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public long getRowVersion() {
+        return rowVersion;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    public String getCondition() {
+        return condition;
+    }
+
+    public String getPurchaseDate() {
+        return purchaseDate;
+    }
+
+    public String getEstimatedValue() {
+        return estimatedValue;
+    }
+
+    public String getImageUri() {
+        return imageUri;
+    }
+
+    /** List-size thumbnail of the photo, or null until one has been written. */
+    @Nullable
+    public String getThumbnailPath() {
+        return thumbnailPath;
+    }
+
+    private static int compareNames(String a, String b) {
+        if (a == null || b == null) {
+            return a == null ? (b == null ? 0 : -1) : 1;
+        }
+        return String.CASE_INSENSITIVE_ORDER.compare(a, b);
+    }
+
+    /** Chip background color resource, or 0 for an unrecognised condition. */
+    @ColorRes
+    public int getConditionColor() {
+        return conditionColor;
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.gadgetinventory.ui.inventory;
+
+import com.example.gadgetinventory.R;
+import com.example.gadgetinventory.data.image.ThumbnailSize;
+import com.example.gadgetinventory.data.image.ThumbnailStore;
+import com.example.gadgetinventory.data.model.GadgetRow;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Maps projected rows to {@link GadgetListItem}s. Not thread-safe: create one per mapping
+ * pass, which also picks up the current default locale.
+ */
+public class GadgetListItemMapper {
+    private final ThumbnailStore thumbnailStore;
+    private final Locale locale = Locale.getDefault();
+    private final SimpleDateFormat dateFormat = new SimpleDateFormat("MMM d, yyyy", locale);
+
+    public GadgetListItemMapper(ThumbnailStore thumbnailStore) {
+        this.thumbnailStore = thumbnailStore;
+    }
+
+    public List<GadgetListItem> map(List<GadgetRow> rows) {
+        List<GadgetListItem> items = new ArrayList<>(rows.size());
+        for (GadgetRow row : rows) {
+            items.add(map(row));
+        }
+        return items;
+    }
+
+    public GadgetListItem map(GadgetRow row) {
+        return new GadgetListItem(
+                row.id,
+                row.rowVersion,
+                row.name,
+                row.model,
+                row.condition,
+                row.purchaseDate != null ? dateFormat.format(row.purchaseDate) : "",
+                String.format(locale, "₱%.2f", row.estimatedValue),
+                row.imageUri,
+                row.thumbnailKey != null
+                        ? thumbnailStore.getFile(row.thumbnailKey, ThumbnailSize.LIST).getPath()
+                        : null,
+                conditionColor(row.condition));
+    }
+
+    private static int conditionColor(String condition) {
+        if (condition == null) {
+            return 0;
+        }
+        switch (condition.toLowerCase(Locale.ROOT)) {
+            case "good":
+                return R.color.good;
+            case "fair":
+                return R.color.fair;
+            case "poor":
+                return R.color.bad;
+            default:
+                return 0;
+        }
+    }
+}
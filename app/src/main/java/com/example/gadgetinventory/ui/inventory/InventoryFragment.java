@@ -1,6 +1,8 @@
 package com.example.gadgetinventory.ui.inventory;
 
 import android.os.Bundle;
+import android.text.Editable;
+import android.text.TextWatcher;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -10,16 +12,25 @@ import androidx.fragment.app.Fragment;
 import androidx.lifecycle.ViewModelProvider;
 import androidx.navigation.Navigation;
 import androidx.recyclerview.widget.LinearLayoutManager;
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.RequestManager;
+import com.bumptech.glide.integration.recyclerview.RecyclerViewPreloader;
+import com.bumptech.glide.util.FixedPreloadSizeProvider;
 import com.example.gadgetinventory.R;
-import com.example.gadgetinventory.data.entity.GadgetEntity;
+import com.example.gadgetinventory.StartupOrchestrator;
 import com.example.gadgetinventory.databinding.FragmentInventoryBinding;
 import com.example.gadgetinventory.viewmodel.GadgetViewModel;
-import java.util.List;
 
 public class InventoryFragment extends Fragment implements GadgetAdapter.OnGadgetClickListener {
+    // Rows ahead of the scroll direction whose images are decoded in advance
+    private static final int PRELOAD_ROWS = 8;
+
     private FragmentInventoryBinding binding;
     private GadgetViewModel gadgetViewModel;
     private GadgetAdapter gadgetAdapter;
+    // Latest full list, shown again in place of search results when the query is cleared
+    private InventoryListState listState;
+    private boolean searching;
 
     @Override
     public View onCreateView(@NonNull LayoutInflater inflater, ViewGroup container, Bundle savedInstanceState) {
@@ -34,31 +45,76 @@ public class InventoryFragment extends Fragment implements GadgetAdapter.OnGadge
         gadgetViewModel = new ViewModelProvider(requireActivity()).get(GadgetViewModel.class);
         setupRecyclerView();
         observeGadgets();
+        setupSearch();
+        observeTotalValue();
     }
 
     private void setupRecyclerView() {
-        gadgetAdapter = new GadgetAdapter(this);
+        int imageSize = getResources().getDimensionPixelSize(R.dimen.gadget_list_image_size);
+        RequestManager glide = Glide.with(this);
+        gadgetAdapter = new GadgetAdapter(glide, imageSize, this);
         binding.recyclerView.setLayoutManager(new LinearLayoutManager(requireContext()));
         binding.recyclerView.setAdapter(gadgetAdapter);
+        binding.recyclerView.addOnScrollListener(new RecyclerViewPreloader<>(
+                glide, gadgetAdapter, new FixedPreloadSizeProvider<>(imageSize, imageSize), PRELOAD_ROWS));
     }
 
     private void observeGadgets() {
-        gadgetViewModel.getAllGadgets().observe(getViewLifecycleOwner(), gadgets -> {
-            gadgetAdapter.submitList(gadgets);
-            updateTotalValue(gadgets);
+        gadgetViewModel.getListState().observe(getViewLifecycleOwner(), state -> {
+            boolean first = listState == null;
+            listState = state;
+            if (!searching) {
+                gadgetAdapter.submit(state);
+            }
+            if (first) {
+                StartupOrchestrator.getInstance(requireActivity().getApplication())
+                        .reportInventoryShown(requireActivity());
+            }
+        });
+    }
+
+    private void setupSearch() {
+        binding.searchInput.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+            }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+            }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                gadgetViewModel.setSearchQuery(s.toString());
+            }
+        });
+        gadgetViewModel.getSearchResults().observe(getViewLifecycleOwner(), results -> {
+            if (results != null) {
+                searching = true;
+                gadgetAdapter.submit(results);
+            } else if (searching) {
+                searching = false;
+                if (listState != null) {
+                    // Without its delta: the adapter shows search results, not the delta's base
+                    gadgetAdapter.submit(new InventoryListState(
+                            listState.getVersion(), listState.getItems(), null));
+                }
+            }
         });
     }
 
-    private void updateTotalValue(List<GadgetEntity> gadgets) {
-        double totalValue = 0;
-        for (GadgetEntity gadget : gadgets) {
-            totalValue += gadget.getEstimatedValue();
-        }
-        binding.totalValueText.setText(String.format("Total Inventory Value: ₱%.2f", totalValue));
+    private void observeTotalValue() {
+        gadgetViewModel.getTotalValue().observe(getViewLifecycleOwner(), totalValue -> {
+            double value = totalValue != null ? totalValue : 0;
+            binding.totalValueText.setText(String.format("Total Inventory Value: ₱%.2f", value));
+        });
+        gadgetViewModel.getCurrentValuation().observe(getViewLifecycleOwner(), valuation ->
+                binding.currentValueText.setText(getString(R.string.current_inventory_value,
+                        valuation.getCurrentValue())));
     }
 
     @Override
-    public void onGadgetClick(GadgetEntity gadget) {
+    public void onGadgetClick(GadgetListItem gadget) {
         Bundle args = new Bundle();
         args.putLong("gadgetId", gadget.getId());
         Navigation.findNavController(requireView())
@@ -0,0 +1,120 @@
+package com.example.gadgetinventory.ui.inventory;
+
+import androidx.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One published version of the inventory list: the full sorted snapshot plus, when it was
+ * derived from the previous version, the delta that produced it. An adapter that already
+ * shows {@link Delta#getBaseVersion()} applies the delta; anything else replaces all items.
+ * A state built from its base and a delta only materializes its items when asked for them,
+ * so a run of deltas that an adapter applies in place copies nothing.
+ */
+public final class InventoryListState {
+    private final long version;
+    @Nullable
+    private final Delta delta;
+    // Exactly one of these is set, until the items are built and the base is let go
+    @Nullable
+    private volatile List<GadgetListItem> items;
+    @Nullable
+    private volatile InventoryListState base;
+
+    public InventoryListState(long version, List<GadgetListItem> items, @Nullable Delta delta) {
+        this.version = version;
+        this.items = Collections.unmodifiableList(items);
+        this.delta = delta;
+    }
+
+    /** The state {@code delta} leads to from {@code base}; its items are built on first use. */
+    public InventoryListState(long version, InventoryListState base, Delta delta) {
+        if (delta.getBaseVersion() != base.version) {
+            throw new IllegalArgumentException("Delta from " + delta.getBaseVersion()
+                    + " does not apply to version " + base.version);
+        }
+        this.version = version;
+        this.base = base;
+        this.delta = delta;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /** All items in {@link GadgetListItem#ORDER}. */
+    public synchronized List<GadgetListItem> getItems() {
+        List<GadgetListItem> built = items;
+        if (built == null) {
+            built = Collections.unmodifiableList(build());
+            items = built;
+            base = null;
+        }
+        return built;
+    }
+
+    // Replays the deltas since the nearest state that has its items
+    private List<GadgetListItem> build() {
+        List<Delta> deltas = new ArrayList<>();
+        InventoryListState state = this;
+        List<GadgetListItem> root;
+        while ((root = state.items) == null) {
+            InventoryListState previous = state.base;
+            if (previous == null) {
+                // Built by another thread since items was read; it is set now
+                continue;
+            }
+            deltas.add(state.delta);
+            state = previous;
+        }
+        Map<Long, GadgetListItem> byId = new LinkedHashMap<>();
+        for (GadgetListItem item : root) {
+            byId.put(item.getId(), item);
+        }
+        for (int i = deltas.size() - 1; i >= 0; i--) {
+            Delta step = deltas.get(i);
+            for (Long id : step.removedIds) {
+                byId.remove(id);
+            }
+            for (GadgetListItem item : step.upserted) {
+                byId.put(item.getId(), item);
+            }
+        }
+        List<GadgetListItem> built = new ArrayList<>(byId.values());
+        // Nearly sorted already: only the upserted items are out of place
+        Collections.sort(built, GadgetListItem.ORDER);
+        return built;
+    }
+
+    @Nullable
+    public Delta getDelta() {
+        return delta;
+    }
+
+    public static final class Delta {
+        private final long baseVersion;
+        private final List<Long> removedIds;
+        private final List<GadgetListItem> upserted;
+
+        public Delta(long baseVersion, List<Long> removedIds, List<GadgetListItem> upserted) {
+            this.baseVersion = baseVersion;
+            this.removedIds = Collections.unmodifiableList(removedIds);
+            this.upserted = Collections.unmodifiableList(upserted);
+        }
+
+        public long getBaseVersion() {
+            return baseVersion;
+        }
+
+        public List<Long> getRemovedIds() {
+            return removedIds;
+        }
+
+        public List<GadgetListItem> getUpserted() {
+            return upserted;
+        }
+    }
+}
@@ -1,10 +1,17 @@
 package com.example.gadgetinventory.ui.settings;
 
+import android.content.Intent;
 import android.content.SharedPreferences;
+import android.net.Uri;
 import android.os.Bundle;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
+import android.widget.EditText;
+import android.widget.RadioGroup;
+import android.widget.TextView;
+import androidx.activity.result.ActivityResultLauncher;
+import androidx.activity.result.contract.ActivityResultContracts;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.appcompat.app.AlertDialog;
@@ -12,9 +19,34 @@ import androidx.appcompat.app.AppCompatDelegate;
 import androidx.fragment.app.Fragment;
 import androidx.lifecycle.ViewModelProvider;
 import com.example.gadgetinventory.R;
+import com.example.gadgetinventory.data.io.BackupResult;
+import com.example.gadgetinventory.data.io.ImportResult;
+import com.example.gadgetinventory.data.io.InventoryFormat;
+import com.example.gadgetinventory.data.io.RestoreResult;
+import com.example.gadgetinventory.data.model.GadgetRow;
+import com.example.gadgetinventory.data.model.StockTakeItem;
+import com.example.gadgetinventory.data.sync.SyncResult;
+import com.example.gadgetinventory.data.valuation.DepreciationSchedule;
+import com.example.gadgetinventory.data.valuation.ValuationRates;
+import com.example.gadgetinventory.repository.DuplicateReport;
+import com.example.gadgetinventory.repository.GadgetRepository;
+import com.example.gadgetinventory.repository.PurgeProgress;
+import com.example.gadgetinventory.repository.StockTakeReport;
+import com.example.gadgetinventory.ui.FragmentUi;
+import com.example.gadgetinventory.ui.detectionv2.BenchmarkReport;
+import com.example.gadgetinventory.ui.detectionv2.DetectionModel;
+import com.example.gadgetinventory.ui.detectionv2.ModelRegistry;
 import com.example.gadgetinventory.viewmodel.GadgetViewModel;
 import com.google.android.material.materialswitch.MaterialSwitch;
+import com.google.android.material.progressindicator.LinearProgressIndicator;
 import com.google.android.material.snackbar.Snackbar;
+import com.google.android.material.textfield.TextInputLayout;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
 
 public class SettingsFragment extends Fragment {
     private SharedPreferences preferences;
@@ -22,6 +54,59 @@ public class SettingsFragment extends Fragment {
     private MaterialSwitch lightThemeSwitch;
     private MaterialSwitch darkThemeSwitch;
     private MaterialSwitch systemThemeSwitch;
+    private View resetDatabaseButton;
+    private EditText syncServerInput;
+    private View syncButton;
+    private EditText stocktakeInput;
+    private ModelRegistry modelRegistry;
+    private View runBenchmarkButton;
+    private TextView benchmarkStatusText;
+    private RadioGroup scheduleGroup;
+    private final TextInputLayout[] rateLayouts = new TextInputLayout[3];
+    private final EditText[] rateInputs = new EditText[3];
+    private View purgeProgressGroup;
+    private TextView purgeStatusText;
+    private LinearProgressIndicator purgeProgress;
+    // Only report the end of a purge this view watched run, not a stale result
+    private boolean purgeRunningSeen;
+
+    private final ActivityResultLauncher<String> exportCsvLauncher = registerForActivityResult(
+            new ActivityResultContracts.CreateDocument(InventoryFormat.CSV.getMimeType()),
+            uri -> exportInventory(uri, InventoryFormat.CSV));
+
+    private final ActivityResultLauncher<String> exportJsonLauncher = registerForActivityResult(
+            new ActivityResultContracts.CreateDocument(InventoryFormat.JSON.getMimeType()),
+            uri -> exportInventory(uri, InventoryFormat.JSON));
+
+    private final ActivityResultLauncher<String[]> importLauncher = registerForActivityResult(
+            new ActivityResultContracts.OpenDocument(),
+            this::importInventory);
+
+    private static final String BACKUP_MIME_TYPE = "application/zip";
+    // Lines per list in the stock-take dialog; a 10k-item audit can miss thousands
+    private static final int STOCKTAKE_REPORT_LINES = 50;
+
+    private final ActivityResultLauncher<String> backupLauncher = registerForActivityResult(
+            new ActivityResultContracts.CreateDocument(BACKUP_MIME_TYPE),
+            uri -> backupInventory(uri, false));
+
+    private final ActivityResultLauncher<String> fullBackupLauncher = registerForActivityResult(
+            new ActivityResultContracts.CreateDocument(BACKUP_MIME_TYPE),
+            uri -> backupInventory(uri, true));
+
+    // An incremental archive needs the archives before it, back to the last full backup
+    private final ActivityResultLauncher<String[]> restoreLauncher = registerForActivityResult(
+            new ActivityResultContracts.OpenMultipleDocuments(),
+            this::restoreInventory);
+
+    // A model and its labels are picked together
+    private final ActivityResultLauncher<String[]> importModelLauncher = registerForActivityResult(
+            new ActivityResultContracts.OpenMultipleDocuments(),
+            this::importModel);
+
+    private final ActivityResultLauncher<String[]> benchmarkFramesLauncher = registerForActivityResult(
+            new ActivityResultContracts.OpenMultipleDocuments(),
+            this::addBenchmarkFrames);
 
     @Override
     public View onCreateView(@NonNull LayoutInflater inflater, ViewGroup container,
@@ -47,8 +132,76 @@ public class SettingsFragment extends Fragment {
         // Set up theme switches
         setupThemeSwitches();
 
+        // Set up import/export buttons
+        view.findViewById(R.id.exportCsvButton).setOnClickListener(v ->
+                exportCsvLauncher.launch("gadget_inventory.csv"));
+        view.findViewById(R.id.exportJsonButton).setOnClickListener(v ->
+                exportJsonLauncher.launch("gadget_inventory.json"));
+        view.findViewById(R.id.importButton).setOnClickListener(v ->
+                importLauncher.launch(new String[]{"text/*", "application/json"}));
+        view.findViewById(R.id.backupButton).setOnClickListener(v ->
+                backupLauncher.launch(backupFileName("")));
+        view.findViewById(R.id.fullBackupButton).setOnClickListener(v ->
+                fullBackupLauncher.launch(backupFileName("_full")));
+        view.findViewById(R.id.restoreButton).setOnClickListener(v ->
+                restoreLauncher.launch(new String[]{BACKUP_MIME_TYPE}));
+        view.findViewById(R.id.findDuplicatesButton).setOnClickListener(v -> findDuplicates());
+
+        // Set up depreciation
+        scheduleGroup = view.findViewById(R.id.scheduleGroup);
+        rateLayouts[ValuationRates.GOOD] = view.findViewById(R.id.goodRateLayout);
+        rateLayouts[ValuationRates.FAIR] = view.findViewById(R.id.fairRateLayout);
+        rateLayouts[ValuationRates.POOR] = view.findViewById(R.id.poorRateLayout);
+        rateInputs[ValuationRates.GOOD] = view.findViewById(R.id.goodRateInput);
+        rateInputs[ValuationRates.FAIR] = view.findViewById(R.id.fairRateInput);
+        rateInputs[ValuationRates.POOR] = view.findViewById(R.id.poorRateInput);
+        showValuationRates(viewModel.getValuationRates());
+        view.findViewById(R.id.applyRatesButton).setOnClickListener(v -> applyValuationRates());
+
+        // Set up stock-take; hardware scanners type the tag and press Enter
+        stocktakeInput = view.findViewById(R.id.stocktakeInput);
+        stocktakeInput.setOnEditorActionListener((v, actionId, event) -> {
+            recordStockTakeScan();
+            return true;
+        });
+        TextView stocktakeCountText = view.findViewById(R.id.stocktakeCountText);
+        viewModel.getStockTakeScanCount().observe(getViewLifecycleOwner(), count ->
+                stocktakeCountText.setText(getString(R.string.stocktake_scanned, count != null ? count : 0)));
+        view.findViewById(R.id.startStocktakeButton).setOnClickListener(v -> {
+            viewModel.startStockTake();
+            Snackbar.make(requireView(), R.string.stocktake_started, Snackbar.LENGTH_SHORT).show();
+        });
+        view.findViewById(R.id.reconcileStocktakeButton).setOnClickListener(v -> reconcileStockTake());
+
+        // Set up detection models
+        modelRegistry = ModelRegistry.getInstance(requireContext());
+        TextView activeModelText = view.findViewById(R.id.activeModelText);
+        modelRegistry.getActiveModel().observe(getViewLifecycleOwner(), model ->
+                activeModelText.setText(getString(R.string.models_active, model.getName(), model.getVersion())));
+        view.findViewById(R.id.chooseModelButton).setOnClickListener(v -> showChooseModelDialog());
+        view.findViewById(R.id.importModelButton).setOnClickListener(v ->
+                importModelLauncher.launch(new String[]{"*/*"}));
+        view.findViewById(R.id.addBenchmarkFramesButton).setOnClickListener(v ->
+                benchmarkFramesLauncher.launch(new String[]{"image/*"}));
+        runBenchmarkButton = view.findViewById(R.id.runBenchmarkButton);
+        runBenchmarkButton.setOnClickListener(v -> showBenchmarkDialog());
+        benchmarkStatusText = view.findViewById(R.id.benchmarkStatusText);
+
+        // Set up sync
+        syncServerInput = view.findViewById(R.id.syncServerInput);
+        syncServerInput.setText(viewModel.getSyncServerUrl());
+        syncButton = view.findViewById(R.id.syncButton);
+        syncButton.setOnClickListener(v -> syncInventory());
+
         // Set up reset database button
-        view.findViewById(R.id.resetDatabaseButton).setOnClickListener(v -> showResetDatabaseDialog());
+        resetDatabaseButton = view.findViewById(R.id.resetDatabaseButton);
+        resetDatabaseButton.setOnClickListener(v -> showResetDatabaseDialog());
+        purgeProgressGroup = view.findViewById(R.id.purgeProgressGroup);
+        purgeStatusText = view.findViewById(R.id.purgeStatusText);
+        purgeProgress = view.findViewById(R.id.purgeProgress);
+        view.findViewById(R.id.cancelPurgeButton).setOnClickListener(v -> viewModel.cancelPurge());
+        purgeRunningSeen = false;
+        viewModel.getPurgeProgress().observe(getViewLifecycleOwner(), this::showPurgeProgress);
     }
 
     private void setupThemeSwitches() {
@@ -95,12 +248,440 @@ public class SettingsFragment extends Fragment {
         new AlertDialog.Builder(requireContext())
                 .setTitle(R.string.reset_database)
                 .setMessage(R.string.confirm_reset)
-                .setPositiveButton(android.R.string.ok, (dialog, which) -> {
-                    viewModel.deleteAll();
-                    Snackbar.make(requireView(), "Database reset successfully",
-                            Snackbar.LENGTH_SHORT).show();
+                .setPositiveButton(android.R.string.ok, (dialog, which) -> viewModel.purgeInventory())
+                .setNegativeButton(android.R.string.cancel, null)
+                .show();
+    }
+
+    private void showPurgeProgress(PurgeProgress progress) {
+        boolean running = progress.getState() == PurgeProgress.State.RUNNING;
+        purgeProgressGroup.setVisibility(running ? View.VISIBLE : View.GONE);
+        resetDatabaseButton.setEnabled(!running);
+        if (running) {
+            purgeRunningSeen = true;
+            purgeStatusText.setText(getString(R.string.purge_progress,
+                    progress.getDeleted(), progress.getTotal()));
+            int percent = progress.getTotal() > 0
+                    ? (int) Math.min(100, progress.getDeleted() * 100 / progress.getTotal()) : 0;
+            purgeProgress.setProgressCompat(percent, true);
+            return;
+        }
+        if (!purgeRunningSeen) {
+            return;
+        }
+        purgeRunningSeen = false;
+        switch (progress.getState()) {
+            case DONE:
+                Snackbar.make(requireView(), R.string.purge_done, Snackbar.LENGTH_SHORT).show();
+                break;
+            case CANCELLED:
+                Snackbar.make(requireView(), getString(R.string.purge_cancelled, progress.getDeleted()),
+                        Snackbar.LENGTH_LONG).show();
+                break;
+            case FAILED:
+                Snackbar.make(requireView(), R.string.purge_failed, Snackbar.LENGTH_LONG).show();
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void exportInventory(Uri uri, InventoryFormat format) {
+        if (uri == null) return;
+        viewModel.exportInventory(uri, format, new GadgetRepository.ExportCallback() {
+            @Override
+            public void onExported(long rows) {
+                showMessage(R.string.export_success, rows);
+            }
+
+            @Override
+            public void onError(Exception e) {
+                showMessage(R.string.export_failed, e.getMessage());
+            }
+        });
+    }
+
+    private void importInventory(Uri uri) {
+        if (uri == null) return;
+        String type = requireContext().getContentResolver().getType(uri);
+        boolean isJson = (type != null && type.contains("json"))
+                || (uri.getPath() != null && uri.getPath().endsWith(".json"));
+        InventoryFormat format = isJson ? InventoryFormat.JSON : InventoryFormat.CSV;
+        viewModel.importInventory(uri, format, new GadgetRepository.ImportCallback() {
+            @Override
+            public void onImported(ImportResult result) {
+                showMessage(R.string.import_success,
+                        result.getImportedRows(), result.getRejectedRows());
+            }
+
+            @Override
+            public void onError(Exception e) {
+                showMessage(R.string.import_failed, e.getMessage());
+            }
+        });
+    }
+
+    private static String backupFileName(String suffix) {
+        String stamp = new SimpleDateFormat("yyyyMMdd_HHmmss", Locale.US).format(new Date());
+        return "gadget_backup_" + stamp + suffix + ".zip";
+    }
+
+    private void backupInventory(Uri uri, boolean full) {
+        if (uri == null) return;
+        viewModel.backupInventory(uri, full, new GadgetRepository.BackupCallback() {
+            @Override
+            public void onBackedUp(BackupResult result) {
+                showMessage(R.string.backup_success,
+                        result.getReferencedImages(), result.getArchivedImages());
+            }
+
+            @Override
+            public void onError(Exception e) {
+                showMessage(R.string.backup_failed, e.getMessage());
+            }
+        });
+    }
+
+    private void restoreInventory(List<Uri> uris) {
+        if (uris == null || uris.isEmpty()) return;
+        viewModel.restoreInventory(uris, new GadgetRepository.RestoreCallback() {
+            @Override
+            public void onRestored(RestoreResult result) {
+                runIfVisible(() -> showRestartDialog(result));
+            }
+
+            @Override
+            public void onError(Exception e) {
+                showMessage(R.string.restore_failed, e.getMessage());
+            }
+        });
+    }
+
+    // The restored database is swapped in on the next open, so the process has to restart
+    private void showRestartDialog(RestoreResult result) {
+        new AlertDialog.Builder(requireContext())
+                .setTitle(R.string.restore_complete_title)
+                .setMessage(getString(R.string.restore_complete_message,
+                        result.getRestoredImages(), result.getMissingImages()))
+                .setCancelable(false)
+                .setPositiveButton(R.string.restart, (dialog, which) -> restartApp())
+                .show();
+    }
+
+    private void restartApp() {
+        Intent intent = requireContext().getPackageManager()
+                .getLaunchIntentForPackage(requireContext().getPackageName());
+        if (intent != null) {
+            intent.addFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
+            startActivity(intent);
+        }
+        Runtime.getRuntime().exit(0);
+    }
+
+    private void findDuplicates() {
+        viewModel.buildDuplicateReport(new GadgetRepository.DuplicateReportCallback() {
+            @Override
+            public void onReport(DuplicateReport report) {
+                if (report.getGroups().isEmpty()) {
+                    showMessage(R.string.duplicate_report_empty, report.getHashedGadgets());
+                    return;
+                }
+                runIfVisible(() -> showDuplicateReport(report));
+            }
+
+            @Override
+            public void onError(Exception e) {
+                showMessage(R.string.duplicate_report_failed, e.getMessage());
+            }
+        });
+    }
+
+    private void showDuplicateReport(DuplicateReport report) {
+        StringBuilder message = new StringBuilder(getString(R.string.duplicate_report_summary,
+                report.getGroups().size(), report.getExtraCount()));
+        for (List<GadgetRow> group : report.getGroups()) {
+            message.append("\n");
+            for (GadgetRow gadget : group) {
+                message.append("\n\u2022 ").append(getString(R.string.duplicate_gadget, gadget.name, gadget.model));
+            }
+        }
+        new AlertDialog.Builder(requireContext())
+                .setTitle(R.string.duplicate_report_title)
+                .setMessage(message)
+                .setPositiveButton(android.R.string.ok, null)
+                .show();
+    }
+
+    private void recordStockTakeScan() {
+        String tag = stocktakeInput.getText().toString();
+        stocktakeInput.setText(null);
+        if (!tag.trim().isEmpty()) {
+            viewModel.recordStockTakeScans(Collections.singletonList(tag));
+        }
+    }
+
+    private void reconcileStockTake() {
+        viewModel.reconcileStockTake(new GadgetRepository.StockTakeCallback() {
+            @Override
+            public void onReport(StockTakeReport report) {
+                runIfVisible(() -> showStockTakeReport(report));
+            }
+
+            @Override
+            public void onError(Exception e) {
+                showMessage(R.string.stocktake_failed, e.getMessage());
+            }
+        });
+    }
+
+    private void showStockTakeReport(StockTakeReport report) {
+        StringBuilder message = new StringBuilder(getString(R.string.stocktake_report_summary,
+                report.getMatched().size(), report.getMissing().size(),
+                report.getUnexpected().size(), report.getUntaggedCount()));
+        if (!report.getMissing().isEmpty()) {
+            message.append("\n\n").append(getString(R.string.stocktake_report_missing));
+            int shown = Math.min(report.getMissing().size(), STOCKTAKE_REPORT_LINES);
+            for (StockTakeItem item : report.getMissing().subList(0, shown)) {
+                message.append("\n\u2022 ").append(item.serialNumber).append(": ")
+                        .append(getString(R.string.duplicate_gadget, item.name, item.model));
+            }
+            appendMore(message, report.getMissing().size() - shown);
+        }
+        if (!report.getUnexpected().isEmpty()) {
+            message.append("\n\n").append(getString(R.string.stocktake_report_unexpected));
+            int shown = Math.min(report.getUnexpected().size(), STOCKTAKE_REPORT_LINES);
+            for (String tag : report.getUnexpected().subList(0, shown)) {
+                message.append("\n\u2022 ").append(tag);
+            }
+            appendMore(message, report.getUnexpected().size() - shown);
+        }
+        new AlertDialog.Builder(requireContext())
+                .setTitle(R.string.stocktake_report_title)
+                .setMessage(message)
+                .setPositiveButton(android.R.string.ok, null)
+                .show();
+    }
+
+    private void appendMore(StringBuilder message, int hidden) {
+        if (hidden > 0) {
+            message.append("\n").append(getString(R.string.stocktake_report_more, hidden));
+        }
+    }
+
+    private void showChooseModelDialog() {
+        List<DetectionModel> models = modelRegistry.getModels();
+        DetectionModel active = modelRegistry.getActiveModel().getValue();
+        String[] names = new String[models.size()];
+        int checked = 0;
+        for (int i = 0; i < models.size(); i++) {
+            names[i] = modelLabel(models.get(i));
+            if (models.get(i).equals(active)) {
+                checked = i;
+            }
+        }
+        new AlertDialog.Builder(requireContext())
+                .setTitle(R.string.models_choose)
+                .setSingleChoiceItems(names, checked, (dialog, which) -> {
+                    modelRegistry.setActiveModel(models.get(which).getId());
+                    dialog.dismiss();
+                })
+                .setNegativeButton(android.R.string.cancel, null)
+                .show();
+    }
+
+    private String modelLabel(DetectionModel model) {
+        return getString(R.string.models_label, model.getName(), model.getVersion());
+    }
+
+    private void importModel(List<Uri> uris) {
+        if (uris == null || uris.isEmpty()) return;
+        modelRegistry.importModel(uris, new ModelRegistry.ImportCallback() {
+            @Override
+            public void onImported(DetectionModel model) {
+                showMessage(R.string.models_imported, model.getName(), model.getVersion());
+            }
+
+            @Override
+            public void onError(Exception e) {
+                showMessage(R.string.models_import_failed, e.getMessage());
+            }
+        });
+    }
+
+    private void addBenchmarkFrames(List<Uri> uris) {
+        if (uris == null || uris.isEmpty()) return;
+        modelRegistry.addBenchmarkFrames(uris, new ModelRegistry.FramesCallback() {
+            @Override
+            public void onFramesAdded(int added, int total) {
+                showMessage(R.string.benchmark_frames_added, added, total);
+            }
+
+            @Override
+            public void onError(Exception e) {
+                showMessage(R.string.benchmark_failed, e.getMessage());
+            }
+        });
+    }
+
+    private void showBenchmarkDialog() {
+        // The active model goes first: it is the reference the others are scored against
+        List<DetectionModel> models = modelRegistry.getModels();
+        DetectionModel active = modelRegistry.getActiveModel().getValue();
+        if (models.remove(active)) {
+            models.add(0, active);
+        }
+        String[] names = new String[models.size()];
+        boolean[] selected = new boolean[models.size()];
+        for (int i = 0; i < models.size(); i++) {
+            names[i] = modelLabel(models.get(i));
+            selected[i] = true;
+        }
+        new AlertDialog.Builder(requireContext())
+                .setTitle(R.string.benchmark_pick_models)
+                .setMultiChoiceItems(names, selected, (dialog, which, isChecked) -> selected[which] = isChecked)
+                .setPositiveButton(R.string.benchmark_run, (dialog, which) -> {
+                    List<DetectionModel> chosen = new ArrayList<>();
+                    for (int i = 0; i < models.size(); i++) {
+                        if (selected[i]) {
+                            chosen.add(models.get(i));
+                        }
+                    }
+                    if (chosen.size() < 2) {
+                        Snackbar.make(requireView(), R.string.benchmark_need_two, Snackbar.LENGTH_SHORT).show();
+                    } else {
+                        runBenchmark(chosen);
+                    }
                 })
                 .setNegativeButton(android.R.string.cancel, null)
                 .show();
     }
-}
\ No newline at end of file
+
+    private void runBenchmark(List<DetectionModel> models) {
+        runBenchmarkButton.setEnabled(false);
+        benchmarkStatusText.setVisibility(View.VISIBLE);
+        benchmarkStatusText.setText(getString(R.string.benchmark_progress, 0, 0));
+        modelRegistry.runBenchmark(models, new ModelRegistry.BenchmarkCallback() {
+            @Override
+            public void onProgress(int framesDone, int frameCount) {
+                runIfVisible(() -> benchmarkStatusText.setText(
+                        getString(R.string.benchmark_progress, framesDone, frameCount)));
+            }
+
+            @Override
+            public void onComplete(BenchmarkReport report) {
+                runIfVisible(() -> {
+                    onBenchmarkFinished();
+                    showBenchmarkReport(report);
+                });
+            }
+
+            @Override
+            public void onError(Exception e) {
+                runIfVisible(SettingsFragment.this::onBenchmarkFinished);
+                showMessage(R.string.benchmark_failed, e.getMessage());
+            }
+        });
+    }
+
+    private void onBenchmarkFinished() {
+        runBenchmarkButton.setEnabled(true);
+        benchmarkStatusText.setVisibility(View.GONE);
+    }
+
+    private void showBenchmarkReport(BenchmarkReport report) {
+        StringBuilder message = new StringBuilder();
+        for (BenchmarkReport.ModelResult result : report.getResults()) {
+            if (message.length() > 0) {
+                message.append("\n\n");
+            }
+            message.append(getString(R.string.benchmark_report_model, result.getModel().getName(),
+                    result.getModel().getVersion(), result.getLoadMs(), result.getP50Ms(), result.getP90Ms(),
+                    result.getP99Ms(), result.getFramesPerSecond(), result.getDetections(),
+                    result.getAgreement() * 100));
+        }
+        new AlertDialog.Builder(requireContext())
+                .setTitle(getString(R.string.benchmark_report_title, report.getFrameCount()))
+                .setMessage(message)
+                .setPositiveButton(android.R.string.ok, null)
+                .show();
+    }
+
+    private void runIfVisible(Runnable action) {
+        FragmentUi.runIfVisible(this, action);
+    }
+
+    private void showValuationRates(ValuationRates rates) {
+        int[] conditionNames = {R.string.condition_good, R.string.condition_fair, R.string.condition_poor};
+        for (int condition = 0; condition < rateInputs.length; condition++) {
+            rateLayouts[condition].setHint(getString(R.string.valuation_rate_hint, getString(conditionNames[condition])));
+            rateInputs[condition].setText(String.valueOf(rates.getRate(condition)));
+        }
+        switch (rates.getSchedule()) {
+            case DECLINING_BALANCE:
+                scheduleGroup.check(R.id.decliningBalanceRadio);
+                break;
+            case CONDITION_CURVE:
+                scheduleGroup.check(R.id.conditionCurveRadio);
+                break;
+            default:
+                scheduleGroup.check(R.id.straightLineRadio);
+                break;
+        }
+    }
+
+    private void applyValuationRates() {
+        ValuationRates rates = viewModel.getValuationRates();
+        int checked = scheduleGroup.getCheckedRadioButtonId();
+        rates = rates.withSchedule(checked == R.id.decliningBalanceRadio ? DepreciationSchedule.DECLINING_BALANCE
+                : checked == R.id.conditionCurveRadio ? DepreciationSchedule.CONDITION_CURVE
+                : DepreciationSchedule.STRAIGHT_LINE);
+        for (int condition = 0; condition < rateInputs.length; condition++) {
+            rateLayouts[condition].setError(null);
+            double rate;
+            try {
+                rate = Double.parseDouble(rateInputs[condition].getText().toString().trim());
+            } catch (NumberFormatException e) {
+                rate = -1;
+            }
+            if (rate < 0 || rate > 100) {
+                rateLayouts[condition].setError(getString(R.string.valuation_invalid_rate));
+                return;
+            }
+            rates = rates.withRate(condition, rate);
+        }
+        viewModel.setValuationRates(rates);
+        Snackbar.make(requireView(), R.string.valuation_saved, Snackbar.LENGTH_SHORT).show();
+    }
+
+    private void syncInventory() {
+        viewModel.setSyncServerUrl(syncServerInput.getText().toString());
+        syncButton.setEnabled(false);
+        viewModel.syncInventory(new GadgetRepository.SyncCallback() {
+            @Override
+            public void onSynced(SyncResult result) {
+                onSyncFinished();
+                if (result.getSerialConflicts() > 0) {
+                    showMessage(R.string.sync_serial_conflicts, result.getPushed(), result.getPulled(),
+                            result.getSerialConflicts());
+                } else {
+                    showMessage(R.string.sync_success, result.getPushed(), result.getPulled());
+                }
+            }
+
+            @Override
+            public void onError(Exception e) {
+                onSyncFinished();
+                showMessage(R.string.sync_failed, e.getMessage());
+            }
+        });
+    }
+
+    private void onSyncFinished() {
+        runIfVisible(() -> syncButton.setEnabled(true));
+    }
+
+    // Transfer callbacks arrive on the repository's worker thread
+    private void showMessage(int messageRes, Object... args) {
+        runIfVisible(() -> Snackbar.make(requireView(), getString(messageRes, args), Snackbar.LENGTH_LONG).show());
+    }
+}
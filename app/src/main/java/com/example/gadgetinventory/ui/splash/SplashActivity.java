@@ -4,16 +4,15 @@ import android.animation.AnimatorSet;
 import android.animation.ObjectAnimator;
 import android.content.Intent;
 import android.os.Bundle;
-import android.os.Handler;
-import android.os.Looper;
 import android.view.View;
 import android.widget.ImageView;
 import androidx.appcompat.app.AppCompatActivity;
 import com.example.gadgetinventory.R;
+import com.example.gadgetinventory.StartupOrchestrator;
 import com.example.gadgetinventory.ui.main.MainActivity;
 
 public class SplashActivity extends AppCompatActivity {
-    private static final long SPLASH_DELAY = 2000; // 2 seconds
+    private boolean launched;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -32,13 +31,16 @@ public class SplashActivity extends AppCompatActivity {
         animatorSet.setDuration(1000);
         animatorSet.start();
 
-        // Navigate to MainActivity after delay
-        new Handler(Looper.getMainLooper()).postDelayed(() -> {
-            Intent intent = new Intent(SplashActivity.this, MainActivity.class);
-            startActivity(intent);
-            finish();
-            // Apply fade-out transition
-            overridePendingTransition(android.R.anim.fade_in, android.R.anim.fade_out);
-        }, SPLASH_DELAY);
+        // Navigate to MainActivity as soon as the inventory can render, not after a fixed delay
+        StartupOrchestrator.getInstance(getApplication()).getCriticalReady().observe(this, ready -> {
+            if (ready && !launched) {
+                launched = true;
+                Intent intent = new Intent(SplashActivity.this, MainActivity.class);
+                startActivity(intent);
+                finish();
+                // Apply fade-out transition
+                overridePendingTransition(android.R.anim.fade_in, android.R.anim.fade_out);
+            }
+        });
     }
 } 
\ No newline at end of file
@@ -0,0 +1,204 @@
+package com.example.gadgetinventory.viewmodel;
+
+import android.os.Handler;
+import android.util.Log;
+import android.util.LruCache;
+import androidx.annotation.Nullable;
+import com.example.gadgetinventory.ResourceManager;
+import com.example.gadgetinventory.repository.ChangeSet;
+import com.example.gadgetinventory.repository.GadgetChangeFeed;
+import com.example.gadgetinventory.repository.GadgetRepository;
+import com.example.gadgetinventory.ui.inventory.GadgetListItem;
+import com.example.gadgetinventory.ui.inventory.GadgetListItemMapper;
+import com.example.gadgetinventory.ui.inventory.InventoryListState;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Search-as-you-type over name and model prefixes. The query is set from the main thread
+ * on every keystroke; a search runs once typing pauses for {@link #DEBOUNCE_MS}. Each new
+ * query supersedes the one before it: a superseded search is skipped if it has not started
+ * and its result is dropped if it has, so results are never published out of order.
+ *
+ * <p>Recent results are kept in an LRU keyed by query. A query that extends a cached one
+ * ("pix" after "pi") is answered by filtering the cached items in memory, which is also
+ * why cached queries publish without waiting for the debounce. Any change to the
+ * inventory empties the cache and re-runs the current query.
+ */
+final class GadgetSearch implements GadgetChangeFeed.Listener {
+    private static final String TAG = "GadgetSearch";
+    static final long DEBOUNCE_MS = 200;
+    static final int MAX_CACHED_QUERIES = 16;
+
+    private final GadgetRepository repository;
+    private final Executor executor;
+    private final Handler mainHandler;
+    private final Consumer<InventoryListState> publisher;
+    private final LruCache<String, List<GadgetListItem>> results = new LruCache<>(MAX_CACHED_QUERIES);
+    // Bumped per query on the main thread; a search only publishes while it is still current
+    private final AtomicLong generation = new AtomicLong();
+    // Guarded by results: bumped on every inventory change so stale searches are not cached
+    private long dataVersion;
+    private final Runnable runCurrent = this::runCurrent;
+    private final GadgetChangeFeed.Subscription subscription;
+    private final ResourceManager.Registration cacheRegistration;
+
+    // Main thread only; empty when not searching
+    private String query = "";
+
+    GadgetSearch(GadgetRepository repository, Executor executor, Handler mainHandler,
+                 ResourceManager resources, Consumer<InventoryListState> publisher) {
+        this.repository = repository;
+        this.executor = executor;
+        this.mainHandler = mainHandler;
+        this.publisher = publisher;
+        subscription = repository.getChangeFeed().subscribeFromNow(this);
+        cacheRegistration = resources.register("search results", ResourceManager.Priority.CACHE, this::evictResults);
+    }
+
+    /** Main thread. A blank query ends the search and publishes {@code null}. */
+    void setQuery(@Nullable String text) {
+        String normalized = normalize(text);
+        if (normalized.equals(query)) {
+            return;
+        }
+        query = normalized;
+        long current = generation.incrementAndGet();
+        mainHandler.removeCallbacks(runCurrent);
+        if (normalized.isEmpty()) {
+            publisher.accept(null);
+            return;
+        }
+        List<GadgetListItem> cached = results.get(normalized);
+        if (cached != null) {
+            publisher.accept(new InventoryListState(current, cached, null));
+        } else {
+            mainHandler.postDelayed(runCurrent, DEBOUNCE_MS);
+        }
+    }
+
+    void stop() {
+        subscription.cancel();
+        cacheRegistration.unregister();
+        mainHandler.removeCallbacks(runCurrent);
+        generation.incrementAndGet();
+    }
+
+    @Override
+    public void onChanges(ChangeSet changes) {
+        evictResults();
+        mainHandler.post(() -> {
+            if (!query.isEmpty()) {
+                generation.incrementAndGet();
+                runCurrent();
+            }
+        });
+    }
+
+    // Also stops a search already running from caching what it read
+    private void evictResults() {
+        synchronized (results) {
+            dataVersion++;
+            results.evictAll();
+        }
+    }
+
+    private void runCurrent() {
+        String text = query;
+        long current = generation.get();
+        executor.execute(() -> {
+            if (generation.get() != current) {
+                // Superseded while queued
+                return;
+            }
+            List<GadgetListItem> items;
+            try {
+                items = search(text);
+            } catch (RuntimeException e) {
+                Log.e(TAG, "Search failed for " + text, e);
+                return;
+            }
+            mainHandler.post(() -> {
+                if (generation.get() == current) {
+                    publisher.accept(new InventoryListState(current, items, null));
+                }
+            });
+        });
+    }
+
+    private List<GadgetListItem> search(String text) {
+        long version;
+        synchronized (results) {
+            version = dataVersion;
+        }
+        List<GadgetListItem> items = results.get(text);
+        if (items != null) {
+            return items;
+        }
+        List<GadgetListItem> base = cachedPrefixOf(text);
+        if (base != null) {
+            items = new ArrayList<>();
+            for (GadgetListItem item : base) {
+                if (startsWith(item.getName(), text) || startsWith(item.getModel(), text)) {
+                    items.add(item);
+                }
+            }
+        } else {
+            items = new GadgetListItemMapper(repository.getThumbnailStore())
+                    .map(repository.searchGadgetRows(text));
+            Collections.sort(items, GadgetListItem.ORDER);
+        }
+        items = Collections.unmodifiableList(items);
+        synchronized (results) {
+            if (version == dataVersion) {
+                results.put(text, items);
+            }
+        }
+        return items;
+    }
+
+    @Nullable
+    private List<GadgetListItem> cachedPrefixOf(String text) {
+        for (int length = text.length() - 1; length > 0; length--) {
+            List<GadgetListItem> cached = results.get(text.substring(0, length));
+            if (cached != null) {
+                return cached;
+            }
+        }
+        return null;
+    }
+
+    // Trimmed and ASCII-lowercased, so cache keys match what LIKE treats as equal
+    private static String normalize(@Nullable String text) {
+        if (text == null) {
+            return "";
+        }
+        String trimmed = text.trim();
+        StringBuilder normalized = new StringBuilder(trimmed.length());
+        for (int i = 0; i < trimmed.length(); i++) {
+            normalized.append(lowerAscii(trimmed.charAt(i)));
+        }
+        return normalized.toString();
+    }
+
+    // The in-memory twin of LIKE 'prefix%': case-insensitive for ASCII only
+    private static boolean startsWith(@Nullable String value, String normalizedPrefix) {
+        if (value == null || value.length() < normalizedPrefix.length()) {
+            return false;
+        }
+        for (int i = 0; i < normalizedPrefix.length(); i++) {
+            if (lowerAscii(value.charAt(i)) != normalizedPrefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static char lowerAscii(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+}
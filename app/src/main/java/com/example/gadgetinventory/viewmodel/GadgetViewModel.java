@@ -1,47 +1,237 @@
 package com.example.gadgetinventory.viewmodel;
 
 import android.app.Application;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import com.example.gadgetinventory.ResourceManager;
+import com.example.gadgetinventory.data.database.DatabaseDispatcher;
 import com.example.gadgetinventory.data.entity.GadgetEntity;
+import com.example.gadgetinventory.data.image.ThumbnailStore;
+import com.example.gadgetinventory.data.io.InventoryFormat;
+import com.example.gadgetinventory.data.model.ConditionSummary;
+import com.example.gadgetinventory.data.model.GadgetRow;
+import com.example.gadgetinventory.data.model.YearSummary;
+import com.example.gadgetinventory.data.query.GadgetQuery;
+import com.example.gadgetinventory.data.valuation.InventoryValuation;
+import com.example.gadgetinventory.data.valuation.ValuationRates;
 import com.example.gadgetinventory.repository.GadgetRepository;
+import com.example.gadgetinventory.repository.OwnedCounts;
+import com.example.gadgetinventory.repository.PurgeProgress;
+import com.example.gadgetinventory.ui.inventory.InventoryListState;
 import java.util.List;
 
 public class GadgetViewModel extends AndroidViewModel {
     private final GadgetRepository repository;
-    private final LiveData<List<GadgetEntity>> allGadgets;
+    private final LiveData<Double> totalValue;
+    private final MutableLiveData<InventoryListState> listState = new MutableLiveData<>();
+    private final MutableLiveData<InventoryListState> searchResults = new MutableLiveData<>();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private InventoryListLoader listLoader;
+    private GadgetSearch search;
 
     public GadgetViewModel(Application application) {
         super(application);
-        repository = new GadgetRepository(application);
-        allGadgets = repository.getAllGadgets();
+        repository = GadgetRepository.getInstance(application);
+        totalValue = repository.getTotalValue();
     }
 
-    public LiveData<List<GadgetEntity>> getAllGadgets() {
-        return allGadgets;
+    /**
+     * Display-ready inventory rows, sorted by name, with the delta from the previous state.
+     * States are set one by one on the main thread (postValue would coalesce them and lose
+     * deltas); the list is loaded on first call and then follows the change feed.
+     */
+    public LiveData<InventoryListState> getListState() {
+        if (listLoader == null) {
+            listLoader = new InventoryListLoader(repository,
+                    DatabaseDispatcher.getInstance(getApplication()).getReadExecutor(),
+                    state -> mainHandler.post(() -> listState.setValue(state)));
+            listLoader.start();
+        }
+        return listState;
+    }
+
+    /** A filtered, sorted slice of the inventory that follows changes to it. */
+    public LiveData<List<GadgetRow>> queryGadgets(GadgetQuery query) {
+        return repository.queryGadgetRows(query);
+    }
+
+    public LiveData<Double> getTotalValue() {
+        return totalValue;
+    }
+
+    public LiveData<InventoryValuation> getCurrentValuation() {
+        return repository.getCurrentValuation();
+    }
+
+    public ValuationRates getValuationRates() {
+        return repository.getValuationRates();
+    }
+
+    public void setValuationRates(ValuationRates rates) {
+        repository.setValuationRates(rates);
+    }
+
+    public void loadValueTrend(long fromMillis, long toMillis, GadgetRepository.ValueTrendCallback callback) {
+        repository.loadValueTrend(fromMillis, toMillis, callback);
+    }
+
+    public void suggestPrice(String model, GadgetRepository.PriceSuggestionCallback callback) {
+        repository.suggestPrice(model, callback);
+    }
+
+    public LiveData<OwnedCounts> getOwnedCounts() {
+        return repository.getOwnedCounts();
+    }
+
+    public void findGadgetBySerialNumber(String serialNumber, GadgetRepository.SerialNumberCallback callback) {
+        repository.findGadgetBySerialNumber(serialNumber, callback);
+    }
+
+    public void startStockTake() {
+        repository.startStockTake();
+    }
+
+    public void recordStockTakeScans(List<String> tags) {
+        repository.recordStockTakeScans(tags);
+    }
+
+    public LiveData<Integer> getStockTakeScanCount() {
+        return repository.getStockTakeScanCount();
+    }
+
+    public void reconcileStockTake(GadgetRepository.StockTakeCallback callback) {
+        repository.reconcileStockTake(callback);
+    }
+
+    public LiveData<Long> getGadgetCount() {
+        return repository.getGadgetCount();
+    }
+
+    public LiveData<List<ConditionSummary>> getConditionSummaries() {
+        return repository.getConditionSummaries();
+    }
+
+    public LiveData<List<YearSummary>> getValueByPurchaseYear() {
+        return repository.getValueByPurchaseYear();
     }
 
     public LiveData<GadgetEntity> getGadgetById(long id) {
         return repository.getGadgetById(id);
     }
 
-    public void insert(GadgetEntity gadget) {
-        repository.insert(gadget);
+    public ThumbnailStore getThumbnailStore() {
+        return repository.getThumbnailStore();
+    }
+
+    public void insert(GadgetEntity gadget, GadgetRepository.WriteCallback callback) {
+        repository.insert(gadget, callback);
+    }
+
+    public void update(GadgetEntity gadget, GadgetRepository.WriteCallback callback) {
+        repository.update(gadget, callback);
+    }
+
+    public void delete(GadgetEntity gadget, GadgetRepository.WriteCallback callback) {
+        repository.delete(gadget, callback);
+    }
+
+    public void insertAll(List<GadgetEntity> gadgets) {
+        repository.insertAll(gadgets);
+    }
+
+    public void updateAll(List<GadgetEntity> gadgets) {
+        repository.updateAll(gadgets);
+    }
+
+    public void upsertAll(List<GadgetEntity> gadgets) {
+        repository.upsertAll(gadgets);
+    }
+
+    public void deleteByIds(List<Long> ids) {
+        repository.deleteByIds(ids);
+    }
+
+    public void exportInventory(Uri destination, InventoryFormat format,
+                                GadgetRepository.ExportCallback callback) {
+        repository.exportInventory(destination, format, null, callback);
+    }
+
+    public void importInventory(Uri source, InventoryFormat format,
+                                GadgetRepository.ImportCallback callback) {
+        repository.importInventory(source, format, null, callback);
+    }
+
+    public void backupInventory(Uri destination, boolean full, GadgetRepository.BackupCallback callback) {
+        repository.backupInventory(destination, full, null, callback);
+    }
+
+    public void restoreInventory(List<Uri> archives, GadgetRepository.RestoreCallback callback) {
+        repository.restoreInventory(archives, null, callback);
+    }
+
+    public String getSyncServerUrl() {
+        return repository.getSyncServerUrl();
+    }
+
+    public void setSyncServerUrl(String url) {
+        repository.setSyncServerUrl(url);
+    }
+
+    public void syncInventory(GadgetRepository.SyncCallback callback) {
+        repository.syncInventory(null, callback);
+    }
+
+    public void findPossibleDuplicates(String imageUri, long excludeId,
+                                       GadgetRepository.DuplicateCallback callback) {
+        repository.findPossibleDuplicates(imageUri, excludeId, callback);
+    }
+
+    public void buildDuplicateReport(GadgetRepository.DuplicateReportCallback callback) {
+        repository.buildDuplicateReport(callback);
+    }
+
+    /**
+     * Main thread; call on every keystroke. Results arrive on {@link #getSearchResults()}
+     * once typing pauses, or at once when the query was answered recently.
+     */
+    public void setSearchQuery(String query) {
+        if (search == null) {
+            search = new GadgetSearch(repository,
+                    DatabaseDispatcher.getInstance(getApplication()).getReadExecutor(),
+                    mainHandler, ResourceManager.getInstance(getApplication()), searchResults::setValue);
+        }
+        search.setQuery(query);
+    }
+
+    /** Items matching the current search query by name or model prefix; null while not searching. */
+    public LiveData<InventoryListState> getSearchResults() {
+        return searchResults;
     }
 
-    public void update(GadgetEntity gadget) {
-        repository.update(gadget);
+    public void purgeInventory() {
+        repository.purgeInventory();
     }
 
-    public void delete(GadgetEntity gadget) {
-        repository.delete(gadget);
+    public void cancelPurge() {
+        repository.cancelPurge();
     }
 
-    public LiveData<List<GadgetEntity>> searchGadgets(String query) {
-        return repository.searchGadgets(query);
+    public LiveData<PurgeProgress> getPurgeProgress() {
+        return repository.getPurgeProgress();
     }
 
-    public void deleteAll() {
-        repository.deleteAll();
+    @Override
+    protected void onCleared() {
+        if (listLoader != null) {
+            listLoader.stop();
+        }
+        if (search != null) {
+            search.stop();
+        }
+        mainHandler.removeCallbacksAndMessages(null);
     }
 } 
\ No newline at end of file
@@ -0,0 +1,154 @@
+package com.example.gadgetinventory.viewmodel;
+
+import android.util.Log;
+import com.example.gadgetinventory.data.model.GadgetRow;
+import com.example.gadgetinventory.repository.ChangeSet;
+import com.example.gadgetinventory.repository.GadgetChangeFeed;
+import com.example.gadgetinventory.repository.GadgetRepository;
+import com.example.gadgetinventory.repository.InventorySnapshot;
+import com.example.gadgetinventory.ui.inventory.GadgetListItem;
+import com.example.gadgetinventory.ui.inventory.GadgetListItemMapper;
+import com.example.gadgetinventory.ui.inventory.InventoryListState;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/**
+ * Keeps a sorted copy of the inventory list in step with the repository's change feed.
+ * The list is loaded once; after that each {@link ChangeSet} is applied in place with
+ * binary searches and published as an {@link InventoryListState} carrying the delta.
+ * Delta states share their base instead of copying the list; a full copy is published
+ * again once the deltas since the last one add up to the list's size, which bounds the
+ * chain of retained deltas and keeps copying at a constant cost per change.
+ * All list work runs on database worker threads, one change set at a time.
+ */
+final class InventoryListLoader implements GadgetChangeFeed.Listener {
+    private static final String TAG = "InventoryListLoader";
+
+    private final GadgetRepository repository;
+    private final Executor executor;
+    private final Consumer<InventoryListState> publisher;
+
+    private final List<GadgetListItem> items = new ArrayList<>();
+    private final Map<Long, GadgetListItem> itemsById = new HashMap<>();
+    private long version;
+    private InventoryListState published;
+    private int changesSinceCopy;
+    private GadgetChangeFeed.Subscription subscription;
+    private boolean stopped;
+
+    InventoryListLoader(GadgetRepository repository, Executor executor, Consumer<InventoryListState> publisher) {
+        this.repository = repository;
+        this.executor = executor;
+        this.publisher = publisher;
+    }
+
+    void start() {
+        executor.execute(() -> {
+            synchronized (this) {
+                if (stopped) {
+                    return;
+                }
+                // Read the cursor first: changes racing the load are re-applied, which is harmless.
+                // The startup prefetch did exactly that, so its rows can stand in for the first load
+                InventorySnapshot snapshot = repository.takeInventorySnapshot();
+                long seq;
+                if (snapshot != null) {
+                    seq = snapshot.getSeq();
+                    reload(snapshot.getRows());
+                } else {
+                    seq = repository.getChangeFeed().getLatestSeq();
+                    reload();
+                }
+                subscription = repository.getChangeFeed().subscribe(seq, this);
+            }
+        });
+    }
+
+    synchronized void stop() {
+        stopped = true;
+        if (subscription != null) {
+            subscription.cancel();
+        }
+    }
+
+    @Override
+    public synchronized void onChanges(ChangeSet changes) {
+        if (stopped) {
+            return;
+        }
+        try {
+            if (changes.isFullReload()) {
+                reload();
+            } else {
+                apply(changes);
+            }
+        } catch (RuntimeException e) {
+            Log.e(TAG, "Failed to apply inventory changes", e);
+        }
+    }
+
+    private void reload() {
+        reload(repository.loadGadgetRows());
+    }
+
+    private void reload(List<GadgetRow> rows) {
+        List<GadgetListItem> loaded = new GadgetListItemMapper(repository.getThumbnailStore()).map(rows);
+        Collections.sort(loaded, GadgetListItem.ORDER);
+        items.clear();
+        items.addAll(loaded);
+        itemsById.clear();
+        for (GadgetListItem item : loaded) {
+            itemsById.put(item.getId(), item);
+        }
+        version++;
+        changesSinceCopy = 0;
+        published = new InventoryListState(version, new ArrayList<>(items), null);
+        publisher.accept(published);
+    }
+
+    private void apply(ChangeSet changes) {
+        List<Long> removedIds = new ArrayList<>();
+        for (Long id : changes.getDeletedIds()) {
+            GadgetListItem old = itemsById.remove(id);
+            if (old != null) {
+                items.remove(Collections.binarySearch(items, old, GadgetListItem.ORDER));
+                removedIds.add(id);
+            }
+        }
+        GadgetListItemMapper mapper = new GadgetListItemMapper(repository.getThumbnailStore());
+        List<GadgetListItem> upserted = new ArrayList<>(changes.getUpserted().size());
+        for (GadgetRow row : changes.getUpserted()) {
+            GadgetListItem old = itemsById.get(row.id);
+            if (old != null && old.getRowVersion() == row.rowVersion) {
+                // Already loaded by the initial query
+                continue;
+            }
+            GadgetListItem item = mapper.map(row);
+            if (old != null) {
+                items.remove(Collections.binarySearch(items, old, GadgetListItem.ORDER));
+            }
+            int index = Collections.binarySearch(items, item, GadgetListItem.ORDER);
+            items.add(-index - 1, item);
+            itemsById.put(item.getId(), item);
+            upserted.add(item);
+        }
+        if (removedIds.isEmpty() && upserted.isEmpty()) {
+            return;
+        }
+        InventoryListState.Delta delta = new InventoryListState.Delta(version, removedIds, upserted);
+        version++;
+        changesSinceCopy += removedIds.size() + upserted.size();
+        if (changesSinceCopy >= items.size()) {
+            changesSinceCopy = 0;
+            published = new InventoryListState(version, new ArrayList<>(items), delta);
+        } else {
+            published = new InventoryListState(version, published, delta);
+        }
+        publisher.accept(published);
+    }
+}
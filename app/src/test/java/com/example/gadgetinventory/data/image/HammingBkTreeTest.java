@@ -0,0 +1,105 @@
+package com.example.gadgetinventory.data.image;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks searches against a brute-force scan of the same hashes. Hashes are drawn near a
+ * few centres, as photos of one gadget are, so radius searches have real matches to find.
+ */
+public class HammingBkTreeTest {
+    private static final int COUNT = 2000;
+
+    @Test
+    public void search_findsExactlyTheHashesWithinRadius() {
+        Random random = new Random(42);
+        long[] centres = {random.nextLong(), random.nextLong(), random.nextLong()};
+        long[] hashes = new long[COUNT];
+        HammingBkTree tree = new HammingBkTree();
+        for (int id = 0; id < COUNT; id++) {
+            hashes[id] = flipBits(centres[id % centres.length], random.nextInt(16), random);
+            tree.add(id, hashes[id]);
+        }
+
+        for (int radius : new int[]{0, 3, 10, 20}) {
+            for (int q = 0; q < 20; q++) {
+                long query = flipBits(centres[q % centres.length], random.nextInt(8), random);
+                Set<Long> expected = new HashSet<>();
+                for (int id = 0; id < COUNT; id++) {
+                    if (Long.bitCount(hashes[id] ^ query) <= radius) {
+                        expected.add((long) id);
+                    }
+                }
+                Set<Long> found = new HashSet<>();
+                tree.search(query, radius, (id, hash, distance) -> {
+                    assertEquals(hashes[(int) id], hash);
+                    assertEquals(Long.bitCount(hash ^ query), distance);
+                    found.add(id);
+                });
+                assertEquals("radius " + radius, expected, found);
+            }
+        }
+    }
+
+    @Test
+    public void add_keepsIdsWithTheSameHash() {
+        HammingBkTree tree = new HammingBkTree();
+        tree.add(1, 0xF0L);
+        tree.add(2, 0xF0L);
+        tree.add(3, 0xF1L);
+
+        List<Long> found = new ArrayList<>();
+        tree.search(0xF0L, 0, (id, hash, distance) -> found.add(id));
+
+        assertEquals(3, tree.size());
+        assertEquals(2, found.size());
+        assertTrue(found.contains(1L));
+        assertTrue(found.contains(2L));
+    }
+
+    @Test
+    public void remove_dropsOnlyThatIdAndKeepsRouting() {
+        HammingBkTree tree = new HammingBkTree();
+        tree.add(1, 0L);
+        tree.add(2, 0xFL);
+        tree.add(3, 0xFFL);
+
+        assertFalse(tree.remove(1, 0x1L));
+        assertTrue(tree.remove(1, 0L));
+        assertFalse(tree.remove(1, 0L));
+        assertEquals(2, tree.size());
+
+        // The root's hash is gone, but its children are still reachable through it
+        List<Long> found = new ArrayList<>();
+        tree.search(0xFFL, 4, (id, hash, distance) -> found.add(id));
+        assertEquals(2, found.size());
+    }
+
+    @Test
+    public void clear_emptiesTheTree() {
+        HammingBkTree tree = new HammingBkTree();
+        tree.add(1, 7L);
+        tree.clear();
+
+        List<Long> found = new ArrayList<>();
+        tree.search(7L, 64, (id, hash, distance) -> found.add(id));
+        assertEquals(0, tree.size());
+        assertTrue(found.isEmpty());
+    }
+
+    private static long flipBits(long hash, int bits, Random random) {
+        for (int i = 0; i < bits; i++) {
+            hash ^= 1L << random.nextInt(64);
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.gadgetinventory.data.io;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class CsvReaderTest {
+    @Test
+    public void readRecord_splitsPlainFields() throws IOException {
+        CsvReader csv = reader("name,model,condition\nPhone,Pixel 7,Good\n");
+
+        assertEquals(Arrays.asList("name", "model", "condition"), csv.readRecord());
+        assertEquals(Arrays.asList("Phone", "Pixel 7", "Good"), csv.readRecord());
+        assertNull(csv.readRecord());
+    }
+
+    @Test
+    public void readRecord_keepsCommasQuotesAndLineBreaksInQuotedFields() throws IOException {
+        CsvReader csv = reader("\"Laptop, 14\"\"\",\"line one\nline two\",plain\n");
+
+        assertEquals(Arrays.asList("Laptop, 14\"", "line one\nline two", "plain"), csv.readRecord());
+        assertNull(csv.readRecord());
+    }
+
+    @Test
+    public void readRecord_keepsEmptyFields() throws IOException {
+        CsvReader csv = reader(",,\"\"\n");
+
+        assertEquals(Arrays.asList("", "", ""), csv.readRecord());
+    }
+
+    @Test
+    public void readRecord_acceptsCrLfAndMissingFinalNewline() throws IOException {
+        CsvReader csv = reader("a,b\r\nc,d");
+
+        assertEquals(Arrays.asList("a", "b"), csv.readRecord());
+        assertEquals(Arrays.asList("c", "d"), csv.readRecord());
+        assertNull(csv.readRecord());
+    }
+
+    @Test
+    public void readRecord_treatsQuoteInsideFieldAsText() throws IOException {
+        CsvReader csv = reader("5\" screen,x\n");
+
+        assertEquals(Arrays.asList("5\" screen", "x"), csv.readRecord());
+    }
+
+    @Test
+    public void getLineNumber_countsLineBreaksInsideQuotes() throws IOException {
+        CsvReader csv = reader("\"a\nb\",c\nd\n");
+
+        csv.readRecord();
+        assertEquals(3, csv.getLineNumber());
+        csv.readRecord();
+        assertEquals(4, csv.getLineNumber());
+    }
+
+    @Test
+    public void readRecord_rejectsUnterminatedQuote() throws IOException {
+        CsvReader csv = reader("ok\n\"never closed,x\n");
+        csv.readRecord();
+
+        try {
+            csv.readRecord();
+            fail("Expected an IOException");
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("Unterminated"));
+        }
+    }
+
+    @Test
+    public void readRecord_rejectsOverlongField() throws IOException {
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i <= CsvReader.MAX_FIELD_LENGTH; i++) {
+            line.append('x');
+        }
+        CsvReader csv = reader(line + "\n");
+
+        try {
+            csv.readRecord();
+            fail("Expected an IOException");
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("exceeds"));
+        }
+    }
+
+    @Test
+    public void readRecord_acceptsFieldOfMaximumLength() throws IOException {
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < CsvReader.MAX_FIELD_LENGTH; i++) {
+            line.append('x');
+        }
+        List<String> record = reader(line + "\n").readRecord();
+
+        assertEquals(1, record.size());
+        assertEquals(CsvReader.MAX_FIELD_LENGTH, record.get(0).length());
+    }
+
+    private static CsvReader reader(String text) {
+        return new CsvReader(new StringReader(text));
+    }
+}
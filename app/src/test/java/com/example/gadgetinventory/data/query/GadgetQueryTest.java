@@ -0,0 +1,111 @@
+package com.example.gadgetinventory.data.query;
+
+import org.junit.Test;
+
+import java.util.Date;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class GadgetQueryTest {
+    private static final String SELECT = "SELECT id, name, model, condition, purchaseDate, estimatedValue, "
+            + "imageUri, thumbnailKey, rowVersion FROM gadgets";
+
+    @Test
+    public void all_sortsByNameThenId() {
+        GadgetQuery query = GadgetQuery.all();
+
+        assertEquals(SELECT + " ORDER BY name ASC, id ASC", query.getSql());
+        assertEquals(0, query.getArgs().length);
+    }
+
+    @Test
+    public void build_bindsEveryValueInPredicateOrder() {
+        GadgetQuery query = new GadgetQuery.Builder()
+                .conditions("Good", "Fair")
+                .model("Pixel 7")
+                .valueBetween(100, 500)
+                .purchasedBetween(new Date(1000), new Date(2000))
+                .build();
+
+        assertEquals(SELECT + " WHERE condition IN (?, ?) AND modelKey = ? AND estimatedValue >= ? "
+                + "AND estimatedValue <= ? AND purchaseDate >= ? AND purchaseDate < ? "
+                + "ORDER BY name ASC, id ASC", query.getSql());
+        assertArrayEquals(new Object[]{"Good", "Fair", "pixel7", 100.0, 500.0, 1000L, 2000L}, query.getArgs());
+    }
+
+    @Test
+    public void build_leavesOutOpenBounds() {
+        GadgetQuery query = new GadgetQuery.Builder()
+                .valueBetween(null, 500.0)
+                .purchasedBetween(new Date(1000), null)
+                .build();
+
+        assertEquals(SELECT + " WHERE estimatedValue <= ? AND purchaseDate >= ? ORDER BY name ASC, id ASC",
+                query.getSql());
+        assertArrayEquals(new Object[]{500.0, 1000L}, query.getArgs());
+    }
+
+    @Test
+    public void sameShape_compilesToTheSameSql() {
+        GadgetQuery cheap = new GadgetQuery.Builder().conditions("Good").valueBetween(0, 100).build();
+        GadgetQuery dear = new GadgetQuery.Builder().conditions("Poor").valueBetween(500, 900).build();
+
+        assertEquals(cheap.getSql(), dear.getSql());
+        assertFalse(cheap.equals(dear));
+    }
+
+    @Test
+    public void sortBy_keepsTheFirstPositionOfARepeatedField() {
+        GadgetQuery query = new GadgetQuery.Builder()
+                .sortBy(GadgetQuery.SortField.VALUE, true)
+                .sortBy(GadgetQuery.SortField.NAME, false)
+                .sortBy(GadgetQuery.SortField.VALUE, false)
+                .build();
+
+        assertEquals(SELECT + " ORDER BY estimatedValue DESC, name ASC, id ASC", query.getSql());
+    }
+
+    @Test
+    public void conditions_dropsDuplicates() {
+        GadgetQuery query = new GadgetQuery.Builder().conditions("Good", "Good", "Fair").build();
+
+        assertTrue(query.getSql().contains("condition IN (?, ?)"));
+        assertArrayEquals(new Object[]{"Good", "Fair"}, query.getArgs());
+    }
+
+    @Test
+    public void buildUpon_reproducesTheQuery() {
+        GadgetQuery query = new GadgetQuery.Builder()
+                .conditions("Fair")
+                .model("Galaxy S21")
+                .valueBetween(10, 20)
+                .sortBy(GadgetQuery.SortField.PURCHASE_DATE, true)
+                .build();
+
+        GadgetQuery copy = query.buildUpon().build();
+        assertEquals(query, copy);
+        assertEquals(query.hashCode(), copy.hashCode());
+    }
+
+    @Test
+    public void getArgs_returnsACopy() {
+        GadgetQuery query = new GadgetQuery.Builder().conditions("Good").build();
+        query.getArgs()[0] = "Poor";
+
+        assertArrayEquals(new Object[]{"Good"}, query.getArgs());
+    }
+
+    @Test
+    public void build_rejectsAnInvertedValueRange() {
+        try {
+            new GadgetQuery.Builder().valueBetween(500, 100).build();
+            fail("Expected an IllegalArgumentException");
+        } catch (IllegalArgumentException expected) {
+            // min above max
+        }
+    }
+}
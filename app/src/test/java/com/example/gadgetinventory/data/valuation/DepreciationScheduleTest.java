@@ -0,0 +1,61 @@
+package com.example.gadgetinventory.data.valuation;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class DepreciationScheduleTest {
+    private static final double DELTA = 1e-9;
+
+    @Test
+    public void value_isUnchangedBeforePurchase() {
+        for (DepreciationSchedule schedule : DepreciationSchedule.values()) {
+            assertEquals(1000, schedule.value(1000, 0, ValuationRates.GOOD, 15), DELTA);
+            assertEquals(1000, schedule.value(1000, -1, ValuationRates.GOOD, 15), DELTA);
+        }
+    }
+
+    @Test
+    public void straightLine_losesTheRateOfThePurchaseValueEachYear() {
+        assertEquals(700, DepreciationSchedule.STRAIGHT_LINE.value(1000, 2, ValuationRates.GOOD, 15), DELTA);
+        assertEquals(925, DepreciationSchedule.STRAIGHT_LINE.value(1000, 0.5, ValuationRates.GOOD, 15), DELTA);
+    }
+
+    @Test
+    public void decliningBalance_losesTheRateOfTheRemainingValueEachYear() {
+        assertEquals(640, DepreciationSchedule.DECLINING_BALANCE.value(1000, 2, ValuationRates.GOOD, 20), DELTA);
+    }
+
+    @Test
+    public void conditionCurve_steepensTheRateForWorseConditions() {
+        DepreciationSchedule curve = DepreciationSchedule.CONDITION_CURVE;
+        assertEquals(800, curve.value(1000, 1, ValuationRates.GOOD, 20), DELTA);
+        assertEquals(700, curve.value(1000, 1, ValuationRates.FAIR, 20), DELTA);
+        assertEquals(550, curve.value(1000, 1, ValuationRates.POOR, 20), DELTA);
+    }
+
+    @Test
+    public void value_neverDropsBelowTheResidual() {
+        double floor = 1000 * DepreciationSchedule.RESIDUAL_FRACTION;
+        for (DepreciationSchedule schedule : DepreciationSchedule.values()) {
+            assertEquals(floor, schedule.value(1000, 50, ValuationRates.POOR, 100), DELTA);
+        }
+    }
+
+    @Test
+    public void valueAll_matchesValueRowByRow() {
+        long asOf = 50L * DepreciationSchedule.MILLIS_PER_YEAR;
+        double[] initial = {1000, 500, 200, 80};
+        long[] purchased = {asOf - 2 * DepreciationSchedule.MILLIS_PER_YEAR, asOf, asOf + 1000, 0};
+        byte[] conditions = {ValuationRates.GOOD, ValuationRates.FAIR, ValuationRates.POOR, ValuationRates.OTHER};
+        double[] rates = {10, 20, 30, 40};
+        for (DepreciationSchedule schedule : DepreciationSchedule.values()) {
+            double[] out = new double[initial.length];
+            schedule.valueAll(initial, purchased, conditions, rates, asOf, out, 0, initial.length);
+            for (int i = 0; i < initial.length; i++) {
+                double years = (double) (asOf - purchased[i]) / DepreciationSchedule.MILLIS_PER_YEAR;
+                assertEquals(schedule.value(initial[i], years, conditions[i], rates[conditions[i]]), out[i], DELTA);
+            }
+        }
+    }
+}
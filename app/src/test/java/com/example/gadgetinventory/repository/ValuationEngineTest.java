@@ -0,0 +1,138 @@
+package com.example.gadgetinventory.repository;
+
+import android.content.SharedPreferences;
+
+import com.example.gadgetinventory.data.dao.GadgetDao;
+import com.example.gadgetinventory.data.model.GadgetRow;
+import com.example.gadgetinventory.data.valuation.DepreciationSchedule;
+import com.example.gadgetinventory.data.valuation.InventoryValuation;
+import com.example.gadgetinventory.data.valuation.ValuationRates;
+
+import org.junit.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Patches cached valuations through {@link ValuationEngine#onChanges} and checks every
+ * per-condition total against an engine that values the same rows from scratch.
+ */
+public class ValuationEngineTest {
+    private static final long AS_OF = 20000L * 24 * 60 * 60 * 1000;
+    private static final double DELTA = 1e-6;
+    private static final ValuationRates RATES = ValuationRates.DEFAULT;
+    private static final ValuationRates FAIR_AT_40 = RATES.withRate(ValuationRates.FAIR, 40);
+    private static final ValuationRates DECLINING = RATES.withSchedule(DepreciationSchedule.DECLINING_BALANCE);
+
+    private final List<GadgetRow> stored = new ArrayList<>(Arrays.asList(
+            row(1, "Good", 1000, 2),
+            row(2, "Fair", 500, 1),
+            row(3, "Poor", 200, 3),
+            row(4, "Broken", 80, 1)));
+
+    @Test
+    public void valuate_derivedRatesMatchFullCompute() {
+        ValuationEngine engine = newEngine();
+        engine.valuate(RATES, AS_OF);
+
+        assertSameValuation(newEngine().valuate(FAIR_AT_40, AS_OF), engine.valuate(FAIR_AT_40, AS_OF));
+    }
+
+    @Test
+    public void onChanges_patchesEveryCachedResult() {
+        ValuationEngine engine = newEngine();
+        engine.valuate(RATES, AS_OF);
+        engine.valuate(FAIR_AT_40, AS_OF);
+        engine.valuate(DECLINING, AS_OF);
+
+        // Gadget 1 moves from Good to Poor, 2 is deleted and 5 is new
+        GadgetRow moved = row(1, "Poor", 1200, 2);
+        GadgetRow added = row(5, "Fair", 300, 0.5);
+        engine.onChanges(ChangeSet.delta(0, 3, Collections.singletonList(2L), Arrays.asList(moved, added)));
+        stored.set(0, moved);
+        stored.remove(1);
+        stored.add(added);
+
+        ValuationEngine fresh = newEngine();
+        for (ValuationRates rates : Arrays.asList(RATES, FAIR_AT_40, DECLINING)) {
+            assertSameValuation(fresh.valuate(rates, AS_OF), engine.valuate(rates, AS_OF));
+        }
+    }
+
+    @Test
+    public void onChanges_deletingTheLastSlotAndReaddingKeepsTotals() {
+        ValuationEngine engine = newEngine();
+        engine.valuate(RATES, AS_OF);
+
+        engine.onChanges(ChangeSet.delta(0, 1, Collections.singletonList(4L), Collections.emptyList()));
+        engine.onChanges(ChangeSet.delta(1, 2, Collections.singletonList(1L), Collections.emptyList()));
+        GadgetRow back = row(1, "Good", 1000, 2);
+        engine.onChanges(ChangeSet.delta(2, 3, Collections.emptyList(), Collections.singletonList(back)));
+        stored.remove(3);
+
+        assertSameValuation(newEngine().valuate(RATES, AS_OF), engine.valuate(RATES, AS_OF));
+    }
+
+    @Test
+    public void onChanges_fullReloadRereadsTheTable() {
+        ValuationEngine engine = newEngine();
+        engine.valuate(RATES, AS_OF);
+
+        stored.add(row(6, "Good", 2000, 0));
+        engine.onChanges(ChangeSet.fullReload(0, 10));
+
+        InventoryValuation valuation = engine.valuate(RATES, AS_OF);
+        assertEquals(5, valuation.getGadgetCount());
+        assertSameValuation(newEngine().valuate(RATES, AS_OF), valuation);
+    }
+
+    private ValuationEngine newEngine() {
+        GadgetDao gadgetDao = fake(GadgetDao.class, (proxy, method, args) -> {
+            if (method.getName().equals("loadGadgetRows") && args == null) {
+                return new ArrayList<>(stored);
+            }
+            throw new UnsupportedOperationException(method.getName());
+        });
+        // Nothing saved: every getter returns its default
+        SharedPreferences prefs = fake(SharedPreferences.class, (proxy, method, args) -> {
+            if (method.getName().startsWith("get") && args != null && args.length == 2) {
+                return args[1];
+            }
+            throw new UnsupportedOperationException(method.getName());
+        });
+        return new ValuationEngine(prefs, gadgetDao, Runnable::run);
+    }
+
+    private static void assertSameValuation(InventoryValuation expected, InventoryValuation actual) {
+        assertEquals(expected.getGadgetCount(), actual.getGadgetCount());
+        assertEquals(expected.getPurchaseValue(), actual.getPurchaseValue(), DELTA);
+        assertEquals(expected.getCurrentValue(), actual.getCurrentValue(), DELTA);
+        for (int condition = 0; condition < ValuationRates.CONDITION_COUNT; condition++) {
+            assertEquals("condition " + condition, expected.getCurrentValue(condition),
+                    actual.getCurrentValue(condition), DELTA);
+        }
+    }
+
+    private static GadgetRow row(long id, String condition, double value, double yearsOld) {
+        GadgetRow row = new GadgetRow();
+        row.id = id;
+        row.name = "Gadget " + id;
+        row.model = "Model";
+        row.condition = condition;
+        row.estimatedValue = value;
+        row.purchaseDate = new Date(AS_OF - (long) (yearsOld * DepreciationSchedule.MILLIS_PER_YEAR));
+        return row;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T fake(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+}
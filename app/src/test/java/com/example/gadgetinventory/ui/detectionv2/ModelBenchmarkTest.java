@@ -0,0 +1,80 @@
+package com.example.gadgetinventory.ui.detectionv2;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class ModelBenchmarkTest {
+    private static final double DELTA = 1e-9;
+
+    @Test
+    public void percentileMs_usesNearestRank() {
+        long[] sorted = new long[100];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = (i + 1) * 1_000_000L;
+        }
+
+        assertEquals(50, ModelBenchmark.percentileMs(sorted, 0.50), DELTA);
+        assertEquals(90, ModelBenchmark.percentileMs(sorted, 0.90), DELTA);
+        assertEquals(99, ModelBenchmark.percentileMs(sorted, 0.99), DELTA);
+        assertEquals(1, ModelBenchmark.percentileMs(sorted, 0), DELTA);
+    }
+
+    @Test
+    public void percentileMs_roundsTheRankUpOnFewSamples() {
+        long[] sorted = {2_000_000L, 4_000_000L, 9_000_000L};
+
+        assertEquals(4, ModelBenchmark.percentileMs(sorted, 0.50), DELTA);
+        assertEquals(9, ModelBenchmark.percentileMs(sorted, 0.90), DELTA);
+        assertEquals(2.5, ModelBenchmark.percentileMs(new long[]{2_500_000L}, 0.99), DELTA);
+    }
+
+    @Test
+    public void agreement_isOneForIdenticalAndForEmptyResults() {
+        List<BoundingBox> boxes = Arrays.asList(box(0, 0, 10, 10, "phone"), box(20, 20, 30, 30, "laptop"));
+
+        assertEquals(1, ModelBenchmark.agreement(boxes, boxes), DELTA);
+        assertEquals(1, ModelBenchmark.agreement(Collections.emptyList(), Collections.emptyList()), DELTA);
+    }
+
+    @Test
+    public void agreement_isZeroWhenOneSideFindsNothing() {
+        List<BoundingBox> boxes = Collections.singletonList(box(0, 0, 10, 10, "phone"));
+
+        assertEquals(0, ModelBenchmark.agreement(boxes, Collections.emptyList()), DELTA);
+        assertEquals(0, ModelBenchmark.agreement(Collections.emptyList(), boxes), DELTA);
+    }
+
+    @Test
+    public void agreement_needsTheSameLabelAndEnoughOverlap() {
+        List<BoundingBox> reference = Arrays.asList(box(0, 0, 10, 10, "phone"), box(20, 20, 30, 30, "laptop"));
+        List<BoundingBox> candidate = Arrays.asList(
+                // IoU 81/100 with the phone: a match
+                box(1, 1, 10, 10, "phone"),
+                // Same place as the laptop, wrong label
+                box(20, 20, 30, 30, "tablet"),
+                // IoU 25/175 with the laptop: too little overlap
+                box(25, 25, 35, 35, "laptop"));
+
+        // F1 = 2 * 1 matched / (2 + 3) boxes
+        assertEquals(0.4, ModelBenchmark.agreement(reference, candidate), DELTA);
+    }
+
+    @Test
+    public void agreement_matchesEachCandidateBoxOnce() {
+        List<BoundingBox> reference = Arrays.asList(box(0, 0, 10, 10, "phone"), box(0, 0, 10, 10, "phone"));
+        List<BoundingBox> candidate = Collections.singletonList(box(0, 0, 10, 10, "phone"));
+
+        assertEquals(2.0 / 3, ModelBenchmark.agreement(reference, candidate), DELTA);
+    }
+
+    private static BoundingBox box(float x1, float y1, float x2, float y2, String label) {
+        float w = x2 - x1;
+        float h = y2 - y1;
+        return new BoundingBox(x1, y1, x2, y2, x1 + w / 2, y1 + h / 2, w, h, 0.9f, 0, label);
+    }
+}
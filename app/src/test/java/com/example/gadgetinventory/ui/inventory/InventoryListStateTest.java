@@ -0,0 +1,84 @@
+package com.example.gadgetinventory.ui.inventory;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Checks that a state built lazily from a chain of deltas holds the same items as the
+ * list the deltas were applied to.
+ */
+public class InventoryListStateTest {
+
+    @Test
+    public void getItems_replaysDeltasOntoTheBase() {
+        InventoryListState first = new InventoryListState(1,
+                sorted(item(1, 0, "Camera"), item(2, 0, "Laptop"), item(3, 0, "Phone")), null);
+        InventoryListState second = new InventoryListState(2, first, new InventoryListState.Delta(1,
+                Collections.singletonList(2L), Collections.singletonList(item(4, 0, "Drone"))));
+        // Renaming moves the row to the front
+        InventoryListState third = new InventoryListState(3, second, new InventoryListState.Delta(2,
+                Collections.<Long>emptyList(), Collections.singletonList(item(3, 1, "Action cam"))));
+
+        assertEquals(Arrays.asList("3:1", "1:0", "4:0"), describe(third.getItems()));
+        assertEquals(Arrays.asList("1:0", "4:0", "3:0"), describe(second.getItems()));
+        assertEquals(Arrays.asList("1:0", "2:0", "3:0"), describe(first.getItems()));
+    }
+
+    @Test
+    public void getItems_removingAnUpsertedItemDropsIt() {
+        InventoryListState first = new InventoryListState(1, sorted(item(1, 0, "Camera")), null);
+        InventoryListState second = new InventoryListState(2, first, new InventoryListState.Delta(1,
+                Collections.<Long>emptyList(), Collections.singletonList(item(2, 0, "Drone"))));
+        InventoryListState third = new InventoryListState(3, second, new InventoryListState.Delta(2,
+                Collections.singletonList(2L), Collections.<GadgetListItem>emptyList()));
+
+        assertEquals(Collections.singletonList("1:0"), describe(third.getItems()));
+    }
+
+    @Test
+    public void getItems_isStableOnceBuilt() {
+        InventoryListState first = new InventoryListState(1, sorted(item(1, 0, "Camera")), null);
+        InventoryListState second = new InventoryListState(2, first, new InventoryListState.Delta(1,
+                Collections.<Long>emptyList(), Collections.singletonList(item(2, 0, "Drone"))));
+
+        assertEquals(second.getItems(), second.getItems());
+        assertEquals(2, second.getItems().size());
+    }
+
+    @Test
+    public void constructor_rejectsDeltaFromAnotherVersion() {
+        InventoryListState first = new InventoryListState(1, sorted(item(1, 0, "Camera")), null);
+        try {
+            new InventoryListState(3, first, new InventoryListState.Delta(2,
+                    Collections.<Long>emptyList(), Collections.<GadgetListItem>emptyList()));
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException expected) {
+            // The delta does not start from the base
+        }
+    }
+
+    private static GadgetListItem item(long id, long rowVersion, String name) {
+        return new GadgetListItem(id, rowVersion, name, "", "", "", "", "", null, 0);
+    }
+
+    private static List<GadgetListItem> sorted(GadgetListItem... items) {
+        List<GadgetListItem> list = new ArrayList<>(Arrays.asList(items));
+        Collections.sort(list, GadgetListItem.ORDER);
+        return list;
+    }
+
+    private static List<String> describe(List<GadgetListItem> items) {
+        List<String> described = new ArrayList<>();
+        for (GadgetListItem item : items) {
+            described.add(item.getId() + ":" + item.getRowVersion());
+        }
+        return described;
+    }
+}